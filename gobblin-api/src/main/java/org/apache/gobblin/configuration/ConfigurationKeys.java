@@ -68,6 +68,15 @@ public class ConfigurationKeys {
   public static final String THREADPOOL_SIZE_OF_LISTING_FS_DATASET_STATESTORE =
       "state.store.threadpoolSizeOfListingFsDatasetStateStore";
   public static final int DEFAULT_THREADPOOL_SIZE_OF_LISTING_FS_DATASET_STATESTORE = 10;
+  // Whether the file-system-based dataset state store keeps a per-job index of the latest dataset states, so that
+  // they can be read from a single file instead of one file per dataset
+  public static final String STATE_STORE_LATEST_DATASET_STATES_INDEX_ENABLED =
+      "state.store.latestDatasetStatesIndex.enabled";
+  public static final boolean DEFAULT_STATE_STORE_LATEST_DATASET_STATES_INDEX_ENABLED = false;
+  // Number of segments the latest dataset states index of a job may have before they are compacted into one
+  public static final String STATE_STORE_LATEST_DATASET_STATES_INDEX_MAX_SEGMENTS =
+      "state.store.latestDatasetStatesIndex.maxSegments";
+  public static final int DEFAULT_STATE_STORE_LATEST_DATASET_STATES_INDEX_MAX_SEGMENTS = 10;
   // Enable / disable state store
   public static final String STATE_STORE_ENABLED = "state.store.enabled";
   public static final String STATE_STORE_COMPRESSED_VALUES_KEY = "state.store.compressedValues";
@@ -101,6 +110,20 @@ public class ConfigurationKeys {
   public static final String JOB_CONFIG_FILE_MONITOR_POLLING_INTERVAL_KEY = "jobconf.monitor.interval";
   public static final long DEFAULT_JOB_CONFIG_FILE_MONITOR_POLLING_INTERVAL = 30000;
   public static final long DISABLED_JOB_CONFIG_FILE_MONITOR_POLLING_INTERVAL = -1L;
+  // Where the job configuration file monitor of the FS job catalogs learns about changes: "none" to list the whole
+  // directory tree every polling interval, "local" to watch a local directory through the OS, or "journal" to read
+  // the change journal written by the tooling that deploys the job configuration files
+  public static final String JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_KEY = "jobconf.monitor.changeFeed";
+  public static final String DEFAULT_JOB_CONFIG_FILE_MONITOR_CHANGE_FEED = "none";
+  // Directory of the change journal for the "journal" change feed
+  public static final String JOB_CONFIG_FILE_MONITOR_JOURNAL_DIR_KEY = "jobconf.monitor.changeFeed.journalDir";
+  // How often the change feed is checked, in milliseconds
+  public static final String JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_POLLING_INTERVAL_KEY =
+      "jobconf.monitor.changeFeed.interval";
+  public static final long DEFAULT_JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_POLLING_INTERVAL = 1000;
+  // Interval of the full rescan of the job configuration directory when a change feed is used, in milliseconds
+  public static final String JOB_CONFIG_FILE_MONITOR_RESCAN_INTERVAL_KEY = "jobconf.monitor.changeFeed.rescanInterval";
+  public static final long DEFAULT_JOB_CONFIG_FILE_MONITOR_RESCAN_INTERVAL = 600000;
   // Directory where all job configuration files are stored WHEN ALL confs reside in local FS.
   public static final String JOB_CONFIG_FILE_DIR_KEY = "jobconf.dir";
 
@@ -180,12 +203,19 @@ public class ConfigurationKeys {
   /** Only applicable if {@link #PARALLELIZE_DATASET_COMMIT} is true. */
   public static final String DATASET_COMMIT_THREADS = "job.commit.parallelCommits";
   public static final int DEFAULT_DATASET_COMMIT_THREADS = 20;
+  // If true, a dataset is committed as soon as all of its tasks have succeeded, without waiting for the rest of the job
+  public static final String EARLY_DATASET_COMMIT_ENABLED = "job.commit.earlyDatasetCommit.enabled";
+  public static final boolean DEFAULT_EARLY_DATASET_COMMIT_ENABLED = false;
 
   public static final String WORK_UNIT_RETRY_POLICY_KEY = "workunit.retry.policy";
   public static final String WORK_UNIT_RETRY_ENABLED_KEY = "workunit.retry.enabled";
   public static final String WORK_UNIT_CREATION_TIME_IN_MILLIS = "workunit.creation.time.in.millis";
   public static final String WORK_UNIT_CREATION_AND_RUN_INTERVAL = "workunit.creation.and.run.interval";
   public static final String WORK_UNIT_ENABLE_TRACKING_LOGS = "workunit.enableTrackingLogs";
+  // If true, job launchers start running work units while the source is still producing them, and the number of work
+  // units of the job is only known once the work unit stream is exhausted. Only applies to finite work unit streams.
+  public static final String WORK_UNIT_PIPELINED_DISPATCH_ENABLED = "workunit.pipelinedDispatch.enabled";
+  public static final boolean DEFAULT_WORK_UNIT_PIPELINED_DISPATCH_ENABLED = false;
 
   public static final String JOB_DEPENDENCIES = "job.dependencies";
   public static final String JOB_FORK_ON_CONCAT = "job.forkOnConcat";
@@ -218,6 +248,32 @@ public class ConfigurationKeys {
   public static final String QUEUED_TASK_TIME_MAX_AGE = "taskexecutor.queued_task_time.history.max_age";
   public static final long DEFAULT_QUEUED_TASK_TIME_MAX_AGE = TimeUnit.HOURS.toMillis(1);
 
+  /**
+   * Class or alias of the TaskExecutorQueue that decides which queued task gets the next task executor thread. If not
+   * set, tasks run in the order they are submitted.
+   */
+  public static final String TASK_EXECUTOR_QUEUE_CLASS_KEY = "taskexecutor.queue.class";
+  /**
+   * Job-level scheduling properties used by the fairShare task executor queue. Tasks of jobs with a higher priority
+   * class always run first, jobs of the same priority class share threads in proportion to their weights, and a job
+   * never runs more than its maximum number of concurrent tasks (no limit if not positive).
+   */
+  public static final String TASK_EXECUTOR_JOB_PRIORITY_KEY = "taskexecutor.job.priority";
+  public static final int DEFAULT_TASK_EXECUTOR_JOB_PRIORITY = 0;
+  public static final String TASK_EXECUTOR_JOB_WEIGHT_KEY = "taskexecutor.job.weight";
+  public static final double DEFAULT_TASK_EXECUTOR_JOB_WEIGHT = 1.0;
+  public static final String TASK_EXECUTOR_JOB_MAX_CONCURRENT_TASKS_KEY = "taskexecutor.job.maxConcurrentTasks";
+  public static final int DEFAULT_TASK_EXECUTOR_JOB_MAX_CONCURRENT_TASKS = 0;
+  /**
+   * Whether the task executor runs tasks and forks on virtual threads, if the JVM supports them (Java 21 or later).
+   * Tasks then are not limited by the task executor thread pool size but by the maximum number of concurrent tasks.
+   */
+  public static final String TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY = "taskexecutor.virtualThreads.enabled";
+  public static final boolean DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED = false;
+  public static final String TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS_KEY =
+      "taskexecutor.virtualThreads.maxConcurrentTasks";
+  public static final int DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS = 200;
+
   /**
    * Optional property to specify whether existing data in databases can be overwritten during ingestion jobs
    */
@@ -76,6 +76,14 @@ public class GobblinClusterConfigurationKeys {
   public static final String HELIX_CLUSTER_TASK_CONCURRENCY = GOBBLIN_CLUSTER_PREFIX + "helix.taskConcurrency";
   public static final int HELIX_CLUSTER_TASK_CONCURRENCY_DEFAULT = 40;
 
+  // With pipelined work unit dispatch, the maximum number of tasks, and the maximum time in milliseconds since the last
+  // batch, before a batch of new tasks is added to the Helix job
+  public static final String PIPELINED_DISPATCH_BATCH_SIZE = GOBBLIN_CLUSTER_PREFIX + "pipelinedDispatch.batchSize";
+  public static final int DEFAULT_PIPELINED_DISPATCH_BATCH_SIZE = 100;
+  public static final String PIPELINED_DISPATCH_MAX_BATCH_DELAY_MS =
+      GOBBLIN_CLUSTER_PREFIX + "pipelinedDispatch.maxBatchDelayMs";
+  public static final long DEFAULT_PIPELINED_DISPATCH_MAX_BATCH_DELAY_MS = 10000L;
+
   // Should job be executed in the scheduler thread?
   public static final String JOB_EXECUTE_IN_SCHEDULING_THREAD = GOBBLIN_CLUSTER_PREFIX + "job.executeInSchedulingThread";
   public static final boolean JOB_EXECUTE_IN_SCHEDULING_THREAD_DEFAULT = true;
@@ -19,7 +19,9 @@ package org.apache.gobblin.cluster;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -72,6 +74,7 @@ import org.apache.gobblin.runtime.listeners.JobListener;
 import org.apache.gobblin.runtime.util.StateStores;
 import org.apache.gobblin.source.workunit.MultiWorkUnit;
 import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnitStream;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.Id;
 import org.apache.gobblin.util.JobLauncherUtils;
@@ -135,6 +138,8 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
   private final long helixJobStopTimeoutSeconds;
   private Map<String, TaskConfig> workUnitToHelixConfig;
   private Retryer<Boolean> taskRetryer;
+  private final int pipelinedDispatchBatchSize;
+  private final long pipelinedDispatchMaxBatchDelayMs;
 
   public GobblinHelixJobLauncher(Properties jobProps, final HelixManager helixManager, Path appWorkDir,
       List<? extends Tag<?>> metadataTags, ConcurrentHashMap<String, Boolean> runningMap,
@@ -165,6 +170,13 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
         ConfigUtils.getLong(jobConfig, GobblinClusterConfigurationKeys.HELIX_JOB_STOP_TIMEOUT_SECONDS,
             GobblinClusterConfigurationKeys.DEFAULT_HELIX_JOB_STOP_TIMEOUT_SECONDS);
 
+    this.pipelinedDispatchBatchSize =
+        ConfigUtils.getInt(jobConfig, GobblinClusterConfigurationKeys.PIPELINED_DISPATCH_BATCH_SIZE,
+            GobblinClusterConfigurationKeys.DEFAULT_PIPELINED_DISPATCH_BATCH_SIZE);
+    this.pipelinedDispatchMaxBatchDelayMs =
+        ConfigUtils.getLong(jobConfig, GobblinClusterConfigurationKeys.PIPELINED_DISPATCH_MAX_BATCH_DELAY_MS,
+            GobblinClusterConfigurationKeys.DEFAULT_PIPELINED_DISPATCH_MAX_BATCH_DELAY_MS);
+
     Config stateStoreJobConfig = ConfigUtils.propertiesToConfig(jobProps)
         .withValue(ConfigurationKeys.STATE_STORE_FS_URI_KEY, ConfigValueFactory.fromAnyRef(
             new URI(appWorkDir.toUri().getScheme(), null, appWorkDir.toUri().getHost(), appWorkDir.toUri().getPort(),
@@ -237,14 +249,7 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
         }
       }
 
-      TimingEvent jobRunTimer = this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.HELIX_JOB_RUN);
-      long waitStart = System.currentTimeMillis();
-      waitForJobCompletion();
-      if (helixMetrics.isPresent()) {
-        this.helixMetrics.get().updateTimeForHelixWait(waitStart);
-      }
-      jobRunTimer.stop();
-      LOGGER.info(String.format("Job %s completed", this.jobContext.getJobId()));
+      waitForHelixJobRun();
     } finally {
       // The last iteration of output TaskState collecting will run when the collector service gets stopped
       this.taskStateCollectorService.stopAsync().awaitTerminated();
@@ -252,6 +257,162 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
     }
   }
 
+  /**
+   * Run the given job, dispatching its {@link WorkUnit}s to Helix while they are still being created if
+   * {@link ConfigurationKeys#WORK_UNIT_PIPELINED_DISPATCH_ENABLED} is set.
+   */
+  @Override
+  protected void runWorkUnitStream(WorkUnitStream workUnitStream) throws Exception {
+    if (!workUnitStream.isFiniteStream() || !this.jobContext.getJobState().getPropAsBoolean(
+        ConfigurationKeys.WORK_UNIT_PIPELINED_DISPATCH_ENABLED,
+        ConfigurationKeys.DEFAULT_WORK_UNIT_PIPELINED_DISPATCH_ENABLED)) {
+      super.runWorkUnitStream(workUnitStream);
+      return;
+    }
+
+    try {
+      // Start the output TaskState collector service
+      this.taskStateCollectorService.startAsync().awaitRunning();
+
+      int numWorkUnits = dispatchWorkUnitsInBatches(workUnitStream.getWorkUnits());
+      CountEventBuilder countEventBuilder = new CountEventBuilder(JobEvent.WORK_UNITS_CREATED, numWorkUnits);
+      this.eventSubmitter.submit(countEventBuilder);
+      LOGGER.info("Emitting WorkUnitsCreated Count: " + countEventBuilder.getCount());
+
+      waitForHelixJobRun();
+    } finally {
+      // The last iteration of output TaskState collecting will run when the collector service gets stopped
+      this.taskStateCollectorService.stopAsync().awaitTerminated();
+      cleanupWorkingDirectory();
+    }
+  }
+
+  /**
+   * Submit the Helix job with the first batch of tasks, then add the tasks of the remaining {@link WorkUnit}s in
+   * batches while the source is still creating them. Work units are persisted as they arrive, and a batch is only
+   * added to the job once all of its work units are persisted. Until the last batch is added, the job also has a
+   * barrier task (see {@link PipelinedDispatchBarrierTaskFactory}) that keeps Helix from completing it early.
+   *
+   * @return the number of work units dispatched
+   */
+  private int dispatchWorkUnitsInBatches(Iterator<WorkUnit> workUnits) throws Exception {
+    TimingEvent jobSubmissionTimer =
+        this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.HELIX_JOB_SUBMISSION);
+    TaskConfig barrierTaskConfig = createBarrierTaskConfig();
+    int numWorkUnits = 0;
+    int multiTaskIdSequence = 0;
+    List<TaskConfig> batch = Lists.newArrayList();
+
+    try (ParallelRunner stateSerDeRunner = new ParallelRunner(this.stateSerDeRunnerThreads, this.fs)) {
+      long lastBatchTime = System.currentTimeMillis();
+      while (workUnits.hasNext()) {
+        WorkUnit workUnit = workUnits.next();
+        if (workUnit instanceof MultiWorkUnit) {
+          workUnit.setId(JobLauncherUtils.newMultiTaskId(this.jobContext.getJobId(), multiTaskIdSequence++));
+        }
+        workUnit.setProp(ConfigurationKeys.WORK_UNIT_CREATION_TIME_IN_MILLIS, System.currentTimeMillis());
+        batch.add(getTaskConfig(workUnit, stateSerDeRunner));
+        numWorkUnits++;
+
+        if (batch.size() >= this.pipelinedDispatchBatchSize
+            || System.currentTimeMillis() - lastBatchTime >= this.pipelinedDispatchMaxBatchDelayMs) {
+          stateSerDeRunner.waitForTasks(Long.MAX_VALUE);
+          if (!dispatchBatch(batch, barrierTaskConfig, false, jobSubmissionTimer)) {
+            return numWorkUnits;
+          }
+          batch = Lists.newArrayList();
+          lastBatchTime = System.currentTimeMillis();
+        }
+      }
+
+      stateSerDeRunner.waitForTasks(Long.MAX_VALUE);
+      dispatchBatch(batch, barrierTaskConfig, true, jobSubmissionTimer);
+    } catch (Exception e) {
+      if (this.jobSubmitted) {
+        // Tasks that were already dispatched must not keep running for a job that failed while creating work units
+        LOGGER.error(String.format("Failed to dispatch all work units of job %s, stopping it", getJobId()), e);
+        this.helixTaskDriver.stop(this.helixWorkFlowName);
+      }
+      throw e;
+    }
+    return numWorkUnits;
+  }
+
+  /**
+   * Submit the Helix job with the given batch of tasks if it has not been submitted yet, or add the tasks to it
+   * otherwise. The barrier task is added along with the first batch and removed along with the last one.
+   *
+   * @return false if the job has been cancelled
+   */
+  private boolean dispatchBatch(List<TaskConfig> batch, TaskConfig barrierTaskConfig, boolean lastBatch,
+      TimingEvent jobSubmissionTimer) throws Exception {
+    if (this.jobSubmitted) {
+      if (this.cancellationRequested) {
+        LOGGER.warn("Not dispatching more tasks of job {} as it was requested to be cancelled.", getJobId());
+        return false;
+      }
+      if (!batch.isEmpty() || lastBatch) {
+        updateTasksOfCurrentJob(batch,
+            lastBatch ? Collections.singletonList(barrierTaskConfig.getId()) : Collections.emptyList());
+        LOGGER.info(String.format("Added %d tasks to helix job %s:%s", batch.size(), this.helixWorkFlowName,
+            getJobId()));
+      }
+      return true;
+    }
+
+    synchronized (this.cancellationRequest) {
+      if (this.cancellationRequested) {
+        LOGGER.warn("Job {} not submitted to Helix as it was requested to be cancelled.", getJobId());
+        return false;
+      }
+      long submitStart = System.currentTimeMillis();
+      if (helixMetrics.isPresent()) {
+        helixMetrics.get().submitMeter.mark();
+      }
+      Map<String, TaskConfig> taskConfigMap = Maps.newHashMap();
+      for (TaskConfig taskConfig : batch) {
+        taskConfigMap.put(taskConfig.getId(), taskConfig);
+      }
+      if (!lastBatch) {
+        taskConfigMap.put(barrierTaskConfig.getId(), barrierTaskConfig);
+      }
+      persistJobState();
+      // Task failures never fail the Helix job, and the total number of tasks is not known before the last batch
+      submitJobToHelix(translateGobblinJobConfigToHelixJobConfig(this.jobContext.getJobState(),
+          lastBatch ? batch.size() : Integer.MAX_VALUE, taskConfigMap));
+      if (helixMetrics.isPresent()) {
+        this.helixMetrics.get().updateTimeForHelixSubmit(submitStart);
+      }
+      jobSubmissionTimer.stop();
+      LOGGER.info(String.format("Submitted job %s to Helix with %d tasks", getJobId(), batch.size()));
+      this.jobSubmitted = true;
+      return true;
+    }
+  }
+
+  /**
+   * Create the config of the barrier task that holds a Helix job open while its tasks are being dispatched.
+   */
+  private TaskConfig createBarrierTaskConfig() {
+    Map<String, String> rawConfigMap = Maps.newHashMap();
+    rawConfigMap.put(TaskConfig.TaskConfigProperty.TASK_ID.name(), getJobId() + "_dispatchBarrier");
+    rawConfigMap.put(TaskConfig.TaskConfigProperty.TASK_COMMAND.name(),
+        PipelinedDispatchBarrierTaskFactory.PIPELINED_DISPATCH_BARRIER_TASK_FACTORY_NAME);
+    rawConfigMap.put(GobblinClusterConfigurationKeys.TASK_SUCCESS_OPTIONAL_KEY, "true");
+    return TaskConfig.Builder.from(rawConfigMap);
+  }
+
+  private void waitForHelixJobRun() throws InterruptedException {
+    TimingEvent jobRunTimer = this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.HELIX_JOB_RUN);
+    long waitStart = System.currentTimeMillis();
+    waitForJobCompletion();
+    if (helixMetrics.isPresent()) {
+      this.helixMetrics.get().updateTimeForHelixWait(waitStart);
+    }
+    jobRunTimer.stop();
+    LOGGER.info(String.format("Job %s completed", this.jobContext.getJobId()));
+  }
+
   @Override
   protected void executeCancellation() {
     if (this.jobSubmitted) {
@@ -276,26 +437,16 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
 
   protected void removeTasksFromCurrentJob(List<String> workUnitIdsToRemove) throws IOException, ExecutionException,
                                                                                     RetryException {
-    String jobName = this.jobContext.getJobId();
+    List<String> taskIdsToRemove = Lists.newArrayList();
+    for (String workUnitId : workUnitIdsToRemove) {
+      taskIdsToRemove.add(this.workUnitToHelixConfig.get(workUnitId).getId());
+    }
+    updateTasksOfCurrentJob(Collections.emptyList(), taskIdsToRemove);
+    log.info(String.format("Removed %d helix tasks from helix job %s:%s", taskIdsToRemove.size(), helixWorkFlowName,
+        this.jobContext.getJobId()));
+
     try (ParallelRunner stateSerDeRunner = new ParallelRunner(this.stateSerDeRunnerThreads, this.fs)) {
       for (String workUnitId : workUnitIdsToRemove) {
-        taskRetryer.call(new Callable<Boolean>() {
-          @Override
-          public Boolean call() throws Exception {
-            String taskId = workUnitToHelixConfig.get(workUnitId).getId();
-            boolean remove =
-                HelixUtils.deleteTaskFromHelixJob(helixWorkFlowName, jobName, taskId, helixTaskDriver);
-            if (remove) {
-              log.info(String.format("Removed helix task %s with gobblin task id  %s from helix job %s:%s ", taskId,
-                  workUnitId, helixWorkFlowName, jobName));
-            } else {
-              throw new IOException(
-                  String.format("Cannot remove task %s from helix job %s:%s", workUnitId,
-                      helixWorkFlowName, jobName));
-            }
-            return true;
-          }
-        });
         deleteWorkUnitFromStateStore(workUnitId, stateSerDeRunner);
         log.info(String.format("remove task state for %s in state store", workUnitId));
         this.workUnitToHelixConfig.remove(workUnitId);
@@ -305,31 +456,40 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
 
   protected void addTasksToCurrentJob(List<WorkUnit> workUnitsToAdd) throws IOException, ExecutionException,
                                                                             RetryException {
-    String jobName = this.jobContext.getJobId();
+    List<TaskConfig> taskConfigs = Lists.newArrayList();
     try (ParallelRunner stateSerDeRunner = new ParallelRunner(this.stateSerDeRunnerThreads, this.fs)) {
       for (WorkUnit workunit : workUnitsToAdd) {
-        TaskConfig taskConfig = getTaskConfig(workunit, stateSerDeRunner);
-        this.taskRetryer.call(new Callable<Boolean>() {
-          @Override
-          public Boolean call() throws Exception {
-            boolean added =
-                HelixUtils.addTaskToHelixJob(helixWorkFlowName, jobName, taskConfig, helixTaskDriver);
-            if (added) {
-              log.info(
-                  String.format("Added task %s to helix job %s:%s ", workunit.getId(), helixWorkFlowName, jobName));
-            } else {
-              log.error(
-                  String.format("Failed to add task %s to helix job %s:%s ", workunit.getId(), helixWorkFlowName,
-                      jobName));
-              throw new IOException(
-                  String.format("Cannot add task %s to helix job %s:%s", workunit.getId(),
-                      helixWorkFlowName, jobName));
-            }
-            return true;
-          }
-        });
+        taskConfigs.add(getTaskConfig(workunit, stateSerDeRunner));
       }
     }
+    // The work units have all been persisted once the runner is closed, so the tasks can now be picked up by workers
+    updateTasksOfCurrentJob(taskConfigs, Collections.emptyList());
+    log.info(String.format("Added %d tasks to helix job %s:%s", taskConfigs.size(), helixWorkFlowName,
+        this.jobContext.getJobId()));
+  }
+
+  /**
+   * Add and remove tasks of the current Helix job with a single job config update, retried with {@link #taskRetryer}.
+   */
+  private void updateTasksOfCurrentJob(List<TaskConfig> tasksToAdd, List<String> taskIdsToRemove)
+      throws ExecutionException, RetryException {
+    String jobName = this.jobContext.getJobId();
+    this.taskRetryer.call(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        long updateStart = System.currentTimeMillis();
+        boolean updated = HelixUtils.updateTasksOfHelixJob(helixWorkFlowName, jobName, tasksToAdd, taskIdsToRemove,
+            helixManager);
+        if (!updated) {
+          throw new IOException(String.format("Cannot add %d tasks to and remove %d tasks from helix job %s:%s",
+              tasksToAdd.size(), taskIdsToRemove.size(), helixWorkFlowName, jobName));
+        }
+        if (helixMetrics.isPresent()) {
+          helixMetrics.get().updateHelixTaskBatch(tasksToAdd.size() + taskIdsToRemove.size(), updateStart);
+        }
+        return true;
+      }
+    });
   }
 
   /**
@@ -347,17 +507,7 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
         addWorkUnit(workUnit, stateSerDeRunner, taskConfigMap);
       }
 
-      Path jobStateFilePath;
-
-      // write the job.state using the state store if present, otherwise serialize directly to the file
-      if (this.stateStores.haveJobStateStore()) {
-        jobStateFilePath = GobblinClusterUtils.getJobStateFilePath(true, this.appWorkDir, this.jobContext.getJobId());
-        this.stateStores.getJobStateStore()
-            .put(jobStateFilePath.getParent().getName(), jobStateFilePath.getName(), this.jobContext.getJobState());
-      } else {
-        jobStateFilePath = GobblinClusterUtils.getJobStateFilePath(false, this.appWorkDir, this.jobContext.getJobId());
-        SerializationUtils.serializeState(this.fs, jobStateFilePath, this.jobContext.getJobState());
-      }
+      Path jobStateFilePath = persistJobState();
 
       // Block on persistence of all workunits to be finished.
       // It is necessary when underlying storage being slow and Helix activate task-execution before the workunit being persisted.
@@ -366,14 +516,30 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
       LOGGER.debug("GobblinHelixJobLauncher.createHelixJob: jobStateFilePath {}, jobState {} jobProperties {}",
           jobStateFilePath, this.jobContext.getJobState().toString(), this.jobContext.getJobState().getProperties());
 
-      return translateGobblinJobConfigToHelixJobConfig(this.jobContext.getJobState(), workUnits, taskConfigMap);
+      return translateGobblinJobConfigToHelixJobConfig(this.jobContext.getJobState(), workUnits.size(), taskConfigMap);
+    }
+  }
+
+  /**
+   * Write the job.state using the state store if present, otherwise serialize directly to the file.
+   */
+  private Path persistJobState() throws IOException {
+    Path jobStateFilePath;
+    if (this.stateStores.haveJobStateStore()) {
+      jobStateFilePath = GobblinClusterUtils.getJobStateFilePath(true, this.appWorkDir, this.jobContext.getJobId());
+      this.stateStores.getJobStateStore()
+          .put(jobStateFilePath.getParent().getName(), jobStateFilePath.getName(), this.jobContext.getJobState());
+    } else {
+      jobStateFilePath = GobblinClusterUtils.getJobStateFilePath(false, this.appWorkDir, this.jobContext.getJobId());
+      SerializationUtils.serializeState(this.fs, jobStateFilePath, this.jobContext.getJobState());
     }
+    return jobStateFilePath;
   }
 
   /**
    * Populate {@link JobConfig.Builder} with relevant gobblin job-configurations.
    */
-  JobConfig.Builder translateGobblinJobConfigToHelixJobConfig(JobState gobblinJobState, List<WorkUnit> workUnits,
+  JobConfig.Builder translateGobblinJobConfigToHelixJobConfig(JobState gobblinJobState, int failureThreshold,
       Map<String, TaskConfig> taskConfigMap) {
     JobConfig.Builder jobConfigBuilder = new JobConfig.Builder();
 
@@ -389,7 +555,7 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
             gobblinJobState.getPropAsLong(ConfigurationKeys.TASK_TIMEOUT_SECONDS,
                 ConfigurationKeys.DEFAULT_TASK_TIMEOUT_SECONDS)) * 1000);
 
-    jobConfigBuilder.setFailureThreshold(workUnits.size());
+    jobConfigBuilder.setFailureThreshold(failureThreshold);
     jobConfigBuilder.addTaskConfigMap(taskConfigMap).setCommand(GobblinTaskRunner.GOBBLIN_TASK_FACTORY_NAME);
     jobConfigBuilder.setNumConcurrentTasksPerInstance(
         ConfigUtils.getInt(jobConfig, GobblinClusterConfigurationKeys.HELIX_CLUSTER_TASK_CONCURRENCY,
@@ -68,6 +68,8 @@ class GobblinHelixJobLauncherListener extends AbstractJobListener {
     } else {
       jobLauncherMetrics.numJobsCommitted.mark();
       Instrumented.updateTimer(Optional.of(jobLauncherMetrics.timeForCommittedJobs), System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+      jobLauncherMetrics.updateCommittedJobRun(jobContext.getJobName(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), jobContext.getJobState().getTaskCount());
     }
   }
 
@@ -17,8 +17,11 @@
 
 package org.apache.gobblin.cluster;
 
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
+import com.google.common.collect.Maps;
+
 import org.apache.gobblin.instrumented.StandardMetricsBridge;
 import org.apache.gobblin.metrics.ContextAwareMeter;
 import org.apache.gobblin.metrics.ContextAwareTimer;
@@ -40,6 +43,13 @@ class GobblinHelixJobLauncherMetrics extends StandardMetricsBridge.StandardMetri
     final ContextAwareTimer timeForFailedJobs;
     final ContextAwareTimer timeForCommittedJobs;
 
+    // Weight of the latest run in the per-job average duration
+    private static final double JOB_DURATION_SMOOTHING_FACTOR = 0.3;
+
+    // Per-job average duration and number of tasks of committed runs, keyed by job name
+    private final ConcurrentMap<String, Long> averageJobDurationMillis = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Integer> lastJobNumTasks = Maps.newConcurrentMap();
+
     public GobblinHelixJobLauncherMetrics(String metricsName, final MetricContext metricContext, int windowSizeInMin) {
       this.metricsName = metricsName;
 
@@ -65,6 +75,31 @@ class GobblinHelixJobLauncherMetrics extends StandardMetricsBridge.StandardMetri
       this.contextAwareMetrics.add(timeForFailedJobs);
     }
 
+    /**
+     * Record the duration and number of tasks of a committed run of the given job.
+     */
+    void updateCommittedJobRun(String jobName, long durationMillis, int numTasks) {
+      this.averageJobDurationMillis.merge(jobName, durationMillis, (average, latest) ->
+          (long) (JOB_DURATION_SMOOTHING_FACTOR * latest + (1 - JOB_DURATION_SMOOTHING_FACTOR) * average));
+      this.lastJobNumTasks.put(jobName, numTasks);
+    }
+
+    /**
+     * @return the smoothed average duration of the committed runs of the given job, or
+     * {@link ScheduledJobForecast#UNKNOWN} if the job has not been committed yet
+     */
+    long getAverageJobDurationMillis(String jobName) {
+      return this.averageJobDurationMillis.getOrDefault(jobName, (long) ScheduledJobForecast.UNKNOWN);
+    }
+
+    /**
+     * @return the number of tasks of the last committed run of the given job, or
+     * {@link ScheduledJobForecast#UNKNOWN} if the job has not been committed yet
+     */
+    int getLastJobNumTasks(String jobName) {
+      return this.lastJobNumTasks.getOrDefault(jobName, ScheduledJobForecast.UNKNOWN);
+    }
+
     @Override
     public String getName() {
       return this.metricsName;
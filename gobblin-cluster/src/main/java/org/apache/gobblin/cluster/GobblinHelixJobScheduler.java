@@ -18,6 +18,7 @@
 package org.apache.gobblin.cluster;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -180,6 +181,29 @@ public class GobblinHelixJobScheduler extends JobScheduler implements StandardMe
     this.startServicesCompleted = true;
   }
 
+  /**
+   * Get the scheduled jobs that will fire within the given horizon, with the number of tasks and duration expected
+   * from their previous committed runs.
+   *
+   * @param horizonMillis how far ahead of now to look for job triggers
+   */
+  public List<ScheduledJobForecast> getScheduledJobForecasts(long horizonMillis) {
+    long now = System.currentTimeMillis();
+    List<ScheduledJobForecast> forecasts = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : getNextFireTimes().entrySet()) {
+      if (entry.getValue() - now > horizonMillis) {
+        continue;
+      }
+      String jobName = entry.getKey();
+      Properties jobProps = getScheduledJobProps(jobName).orNull();
+      String helixJobTag = jobProps == null ? null
+          : jobProps.getProperty(GobblinClusterConfigurationKeys.HELIX_JOB_TAG_KEY);
+      forecasts.add(new ScheduledJobForecast(jobName, entry.getValue(), helixJobTag,
+          this.launcherMetrics.getLastJobNumTasks(jobName), this.launcherMetrics.getAverageJobDurationMillis(jobName)));
+    }
+    return forecasts;
+  }
+
   @Override
   public void scheduleJob(Properties jobProps, JobListener jobListener) throws JobException {
     try {
@@ -21,6 +21,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.gobblin.instrumented.Instrumented;
 import org.apache.gobblin.instrumented.StandardMetricsBridge;
+import org.apache.gobblin.metrics.ContextAwareHistogram;
 import org.apache.gobblin.metrics.ContextAwareMeter;
 import org.apache.gobblin.metrics.ContextAwareTimer;
 import org.apache.gobblin.metrics.MetricContext;
@@ -30,10 +31,14 @@ public class GobblinHelixMetrics extends StandardMetricsBridge.StandardMetrics {
   public static final String TIMER_FOR_HELIX_WAIT = "timeForHelixWait";
   public static final String TIMER_FOR_HELIX_SUBMIT = "timeForHelixSubmit";
   public static final String METER_FOR_HELIX_SUBMIT = "meterForHelixSubmit";
+  public static final String TIMER_FOR_HELIX_TASK_BATCH_UPDATE = "timeForHelixTaskBatchUpdate";
+  public static final String HISTOGRAM_FOR_HELIX_TASK_BATCH_SIZE = "histogramForHelixTaskBatchSize";
   final String metricsName;
   final ContextAwareTimer timeForHelixWait;
   final ContextAwareTimer timeForHelixSubmit;
   final ContextAwareMeter submitMeter;
+  final ContextAwareTimer timeForHelixTaskBatchUpdate;
+  final ContextAwareHistogram helixTaskBatchSize;
 
   public GobblinHelixMetrics(String metricsName, final MetricContext metricContext, int windowSizeInMin) {
     this.metricsName = metricsName;
@@ -42,7 +47,13 @@ public class GobblinHelixMetrics extends StandardMetricsBridge.StandardMetrics {
     this.submitMeter = metricContext.contextAwareMeter(METER_FOR_HELIX_SUBMIT);
     this.contextAwareMetrics.add(timeForHelixWait);
     this.contextAwareMetrics.add(timeForHelixSubmit);
+    this.timeForHelixTaskBatchUpdate =
+        metricContext.contextAwareTimer(TIMER_FOR_HELIX_TASK_BATCH_UPDATE, windowSizeInMin, TimeUnit.MINUTES);
+    this.helixTaskBatchSize =
+        metricContext.contextAwareHistogram(HISTOGRAM_FOR_HELIX_TASK_BATCH_SIZE, windowSizeInMin, TimeUnit.MINUTES);
     this.contextAwareMetrics.add(submitMeter);
+    this.contextAwareMetrics.add(timeForHelixTaskBatchUpdate);
+    this.contextAwareMetrics.add(helixTaskBatchSize);
   }
 
   public void updateTimeForHelixSubmit(long startTime) {
@@ -57,6 +68,16 @@ public class GobblinHelixMetrics extends StandardMetricsBridge.StandardMetrics {
         System.currentTimeMillis() - startTime, TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Record a batched update of the tasks of a running Helix job and the time its job config write to ZooKeeper took.
+   */
+  public void updateHelixTaskBatch(int batchSize, long startTime) {
+    this.helixTaskBatchSize.update(batchSize);
+    Instrumented.updateTimer(
+        com.google.common.base.Optional.of(this.timeForHelixTaskBatchUpdate),
+        System.currentTimeMillis() - startTime, TimeUnit.MILLISECONDS);
+  }
+
   @Override
   public String getName() {
     return this.metricsName;
@@ -18,7 +18,9 @@
 package org.apache.gobblin.cluster;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.helix.AccessOption;
 import org.apache.helix.HelixAdmin;
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixException;
@@ -63,6 +66,10 @@ import static org.apache.helix.task.TaskState.STOPPED;
  */
 @Slf4j
 public class HelixUtils {
+  /** States of a Helix job in which it no longer schedules new tasks */
+  private static final Set<TaskState> INACTIVE_JOB_STATES = EnumSet.of(TaskState.COMPLETED, TaskState.FAILING,
+      TaskState.FAILED, TaskState.TIMING_OUT, TaskState.TIMED_OUT, TaskState.ABORTED, TaskState.STOPPING,
+      TaskState.STOPPED);
 
   /**
    * Create a Helix cluster for the Gobblin Cluster application.
@@ -173,6 +180,57 @@ public class HelixUtils {
     return true;
   }
 
+  /**
+   * Add and remove tasks of a Helix job in a single update of its job config, instead of one ZooKeeper
+   * read-modify-write per task as with {@link #addTaskToHelixJob} and {@link #deleteTaskFromHelixJob}.
+   * The update is applied with optimistic concurrency: if the job config is changed concurrently, it is re-read and
+   * the update is applied again.
+   *
+   * Like {@link TaskDriver#addTask}, tasks are only updated while the job can still run them, i.e. not when it is
+   * complete, failed, timed out, aborted or stopped, or on its way to one of these states.
+   *
+   * @param tasksToAdd the configs of the tasks to add, replacing any existing task with the same id
+   * @param taskIdsToRemove the ids of the tasks to remove
+   * @return true if the job config now contains the added tasks and none of the removed ones
+   */
+  protected static boolean updateTasksOfHelixJob(String workFlowName, String jobName,
+      Collection<TaskConfig> tasksToAdd, Collection<String> taskIdsToRemove, HelixManager helixManager) {
+    if (tasksToAdd.isEmpty() && taskIdsToRemove.isEmpty()) {
+      return true;
+    }
+    String namespacedJobName = TaskUtil.getNamespacedJobName(workFlowName, jobName);
+    WorkflowContext workflowContext = TaskDriver.getWorkflowContext(helixManager, workFlowName);
+    TaskState jobState = workflowContext == null ? null : workflowContext.getJobState(namespacedJobName);
+    if (jobState != null && INACTIVE_JOB_STATES.contains(jobState)) {
+      log.error("Cannot update tasks of workflow {}, job {} since the job is in state {}", workFlowName, jobName,
+          jobState);
+      return false;
+    }
+    HelixDataAccessor accessor = helixManager.getHelixDataAccessor();
+    PropertyKey jobConfigKey = accessor.keyBuilder().resourceConfig(namespacedJobName);
+    if (accessor.getProperty(jobConfigKey) == null) {
+      log.error("Cannot update tasks of workflow {}, job {} since its job config does not exist", workFlowName,
+          jobName);
+      return false;
+    }
+    log.info("try to add {} tasks to and remove {} tasks from workflow {}, job {}", tasksToAdd.size(),
+        taskIdsToRemove.size(), workFlowName, jobName);
+    Set<String> taskIdsToRemoveSet = new HashSet<>(taskIdsToRemove);
+    // Task configs are the map fields of the job config
+    return accessor.getBaseDataAccessor().update(jobConfigKey.getPath(), currentData -> {
+      if (currentData == null) {
+        return null;
+      }
+      Map<String, Map<String, String>> taskConfigs = new HashMap<>(currentData.getMapFields());
+      taskConfigs.keySet().removeAll(taskIdsToRemoveSet);
+      for (TaskConfig taskConfig : tasksToAdd) {
+        taskConfigs.put(taskConfig.getId(), taskConfig.getConfigMap());
+      }
+      currentData.setMapFields(taskConfigs);
+      return currentData;
+    }, AccessOption.PERSISTENT);
+  }
+
   public static void submitJobToWorkFlow(JobConfig.Builder jobConfigBuilder,
       String workFlowName,
       String jobName,
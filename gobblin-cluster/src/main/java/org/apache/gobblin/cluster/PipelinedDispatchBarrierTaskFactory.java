@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.cluster;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.helix.task.Task;
+import org.apache.helix.task.TaskCallbackContext;
+import org.apache.helix.task.TaskFactory;
+import org.apache.helix.task.TaskResult;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * A {@link TaskFactory} for the placeholder task that {@link GobblinHelixJobLauncher} adds to a Helix job while it is
+ * still dispatching work units with pipelined dispatch.
+ *
+ * <p>
+ *   Helix considers a job complete as soon as all of its current tasks are done, which may happen before the launcher
+ *   has added the tasks of work units that are still being planned. The barrier task does no work and simply runs
+ *   until it is cancelled, which happens when the launcher removes it from the job once all tasks have been added.
+ * </p>
+ */
+@Slf4j
+class PipelinedDispatchBarrierTaskFactory implements TaskFactory {
+  static final String PIPELINED_DISPATCH_BARRIER_TASK_FACTORY_NAME = "PipelinedDispatchBarrierTaskFactory";
+
+  @Override
+  public Task createNewTask(TaskCallbackContext context) {
+    return new BarrierTask(context.getTaskConfig().getId());
+  }
+
+  private static class BarrierTask implements Task {
+    private final String taskId;
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    BarrierTask(String taskId) {
+      this.taskId = taskId;
+    }
+
+    @Override
+    public TaskResult run() {
+      log.info("Holding Helix job open until all tasks are dispatched, barrier task {}", this.taskId);
+      try {
+        this.cancelled.await();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      return new TaskResult(TaskResult.Status.CANCELED, "");
+    }
+
+    @Override
+    public void cancel() {
+      log.info("Releasing barrier task {}", this.taskId);
+      this.cancelled.countDown();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * The next run of a job scheduled by the {@link GobblinHelixJobScheduler}, with the size and duration expected
+ * from the job's previous committed runs.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ScheduledJobForecast {
+  public static final int UNKNOWN = -1;
+
+  private final String jobName;
+  private final long nextFireTimeMillis;
+  // The value of GobblinClusterConfigurationKeys#HELIX_JOB_TAG_KEY of the job, null if not set
+  private final String helixJobTag;
+  // The number of tasks of the last committed run, or UNKNOWN
+  private final int expectedNumTasks;
+  // The average duration of the committed runs, or UNKNOWN
+  private final long expectedDurationMillis;
+}
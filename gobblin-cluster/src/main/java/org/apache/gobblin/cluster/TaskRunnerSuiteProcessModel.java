@@ -58,6 +58,8 @@ class TaskRunnerSuiteProcessModel extends TaskRunnerSuiteBase {
     Map<String, TaskFactory> taskFactoryMap = Maps.newHashMap();
 
     taskFactoryMap.put(GobblinTaskRunner.GOBBLIN_TASK_FACTORY_NAME, taskFactory);
+    taskFactoryMap.put(PipelinedDispatchBarrierTaskFactory.PIPELINED_DISPATCH_BARRIER_TASK_FACTORY_NAME,
+        new PipelinedDispatchBarrierTaskFactory());
 
     //TODO: taskFactoryMap.put(GOBBLIN_JOB_FACTORY_NAME, jobFactory);
     return taskFactoryMap;
@@ -66,6 +66,8 @@ class TaskRunnerSuiteThreadModel extends TaskRunnerSuiteBase {
     Map<String, TaskFactory> taskFactoryMap = Maps.newHashMap();
     taskFactoryMap.put(GobblinTaskRunner.GOBBLIN_TASK_FACTORY_NAME, taskFactory);
     taskFactoryMap.put(GobblinTaskRunner.GOBBLIN_JOB_FACTORY_NAME, jobFactory);
+    taskFactoryMap.put(PipelinedDispatchBarrierTaskFactory.PIPELINED_DISPATCH_BARRIER_TASK_FACTORY_NAME,
+        new PipelinedDispatchBarrierTaskFactory());
     return taskFactoryMap;
   }
 
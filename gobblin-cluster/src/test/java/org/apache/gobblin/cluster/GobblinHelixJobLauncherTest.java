@@ -227,6 +227,31 @@ public class GobblinHelixJobLauncherTest {
     Assert.assertEquals(datasetState.getTaskStates().get(0).getWorkingState(), WorkUnitState.WorkingState.COMMITTED);
   }
 
+  public void testLaunchPipelinedJob() throws Exception {
+    final ConcurrentHashMap<String, Boolean> runningMap = new ConcurrentHashMap<>();
+
+    // A batch size of one submits the job with its only task and the barrier task, which is removed at end of stream
+    final Properties properties = generateJobProperties(this.baseConfig, "3", "_1504201348473");
+    properties.setProperty(ConfigurationKeys.WORK_UNIT_PIPELINED_DISPATCH_ENABLED, "true");
+    properties.setProperty(GobblinClusterConfigurationKeys.PIPELINED_DISPATCH_BATCH_SIZE, "1");
+    final GobblinHelixJobLauncher gobblinHelixJobLauncher = this.closer.register(
+        new GobblinHelixJobLauncher(properties, this.helixManager, this.appWorkDir, ImmutableList.<Tag<?>>of(),
+            runningMap, java.util.Optional.empty()));
+
+    gobblinHelixJobLauncher.launchJob(null);
+
+    final File jobOutputFile = getJobOutputFile(properties);
+    Assert.assertTrue(jobOutputFile.exists());
+
+    List<JobState.DatasetState> datasetStates = this.datasetStateStore.getAll(
+        properties.getProperty(ConfigurationKeys.JOB_NAME_KEY),
+        FsDatasetStateStore.CURRENT_DATASET_STATE_FILE_SUFFIX + FsDatasetStateStore.DATASET_STATE_STORE_TABLE_SUFFIX);
+    Assert.assertEquals(datasetStates.size(), 1);
+    JobState.DatasetState datasetState = datasetStates.get(0);
+    Assert.assertEquals(datasetState.getCompletedTasks(), 1);
+    Assert.assertEquals(datasetState.getState(), JobState.RunningState.COMMITTED);
+  }
+
   private static class SuspendJobListener extends AbstractJobListener {
     @Getter
     private AtomicInteger completes = new AtomicInteger();
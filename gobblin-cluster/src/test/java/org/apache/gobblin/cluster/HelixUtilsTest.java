@@ -19,6 +19,7 @@ package org.apache.gobblin.cluster;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.hadoop.conf.Configuration;
@@ -26,16 +27,42 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.security.token.Token;
+import org.apache.helix.BaseDataAccessor;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.HelixProperty;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.helix.task.TaskConfig;
+import org.apache.helix.task.TaskState;
+import org.apache.helix.task.TaskUtil;
+import org.apache.helix.task.WorkflowContext;
+import org.apache.helix.zookeeper.zkclient.DataUpdater;
+import org.apache.zookeeper.data.Stat;
+import org.mockito.ArgumentCaptor;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
 import org.apache.gobblin.util.ConfigUtils;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 
 /**
  * Unit tests for {@link HelixUtils}.
@@ -80,6 +107,91 @@ public class HelixUtilsTest {
     Assert.assertEquals(properties.getProperty("k5"), "10000");
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUpdateTasksOfHelixJob() {
+    HelixManager helixManager = mock(HelixManager.class);
+    HelixDataAccessor accessor = mock(HelixDataAccessor.class);
+    BaseDataAccessor baseDataAccessor = mock(BaseDataAccessor.class);
+    PropertyKey jobConfigKey =
+        new PropertyKey.Builder("testCluster").resourceConfig(TaskUtil.getNamespacedJobName("workflow", "job"));
+    mockJobState(helixManager, TaskState.IN_PROGRESS);
+    when(helixManager.getHelixDataAccessor()).thenReturn(accessor);
+    when(accessor.keyBuilder()).thenReturn(new PropertyKey.Builder("testCluster"));
+    when(accessor.<HelixProperty>getProperty(any(PropertyKey.class))).thenReturn(new HelixProperty("workflow_job"));
+    when(accessor.getBaseDataAccessor()).thenReturn(baseDataAccessor);
+    when(baseDataAccessor.update(eq(jobConfigKey.getPath()), any(DataUpdater.class), anyInt())).thenReturn(true);
+
+    TaskConfig task1 = TaskConfig.Builder.from(ImmutableMap.of("TASK_ID", "task1"));
+    TaskConfig task2 = TaskConfig.Builder.from(ImmutableMap.of("TASK_ID", "task2"));
+    Assert.assertTrue(HelixUtils.updateTasksOfHelixJob("workflow", "job", ImmutableList.of(task1, task2),
+        ImmutableList.of("task0"), helixManager));
+
+    // all tasks are added and removed by a single job config update
+    ArgumentCaptor<DataUpdater> updater = ArgumentCaptor.forClass(DataUpdater.class);
+    verify(baseDataAccessor, times(1)).update(eq(jobConfigKey.getPath()), updater.capture(), anyInt());
+    ZNRecord jobConfig = new ZNRecord("workflow_job");
+    jobConfig.setSimpleField("JobID", "workflow_job");
+    jobConfig.setMapField("task0", ImmutableMap.of("TASK_ID", "task0"));
+    jobConfig.setMapField("task3", ImmutableMap.of("TASK_ID", "task3"));
+    updater.getValue().update(jobConfig);
+
+    Map<String, Map<String, String>> taskConfigs = jobConfig.getMapFields();
+    Assert.assertEquals(taskConfigs.keySet(), ImmutableSet.of("task1", "task2", "task3"));
+    Assert.assertEquals(taskConfigs.get("task1"), task1.getConfigMap());
+    Assert.assertEquals(jobConfig.getSimpleField("JobID"), "workflow_job");
+
+    // nothing is written if there is nothing to update
+    Assert.assertTrue(HelixUtils.updateTasksOfHelixJob("workflow", "job", ImmutableList.of(), ImmutableList.of(),
+        helixManager));
+    verify(baseDataAccessor, times(1)).update(any(String.class), any(DataUpdater.class), anyInt());
+  }
+
+  @Test
+  public void testUpdateTasksOfMissingHelixJob() {
+    HelixManager helixManager = mock(HelixManager.class);
+    HelixDataAccessor accessor = mock(HelixDataAccessor.class);
+    mockJobState(helixManager, null);
+    when(helixManager.getHelixDataAccessor()).thenReturn(accessor);
+    when(accessor.keyBuilder()).thenReturn(new PropertyKey.Builder("testCluster"));
+
+    Assert.assertFalse(HelixUtils.updateTasksOfHelixJob("workflow", "job",
+        ImmutableList.of(TaskConfig.Builder.from(ImmutableMap.of("TASK_ID", "task1"))), ImmutableList.of(),
+        helixManager));
+  }
+
+  @Test
+  public void testUpdateTasksOfFinishedHelixJob() {
+    for (TaskState jobState : new TaskState[] { TaskState.COMPLETED, TaskState.FAILED, TaskState.STOPPING }) {
+      HelixManager helixManager = mock(HelixManager.class);
+      HelixDataAccessor accessor = mock(HelixDataAccessor.class);
+      mockJobState(helixManager, jobState);
+      when(helixManager.getHelixDataAccessor()).thenReturn(accessor);
+      when(accessor.keyBuilder()).thenReturn(new PropertyKey.Builder("testCluster"));
+      when(accessor.<HelixProperty>getProperty(any(PropertyKey.class))).thenReturn(new HelixProperty("workflow_job"));
+
+      Assert.assertFalse(HelixUtils.updateTasksOfHelixJob("workflow", "job",
+          ImmutableList.of(TaskConfig.Builder.from(ImmutableMap.of("TASK_ID", "task1"))), ImmutableList.of(),
+          helixManager));
+      // the job config is not touched
+      verify(accessor, never()).getBaseDataAccessor();
+    }
+  }
+
+  /**
+   * Make the workflow context of "workflow" report the given state for "job", or make it absent if the state is null.
+   */
+  @SuppressWarnings("unchecked")
+  private static void mockJobState(HelixManager helixManager, TaskState jobState) {
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mock(ZkHelixPropertyStore.class);
+    when(helixManager.getHelixPropertyStore()).thenReturn(propertyStore);
+    if (jobState != null) {
+      WorkflowContext workflowContext = new WorkflowContext(new ZNRecord("workflow"));
+      workflowContext.setJobState(TaskUtil.getNamespacedJobName("workflow", "job"), jobState);
+      when(propertyStore.get(any(String.class), any(Stat.class), anyInt())).thenReturn(workflowContext.getRecord());
+    }
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     if (this.fileSystem.exists(this.tokenFilePath.getParent())) {
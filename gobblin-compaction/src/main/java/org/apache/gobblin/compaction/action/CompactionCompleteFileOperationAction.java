@@ -17,6 +17,7 @@
 
 package org.apache.gobblin.compaction.action;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
@@ -26,6 +27,7 @@ import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.gobblin.compaction.event.CompactionSlaEventHelper;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactionResult;
 import org.apache.gobblin.compaction.mapreduce.CompactionJobConfigurator;
 import org.apache.gobblin.compaction.mapreduce.MRCompactor;
 import org.apache.gobblin.compaction.mapreduce.MRCompactorJobRunner;
@@ -99,13 +101,17 @@ public class CompactionCompleteFileOperationAction implements CompactionComplete
           MRCompactor.DEFAULT_COMPACTION_RENAME_SOURCE_DIR_ENABLED);
 
       Job job = this.configurator.getConfiguredJob();
+      // Set when the job was executed in process, in which case there are no map-reduce counters to read
+      Optional<InProcessCompactionResult> inProcessResult = this.configurator.getInProcessResult();
+      String jobId = inProcessResult.isPresent() ? inProcessResult.get().getCompactionId() : job.getJobID().toString();
 
       long newTotalRecords = 0;
       long oldTotalRecords = helper.readRecordCount(new Path(result.getDstAbsoluteDir()));
       long executionCount = helper.readExecutionCount(new Path(result.getDstAbsoluteDir()));
 
-      List<Path> goodPaths = CompactionJobConfigurator.getGoodFiles(job, tmpPath, this.fs,
-          ImmutableList.of(configurator.getFileExtension()));
+      List<Path> goodPaths = inProcessResult.isPresent() ? inProcessResult.get().getOutputFiles()
+          : CompactionJobConfigurator.getGoodFiles(job, tmpPath, this.fs,
+              ImmutableList.of(configurator.getFileExtension()));
       HashSet<Path> outputFiles = new HashSet<>();
       if (appendDeltaOutput) {
         FsPermission permission =
@@ -154,8 +160,12 @@ public class CompactionCompleteFileOperationAction implements CompactionComplete
         // We don't get record count from file name because tracking which files are actually involved in the MR execution can
         // be hard. This is due to new minutely data is rolled up to hourly folder but from daily compaction perspective we are not
         // able to tell which file are newly added (because we simply pass all hourly folders to MR job instead of individual files).
-        Counter counter = job.getCounters().findCounter(RecordKeyMapperBase.EVENT_COUNTER.RECORD_COUNT);
-        newTotalRecords = counter.getValue();
+        if (inProcessResult.isPresent()) {
+          newTotalRecords = inProcessResult.get().getInputRecordCount();
+        } else {
+          Counter counter = job.getCounters().findCounter(RecordKeyMapperBase.EVENT_COUNTER.RECORD_COUNT);
+          newTotalRecords = counter.getValue();
+        }
       }
       final Path finalDstPath = dstPath;
       goodPaths.stream().forEach(p -> {
@@ -179,10 +189,10 @@ public class CompactionCompleteFileOperationAction implements CompactionComplete
       }
       compactionState.setProp(CompactionSlaEventHelper.RECORD_COUNT_TOTAL, Long.toString(newTotalRecords));
       compactionState.setProp(CompactionSlaEventHelper.EXEC_COUNT_TOTAL, Long.toString(executionCount + 1));
-      compactionState.setProp(CompactionSlaEventHelper.MR_JOB_ID,
-          this.configurator.getConfiguredJob().getJobID().toString());
-      compactionState.setProp(DUPLICATE_COUNT_TOTAL,
-          job.getCounters().findCounter(RecordKeyDedupReducerBase.EVENT_COUNTER.DEDUPED).getValue());
+      compactionState.setProp(CompactionSlaEventHelper.MR_JOB_ID, jobId);
+      compactionState.setProp(DUPLICATE_COUNT_TOTAL, inProcessResult.isPresent()
+          ? inProcessResult.get().getDedupedRecordCount()
+          : job.getCounters().findCounter(RecordKeyDedupReducerBase.EVENT_COUNTER.DEDUPED).getValue());
       compactionState.setProp(CompactionSlaEventHelper.LAST_RUN_START_TIME,
           this.state.getProp(CompactionSource.COMPACTION_INIT_TIME));
       helper.saveState(new Path(result.getDstAbsoluteDir()), compactionState);
@@ -198,7 +208,7 @@ public class CompactionCompleteFileOperationAction implements CompactionComplete
                 CompactionSlaEventHelper.RECORD_COUNT_TOTAL, Long.toString(newTotalRecords),
                 CompactionSlaEventHelper.PREV_RECORD_COUNT_TOTAL, Long.toString(oldTotalRecords),
                 CompactionSlaEventHelper.EXEC_COUNT_TOTAL, Long.toString(executionCount + 1),
-                CompactionSlaEventHelper.MR_JOB_ID, this.configurator.getConfiguredJob().getJobID().toString());
+                CompactionSlaEventHelper.MR_JOB_ID, jobId);
         this.eventSubmitter.submit(CompactionSlaEventHelper.COMPACTION_RECORD_COUNT_EVENT, eventMetadataMap);
       }
     }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.dedup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyMapper;
+
+
+/**
+ * A {@link DedupRecordSerde} for Avro records. The key is the Avro binary encoding of the projection of the record
+ * on the dedup key schema, as built by {@link AvroKeyMapper}, and the value is the Avro binary encoding of the record.
+ */
+public class AvroDedupRecordSerde implements DedupRecordSerde<GenericRecord> {
+  private final GenericRecord key;
+  private final GenericDatumWriter<GenericRecord> keyWriter;
+  private final GenericDatumWriter<GenericRecord> valueWriter;
+  private final GenericDatumReader<GenericRecord> valueReader;
+  private BinaryEncoder encoder;
+  private BinaryDecoder decoder;
+
+  public AvroDedupRecordSerde(Schema valueSchema, Schema keySchema) {
+    this.key = new GenericData.Record(keySchema);
+    this.keyWriter = new GenericDatumWriter<>(keySchema);
+    this.valueWriter = new GenericDatumWriter<>(valueSchema);
+    this.valueReader = new GenericDatumReader<>(valueSchema);
+  }
+
+  @Override
+  public void serializeKey(GenericRecord record, OutputStream out) throws IOException {
+    AvroKeyMapper.populateComparableKeyRecord(record, this.key);
+    this.encoder = EncoderFactory.get().directBinaryEncoder(out, this.encoder);
+    this.keyWriter.write(this.key, this.encoder);
+  }
+
+  @Override
+  public void serializeValue(GenericRecord record, OutputStream out) throws IOException {
+    this.encoder = EncoderFactory.get().directBinaryEncoder(out, this.encoder);
+    this.valueWriter.write(record, this.encoder);
+  }
+
+  @Override
+  public GenericRecord deserializeValue(byte[] bytes, int offset, int length, GenericRecord reuse)
+      throws IOException {
+    this.decoder = DecoderFactory.get().binaryDecoder(bytes, offset, length, this.decoder);
+    return this.valueReader.read(reuse, this.decoder);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.dedup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Binary encoding of records for a {@link SpillableDedupMap}.
+ *
+ * Two records are duplicates iff their serialized keys are byte-for-byte equal, so the key encoding must be
+ * deterministic for equal keys.
+ */
+public interface DedupRecordSerde<V> {
+
+  /**
+   * Write the dedup key of the record.
+   */
+  void serializeKey(V record, OutputStream out) throws IOException;
+
+  /**
+   * Write the full record.
+   */
+  void serializeValue(V record, OutputStream out) throws IOException;
+
+  /**
+   * Read a record written by {@link #serializeValue(Object, OutputStream)}.
+   * @param reuse a record that may be reused for the result, or null
+   */
+  V deserializeValue(byte[] bytes, int offset, int length, V reuse) throws IOException;
+}
@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.dedup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.io.Closer;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * A hash map for deduplicating records that keeps only the serialized bytes of the winning record for each key,
+ * outside of the java heap.
+ *
+ * Records are encoded with a {@link DedupRecordSerde}. Entries are appended to a direct buffer of the configured
+ * memory budget and located through an open addressing index of primitive arrays, so the map creates no objects
+ * per record. Of the records of a key the first one is retained, unless a winner comparator is given, in which case
+ * a later record replaces the retained one iff the comparator ranks it higher. This is the same rule as
+ * {@link org.apache.gobblin.compaction.mapreduce.RecordKeyDedupReducerBase}.
+ *
+ * When the buffer is full, its entries are written to a local run file sorted by key and the buffer is reused.
+ * {@link #drain(DedupConsumer)} merges the runs and resolves keys that appear in several runs with the same rule.
+ *
+ * This class is not thread safe.
+ */
+@Slf4j
+public class SpillableDedupMap<V> implements Closeable {
+  /** Entry layout: key length, value length, number of records, key bytes, value bytes */
+  private static final int ENTRY_HEADER_BYTES = 12;
+  private static final int NUM_RECORDS_OFFSET = 8;
+  private static final int INITIAL_INDEX_CAPACITY = 1024;
+  private static final int SPILL_BUFFER_BYTES = 64 * 1024;
+
+  private final DedupRecordSerde<V> serde;
+  private final Optional<Comparator<V>> winnerComparator;
+  private final File spillDir;
+  private final ByteBuffer arena;
+  private final ByteBuffer arenaView;
+
+  /** Offset + 1 of the entry of each occupied slot, 0 for empty slots */
+  private int[] slots = new int[INITIAL_INDEX_CAPACITY];
+  private int[] slotHashes = new int[INITIAL_INDEX_CAPACITY];
+  private int size = 0;
+
+  private final ExposedByteArrayOutputStream keyBuffer = new ExposedByteArrayOutputStream();
+  private final ExposedByteArrayOutputStream valueBuffer = new ExposedByteArrayOutputStream();
+  private byte[] scratch = new byte[1024];
+  private V reusableWinner;
+  private V reusableCandidate;
+
+  private final List<File> runs = new ArrayList<>();
+  @Getter
+  private long spillCount = 0;
+  @Getter
+  private long spilledBytes = 0;
+
+  /**
+   * @param memoryBudgetBytes size of the off-heap buffer holding the entries, at most 2GB
+   * @param spillDir local directory for sorted runs
+   */
+  public SpillableDedupMap(DedupRecordSerde<V> serde, Optional<Comparator<V>> winnerComparator,
+      long memoryBudgetBytes, File spillDir) {
+    Preconditions.checkArgument(memoryBudgetBytes > ENTRY_HEADER_BYTES, "Memory budget is too small");
+    this.serde = serde;
+    this.winnerComparator = winnerComparator;
+    this.spillDir = spillDir;
+    this.arena = ByteBuffer.allocateDirect((int) Math.min(memoryBudgetBytes, Integer.MAX_VALUE - 8));
+    this.arenaView = this.arena.duplicate();
+  }
+
+  /**
+   * Add a record, which either becomes the retained record of its key or is counted as a duplicate.
+   */
+  public void put(V record) throws IOException {
+    this.keyBuffer.reset();
+    this.serde.serializeKey(record, this.keyBuffer);
+    int hash = hash(this.keyBuffer.buffer(), this.keyBuffer.size());
+    int slot = findSlot(hash);
+    int offset = this.slots[slot] - 1;
+
+    if (offset >= 0) {
+      int numRecords = this.arena.getInt(offset + NUM_RECORDS_OFFSET) + 1;
+      if (!this.winnerComparator.isPresent() || this.winnerComparator.get().compare(readValue(offset), record) >= 0) {
+        this.arena.putInt(offset + NUM_RECORDS_OFFSET, numRecords);
+        return;
+      }
+      serializeValue(record);
+      if (fits()) {
+        // The new record wins, the previous entry becomes unreachable until the buffer is spilled
+        this.slots[slot] = append(numRecords) + 1;
+        return;
+      }
+      // The previous entry is spilled with its count, and both are resolved again when runs are merged
+      spill();
+    } else {
+      serializeValue(record);
+      if (!fits()) {
+        spill();
+      }
+    }
+    insert(hash);
+  }
+
+  /**
+   * Hand the retained record of every key to the consumer, along with the number of records seen for the key, and
+   * empty the map. Keys are delivered in the order they were inserted if nothing was spilled, and in the order of
+   * their serialized bytes otherwise.
+   *
+   * @return the number of keys
+   */
+  public long drain(DedupConsumer<V> consumer) throws IOException, InterruptedException {
+    try {
+      if (this.runs.isEmpty()) {
+        return drainInMemory(consumer);
+      }
+      spill();
+      return mergeRuns(consumer);
+    } finally {
+      reset();
+      deleteRuns();
+    }
+  }
+
+  /**
+   * @return number of distinct keys currently in memory
+   */
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reset();
+    deleteRuns();
+  }
+
+  private void serializeValue(V record) throws IOException {
+    this.valueBuffer.reset();
+    this.serde.serializeValue(record, this.valueBuffer);
+    int entryLength = ENTRY_HEADER_BYTES + this.keyBuffer.size() + this.valueBuffer.size();
+    if (entryLength > this.arena.capacity()) {
+      throw new IOException(String.format("Record of %d bytes exceeds the dedup memory budget of %d bytes",
+          entryLength, this.arena.capacity()));
+    }
+  }
+
+  private boolean fits() {
+    return this.arena.remaining() >= ENTRY_HEADER_BYTES + this.keyBuffer.size() + this.valueBuffer.size();
+  }
+
+  private void insert(int hash) {
+    int slot = findSlot(hash);
+    this.slots[slot] = append(1) + 1;
+    this.slotHashes[slot] = hash;
+    if (++this.size * 2 > this.slots.length) {
+      growIndex();
+    }
+  }
+
+  /**
+   * Write the key and value buffers as a new entry at the end of the arena.
+   * @return the offset of the entry
+   */
+  private int append(int numRecords) {
+    int offset = this.arena.position();
+    this.arena.putInt(this.keyBuffer.size()).putInt(this.valueBuffer.size()).putInt(numRecords);
+    this.arena.put(this.keyBuffer.buffer(), 0, this.keyBuffer.size());
+    this.arena.put(this.valueBuffer.buffer(), 0, this.valueBuffer.size());
+    return offset;
+  }
+
+  /**
+   * @return the slot holding the key in {@link #keyBuffer}, or the empty slot where it should be inserted
+   */
+  private int findSlot(int hash) {
+    int mask = this.slots.length - 1;
+    int slot = hash & mask;
+    while (this.slots[slot] != 0 && (this.slotHashes[slot] != hash || !keyEquals(this.slots[slot] - 1))) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean keyEquals(int offset) {
+    int length = this.keyBuffer.size();
+    if (this.arena.getInt(offset) != length) {
+      return false;
+    }
+    byte[] key = this.keyBuffer.buffer();
+    int keyOffset = offset + ENTRY_HEADER_BYTES;
+    for (int i = 0; i < length; i++) {
+      if (this.arena.get(keyOffset + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void growIndex() {
+    int[] oldSlots = this.slots;
+    int[] oldHashes = this.slotHashes;
+    this.slots = new int[oldSlots.length * 2];
+    this.slotHashes = new int[oldSlots.length * 2];
+    int mask = this.slots.length - 1;
+    for (int i = 0; i < oldSlots.length; i++) {
+      if (oldSlots[i] != 0) {
+        int slot = oldHashes[i] & mask;
+        while (this.slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = oldSlots[i];
+        this.slotHashes[slot] = oldHashes[i];
+      }
+    }
+  }
+
+  private V readValue(int offset) throws IOException {
+    int keyLength = this.arena.getInt(offset);
+    int valueLength = this.arena.getInt(offset + 4);
+    byte[] bytes = copyFromArena(offset + ENTRY_HEADER_BYTES + keyLength, valueLength);
+    this.reusableWinner = this.serde.deserializeValue(bytes, 0, valueLength, this.reusableWinner);
+    return this.reusableWinner;
+  }
+
+  private byte[] copyFromArena(int position, int length) {
+    if (this.scratch.length < length) {
+      this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+    }
+    this.arenaView.clear();
+    this.arenaView.position(position);
+    this.arenaView.get(this.scratch, 0, length);
+    return this.scratch;
+  }
+
+  private int[] liveOffsets() {
+    int[] offsets = new int[this.size];
+    int i = 0;
+    for (int slot : this.slots) {
+      if (slot != 0) {
+        offsets[i++] = slot - 1;
+      }
+    }
+    return offsets;
+  }
+
+  private long drainInMemory(DedupConsumer<V> consumer) throws IOException, InterruptedException {
+    int[] offsets = liveOffsets();
+    Arrays.sort(offsets);
+    for (int offset : offsets) {
+      consumer.accept(readValue(offset), this.arena.getInt(offset + NUM_RECORDS_OFFSET));
+    }
+    return offsets.length;
+  }
+
+  /**
+   * Write the live entries sorted by key to a new run file, and empty the arena.
+   */
+  private void spill() throws IOException {
+    if (this.size == 0) {
+      return;
+    }
+    Integer[] offsets = new Integer[this.size];
+    int i = 0;
+    for (int offset : liveOffsets()) {
+      offsets[i++] = offset;
+    }
+    Arrays.sort(offsets, this::compareArenaKeys);
+
+    File run = File.createTempFile("dedup-run-", ".bin", this.spillDir);
+    run.deleteOnExit();
+    this.runs.add(run);
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), SPILL_BUFFER_BYTES))) {
+      for (int offset : offsets) {
+        int entryLength = ENTRY_HEADER_BYTES + this.arena.getInt(offset) + this.arena.getInt(offset + 4);
+        out.write(copyFromArena(offset, entryLength), 0, entryLength);
+      }
+    }
+    this.spillCount++;
+    this.spilledBytes += run.length();
+    log.info("Spilled {} keys to {} ({} bytes)", this.size, run, run.length());
+    reset();
+  }
+
+  private int compareArenaKeys(int offset1, int offset2) {
+    int length1 = this.arena.getInt(offset1);
+    int length2 = this.arena.getInt(offset2);
+    for (int i = 0; i < Math.min(length1, length2); i++) {
+      int result = Integer.compare(this.arena.get(offset1 + ENTRY_HEADER_BYTES + i) & 0xff,
+          this.arena.get(offset2 + ENTRY_HEADER_BYTES + i) & 0xff);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(length1, length2);
+  }
+
+  /**
+   * k-way merge of the runs. Ties are broken by run index, so the entries of a key are resolved in insertion order.
+   */
+  private long mergeRuns(DedupConsumer<V> consumer) throws IOException, InterruptedException {
+    long numKeys = 0;
+    Closer closer = Closer.create();
+    try {
+      PriorityQueue<RunReader> heads = new PriorityQueue<>(this.runs.size(), (r1, r2) -> {
+        int result = compareBytes(r1.key, r1.keyLength, r2.key, r2.keyLength);
+        return result != 0 ? result : Integer.compare(r1.runIndex, r2.runIndex);
+      });
+      for (int i = 0; i < this.runs.size(); i++) {
+        RunReader reader = closer.register(new RunReader(i, this.runs.get(i)));
+        if (reader.next()) {
+          heads.add(reader);
+        }
+      }
+
+      while (!heads.isEmpty()) {
+        RunReader head = heads.poll();
+        V winner = this.serde.deserializeValue(head.value, 0, head.valueLength, this.reusableWinner);
+        int numRecords = head.numRecords;
+        this.keyBuffer.reset();
+        this.keyBuffer.write(head.key, 0, head.keyLength);
+        if (head.next()) {
+          heads.add(head);
+        }
+
+        while (!heads.isEmpty()
+            && compareBytes(heads.peek().key, heads.peek().keyLength, this.keyBuffer.buffer(), this.keyBuffer.size())
+            == 0) {
+          RunReader duplicate = heads.poll();
+          numRecords += duplicate.numRecords;
+          if (this.winnerComparator.isPresent()) {
+            V candidate = this.serde.deserializeValue(duplicate.value, 0, duplicate.valueLength,
+                this.reusableCandidate);
+            if (this.winnerComparator.get().compare(winner, candidate) < 0) {
+              this.reusableCandidate = winner;
+              winner = candidate;
+            } else {
+              this.reusableCandidate = candidate;
+            }
+          }
+          if (duplicate.next()) {
+            heads.add(duplicate);
+          }
+        }
+
+        this.reusableWinner = winner;
+        consumer.accept(winner, numRecords);
+        numKeys++;
+      }
+    } catch (Throwable t) {
+      throw closer.rethrow(t, InterruptedException.class);
+    } finally {
+      closer.close();
+    }
+    return numKeys;
+  }
+
+  private static int compareBytes(byte[] bytes1, int length1, byte[] bytes2, int length2) {
+    for (int i = 0; i < Math.min(length1, length2); i++) {
+      int result = Integer.compare(bytes1[i] & 0xff, bytes2[i] & 0xff);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(length1, length2);
+  }
+
+  private static int hash(byte[] bytes, int length) {
+    int h = 1;
+    for (int i = 0; i < length; i++) {
+      h = 31 * h + bytes[i];
+    }
+    // Murmur3 finalizer, since the index uses linear probing on the low bits
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  private void reset() {
+    this.arena.clear();
+    Arrays.fill(this.slots, 0);
+    this.size = 0;
+  }
+
+  private void deleteRuns() {
+    for (File run : this.runs) {
+      if (run.exists() && !run.delete()) {
+        log.warn("Failed to delete dedup run {}", run);
+      }
+    }
+    this.runs.clear();
+  }
+
+  private static class RunReader implements Closeable {
+    private final int runIndex;
+    private final DataInputStream in;
+    private byte[] key = new byte[64];
+    private int keyLength;
+    private byte[] value = new byte[1024];
+    private int valueLength;
+    private int numRecords;
+
+    RunReader(int runIndex, File run) throws IOException {
+      this.runIndex = runIndex;
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), SPILL_BUFFER_BYTES));
+    }
+
+    /**
+     * Read the next entry of the run.
+     * @return false if the run is exhausted
+     */
+    boolean next() throws IOException {
+      try {
+        this.keyLength = this.in.readInt();
+      } catch (EOFException e) {
+        return false;
+      }
+      this.valueLength = this.in.readInt();
+      this.numRecords = this.in.readInt();
+      if (this.key.length < this.keyLength) {
+        this.key = new byte[Math.max(this.keyLength, this.key.length * 2)];
+      }
+      this.in.readFully(this.key, 0, this.keyLength);
+      if (this.value.length < this.valueLength) {
+        this.value = new byte[Math.max(this.valueLength, this.value.length * 2)];
+      }
+      this.in.readFully(this.value, 0, this.valueLength);
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+  }
+
+  private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+    byte[] buffer() {
+      return this.buf;
+    }
+  }
+}
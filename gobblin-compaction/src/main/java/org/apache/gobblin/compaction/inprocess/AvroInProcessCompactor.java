@@ -0,0 +1,388 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.inprocess;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.AvroOutputFormat;
+import org.apache.avro.mapred.AvroValue;
+import org.apache.avro.mapreduce.AvroJob;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.compaction.dataset.DatasetHelper;
+import org.apache.gobblin.compaction.mapreduce.MRCompactor;
+import org.apache.gobblin.compaction.mapreduce.avro.AvroDeltaFieldNameProvider;
+import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyDedupReducer;
+import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyMapper;
+import org.apache.gobblin.compaction.mapreduce.avro.AvroKeySpillableDedupReducer;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.AvroUtils;
+import org.apache.gobblin.util.recordcount.CompactionRecordCountProvider;
+import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
+
+
+/**
+ * An {@link InProcessCompactor} for Avro, producing the output of the map-reduce job configured by
+ * {@link org.apache.gobblin.compaction.mapreduce.CompactionAvroJobConfigurator} without submitting it.
+ *
+ * Records are read with the job's output schema and projected onto its dedup key schema as {@link AvroKeyMapper} does.
+ * They are sorted by key, and for each key one record is retained with the same rule as {@link AvroKeyDedupReducer},
+ * including the delta fields from {@link AvroKeyDedupReducer#DELTA_SCHEMA_PROVIDER}. A job without reducers is a plain
+ * concatenation of the input. The output is a single {recordCount}.{timestamp}.avro file.
+ *
+ * Up to {@link #SORT_BUFFER_RECORDS} records are sorted in memory. Larger inputs are sorted in runs that are spilled
+ * to local disk and then k-way merged. If {@link #INPUT_SORTED} is set, every input file is already sorted by the
+ * dedup key, so the files are merged directly without sorting. Output of {@link AvroKeySpillableDedupReducer} is not
+ * sorted by the dedup key, so {@link #INPUT_SORTED} is ignored when
+ * {@link AvroKeySpillableDedupReducer#SPILLABLE_DEDUP_ENABLED} is set.
+ */
+@Slf4j
+public class AvroInProcessCompactor implements InProcessCompactor {
+  public static final String SORT_BUFFER_RECORDS = MRCompactor.COMPACTION_PREFIX + "inProcess.sortBufferRecords";
+  public static final int DEFAULT_SORT_BUFFER_RECORDS = 200000;
+  public static final String INPUT_SORTED = MRCompactor.COMPACTION_PREFIX + "inProcess.inputSorted";
+  public static final boolean DEFAULT_INPUT_SORTED = false;
+  /** Local directory for sorted runs, defaults to java.io.tmpdir */
+  public static final String SPILL_DIR = MRCompactor.COMPACTION_PREFIX + "inProcess.spillDir";
+
+  private static final String AVRO_EXTENSION = ".avro";
+
+  private final FileSystem fs;
+  private final int sortBufferRecords;
+  private final boolean inputSorted;
+  private final File spillDir;
+
+  public AvroInProcessCompactor(FileSystem fs, State state) {
+    this.fs = fs;
+    this.sortBufferRecords = state.getPropAsInt(SORT_BUFFER_RECORDS, DEFAULT_SORT_BUFFER_RECORDS);
+    boolean spillableDedup = state.getPropAsBoolean(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_ENABLED,
+        AvroKeySpillableDedupReducer.DEFAULT_SPILLABLE_DEDUP_ENABLED);
+    if (spillableDedup && state.getPropAsBoolean(INPUT_SORTED, DEFAULT_INPUT_SORTED)) {
+      log.warn("Ignoring {} since {} is set and its output is not sorted by the dedup key", INPUT_SORTED,
+          AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_ENABLED);
+    }
+    this.inputSorted = !spillableDedup && state.getPropAsBoolean(INPUT_SORTED, DEFAULT_INPUT_SORTED);
+    this.spillDir = new File(state.getProp(SPILL_DIR, System.getProperty("java.io.tmpdir")));
+  }
+
+  @Override
+  public InProcessCompactionResult compact(Job job, Collection<Path> inputPaths, Path outputPath) throws IOException {
+    Configuration conf = job.getConfiguration();
+    String compactionId = "inprocess_" + System.currentTimeMillis();
+    List<Path> inputFiles = new ArrayList<>();
+    for (Path inputPath : inputPaths) {
+      inputFiles.addAll(DatasetHelper.getApplicableFilePaths(this.fs, inputPath, ImmutableList.of(AVRO_EXTENSION)));
+    }
+    this.fs.mkdirs(outputPath);
+    if (inputFiles.isEmpty()) {
+      return new InProcessCompactionResult(compactionId, 0, 0, 0, ImmutableList.of(), 0);
+    }
+
+    Schema schema = AvroJob.getOutputKeySchema(conf);
+    if (schema == null) {
+      schema = AvroUtils.getSchemaFromDataFile(inputFiles.get(0), this.fs);
+    }
+    boolean deduplicate = job.getNumReduceTasks() > 0;
+
+    long inputRecords = 0;
+    long outputRecords = 0;
+    Path tmpFile = new Path(outputPath, "_" + compactionId + AVRO_EXTENSION);
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<GenericRecord>(new GenericDatumWriter<>(schema))) {
+      writer.setCodec(getCodec(job));
+      writer.create(schema, this.fs.create(tmpFile, true));
+      if (deduplicate) {
+        Schema keySchema = AvroKeyMapper.getDedupKeySchema(conf);
+        Optional<Comparator<AvroValue<GenericRecord>>> deltaComparator = getDeltaComparator(conf);
+        try (SortedRecords sorted = new SortedRecords(inputFiles, schema, keySchema)) {
+          Iterator<KeyedRecord> iterator = sorted.iterator();
+          KeyedRecord retained = null;
+          AvroValue<GenericRecord> retainedValue = new AvroValue<>();
+          AvroValue<GenericRecord> candidateValue = new AvroValue<>();
+          while (iterator.hasNext()) {
+            KeyedRecord next = iterator.next();
+            inputRecords++;
+            if (retained != null && GenericData.get().compare(retained.key, next.key, keySchema) == 0) {
+              if (deltaComparator.isPresent()) {
+                retainedValue.datum(retained.value);
+                candidateValue.datum(next.value);
+                retained = deltaComparator.get().compare(retainedValue, candidateValue) >= 0 ? retained : next;
+              }
+              continue;
+            }
+            if (retained != null) {
+              writer.append(retained.value);
+              outputRecords++;
+            }
+            retained = next;
+          }
+          if (retained != null) {
+            writer.append(retained.value);
+            outputRecords++;
+          }
+        }
+      } else {
+        for (Path inputFile : inputFiles) {
+          try (DataFileStream<GenericRecord> reader = openInputFile(inputFile, schema)) {
+            for (GenericRecord record : reader) {
+              writer.append(record);
+              inputRecords++;
+            }
+          }
+        }
+        outputRecords = inputRecords;
+      }
+    }
+
+    String prefix = deduplicate ? CompactionRecordCountProvider.MR_OUTPUT_FILE_PREFIX
+        : CompactionRecordCountProvider.M_OUTPUT_FILE_PREFIX;
+    Path outputFile =
+        new Path(outputPath, CompactionRecordCountProvider.constructFileName(prefix, AVRO_EXTENSION, outputRecords));
+    if (!this.fs.rename(tmpFile, outputFile)) {
+      throw new IOException(String.format("Unable to move %s to %s", tmpFile, outputFile));
+    }
+    long outputBytes = this.fs.getFileStatus(outputFile).getLen();
+    log.info("Compacted {} records from {} files into {} records in {} ({} bytes)", inputRecords, inputFiles.size(),
+        outputRecords, outputFile, outputBytes);
+    return new InProcessCompactionResult(compactionId, inputRecords, outputRecords, inputRecords - outputRecords,
+        ImmutableList.of(outputFile), outputBytes);
+  }
+
+  /**
+   * Same codec as {@link org.apache.avro.mapreduce.AvroKeyOutputFormat} would use for the job.
+   */
+  private static CodecFactory getCodec(Job job) {
+    if (!FileOutputFormat.getCompressOutput(job)) {
+      return CodecFactory.nullCodec();
+    }
+    Configuration conf = job.getConfiguration();
+    String codecName = conf.get(AvroJob.CONF_OUTPUT_CODEC, DataFileConstants.DEFLATE_CODEC);
+    if (DataFileConstants.DEFLATE_CODEC.equals(codecName)) {
+      return CodecFactory.deflateCodec(
+          conf.getInt(AvroOutputFormat.DEFLATE_LEVEL_KEY, CodecFactory.DEFAULT_DEFLATE_LEVEL));
+    }
+    return CodecFactory.fromString(codecName);
+  }
+
+  private static Optional<Comparator<AvroValue<GenericRecord>>> getDeltaComparator(Configuration conf) {
+    String deltaSchemaProviderClassName = conf.get(AvroKeyDedupReducer.DELTA_SCHEMA_PROVIDER);
+    if (deltaSchemaProviderClassName == null) {
+      return Optional.absent();
+    }
+    return Optional.of(new AvroKeyDedupReducer.AvroValueDeltaSchemaComparator(
+        GobblinConstructorUtils.invokeConstructor(AvroDeltaFieldNameProvider.class, deltaSchemaProviderClassName,
+            conf)));
+  }
+
+  private DataFileStream<GenericRecord> openInputFile(Path inputFile, Schema schema) throws IOException {
+    return new DataFileStream<>(this.fs.open(inputFile), new GenericDatumReader<GenericRecord>(schema));
+  }
+
+  /**
+   * A record along with its projection on the dedup key schema.
+   */
+  private static class KeyedRecord {
+    private final GenericRecord key;
+    private final GenericRecord value;
+
+    KeyedRecord(GenericRecord value, Schema keySchema) {
+      this.key = new GenericData.Record(keySchema);
+      this.value = value;
+      AvroKeyMapper.populateComparableKeyRecord(value, this.key);
+    }
+  }
+
+  /**
+   * All input records in key order, merged from sorted runs. A run is an input file when {@link #INPUT_SORTED} is
+   * set, and otherwise a chunk of {@link #SORT_BUFFER_RECORDS} records that is sorted in memory, and spilled to local
+   * disk unless it is the only chunk.
+   */
+  @VisibleForTesting
+  class SortedRecords implements Closeable {
+    private final Schema schema;
+    private final Schema keySchema;
+    private final Comparator<KeyedRecord> comparator;
+    private final Closer closer = Closer.create();
+    private final List<Iterator<KeyedRecord>> runs = new ArrayList<>();
+    private final List<File> spillFiles = new ArrayList<>();
+
+    SortedRecords(List<Path> inputFiles, Schema schema, Schema keySchema) throws IOException {
+      this.schema = schema;
+      this.keySchema = keySchema;
+      this.comparator = (r1, r2) -> GenericData.get().compare(r1.key, r2.key, keySchema);
+      if (inputSorted) {
+        for (Path inputFile : inputFiles) {
+          this.runs.add(keyed(this.closer.register(openInputFile(inputFile, schema))));
+        }
+      } else {
+        sortIntoRuns(inputFiles);
+      }
+    }
+
+    private void sortIntoRuns(List<Path> inputFiles) throws IOException {
+      List<KeyedRecord> buffer = new ArrayList<>();
+      for (Path inputFile : inputFiles) {
+        try (DataFileStream<GenericRecord> reader = openInputFile(inputFile, this.schema)) {
+          while (reader.hasNext()) {
+            buffer.add(new KeyedRecord(reader.next(), this.keySchema));
+            if (buffer.size() >= sortBufferRecords) {
+              spill(buffer);
+              buffer = new ArrayList<>();
+            }
+          }
+        }
+      }
+      buffer.sort(this.comparator);
+      if (this.spillFiles.isEmpty()) {
+        this.runs.add(buffer.iterator());
+        return;
+      }
+      if (!buffer.isEmpty()) {
+        spill(buffer);
+      }
+      for (File spillFile : this.spillFiles) {
+        DataFileReader<GenericRecord> reader =
+            new DataFileReader<>(spillFile, new GenericDatumReader<GenericRecord>(this.schema));
+        this.runs.add(keyed(this.closer.register(reader)));
+      }
+    }
+
+    private void spill(List<KeyedRecord> buffer) throws IOException {
+      buffer.sort(this.comparator);
+      File spillFile = File.createTempFile("compaction-run-", AVRO_EXTENSION, spillDir);
+      spillFile.deleteOnExit();
+      this.spillFiles.add(spillFile);
+      try (DataFileWriter<GenericRecord> writer =
+          new DataFileWriter<GenericRecord>(new GenericDatumWriter<>(this.schema)).create(this.schema, spillFile)) {
+        for (KeyedRecord record : buffer) {
+          writer.append(record.value);
+        }
+      }
+      log.info("Spilled a sorted run of {} records to {}", buffer.size(), spillFile);
+    }
+
+    private Iterator<KeyedRecord> keyed(Iterator<GenericRecord> records) {
+      return new Iterator<KeyedRecord>() {
+        @Override
+        public boolean hasNext() {
+          return records.hasNext();
+        }
+
+        @Override
+        public KeyedRecord next() {
+          return new KeyedRecord(records.next(), keySchema);
+        }
+      };
+    }
+
+    Iterator<KeyedRecord> iterator() {
+      if (this.runs.size() == 1) {
+        return this.runs.get(0);
+      }
+      return new MergingIterator();
+    }
+
+    /**
+     * k-way merge of {@link #runs}. Ties are broken by run index, so records of a key keep their input order.
+     */
+    private class MergingIterator implements Iterator<KeyedRecord> {
+      private final PriorityQueue<RunHead> heads;
+
+      MergingIterator() {
+        Comparator<RunHead> headComparator = (h1, h2) -> {
+          int result = comparator.compare(h1.record, h2.record);
+          return result != 0 ? result : Integer.compare(h1.runIndex, h2.runIndex);
+        };
+        this.heads = new PriorityQueue<>(Math.max(1, runs.size()), headComparator);
+        for (int i = 0; i < runs.size(); i++) {
+          if (runs.get(i).hasNext()) {
+            this.heads.add(new RunHead(i, runs.get(i).next()));
+          }
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        return !this.heads.isEmpty();
+      }
+
+      @Override
+      public KeyedRecord next() {
+        RunHead head = this.heads.poll();
+        KeyedRecord record = head.record;
+        Iterator<KeyedRecord> run = runs.get(head.runIndex);
+        if (run.hasNext()) {
+          head.record = run.next();
+          this.heads.add(head);
+        }
+        return record;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        this.closer.close();
+      } finally {
+        for (File spillFile : this.spillFiles) {
+          if (!spillFile.delete()) {
+            log.warn("Failed to delete sorted run {}", spillFile);
+          }
+        }
+      }
+    }
+  }
+
+  private static class RunHead {
+    private final int runIndex;
+    private KeyedRecord record;
+
+    RunHead(int runIndex, KeyedRecord record) {
+      this.runIndex = runIndex;
+      this.record = record;
+    }
+  }
+}
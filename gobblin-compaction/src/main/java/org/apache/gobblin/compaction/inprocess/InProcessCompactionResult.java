@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.inprocess;
+
+import java.util.List;
+
+import org.apache.hadoop.fs.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+/**
+ * Outcome of a compaction run by an {@link InProcessCompactor}, standing in for the counters of a map-reduce job.
+ */
+@Getter
+@AllArgsConstructor
+public class InProcessCompactionResult {
+  private final String compactionId;
+  private final long inputRecordCount;
+  private final long outputRecordCount;
+  private final long dedupedRecordCount;
+  /** Files written under the job output path */
+  private final List<Path> outputFiles;
+  private final long outputBytes;
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.inprocess;
+
+import java.io.IOException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.compaction.mapreduce.MRCompactionTask;
+import org.apache.gobblin.compaction.mapreduce.MRCompactor;
+import org.apache.gobblin.runtime.TaskContext;
+import org.apache.gobblin.runtime.TaskState;
+
+
+/**
+ * A {@link MRCompactionTask} which compacts the dataset in the task's own process through
+ * {@link org.apache.gobblin.compaction.suite.CompactionSuite#compactInProcess}, which saves the job submission and
+ * container allocation overhead of map-reduce for small datasets. The same verifiers and completion actions are run.
+ *
+ * {@link org.apache.gobblin.compaction.source.CompactionSource} only creates this task for suites that
+ * {@link org.apache.gobblin.compaction.suite.CompactionSuite#supportsInProcessCompaction()}.
+ */
+@Slf4j
+public class InProcessCompactionTask extends MRCompactionTask {
+  public static final String COMPACTION_IN_PROCESS_ENABLED = MRCompactor.COMPACTION_PREFIX + "inProcess.enabled";
+  public static final boolean DEFAULT_COMPACTION_IN_PROCESS_ENABLED = false;
+  /** Datasets with more input bytes than this are still compacted with map-reduce */
+  public static final String COMPACTION_IN_PROCESS_MAX_INPUT_BYTES =
+      MRCompactor.COMPACTION_PREFIX + "inProcess.maxInputBytes";
+  public static final long DEFAULT_COMPACTION_IN_PROCESS_MAX_INPUT_BYTES = 1024L * 1024 * 1024;
+  /** Datasets with input files nested deeper than this below the dataset root are compacted with map-reduce */
+  public static final String COMPACTION_IN_PROCESS_MAX_LISTING_DEPTH =
+      MRCompactor.COMPACTION_PREFIX + "inProcess.maxListingDepth";
+  public static final int DEFAULT_COMPACTION_IN_PROCESS_MAX_LISTING_DEPTH = 3;
+
+  public InProcessCompactionTask(TaskContext taskContext) throws IOException {
+    super(taskContext);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void runCompaction() {
+    InProcessCompactionResult result;
+    try {
+      result = this.suite.compactInProcess(this.dataset);
+    } catch (Throwable t) {
+      log.error("Failed to compact " + this.dataset.getUrn() + " in process.", t);
+      this.onMRTaskComplete(false, t);
+      return;
+    }
+
+    TaskState taskState = this.taskContext.getTaskState();
+    taskState.setProp(RECORD_COUNT, result.getOutputRecordCount());
+    taskState.setProp(FILE_COUNT, result.getOutputFiles().size());
+    taskState.setProp(BYTE_COUNT, result.getOutputBytes());
+    this.onMRTaskComplete(true, null);
+  }
+}
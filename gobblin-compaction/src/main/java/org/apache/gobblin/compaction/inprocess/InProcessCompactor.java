@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.inprocess;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+
+
+/**
+ * Runs the compaction described by a configured, but not submitted, compaction {@link Job} inside the current
+ * process, producing the same output files as the job would.
+ */
+public interface InProcessCompactor {
+
+  /**
+   * @param job the compaction job from {@link org.apache.gobblin.compaction.mapreduce.CompactionJobConfigurator}
+   * @param inputPaths directories whose files should be compacted
+   * @param outputPath directory the compacted files are written to
+   */
+  InProcessCompactionResult compact(Job job, Collection<Path> inputPaths, Path outputPath) throws IOException;
+}
@@ -33,10 +33,13 @@ import com.google.common.base.Optional;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.gobblin.compaction.inprocess.AvroInProcessCompactor;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactor;
 import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyCompactorOutputFormat;
 import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyDedupReducer;
 import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyMapper;
 import org.apache.gobblin.compaction.mapreduce.avro.AvroKeyRecursiveCombineFileInputFormat;
+import org.apache.gobblin.compaction.mapreduce.avro.AvroKeySpillableDedupReducer;
 import org.apache.gobblin.compaction.mapreduce.avro.MRCompactorAvroKeyDedupJobRunner;
 import org.apache.gobblin.configuration.State;
 import org.apache.gobblin.converter.filter.AvroSchemaFieldRemover;
@@ -50,6 +53,7 @@ import org.apache.gobblin.util.AvroUtils;
 public class CompactionAvroJobConfigurator extends CompactionJobConfigurator {
 
   private Optional<String> keyFieldBlacklist;
+  private final boolean spillableDedup;
 
   public static class Factory implements CompactionJobConfigurator.ConfiguratorFactory {
     @Override
@@ -71,6 +75,8 @@ public class CompactionAvroJobConfigurator extends CompactionJobConfigurator {
     super(state);
     keyFieldBlacklist =
         Optional.fromNullable(state.getProp(MRCompactorAvroKeyDedupJobRunner.COMPACTION_JOB_KEY_FIELD_BLACKLIST));
+    spillableDedup = state.getPropAsBoolean(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_ENABLED,
+        AvroKeySpillableDedupReducer.DEFAULT_SPILLABLE_DEDUP_ENABLED);
   }
 
   /**
@@ -138,6 +144,11 @@ public class CompactionAvroJobConfigurator extends CompactionJobConfigurator {
     return keySchema;
   }
 
+  @Override
+  protected Optional<InProcessCompactor> createInProcessCompactor() {
+    return Optional.of(new AvroInProcessCompactor(this.fs, this.state));
+  }
+
   @Override
   protected void configureSchema(Job job) throws IOException {
     Schema newestSchema = MRCompactorAvroKeyDedupJobRunner.getNewestSchemaFromSource(job, this.fs);
@@ -145,7 +156,14 @@ public class CompactionAvroJobConfigurator extends CompactionJobConfigurator {
       if (this.state.getPropAsBoolean(MRCompactorAvroKeyDedupJobRunner.COMPACTION_JOB_AVRO_SINGLE_INPUT_SCHEMA, true)) {
         AvroJob.setInputKeySchema(job, newestSchema);
       }
-      AvroJob.setMapOutputKeySchema(job, this.shouldDeduplicate ? getDedupKeySchema(newestSchema) : newestSchema);
+      if (this.shouldDeduplicate && this.spillableDedup) {
+        // The mapper emits a hash bucket of the dedup key, see AvroKeySpillableDedupReducer
+        job.getConfiguration().set(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_KEY_SCHEMA,
+            getDedupKeySchema(newestSchema).toString());
+        AvroJob.setMapOutputKeySchema(job, AvroKeySpillableDedupReducer.BUCKET_SCHEMA);
+      } else {
+        AvroJob.setMapOutputKeySchema(job, this.shouldDeduplicate ? getDedupKeySchema(newestSchema) : newestSchema);
+      }
       AvroJob.setMapOutputValueSchema(job, newestSchema);
       AvroJob.setOutputKeySchema(job, newestSchema);
     }
@@ -160,7 +178,7 @@ public class CompactionAvroJobConfigurator extends CompactionJobConfigurator {
 
   protected void configureReducer(Job job) throws IOException {
     job.setOutputFormatClass(AvroKeyCompactorOutputFormat.class);
-    job.setReducerClass(AvroKeyDedupReducer.class);
+    job.setReducerClass(this.spillableDedup ? AvroKeySpillableDedupReducer.class : AvroKeyDedupReducer.class);
     job.setOutputKeyClass(AvroKey.class);
     job.setOutputValueClass(NullWritable.class);
     setNumberOfReducers(job);
@@ -39,6 +39,7 @@ import org.apache.hadoop.mapreduce.TaskCompletionEvent;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Ints;
 
@@ -48,6 +49,8 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.gobblin.compaction.dataset.DatasetHelper;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactionResult;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactor;
 import org.apache.gobblin.compaction.mapreduce.avro.MRCompactorAvroKeyDedupJobRunner;
 import org.apache.gobblin.compaction.parser.CompactionPathParser;
 import org.apache.gobblin.compaction.verify.InputRecordCountHelper;
@@ -104,6 +107,9 @@ public abstract class CompactionJobConfigurator {
   protected Collection<Path> dstNewFiles = null;
   @Getter
   protected long fileNameRecordCount = 0;
+  //Set when the job was executed by an in-process compactor instead of being submitted
+  @Getter
+  protected Optional<InProcessCompactionResult> inProcessResult = Optional.absent();
 
   public interface ConfiguratorFactory {
     CompactionJobConfigurator createConfigurator(State state) throws IOException;
@@ -168,6 +174,38 @@ public abstract class CompactionJobConfigurator {
     return job;
   }
 
+  /**
+   * Create the job for the dataset as {@link #createJob(FileSystemDataset)} does, and execute it in the current
+   * process with the compactor from {@link #createInProcessCompactor()}. The output is written to
+   * {@link #getMrOutputPath()} exactly like the map-reduce job would do.
+   *
+   * @throws UnsupportedOperationException if the format has no in-process compactor
+   */
+  public InProcessCompactionResult compactInProcess(FileSystemDataset dataset) throws IOException {
+    Optional<InProcessCompactor> compactor = createInProcessCompactor();
+    if (!compactor.isPresent()) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support in-process compaction");
+    }
+    Job job = createJob(dataset);
+    InProcessCompactionResult result = compactor.get().compact(job, this.mapReduceInputPaths, this.mrOutputPath);
+    this.inProcessResult = Optional.of(result);
+    return result;
+  }
+
+  /**
+   * @return whether the format can be compacted without map-reduce by {@link #compactInProcess(FileSystemDataset)}
+   */
+  public boolean supportsInProcessCompaction() {
+    return createInProcessCompactor().isPresent();
+  }
+
+  /**
+   * @return the {@link InProcessCompactor} for the format, or absent if it can only be compacted with map-reduce
+   */
+  protected Optional<InProcessCompactor> createInProcessCompactor() {
+    return Optional.absent();
+  }
+
   /**
    * Configuring Mapper/Reducer's input/output schema for compaction MR job.
    * The input schema for Mapper should be obtained from to-be-compacted file.
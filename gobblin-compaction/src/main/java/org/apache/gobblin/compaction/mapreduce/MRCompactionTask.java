@@ -95,6 +95,14 @@ public class MRCompactionTask extends MRTask {
       return;
     }
 
+    runCompaction();
+  }
+
+  /**
+   * Compact the verified dataset and call {@link #onMRTaskComplete(boolean, Throwable)} when done.
+   * The default is to run the map-reduce job from {@link #createJob()}.
+   */
+  protected void runCompaction() {
     super.run();
   }
 
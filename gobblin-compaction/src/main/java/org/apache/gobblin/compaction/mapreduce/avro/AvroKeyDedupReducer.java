@@ -71,7 +71,7 @@ public class AvroKeyDedupReducer extends RecordKeyDedupReducerBase<AvroKey<Gener
 
 
   @VisibleForTesting
-  protected static class AvroValueDeltaSchemaComparator implements Comparator<AvroValue<GenericRecord>> {
+  public static class AvroValueDeltaSchemaComparator implements Comparator<AvroValue<GenericRecord>> {
     private final AvroDeltaFieldNameProvider deltaSchemaProvider;
 
     public AvroValueDeltaSchemaComparator(AvroDeltaFieldNameProvider provider) {
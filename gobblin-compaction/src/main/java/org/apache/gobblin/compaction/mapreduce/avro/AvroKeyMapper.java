@@ -28,6 +28,7 @@ import org.apache.avro.mapred.AvroKey;
 import org.apache.avro.mapred.AvroValue;
 import org.apache.avro.mapreduce.AvroJob;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
@@ -43,6 +44,10 @@ import org.apache.gobblin.compaction.mapreduce.RecordKeyMapperBase;
  *
  * If the number of reducers is set to 0, then it is an identity mapper.
  *
+ * If the job uses {@link AvroKeySpillableDedupReducer}, the key is a hash bucket of that projection instead, so that
+ * the shuffle only groups records by bucket and the reducer deduplicates within each bucket. The job output is then
+ * grouped by bucket rather than sorted by the dedup key.
+ *
  * @author Ziyang Liu
  */
 public class AvroKeyMapper extends
@@ -50,13 +55,30 @@ public class AvroKeyMapper extends
   private AvroKey<GenericRecord> outKey;
   private AvroValue<GenericRecord> outValue;
   private Schema keySchema;
+  private GenericRecord dedupKey;
+  private int numBuckets = 0;
 
   @Override
   protected void setup(Context context) throws IOException, InterruptedException {
-    this.keySchema = AvroJob.getMapOutputKeySchema(context.getConfiguration());
+    Configuration conf = context.getConfiguration();
+    this.keySchema = getDedupKeySchema(conf);
     this.outKey = new AvroKey<>();
-    this.outKey.datum(new GenericData.Record(this.keySchema));
+    this.outKey.datum(new GenericData.Record(AvroJob.getMapOutputKeySchema(conf)));
     this.outValue = new AvroValue<>();
+    if (conf.get(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_KEY_SCHEMA) != null) {
+      this.dedupKey = new GenericData.Record(this.keySchema);
+      this.numBuckets = conf.getInt(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_BUCKETS,
+          AvroKeySpillableDedupReducer.DEFAULT_SPILLABLE_DEDUP_BUCKETS);
+    }
+  }
+
+  /**
+   * The schema of the projection that records are deduplicated on. This is the map output key schema, unless the
+   * job uses {@link AvroKeySpillableDedupReducer}, whose map output key is a hash bucket of the projection.
+   */
+  public static Schema getDedupKeySchema(Configuration conf) {
+    String keySchema = conf.get(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_KEY_SCHEMA);
+    return keySchema == null ? AvroJob.getMapOutputKeySchema(conf) : new Schema.Parser().parse(keySchema);
   }
 
   @Override
@@ -65,7 +87,13 @@ public class AvroKeyMapper extends
     if (context.getNumReduceTasks() == 0) {
       context.write(key, NullWritable.get());
     } else {
-      populateComparableKeyRecord(key.datum(), this.outKey.datum());
+      if (this.numBuckets > 0) {
+        populateComparableKeyRecord(key.datum(), this.dedupKey);
+        int bucket = (GenericData.get().hashCode(this.dedupKey, this.keySchema) & Integer.MAX_VALUE) % this.numBuckets;
+        this.outKey.datum().put(AvroKeySpillableDedupReducer.BUCKET_FIELD, bucket);
+      } else {
+        populateComparableKeyRecord(key.datum(), this.outKey.datum());
+      }
       this.outValue.datum(key.datum());
       try {
         context.write(this.outKey, this.outValue);
@@ -83,7 +111,7 @@ public class AvroKeyMapper extends
    * Target record's schema cannot have MAP, ARRAY or ENUM fields, or UNION fields that
    * contain these fields.
    */
-  private void populateComparableKeyRecord(GenericRecord source, GenericRecord target) {
+  public static void populateComparableKeyRecord(GenericRecord source, GenericRecord target) {
     for (Field field : target.getSchema().getFields()) {
       if (field.schema().getType() == Schema.Type.UNION) {
 
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.mapreduce.avro;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.AvroKey;
+import org.apache.avro.mapred.AvroValue;
+import org.apache.avro.mapreduce.AvroJob;
+import org.apache.hadoop.conf.Configuration;
+
+import com.google.common.base.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.compaction.dedup.AvroDedupRecordSerde;
+import org.apache.gobblin.compaction.dedup.SpillableDedupMap;
+
+
+/**
+ * A reducer for Avro compaction which deduplicates with a {@link SpillableDedupMap} instead of relying on the shuffle
+ * to group records by their dedup key.
+ *
+ * With {@link #SPILLABLE_DEDUP_ENABLED}, {@link AvroKeyMapper} emits a hash bucket of the dedup key as the map
+ * output key, so the shuffle sorts small int records instead of full keys. Every reduce call receives all records of
+ * a bucket, and retains one record per dedup key with the same rule as {@link AvroKeyDedupReducer}. Only the
+ * serialized winner of each key is kept, off-heap and bounded by {@link #SPILLABLE_DEDUP_MEMORY_BUDGET_BYTES}, beyond
+ * which sorted runs are spilled to {@link #SPILLABLE_DEDUP_SPILL_DIR}. The budget is allocated outside of the java
+ * heap, so the reducer container needs that much memory on top of its heap.
+ *
+ * Unlike {@link AvroKeyDedupReducer}, the output is ordered by bucket and not by the dedup key, so it must not be
+ * treated as sorted input, e.g. with
+ * {@link org.apache.gobblin.compaction.inprocess.AvroInProcessCompactor#INPUT_SORTED}.
+ */
+@Slf4j
+public class AvroKeySpillableDedupReducer extends AvroKeyDedupReducer {
+  private static final String COMPACTION_JOB_PREFIX = "compaction.job.";
+  public static final String SPILLABLE_DEDUP_ENABLED = COMPACTION_JOB_PREFIX + "dedup.spillable.enabled";
+  public static final boolean DEFAULT_SPILLABLE_DEDUP_ENABLED = false;
+  /** Total number of buckets the dedup keys are hashed into */
+  public static final String SPILLABLE_DEDUP_BUCKETS = COMPACTION_JOB_PREFIX + "dedup.spillable.buckets";
+  public static final int DEFAULT_SPILLABLE_DEDUP_BUCKETS = 4096;
+  public static final String SPILLABLE_DEDUP_MEMORY_BUDGET_BYTES =
+      COMPACTION_JOB_PREFIX + "dedup.spillable.memoryBudgetBytes";
+  public static final long DEFAULT_SPILLABLE_DEDUP_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+  /** Local directory for spilled runs, defaults to java.io.tmpdir, which is the container's tmp dir on YARN */
+  public static final String SPILLABLE_DEDUP_SPILL_DIR = COMPACTION_JOB_PREFIX + "dedup.spillable.spillDir";
+  /** Set by the job configurator, since the map output key schema is {@link #BUCKET_SCHEMA} */
+  public static final String SPILLABLE_DEDUP_KEY_SCHEMA = COMPACTION_JOB_PREFIX + "dedup.spillable.keySchema";
+
+  public static final String BUCKET_FIELD = "bucket";
+  public static final Schema BUCKET_SCHEMA = SchemaBuilder.record("DedupBucket")
+      .namespace("org.apache.gobblin.compaction").fields().requiredInt(BUCKET_FIELD).endRecord();
+
+  private SpillableDedupMap<GenericRecord> dedupMap;
+  private AvroValue<GenericRecord> retainedValue;
+
+  @Override
+  protected void setup(Context context) {
+    super.setup(context);
+    Configuration conf = context.getConfiguration();
+    Optional<Comparator<GenericRecord>> winnerComparator = Optional.absent();
+    if (this.deltaComparatorOptional.isPresent()) {
+      winnerComparator = Optional.of(toRecordComparator(this.deltaComparatorOptional.get()));
+    }
+    this.dedupMap = new SpillableDedupMap<>(
+        new AvroDedupRecordSerde(AvroJob.getMapOutputValueSchema(conf), AvroKeyMapper.getDedupKeySchema(conf)),
+        winnerComparator,
+        conf.getLong(SPILLABLE_DEDUP_MEMORY_BUDGET_BYTES, DEFAULT_SPILLABLE_DEDUP_MEMORY_BUDGET_BYTES),
+        new File(conf.get(SPILLABLE_DEDUP_SPILL_DIR, System.getProperty("java.io.tmpdir"))));
+    this.retainedValue = new AvroValue<>();
+  }
+
+  @Override
+  protected void reduce(AvroKey<GenericRecord> bucket, Iterable<AvroValue<GenericRecord>> values, Context context)
+      throws IOException, InterruptedException {
+    for (AvroValue<GenericRecord> value : values) {
+      this.dedupMap.put(value.datum());
+    }
+    this.dedupMap.drain((record, numRecords) -> {
+      this.retainedValue.datum(record);
+      writeRetainedValue(this.retainedValue, context);
+      updateCounters(numRecords, context);
+    });
+  }
+
+  @Override
+  protected void cleanup(Context context) throws IOException {
+    log.info("Spillable dedup spilled {} runs, {} bytes", this.dedupMap.getSpillCount(),
+        this.dedupMap.getSpilledBytes());
+    this.dedupMap.close();
+  }
+
+  private static Comparator<GenericRecord> toRecordComparator(Comparator<AvroValue<GenericRecord>> valueComparator) {
+    AvroValue<GenericRecord> left = new AvroValue<>();
+    AvroValue<GenericRecord> right = new AvroValue<>();
+    return (record1, record2) -> {
+      left.datum(record1);
+      right.datum(record2);
+      return valueComparator.compare(left, right);
+    };
+  }
+}
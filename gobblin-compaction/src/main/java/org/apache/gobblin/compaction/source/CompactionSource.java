@@ -37,6 +37,7 @@ import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
 import org.joda.time.DateTimeUtils;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
@@ -47,6 +48,8 @@ import com.google.common.collect.Maps;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.gobblin.compaction.inprocess.InProcessCompactionTask;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactionTaskFactory;
 import org.apache.gobblin.compaction.mapreduce.MRCompactionTaskFactory;
 import org.apache.gobblin.compaction.mapreduce.MRCompactor;
 import org.apache.gobblin.compaction.suite.CompactionSuite;
@@ -63,6 +66,7 @@ import org.apache.gobblin.data.management.dataset.SimpleDatasetRequest;
 import org.apache.gobblin.data.management.dataset.SimpleDatasetRequestor;
 import org.apache.gobblin.dataset.Dataset;
 import org.apache.gobblin.dataset.DatasetsFinder;
+import org.apache.gobblin.dataset.FileSystemDataset;
 import org.apache.gobblin.runtime.JobState;
 import org.apache.gobblin.runtime.task.FailedTask;
 import org.apache.gobblin.runtime.task.TaskUtils;
@@ -102,6 +106,9 @@ public class CompactionSource implements WorkUnitStreamSource<String, String> {
   private Path tmpJobDir;
   private FileSystem fs;
   private RequestAllocator<SimpleDatasetRequest> allocator;
+  private boolean inProcessCompactionEnabled;
+  private long inProcessCompactionMaxInputBytes;
+  private int inProcessCompactionMaxListingDepth;
 
   @Override
   public List<WorkUnit> getWorkunits(SourceState state) {
@@ -230,6 +237,19 @@ public class CompactionSource implements WorkUnitStreamSource<String, String> {
   private void initCompactionSource(SourceState state) throws IOException {
     state.setProp(COMPACTION_INIT_TIME, DateTimeUtils.currentTimeMillis());
     suite = CompactionSuiteUtils.getCompactionSuiteFactory(state).createSuite(state);
+    inProcessCompactionEnabled = state.getPropAsBoolean(InProcessCompactionTask.COMPACTION_IN_PROCESS_ENABLED,
+        InProcessCompactionTask.DEFAULT_COMPACTION_IN_PROCESS_ENABLED);
+    if (inProcessCompactionEnabled && !suite.supportsInProcessCompaction()) {
+      log.info("{} does not support in-process compaction, all datasets are compacted with map-reduce",
+          suite.getClass().getSimpleName());
+      inProcessCompactionEnabled = false;
+    }
+    inProcessCompactionMaxInputBytes =
+        state.getPropAsLong(InProcessCompactionTask.COMPACTION_IN_PROCESS_MAX_INPUT_BYTES,
+            InProcessCompactionTask.DEFAULT_COMPACTION_IN_PROCESS_MAX_INPUT_BYTES);
+    inProcessCompactionMaxListingDepth =
+        state.getPropAsInt(InProcessCompactionTask.COMPACTION_IN_PROCESS_MAX_LISTING_DEPTH,
+            InProcessCompactionTask.DEFAULT_COMPACTION_IN_PROCESS_MAX_LISTING_DEPTH);
 
     initRequestAllocator(state);
     initJobDir(state);
@@ -425,12 +445,60 @@ public class CompactionSource implements WorkUnitStreamSource<String, String> {
 
   protected WorkUnit createWorkUnit(Dataset dataset) throws IOException {
     WorkUnit workUnit = new WorkUnit();
-    TaskUtils.setTaskFactoryClass(workUnit, MRCompactionTaskFactory.class);
+    TaskUtils.setTaskFactoryClass(workUnit,
+        shouldCompactInProcess(dataset) ? InProcessCompactionTaskFactory.class : MRCompactionTaskFactory.class);
     suite.save(dataset, workUnit);
     workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, dataset.getUrn());
     return workUnit;
   }
 
+  /**
+   * A dataset is compacted without map-reduce if {@link InProcessCompactionTask#COMPACTION_IN_PROCESS_ENABLED} is set,
+   * the suite supports it and its input is no larger than
+   * {@link InProcessCompactionTask#COMPACTION_IN_PROCESS_MAX_INPUT_BYTES}.
+   */
+  private boolean shouldCompactInProcess(Dataset dataset) throws IOException {
+    if (!inProcessCompactionEnabled || !(dataset instanceof FileSystemDataset)
+        || ((FileSystemDataset) dataset).isVirtual()) {
+      return false;
+    }
+    Path datasetRoot = ((FileSystemDataset) dataset).datasetRoot();
+    return fs.exists(datasetRoot) && isInputSizeAtMost(fs, datasetRoot, inProcessCompactionMaxInputBytes,
+        inProcessCompactionMaxListingDepth);
+  }
+
+  /**
+   * Lists the directory level by level, and stops as soon as the files seen so far exceed maxBytes, so large datasets
+   * cost a few listings rather than a full walk.
+   *
+   * @return false if the files under dir are larger than maxBytes, or nested more than maxDepth levels below it
+   */
+  @VisibleForTesting
+  static boolean isInputSizeAtMost(FileSystem fs, Path dir, long maxBytes, int maxDepth) throws IOException {
+    long bytes = 0;
+    List<Path> level = Lists.newArrayList(dir);
+    for (int depth = 0; !level.isEmpty(); depth++) {
+      if (depth > maxDepth) {
+        return false;
+      }
+      List<Path> nextLevel = Lists.newArrayList();
+      for (Path path : level) {
+        for (FileStatus status : fs.listStatus(path)) {
+          if (status.isDirectory()) {
+            nextLevel.add(status.getPath());
+          } else {
+            bytes += status.getLen();
+            if (bytes > maxBytes) {
+              return false;
+            }
+          }
+        }
+      }
+      level = nextLevel;
+    }
+    return true;
+  }
+
   protected WorkUnit createWorkUnitForFailure (Dataset dataset) throws IOException {
     WorkUnit workUnit = new FailedTask.FailedWorkUnit();
     TaskUtils.setTaskFactoryClass(workUnit, CompactionFailedTask.CompactionFailedTaskFactory.class);
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.hadoop.mapreduce.Job;
 
 import org.apache.gobblin.compaction.action.CompactionCompleteAction;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactionResult;
 import org.apache.gobblin.compaction.mapreduce.MRCompactionTask;
 import org.apache.gobblin.compaction.verify.CompactionVerifier;
 import org.apache.gobblin.configuration.SourceState;
@@ -76,6 +77,25 @@ public interface CompactionSuite<D extends Dataset> {
    */
   Job createJob(D dataset) throws IOException;
 
+  /**
+   * Whether {@link #compactInProcess(Dataset)} is implemented for the suite and its data format.
+   * {@link org.apache.gobblin.compaction.source.CompactionSource} only assigns datasets to
+   * {@link org.apache.gobblin.compaction.inprocess.InProcessCompactionTask} if this returns true.
+   */
+  default boolean supportsInProcessCompaction() {
+    return false;
+  }
+
+  /**
+   * Compact the dataset in the current process instead of submitting the job from {@link #createJob(Dataset)}.
+   * Used by {@link org.apache.gobblin.compaction.inprocess.InProcessCompactionTask} for small datasets.
+   *
+   * @throws UnsupportedOperationException if {@link #supportsInProcessCompaction()} is false
+   */
+  default InProcessCompactionResult compactInProcess(D dataset) throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support in-process compaction");
+  }
+
   /**
    * Get a list of completion actions after compaction is finished. Actions are listed in order
    */
@@ -27,6 +27,7 @@ import org.apache.gobblin.compaction.action.CompactionCompleteAction;
 import org.apache.gobblin.compaction.action.CompactionCompleteFileOperationAction;
 import org.apache.gobblin.compaction.action.CompactionHiveRegistrationAction;
 import org.apache.gobblin.compaction.action.CompactionMarkDirectoryAction;
+import org.apache.gobblin.compaction.inprocess.InProcessCompactionResult;
 import org.apache.gobblin.compaction.mapreduce.CompactionJobConfigurator;
 import org.apache.gobblin.compaction.verify.CompactionAuditCountVerifier;
 import org.apache.gobblin.compaction.verify.CompactionThresholdVerifier;
@@ -129,6 +130,24 @@ public class CompactionSuiteBase implements CompactionSuite<FileSystemDataset> {
     return getConfigurator().createJob(dataset);
   }
 
+  /**
+   * In-process compaction depends on the data format, see
+   * {@link CompactionJobConfigurator#supportsInProcessCompaction()}
+   */
+  @Override
+  public boolean supportsInProcessCompaction() {
+    return getConfigurator().supportsInProcessCompaction();
+  }
+
+  /**
+   * Compacts the dataset without map-reduce, delegating to
+   * {@link CompactionJobConfigurator#compactInProcess(FileSystemDataset)}
+   */
+  @Override
+  public InProcessCompactionResult compactInProcess(FileSystemDataset dataset) throws IOException {
+    return getConfigurator().compactInProcess(dataset);
+  }
+
   protected CompactionJobConfigurator getConfigurator() {
     if (configurator == null) {
       synchronized (this) {
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.dedup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.io.Files;
+
+
+@Test(groups = {"gobblin.compaction"})
+public class SpillableDedupMapTest {
+  private static final Schema SCHEMA = SchemaBuilder.record("Event").namespace("dedupTest").fields()
+      .requiredString("id").requiredLong("ts").requiredInt("seq").endRecord();
+  private static final Schema KEY_SCHEMA = SchemaBuilder.record("Event").namespace("dedupTest").fields()
+      .requiredString("id").endRecord();
+  private static final Comparator<GenericRecord> LATEST_TS =
+      (r1, r2) -> Long.compare((Long) r1.get("ts"), (Long) r2.get("ts"));
+
+  private File spillDir;
+
+  @BeforeMethod
+  public void setUp() {
+    this.spillDir = Files.createTempDir();
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(this.spillDir);
+  }
+
+  @Test
+  public void testFirstRecordRetained() throws Exception {
+    Map<String, Result> inMemory = run(Optional.absent(), 1024 * 1024, 0);
+    Map<String, Result> spilled = run(Optional.absent(), 100, 1);
+
+    Assert.assertEquals(inMemory.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      Result result = inMemory.get("id" + i);
+      Assert.assertEquals(result.numRecords, 10);
+      // The first record of id<i> is the i-th record
+      Assert.assertEquals(result.seq, i);
+    }
+    Assert.assertEquals(spilled, inMemory);
+  }
+
+  @Test
+  public void testWinnerComparator() throws Exception {
+    Map<String, Result> inMemory = run(Optional.of(LATEST_TS), 1024 * 1024, 0);
+    Map<String, Result> spilled = run(Optional.of(LATEST_TS), 100, 1);
+
+    for (int i = 0; i < 10; i++) {
+      Result result = inMemory.get("id" + i);
+      Assert.assertEquals(result.numRecords, 10);
+      Assert.assertEquals(result.ts, 8L);
+      // The two records with ts 8 tie, and the earlier one is retained
+      Assert.assertEquals(result.seq, 80 + i);
+    }
+    Assert.assertEquals(spilled, inMemory);
+  }
+
+  @Test
+  public void testReuseAfterDrain() throws Exception {
+    try (SpillableDedupMap<GenericRecord> map = newMap(Optional.absent(), 64)) {
+      for (int round = 0; round < 3; round++) {
+        for (int i = 0; i < 50; i++) {
+          map.put(record("id" + (i % 5), i, i));
+        }
+        Map<String, Result> results = drain(map);
+        Assert.assertEquals(results.size(), 5);
+        Assert.assertEquals(map.size(), 0);
+      }
+      Assert.assertTrue(map.getSpillCount() > 0);
+      Assert.assertEquals(this.spillDir.listFiles().length, 0);
+    }
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testRecordLargerThanBudget() throws Exception {
+    try (SpillableDedupMap<GenericRecord> map = newMap(Optional.absent(), 16)) {
+      map.put(record("a-long-enough-id", 0, 0));
+    }
+  }
+
+  /**
+   * Put 100 records over 10 ids, where record {@code seq} has id {@code seq % 10} and ts {@code seq / 10},
+   * except that the last record of every id repeats the ts 8 of the one before.
+   */
+  private Map<String, Result> run(Optional<Comparator<GenericRecord>> comparator, long budget, long minSpills)
+      throws Exception {
+    try (SpillableDedupMap<GenericRecord> map = newMap(comparator, budget)) {
+      for (int seq = 0; seq < 100; seq++) {
+        map.put(record("id" + (seq % 10), Math.min(seq / 10, 8), seq));
+      }
+      Assert.assertTrue(map.getSpillCount() >= minSpills);
+      return drain(map);
+    }
+  }
+
+  private SpillableDedupMap<GenericRecord> newMap(Optional<Comparator<GenericRecord>> comparator, long budget) {
+    return new SpillableDedupMap<>(new AvroDedupRecordSerde(SCHEMA, KEY_SCHEMA), comparator, budget, this.spillDir);
+  }
+
+  private static Map<String, Result> drain(SpillableDedupMap<GenericRecord> map) throws Exception {
+    Map<String, Result> results = new TreeMap<>();
+    long numKeys = map.drain((record, numRecords) -> results.put(record.get("id").toString(),
+        new Result((Long) record.get("ts"), (Integer) record.get("seq"), numRecords)));
+    Assert.assertEquals(numKeys, results.size());
+    return results;
+  }
+
+  private static GenericRecord record(String id, long ts, int seq) {
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("id", id);
+    record.put("ts", ts);
+    record.put("seq", seq);
+    return record;
+  }
+
+  private static class Result {
+    private final long ts;
+    private final int seq;
+    private final int numRecords;
+
+    Result(long ts, int seq, int numRecords) {
+      this.ts = ts;
+      this.seq = seq;
+      this.numRecords = numRecords;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Result)) {
+        return false;
+      }
+      Result other = (Result) o;
+      return this.ts == other.ts && this.seq == other.seq && this.numRecords == other.numRecords;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * Long.hashCode(this.ts) + this.seq) + this.numRecords;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("ts=%d, seq=%d, numRecords=%d", this.ts, this.seq, this.numRecords);
+    }
+  }
+}
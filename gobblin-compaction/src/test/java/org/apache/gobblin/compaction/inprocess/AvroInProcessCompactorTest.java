@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.compaction.inprocess;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapreduce.AvroJob;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import org.apache.gobblin.configuration.State;
+
+
+@Test(groups = {"gobblin.compaction"})
+public class AvroInProcessCompactorTest {
+  private static final Schema SCHEMA = SchemaBuilder.record("Event").namespace("inProcessTest").fields()
+      .requiredInt("id").requiredString("value").endRecord();
+  private static final Schema KEY_SCHEMA = SchemaBuilder.record("Event").namespace("inProcessTest").fields()
+      .requiredInt("id").endRecord();
+
+  private File tmpDir;
+  private FileSystem fs;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    this.tmpDir = Files.createTempDir();
+    this.fs = FileSystem.getLocal(new Configuration());
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(this.tmpDir);
+  }
+
+  @Test
+  public void testDedupInMemory() throws Exception {
+    runDedup(new State());
+  }
+
+  @Test
+  public void testDedupWithSpilledRuns() throws Exception {
+    State state = new State();
+    state.setProp(AvroInProcessCompactor.SORT_BUFFER_RECORDS, 2);
+    state.setProp(AvroInProcessCompactor.SPILL_DIR, this.tmpDir.getAbsolutePath());
+    runDedup(state);
+  }
+
+  @Test
+  public void testDedupSortedInput() throws Exception {
+    State state = new State();
+    state.setProp(AvroInProcessCompactor.INPUT_SORTED, true);
+    runDedup(state);
+  }
+
+  @Test
+  public void testMapOnly() throws Exception {
+    Path input = new Path(this.tmpDir.getAbsolutePath(), "input");
+    writeAvro(new Path(input, "1.avro"), 3, 1, 2);
+    writeAvro(new Path(input, "2.avro"), 1, 2);
+    Job job = createJob(0);
+    Path output = new Path(this.tmpDir.getAbsolutePath(), "output");
+
+    InProcessCompactionResult result =
+        new AvroInProcessCompactor(this.fs, new State()).compact(job, ImmutableList.of(input), output);
+
+    Assert.assertEquals(result.getInputRecordCount(), 5);
+    Assert.assertEquals(result.getOutputRecordCount(), 5);
+    Assert.assertEquals(result.getDedupedRecordCount(), 0);
+    Assert.assertEquals(result.getOutputFiles().size(), 1);
+    Assert.assertTrue(result.getOutputFiles().get(0).getName().startsWith("part-m-5."));
+    Assert.assertEquals(readIds(result.getOutputFiles().get(0)).size(), 5);
+  }
+
+  @Test
+  public void testEmptyInput() throws Exception {
+    Path input = new Path(this.tmpDir.getAbsolutePath(), "input");
+    this.fs.mkdirs(input);
+    Path output = new Path(this.tmpDir.getAbsolutePath(), "output");
+
+    InProcessCompactionResult result =
+        new AvroInProcessCompactor(this.fs, new State()).compact(createJob(1), ImmutableList.of(input), output);
+
+    Assert.assertEquals(result.getOutputRecordCount(), 0);
+    Assert.assertTrue(result.getOutputFiles().isEmpty());
+    Assert.assertTrue(this.fs.exists(output));
+  }
+
+  private void runDedup(State state) throws IOException {
+    Path input = new Path(this.tmpDir.getAbsolutePath(), "input");
+    // Each file is sorted by id, so that the sorted-input mode can merge them directly
+    writeAvro(new Path(input, "1.avro"), 1, 3, 5, 5);
+    writeAvro(new Path(new Path(input, "nested"), "2.avro"), 2, 3, 4);
+    writeAvro(new Path(input, "3.avro"), 1, 6);
+    Path output = new Path(this.tmpDir.getAbsolutePath(), "output");
+
+    InProcessCompactionResult result =
+        new AvroInProcessCompactor(this.fs, state).compact(createJob(1), ImmutableList.of(input), output);
+
+    Assert.assertEquals(result.getInputRecordCount(), 9);
+    Assert.assertEquals(result.getOutputRecordCount(), 6);
+    Assert.assertEquals(result.getDedupedRecordCount(), 3);
+    Assert.assertEquals(result.getOutputFiles().size(), 1);
+    Path outputFile = result.getOutputFiles().get(0);
+    Assert.assertTrue(outputFile.getName().startsWith("part-r-6."));
+    Assert.assertEquals(result.getOutputBytes(), this.fs.getFileStatus(outputFile).getLen());
+    Assert.assertEquals(this.fs.listStatus(output).length, 1);
+    Assert.assertEquals(readIds(outputFile), ImmutableList.of(1, 2, 3, 4, 5, 6));
+  }
+
+  private Job createJob(int numReducers) throws IOException {
+    Job job = Job.getInstance(new Configuration());
+    AvroJob.setOutputKeySchema(job, SCHEMA);
+    AvroJob.setMapOutputKeySchema(job, KEY_SCHEMA);
+    job.setNumReduceTasks(numReducers);
+    return job;
+  }
+
+  private void writeAvro(Path path, int... ids) throws IOException {
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<GenericRecord>(new GenericDatumWriter<>(SCHEMA))) {
+      writer.create(SCHEMA, this.fs.create(path));
+      for (int id : ids) {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("id", id);
+        record.put("value", path.getName() + "-" + id);
+        writer.append(record);
+      }
+    }
+  }
+
+  private List<Integer> readIds(Path path) throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    try (DataFileReader<GenericRecord> reader =
+        new DataFileReader<>(new File(path.toUri().getPath()), new GenericDatumReader<GenericRecord>(SCHEMA))) {
+      for (GenericRecord record : reader) {
+        ids.add((Integer) record.get("id"));
+      }
+    }
+    return ids;
+  }
+}
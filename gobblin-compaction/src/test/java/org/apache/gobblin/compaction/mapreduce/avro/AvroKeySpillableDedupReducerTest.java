@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.compaction.mapreduce.avro;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.AvroKey;
+import org.apache.avro.mapred.AvroValue;
+import org.apache.avro.mapreduce.AvroJob;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.counters.GenericCounter;
+import org.apache.hadoop.mapreduce.lib.map.WrappedMapper;
+import org.apache.hadoop.mapreduce.lib.reduce.WrappedReducer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+import org.apache.gobblin.compaction.mapreduce.RecordKeyDedupReducerBase;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Runs {@link AvroKeyMapper} and {@link AvroKeySpillableDedupReducer} together, with the shuffle simulated by grouping
+ * the map output by bucket.
+ */
+@Test(groups = {"gobblin.compaction"})
+public class AvroKeySpillableDedupReducerTest {
+  private static final Schema SCHEMA = SchemaBuilder.record("Event").namespace("spillableDedupTest").fields()
+      .requiredString("id").requiredInt("seq").endRecord();
+  private static final Schema KEY_SCHEMA = SchemaBuilder.record("Event").namespace("spillableDedupTest").fields()
+      .requiredString("id").endRecord();
+  private static final int NUM_KEYS = 50;
+  private static final int NUM_COPIES = 3;
+
+  private File spillDir;
+
+  @BeforeMethod
+  public void setUp() {
+    this.spillDir = Files.createTempDir();
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(this.spillDir);
+  }
+
+  @Test
+  public void testMapAndReduce() throws Exception {
+    Job job = Job.getInstance(new Configuration());
+    AvroJob.setMapOutputKeySchema(job, AvroKeySpillableDedupReducer.BUCKET_SCHEMA);
+    AvroJob.setMapOutputValueSchema(job, SCHEMA);
+    Configuration conf = job.getConfiguration();
+    conf.set(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_KEY_SCHEMA, KEY_SCHEMA.toString());
+    conf.setInt(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_BUCKETS, 4);
+    // Small enough that every bucket is spilled to several runs
+    conf.setLong(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_MEMORY_BUDGET_BYTES, 256);
+    conf.set(AvroKeySpillableDedupReducer.SPILLABLE_DEDUP_SPILL_DIR, this.spillDir.getAbsolutePath());
+
+    // Map every copy of every key, and group the output by bucket like the shuffle does
+    Map<Integer, List<AvroValue<GenericRecord>>> buckets = new TreeMap<>();
+    WrappedMapper.Context mapperContext = mock(WrappedMapper.Context.class);
+    when(mapperContext.getConfiguration()).thenReturn(conf);
+    when(mapperContext.getNumReduceTasks()).thenReturn(1);
+    when(mapperContext.getCounter(any(Enum.class))).thenReturn(new GenericCounter());
+    doAnswer(invocation -> {
+      int bucket = (Integer) invocation.getArgumentAt(0, AvroKey.class).datum()
+          .get(AvroKeySpillableDedupReducer.BUCKET_FIELD);
+      GenericRecord record = (GenericRecord) invocation.getArgumentAt(1, AvroValue.class).datum();
+      buckets.computeIfAbsent(bucket, k -> new ArrayList<>()).add(new AvroValue<>(record));
+      return null;
+    }).when(mapperContext).write(any(AvroKey.class), any(AvroValue.class));
+
+    AvroKeyMapper mapper = new AvroKeyMapper();
+    mapper.setup(mapperContext);
+    for (int copy = 0; copy < NUM_COPIES; copy++) {
+      for (int i = 0; i < NUM_KEYS; i++) {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("id", "id-" + i);
+        record.put("seq", copy * NUM_KEYS + i);
+        mapper.map(new AvroKey<>(record), NullWritable.get(), mapperContext);
+      }
+    }
+    Assert.assertTrue(buckets.size() > 1);
+
+    Map<String, Integer> retained = new HashMap<>();
+    WrappedReducer.Context reducerContext = mock(WrappedReducer.Context.class);
+    when(reducerContext.getConfiguration()).thenReturn(conf);
+    when(reducerContext.getCounter(any(Enum.class))).thenReturn(new GenericCounter());
+    Counter dedupedCounter = new GenericCounter();
+    when(reducerContext.getCounter(RecordKeyDedupReducerBase.EVENT_COUNTER.DEDUPED)).thenReturn(dedupedCounter);
+    Counter recordCounter = new GenericCounter();
+    when(reducerContext.getCounter(RecordKeyDedupReducerBase.EVENT_COUNTER.RECORD_COUNT)).thenReturn(recordCounter);
+    doAnswer(invocation -> {
+      GenericRecord record = (GenericRecord) invocation.getArgumentAt(0, AvroKey.class).datum();
+      Assert.assertNull(retained.put(record.get("id").toString(), (Integer) record.get("seq")));
+      return null;
+    }).when(reducerContext).write(any(AvroKey.class), any(NullWritable.class));
+
+    AvroKeySpillableDedupReducer reducer = new AvroKeySpillableDedupReducer();
+    reducer.setup(reducerContext);
+    for (Map.Entry<Integer, List<AvroValue<GenericRecord>>> entry : buckets.entrySet()) {
+      GenericRecord bucket = new GenericData.Record(AvroKeySpillableDedupReducer.BUCKET_SCHEMA);
+      bucket.put(AvroKeySpillableDedupReducer.BUCKET_FIELD, entry.getKey());
+      reducer.reduce(new AvroKey<>(bucket), entry.getValue(), reducerContext);
+    }
+    reducer.cleanup(reducerContext);
+
+    // Without a delta field provider, the first copy of every key is retained
+    Assert.assertEquals(retained.size(), NUM_KEYS);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      Assert.assertEquals(retained.get("id-" + i), Integer.valueOf(i));
+    }
+    Assert.assertEquals(recordCounter.getValue(), NUM_KEYS);
+    Assert.assertEquals(dedupedCounter.getValue(), NUM_KEYS * (NUM_COPIES - 1));
+  }
+}
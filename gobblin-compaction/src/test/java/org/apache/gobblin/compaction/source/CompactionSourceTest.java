@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.compaction.source;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+
+@Test(groups = {"gobblin.compaction"})
+public class CompactionSourceTest {
+  private File tmpDir;
+  private FileSystem fs;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    this.tmpDir = Files.createTempDir();
+    this.fs = FileSystem.getLocal(new Configuration());
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(this.tmpDir);
+  }
+
+  @Test
+  public void testIsInputSizeAtMost() throws Exception {
+    Path root = new Path(this.tmpDir.getAbsolutePath(), "dataset");
+    writeFile(new Path(root, "00/part-0.avro"), 10);
+    writeFile(new Path(root, "01/part-0.avro"), 10);
+    writeFile(new Path(root, "01/part-1.avro"), 10);
+
+    Assert.assertTrue(CompactionSource.isInputSizeAtMost(this.fs, root, 30, 1));
+    Assert.assertFalse(CompactionSource.isInputSizeAtMost(this.fs, root, 29, 1));
+    // The files are one level below the dataset root
+    Assert.assertFalse(CompactionSource.isInputSizeAtMost(this.fs, root, 30, 0));
+    Assert.assertTrue(CompactionSource.isInputSizeAtMost(this.fs, new Path(root, "00"), 10, 0));
+  }
+
+  private void writeFile(Path path, int length) throws IOException {
+    try (FSDataOutputStream out = this.fs.create(path)) {
+      out.write(new byte[length]);
+    }
+  }
+}
@@ -43,6 +43,7 @@ import org.apache.gobblin.config.common.impl.ConfigStoreTopologyInspector;
 import org.apache.gobblin.config.common.impl.ConfigStoreValueInspector;
 import org.apache.gobblin.config.common.impl.InMemoryTopology;
 import org.apache.gobblin.config.common.impl.InMemoryValueInspector;
+import org.apache.gobblin.config.common.impl.SharedResolvedConfigValueInspector;
 import org.apache.gobblin.config.store.api.ConfigKeyPath;
 import org.apache.gobblin.config.store.api.ConfigStore;
 import org.apache.gobblin.config.store.api.ConfigStoreCreationException;
@@ -311,8 +312,15 @@ public class ConfigClient {
         new ConfigStoreBackedValueInspector(cs, currentVersion, inMemoryTopology);
     InMemoryValueInspector inMemoryValueInspector;
 
-    // ConfigStoreWithStableVersioning always create Soft reference cache
-    if (isConfigStoreWithStableVersion(cs) || this.policy == VersionStabilityPolicy.WEAK_LOCAL_STABILITY) {
+    // ConfigStoreWithStableVersioning always create Soft reference cache, and share resolved configs across clients
+    // since a stable version never changes
+    if (isConfigStoreWithStableVersion(cs)) {
+      inMemoryValueInspector = new InMemoryValueInspector(
+          new SharedResolvedConfigValueInspector(rawValueInspector, cs.getStoreURI(), currentVersion), false);
+      result = new ConfigStoreAccessor(cs, inMemoryValueInspector, inMemoryTopology);
+    }
+    // Non ConfigStoreWithStableVersioning with WEAK_LOCAL_STABILITY, use Soft reference cache
+    else if (this.policy == VersionStabilityPolicy.WEAK_LOCAL_STABILITY) {
       inMemoryValueInspector = new InMemoryValueInspector(rawValueInspector, false);
       result = new ConfigStoreAccessor(cs, inMemoryValueInspector, inMemoryTopology);
     }
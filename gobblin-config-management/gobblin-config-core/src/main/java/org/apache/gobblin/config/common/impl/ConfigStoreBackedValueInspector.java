@@ -18,12 +18,15 @@
 package org.apache.gobblin.config.common.impl;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Sets;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -34,6 +37,7 @@ import org.apache.gobblin.config.store.api.ConfigKeyPath;
 import org.apache.gobblin.config.store.api.ConfigStore;
 import org.apache.gobblin.config.store.api.ConfigStoreWithBatchFetches;
 import org.apache.gobblin.config.store.api.ConfigStoreWithResolution;
+import org.apache.gobblin.config.store.api.ConfigStoreWithResolvedSnapshot;
 
 
 /**
@@ -47,6 +51,7 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
   private final ConfigStore cs;
   private final String version;
   private final ConfigStoreTopologyInspector topology;
+  private final Supplier<Map<String, Config>> resolvedConfigSnapshot;
 
   /**
    * @param cs       - internal {@link ConfigStore} to retrieve configuration
@@ -57,6 +62,20 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
     this.cs = cs;
     this.version = version;
     this.topology = topology;
+    this.resolvedConfigSnapshot = Suppliers.memoize(new Supplier<Map<String, Config>>() {
+      @Override
+      public Map<String, Config> get() {
+        return loadResolvedConfigSnapshot();
+      }
+    });
+  }
+
+  private Map<String, Config> loadResolvedConfigSnapshot() {
+    if (this.cs instanceof ConfigStoreWithResolvedSnapshot) {
+      return ((ConfigStoreWithResolvedSnapshot) this.cs).getResolvedConfigSnapshot(this.version)
+          .or(Collections.<String, Config>emptyMap());
+    }
+    return Collections.emptyMap();
   }
 
   public ConfigStore getConfigStore() {
@@ -149,11 +168,27 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
    *
    *   1. find out all the imports recursively
    *   2. resolved the config on the fly
+   *
+   *   If the internal {@link ConfigStore} is {@link ConfigStoreWithResolvedSnapshot} and has a snapshot for the
+   *   version, the merged config is taken from the snapshot when no runtime config is given.
    * </p>
    */
   public Config getResolvedConfig(ConfigKeyPath configKey, Optional<Config> runtimeConfig) {
-    return getResolvedConfigRecursive(configKey, Sets.<String>newHashSet(), runtimeConfig)
-        .withFallback(ConfigFactory.defaultOverrides()).withFallback(ConfigFactory.systemEnvironment()).resolve();
+    Config mergedConfig =
+        runtimeConfig.isPresent() ? null : this.resolvedConfigSnapshot.get().get(configKey.getAbsolutePathString());
+    if (mergedConfig == null) {
+      mergedConfig = getResolvedConfigRecursive(configKey, Sets.<String>newHashSet(), runtimeConfig);
+    }
+    return mergedConfig.withFallback(ConfigFactory.defaultOverrides()).withFallback(ConfigFactory.systemEnvironment())
+        .resolve();
+  }
+
+  /**
+   * Get the own config of the given config key with all its imports and ancestors merged in, before substitutions
+   * are resolved. This is what {@link ResolvedConfigSnapshot} stores for each config key.
+   */
+  public Config getMergedConfig(ConfigKeyPath configKey) {
+    return getResolvedConfigRecursive(configKey, Sets.<String>newHashSet());
   }
 
   @Override
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.config.common.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.base.Charsets;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+
+import org.apache.gobblin.config.store.api.ConfigKeyPath;
+import org.apache.gobblin.config.store.api.ConfigStoreWithResolvedSnapshot;
+
+
+/**
+ * Compiles, writes and reads the snapshots served by {@link ConfigStoreWithResolvedSnapshot}.
+ *
+ * <p>
+ *   A snapshot maps the absolute path string of every config key to its
+ *   {@link ConfigStoreBackedValueInspector#getMergedConfig}, rendered as HOCON so that substitutions are kept and
+ *   resolved by the reader, exactly as when the config is merged on the fly. Imports are resolved without a runtime
+ *   config when the snapshot is compiled.
+ * </p>
+ */
+public class ResolvedConfigSnapshot {
+
+  private static final int FORMAT_VERSION = 1;
+  private static final ConfigRenderOptions RENDER_OPTIONS =
+      ConfigRenderOptions.defaults().setJson(false).setComments(false).setOriginComments(false).setFormatted(false);
+
+  /**
+   * Merge the config of every config key reachable from the root through <code>topology</code>.
+   */
+  public static Map<String, Config> compile(ConfigStoreBackedValueInspector valueInspector,
+      ConfigStoreTopologyInspector topology) {
+    Map<String, Config> snapshot = new HashMap<>();
+    Deque<ConfigKeyPath> pending = new ArrayDeque<>();
+    pending.add(SingleLinkedListConfigKeyPath.ROOT);
+    while (!pending.isEmpty()) {
+      ConfigKeyPath configKey = pending.poll();
+      snapshot.put(configKey.getAbsolutePathString(), valueInspector.getMergedConfig(configKey));
+      pending.addAll(topology.getChildren(configKey));
+    }
+    return snapshot;
+  }
+
+  public static void write(Map<String, Config> snapshot, OutputStream outputStream) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(outputStream))) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(snapshot.size());
+      for (Map.Entry<String, Config> entry : snapshot.entrySet()) {
+        out.writeUTF(entry.getKey());
+        byte[] rendered = entry.getValue().root().render(RENDER_OPTIONS).getBytes(Charsets.UTF_8);
+        out.writeInt(rendered.length);
+        out.write(rendered);
+      }
+    }
+  }
+
+  public static Map<String, Config> read(InputStream inputStream) throws IOException {
+    try (DataInputStream in = new DataInputStream(new GZIPInputStream(inputStream))) {
+      int formatVersion = in.readInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException("Unsupported resolved config snapshot format " + formatVersion);
+      }
+      int size = in.readInt();
+      Map<String, Config> snapshot = new HashMap<>(2 * size);
+      for (int i = 0; i < size; i++) {
+        String configKey = in.readUTF();
+        byte[] rendered = new byte[in.readInt()];
+        in.readFully(rendered);
+        snapshot.put(configKey, ConfigFactory.parseString(new String(rendered, Charsets.UTF_8)));
+      }
+      return snapshot;
+    }
+  }
+}
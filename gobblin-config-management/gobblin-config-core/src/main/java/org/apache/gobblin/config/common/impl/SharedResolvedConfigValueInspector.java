@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.config.common.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.typesafe.config.Config;
+
+import lombok.Data;
+
+import org.apache.gobblin.config.store.api.ConfigKeyPath;
+import org.apache.gobblin.config.store.api.ConfigStore;
+import org.apache.gobblin.config.store.api.ConfigStoreWithStableVersioning;
+
+
+/**
+ * SharedResolvedConfigValueInspector caches resolved {@link Config}s in a cache shared by the whole JVM, keyed by
+ * {@link ConfigStore} URI, version and config key path. All config clients reading the same version of a store
+ * therefore resolve every config key at most once.
+ *
+ * <p>
+ *   Only use it for {@link ConfigStoreWithStableVersioning} stores, whose versions never change. Resolutions with a
+ *   runtime config are not cached, since the imports may depend on it. Own configs are not cached either.
+ * </p>
+ */
+public class SharedResolvedConfigValueInspector implements ConfigStoreValueInspector {
+
+  private static final Cache<CacheKey, Config> RESOLVED_CONFIG_CACHE = CacheBuilder.newBuilder().softValues().build();
+
+  private final ConfigStoreValueInspector valueFallback;
+  private final URI storeUri;
+  private final String version;
+
+  /**
+   * @param valueFallback - the fall back {@link ConfigStoreValueInspector} used to resolve configs not in the cache
+   * @param storeUri      - the URI of the {@link ConfigStore}
+   * @param version       - version of the {@link ConfigStore}
+   */
+  public SharedResolvedConfigValueInspector(ConfigStoreValueInspector valueFallback, URI storeUri, String version) {
+    this.valueFallback = valueFallback;
+    this.storeUri = storeUri;
+    this.version = version;
+  }
+
+  @Override
+  public Config getOwnConfig(ConfigKeyPath configKey) {
+    return this.valueFallback.getOwnConfig(configKey);
+  }
+
+  @Override
+  public Map<ConfigKeyPath, Config> getOwnConfigs(Collection<ConfigKeyPath> configKeys) {
+    return this.valueFallback.getOwnConfigs(configKeys);
+  }
+
+  @Override
+  public Config getResolvedConfig(ConfigKeyPath configKey) {
+    return getResolvedConfig(configKey, Optional.<Config>absent());
+  }
+
+  /**
+   * {@inheritDoc}.
+   *
+   * <p>
+   *   If no runtime config is given and the config is present in the shared cache, return it.
+   *   Otherwise, delegate to the internal {@link ConfigStoreValueInspector}, and cache the value if no runtime config
+   *   is given.
+   * </p>
+   */
+  @Override
+  public Config getResolvedConfig(final ConfigKeyPath configKey, Optional<Config> runtimeConfig) {
+    if (runtimeConfig.isPresent()) {
+      return this.valueFallback.getResolvedConfig(configKey, runtimeConfig);
+    }
+    try {
+      return RESOLVED_CONFIG_CACHE.get(cacheKey(configKey), new Callable<Config>() {
+        @Override
+        public Config call() {
+          return SharedResolvedConfigValueInspector.this.valueFallback.getResolvedConfig(configKey);
+        }
+      });
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Can not getResolvedConfig for " + configKey, e.getCause());
+    }
+  }
+
+  /**
+   * {@inheritDoc}.
+   *
+   * <p>
+   *   Configs present in the shared cache are returned from it. The others are fetched from the internal
+   *   {@link ConfigStoreValueInspector} in a single batch and stored into the cache.
+   * </p>
+   */
+  @Override
+  public Map<ConfigKeyPath, Config> getResolvedConfigs(Collection<ConfigKeyPath> configKeys) {
+    Collection<ConfigKeyPath> configKeysNotInCache = new ArrayList<>();
+    Map<ConfigKeyPath, Config> result = new HashMap<>();
+    for (ConfigKeyPath configKey : configKeys) {
+      Config cachedValue = RESOLVED_CONFIG_CACHE.getIfPresent(cacheKey(configKey));
+      if (cachedValue == null) {
+        configKeysNotInCache.add(configKey);
+      } else {
+        result.put(configKey, cachedValue);
+      }
+    }
+
+    if (!configKeysNotInCache.isEmpty()) {
+      Map<ConfigKeyPath, Config> configsFromFallBack = this.valueFallback.getResolvedConfigs(configKeysNotInCache);
+      for (Map.Entry<ConfigKeyPath, Config> entry : configsFromFallBack.entrySet()) {
+        RESOLVED_CONFIG_CACHE.put(cacheKey(entry.getKey()), entry.getValue());
+      }
+      result.putAll(configsFromFallBack);
+    }
+
+    return result;
+  }
+
+  private CacheKey cacheKey(ConfigKeyPath configKey) {
+    return new CacheKey(this.storeUri, this.version, configKey.getAbsolutePathString());
+  }
+
+  @VisibleForTesting
+  static void invalidateAll() {
+    RESOLVED_CONFIG_CACHE.invalidateAll();
+  }
+
+  @Data
+  private static class CacheKey {
+    private final URI storeUri;
+    private final String version;
+    private final String configKeyPath;
+  }
+}
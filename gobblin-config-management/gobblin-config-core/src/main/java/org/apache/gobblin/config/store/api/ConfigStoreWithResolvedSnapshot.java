@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.config.store.api;
+
+import java.util.Map;
+
+import com.google.common.base.Optional;
+import com.typesafe.config.Config;
+
+import org.apache.gobblin.annotation.Alpha;
+
+
+/**
+ * ConfigStoreWithResolvedSnapshot indicates this {@link ConfigStore} can provide, with a single read, the config of
+ * every config key of a version with all its imports and ancestors merged in. Such a snapshot is compiled ahead of
+ * time, typically when the version is deployed. The config client library uses it instead of walking the imports of
+ * each config key, and only resolves the substitutions itself.
+ */
+@Alpha
+public interface ConfigStoreWithResolvedSnapshot extends ConfigStore {
+
+  /**
+   * @param  version   the configuration version of the snapshot
+   * @return the Map from the absolute path string of every config key to its merged, not yet resolved,
+   *         {@link Config}, or absent if no snapshot was compiled for this version
+   * @throws VersionDoesNotExistException if the requested config version does not exist (any longer)
+   */
+  public Optional<Map<String, Config>> getResolvedConfigSnapshot(String version)
+      throws VersionDoesNotExistException;
+}
@@ -44,11 +44,25 @@ public class FsDeploymentConfig extends DeploymentConfig {
    * @param deployableConfigSource Source that provides the deployable configs
    * @param version to be used for this deployment
    * @param storePermissions for configs being deployed
+   * @param compileResolvedSnapshot whether to compile a snapshot of the merged configs of the new version
    */
   public FsDeploymentConfig(@NonNull final DeployableConfigSource deployableConfigSource, @NonNull final String version,
-      @NonNull final FsPermission storePermissions) {
+      @NonNull final FsPermission storePermissions, final boolean compileResolvedSnapshot) {
     super(deployableConfigSource, version);
     this.storePermissions = storePermissions;
+    this.compileResolvedSnapshot = compileResolvedSnapshot;
+  }
+
+  /**
+   * Build a new {@link FsDeploymentConfig} that does not compile a snapshot of the merged configs
+   *
+   * @param deployableConfigSource Source that provides the deployable configs
+   * @param version to be used for this deployment
+   * @param storePermissions for configs being deployed
+   */
+  public FsDeploymentConfig(final DeployableConfigSource deployableConfigSource, final String version,
+      final FsPermission storePermissions) {
+    this(deployableConfigSource, version, storePermissions, false);
   }
 
   /**
@@ -66,4 +80,10 @@ public class FsDeploymentConfig extends DeploymentConfig {
    */
   private final FsPermission storePermissions;
 
+  /**
+   * Whether to compile a snapshot of the merged config of every config key of the new version, so that clients can
+   * read it instead of resolving every config key from the store.
+   */
+  private final boolean compileResolvedSnapshot;
+
 }
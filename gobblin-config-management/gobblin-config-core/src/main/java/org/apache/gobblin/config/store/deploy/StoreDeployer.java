@@ -42,8 +42,22 @@ public class StoreDeployer {
    * @param version to be used for this deployment
    *
    */
-  @SuppressWarnings({ "rawtypes", "unchecked" })
   public static void deploy(URI storeUri, DeployableConfigSource confgSource, String version) throws Exception {
+    deploy(storeUri, confgSource, version, false);
+  }
+
+  /**
+   * Deploy configs in <code>classpathStoreRoot</code> to <code>storeUri</code>
+   *
+   * @param storeUri to which confgs are deployed
+   * @param confgSource The source that provides deployable configs.
+   * @param version to be used for this deployment
+   * @param compileResolvedSnapshot whether to compile a snapshot of the merged configs of the new version
+   *
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public static void deploy(URI storeUri, DeployableConfigSource confgSource, String version,
+      boolean compileResolvedSnapshot) throws Exception {
 
     ServiceLoader<ConfigStoreFactory> loader = ServiceLoader.load(ConfigStoreFactory.class);
 
@@ -59,7 +73,8 @@ public class StoreDeployer {
 
         if (configStore instanceof Deployable<?>) {
 
-          ((Deployable) configStore).deploy(new FsDeploymentConfig(confgSource, version));
+          ((Deployable) configStore).deploy(new FsDeploymentConfig(confgSource, version,
+              FsDeploymentConfig.DEFAULT_STORE_PERMISSIONS, compileResolvedSnapshot));
 
         } else {
           log.error(String.format("Deployment failed. The store %s does not implement %s", storeFactory.getClass(),
@@ -19,11 +19,13 @@ package org.apache.gobblin.config.store.hdfs;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -52,9 +54,14 @@ import com.typesafe.config.ConfigFactory;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.gobblin.config.common.impl.ConfigStoreBackedTopology;
+import org.apache.gobblin.config.common.impl.ConfigStoreBackedValueInspector;
+import org.apache.gobblin.config.common.impl.InMemoryTopology;
+import org.apache.gobblin.config.common.impl.ResolvedConfigSnapshot;
 import org.apache.gobblin.config.common.impl.SingleLinkedListConfigKeyPath;
 import org.apache.gobblin.config.store.api.ConfigKeyPath;
 import org.apache.gobblin.config.store.api.ConfigStore;
+import org.apache.gobblin.config.store.api.ConfigStoreWithResolvedSnapshot;
 import org.apache.gobblin.config.store.api.ConfigStoreWithStableVersioning;
 import org.apache.gobblin.config.store.api.VersionDoesNotExistException;
 import org.apache.gobblin.config.store.deploy.ConfigStream;
@@ -113,6 +120,11 @@ import org.apache.gobblin.util.io.StreamUtils;
  * </p>
  *
  * <p>
+ *   A version may also contain a {@link #RESOLVED_SNAPSHOT_FILE_NAME} file in its root, holding the merged config of
+ *   every dataset of the version. See {@link #compileResolvedConfigSnapshot(String)}.
+ * </p>
+ *
+ * <p>
  *   This class is not responsible for deploying configurations from an external source to HDFS, only for reading them.
  * </p>
  *
@@ -120,13 +132,15 @@ import org.apache.gobblin.util.io.StreamUtils;
  */
 @Slf4j
 @ConfigStoreWithStableVersioning
-public class SimpleHadoopFilesystemConfigStore implements ConfigStore, Deployable<FsDeploymentConfig> {
+public class SimpleHadoopFilesystemConfigStore implements ConfigStoreWithResolvedSnapshot,
+    Deployable<FsDeploymentConfig> {
 
   public static final String CONFIG_STORE_NAME = "_CONFIG_STORE";
 
   public static final String MAIN_CONF_FILE_NAME = "main.conf";
   public static final String INCLUDES_CONF_FILE_NAME = "includes.conf";
   private static final String INCLUDES_KEY_NAME = "includes";
+  public static final String RESOLVED_SNAPSHOT_FILE_NAME = "_resolved_snapshot";
 
   private final FileSystem fs;
   private final URI physicalStoreRoot;
@@ -367,6 +381,61 @@ public class SimpleHadoopFilesystemConfigStore implements ConfigStore, Deployabl
     }
   }
 
+  /**
+   * {@inheritDoc}.
+   *
+   * <p>
+   *   The snapshot is read from the file {@value #RESOLVED_SNAPSHOT_FILE_NAME} in the root of the version, written by
+   *   {@link #compileResolvedConfigSnapshot(String)}. A snapshot that cannot be read is ignored.
+   * </p>
+   */
+  @Override
+  public Optional<Map<String, Config>> getResolvedConfigSnapshot(String version) throws VersionDoesNotExistException {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
+
+    Path snapshotFile = new Path(getVersionRoot(version), RESOLVED_SNAPSHOT_FILE_NAME);
+    try {
+      if (!this.fs.exists(snapshotFile)) {
+        return Optional.absent();
+      }
+      try (InputStream snapshotInStream = this.fs.open(snapshotFile)) {
+        Map<String, Config> snapshot = ResolvedConfigSnapshot.read(snapshotInStream);
+        log.info(String.format("Read resolved config snapshot of %d config keys from %s", snapshot.size(),
+            snapshotFile));
+        return Optional.of(snapshot);
+      }
+    } catch (IOException e) {
+      log.warn(String.format("Failed to read resolved config snapshot %s, configs will be resolved on demand",
+          snapshotFile), e);
+      return Optional.absent();
+    }
+  }
+
+  /**
+   * Merge the config of every config key of the given version and write it to the file
+   * {@value #RESOLVED_SNAPSHOT_FILE_NAME} in the root of the version.
+   */
+  public void compileResolvedConfigSnapshot(String version) throws IOException {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
+
+    InMemoryTopology topology = new InMemoryTopology(new ConfigStoreBackedTopology(this, version));
+    Map<String, Config> snapshot =
+        ResolvedConfigSnapshot.compile(new ConfigStoreBackedValueInspector(this, version, topology), topology);
+
+    Path versionRoot = getVersionRoot(version);
+    Path snapshotFile = new Path(versionRoot, RESOLVED_SNAPSHOT_FILE_NAME);
+    Path tmpSnapshotFile = new Path(versionRoot, RESOLVED_SNAPSHOT_FILE_NAME + ".tmp");
+    try (OutputStream snapshotOutStream = this.fs.create(tmpSnapshotFile, true)) {
+      ResolvedConfigSnapshot.write(snapshot, snapshotOutStream);
+    }
+    this.fs.delete(snapshotFile, false);
+    if (!this.fs.rename(tmpSnapshotFile, snapshotFile)) {
+      throw new IOException(String.format("Failed to rename %s to %s", tmpSnapshotFile, snapshotFile));
+    }
+    log.info(String.format("Compiled resolved config snapshot of %d config keys at %s", snapshot.size(),
+        snapshotFile));
+  }
+
   /**
    * Retrieves the dataset dir on HDFS associated with the given {@link ConfigKeyPath} and the given version. This
    * directory contains the {@link #MAIN_CONF_FILE_NAME} and {@link #INCLUDES_CONF_FILE_NAME} file, as well as any child
@@ -529,6 +598,10 @@ public class SimpleHadoopFilesystemConfigStore implements ConfigStore, Deployabl
         }
       }
 
+      if (deploymentConfig.isCompileResolvedSnapshot()) {
+        compileResolvedConfigSnapshot(deploymentConfig.getNewVersion());
+      }
+
       // Set permission for newly copied files
       for (FileStatus fileStatus : FileListUtils.listPathsRecursively(this.fs, hdfsNewVersionPath,
           FileListUtils.NO_OP_PATH_FILTER)) {
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.config.common.impl;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import org.apache.gobblin.config.store.api.ConfigKeyPath;
+import org.apache.gobblin.config.store.api.ConfigStoreWithResolvedSnapshot;
+
+
+public class ResolvedConfigSnapshotTest {
+
+  private final String version = "1.0";
+  private final ConfigKeyPath keyPathA = SingleLinkedListConfigKeyPath.ROOT.createChild("a");
+  private final ConfigKeyPath keyPathB = this.keyPathA.createChild("b");
+
+  @Test
+  public void testCompileWriteAndRead() throws Exception {
+    Map<String, Config> snapshot = roundTrip(compileSnapshot());
+
+    Assert.assertEquals(snapshot.keySet(), ImmutableSet.of("/", "/a", "/a/b"));
+    Config resolvedB = snapshot.get("/a/b").resolve();
+    Assert.assertEquals(resolvedB.getString("key1"), "value1InB");
+    Assert.assertEquals(resolvedB.getString("key2"), "value1InB");
+    Assert.assertEquals(resolvedB.getString("rootKey"), "rootValue");
+  }
+
+  @Test
+  public void testValueInspectorUsesSnapshot() throws Exception {
+    Map<String, Config> snapshot = roundTrip(compileSnapshot());
+
+    ConfigStoreWithResolvedSnapshot snapshotStore =
+        mock(ConfigStoreWithResolvedSnapshot.class, Mockito.RETURNS_SMART_NULLS);
+    when(snapshotStore.getResolvedConfigSnapshot(this.version)).thenReturn(Optional.of(snapshot));
+    ConfigStoreTopologyInspector mockTopology = mock(ConfigStoreTopologyInspector.class, Mockito.RETURNS_SMART_NULLS);
+
+    ConfigStoreBackedValueInspector valueInspector =
+        new ConfigStoreBackedValueInspector(snapshotStore, this.version, mockTopology);
+
+    Assert.assertEquals(valueInspector.getResolvedConfig(this.keyPathB).getString("key2"), "value1InB");
+    Assert.assertEquals(valueInspector.getResolvedConfig(this.keyPathA).getString("key2"), "value1InA");
+    verify(snapshotStore, never()).getOwnConfig(any(ConfigKeyPath.class), anyString());
+  }
+
+  private Map<String, Config> compileSnapshot() {
+    ConfigStoreWithResolvedSnapshot mockConfigStore =
+        mock(ConfigStoreWithResolvedSnapshot.class, Mockito.RETURNS_SMART_NULLS);
+    when(mockConfigStore.getResolvedConfigSnapshot(this.version)).thenReturn(Optional.<Map<String, Config>>absent());
+    when(mockConfigStore.getOwnConfig(SingleLinkedListConfigKeyPath.ROOT, this.version))
+        .thenReturn(ConfigFactory.parseString("rootKey = rootValue"));
+    when(mockConfigStore.getOwnConfig(this.keyPathA, this.version))
+        .thenReturn(ConfigFactory.parseString("key1 = value1InA \n key2 = ${key1}"));
+    when(mockConfigStore.getOwnConfig(this.keyPathB, this.version))
+        .thenReturn(ConfigFactory.parseString("key1 = value1InB"));
+
+    ConfigStoreTopologyInspector mockTopology = mock(ConfigStoreTopologyInspector.class, Mockito.RETURNS_SMART_NULLS);
+    when(mockTopology.getChildren(SingleLinkedListConfigKeyPath.ROOT))
+        .thenReturn(ImmutableList.<ConfigKeyPath>of(this.keyPathA));
+    when(mockTopology.getChildren(this.keyPathA)).thenReturn(ImmutableList.<ConfigKeyPath>of(this.keyPathB));
+    when(mockTopology.getChildren(this.keyPathB)).thenReturn(ImmutableList.<ConfigKeyPath>of());
+
+    return ResolvedConfigSnapshot.compile(
+        new ConfigStoreBackedValueInspector(mockConfigStore, this.version, mockTopology), mockTopology);
+  }
+
+  private static Map<String, Config> roundTrip(Map<String, Config> snapshot) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ResolvedConfigSnapshot.write(snapshot, outputStream);
+    return ResolvedConfigSnapshot.read(new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.config.common.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import org.apache.gobblin.config.store.api.ConfigKeyPath;
+
+
+public class SharedResolvedConfigValueInspectorTest {
+
+  private final URI storeUri = URI.create("simple-file:///store");
+  private final ConfigKeyPath keyPathA = SingleLinkedListConfigKeyPath.ROOT.createChild("a");
+  private final ConfigKeyPath keyPathB = SingleLinkedListConfigKeyPath.ROOT.createChild("b");
+  private final Config configA = ConfigFactory.parseString("key = a");
+  private final Config configB = ConfigFactory.parseString("key = b");
+
+  @BeforeMethod
+  public void setUp() {
+    SharedResolvedConfigValueInspector.invalidateAll();
+  }
+
+  @Test
+  public void testCacheIsSharedAcrossInspectors() {
+    ConfigStoreValueInspector fallback = mock(ConfigStoreValueInspector.class);
+    when(fallback.getResolvedConfig(this.keyPathA)).thenReturn(this.configA);
+
+    ConfigStoreValueInspector inspector1 = new SharedResolvedConfigValueInspector(fallback, this.storeUri, "1.0");
+    ConfigStoreValueInspector inspector2 = new SharedResolvedConfigValueInspector(fallback, this.storeUri, "1.0");
+    Assert.assertEquals(inspector1.getResolvedConfig(this.keyPathA), this.configA);
+    Assert.assertEquals(inspector2.getResolvedConfig(this.keyPathA), this.configA);
+    verify(fallback, times(1)).getResolvedConfig(this.keyPathA);
+
+    // A different version is resolved again
+    ConfigStoreValueInspector inspector3 = new SharedResolvedConfigValueInspector(fallback, this.storeUri, "2.0");
+    Assert.assertEquals(inspector3.getResolvedConfig(this.keyPathA), this.configA);
+    verify(fallback, times(2)).getResolvedConfig(this.keyPathA);
+  }
+
+  @Test
+  public void testRuntimeConfigIsNotCached() {
+    ConfigStoreValueInspector fallback = mock(ConfigStoreValueInspector.class);
+    Optional<Config> runtimeConfig = Optional.of(ConfigFactory.parseString("runtime = true"));
+    when(fallback.getResolvedConfig(this.keyPathA, runtimeConfig)).thenReturn(this.configA);
+
+    ConfigStoreValueInspector inspector = new SharedResolvedConfigValueInspector(fallback, this.storeUri, "1.0");
+    inspector.getResolvedConfig(this.keyPathA, runtimeConfig);
+    inspector.getResolvedConfig(this.keyPathA, runtimeConfig);
+    verify(fallback, times(2)).getResolvedConfig(this.keyPathA, runtimeConfig);
+  }
+
+  @Test
+  public void testBatchFetchOnlyMissingConfigs() {
+    ConfigStoreValueInspector fallback = mock(ConfigStoreValueInspector.class);
+    when(fallback.getResolvedConfig(this.keyPathA)).thenReturn(this.configA);
+    when(fallback.getResolvedConfigs(ImmutableList.of(this.keyPathB)))
+        .thenReturn(ImmutableMap.of(this.keyPathB, this.configB));
+
+    ConfigStoreValueInspector inspector = new SharedResolvedConfigValueInspector(fallback, this.storeUri, "1.0");
+    inspector.getResolvedConfig(this.keyPathA);
+    Map<ConfigKeyPath, Config> configs = inspector.getResolvedConfigs(ImmutableList.of(this.keyPathA, this.keyPathB));
+
+    Assert.assertEquals(configs, ImmutableMap.of(this.keyPathA, this.configA, this.keyPathB, this.configB));
+    verify(fallback, times(1)).getResolvedConfigs(ImmutableList.of(this.keyPathB));
+    Assert.assertEquals(inspector.getResolvedConfig(this.keyPathB), this.configB);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+
+/**
+ * Compares {@link SequentialBasedBatchAccumulator} and {@link LockFreeBatchAccumulator} with one producer thread
+ * appending records and one sending thread draining and acknowledging batches, like {@link BufferedAsyncDataWriter}.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@org.openjdk.jmh.annotations.Fork(value = 3)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchAccumulatorBenchmark {
+  private static final String RECORD = "{\"id\": 12345, \"name\": \"gobblin\", \"value\": 3.14159}";
+
+  @State(value = Scope.Group)
+  public static class AccumulatorState {
+    @Param({"sequential", "lockFree"})
+    public String accumulatorType;
+
+    private BatchAccumulator<String> _accumulator;
+
+    @Setup
+    public void setup() {
+      Properties properties = new Properties();
+      properties.setProperty(Batch.BATCH_SIZE, String.valueOf(64 * 1024));
+      properties.setProperty(Batch.BATCH_TTL, "10");
+      // large enough that the producer is not left blocked on a full queue once the sender stops measuring
+      properties.setProperty(Batch.BATCH_QUEUE_CAPACITY, "10000");
+      _accumulator = accumulatorType.equals("lockFree") ? new LockFreeBatchAccumulator<String>(properties)
+          : new SequentialBasedBatchAccumulator<String>(properties);
+    }
+
+    @TearDown
+    public void tearDown() {
+      _accumulator.close();
+      Batch<String> batch;
+      while ((batch = _accumulator.getNextAvailableBatch()) != null) {
+        acknowledge(_accumulator, batch);
+      }
+    }
+  }
+
+  private static void acknowledge(BatchAccumulator<String> accumulator, Batch<String> batch) {
+    batch.onSuccess(WriteResponse.EMPTY);
+    batch.done();
+    accumulator.deallocate(batch);
+  }
+
+  @Benchmark
+  @Group("appendAndSend")
+  @GroupThreads(1)
+  public void append(Control control, AccumulatorState state) throws Exception {
+    if (!control.stopMeasurement) {
+      state._accumulator.append(RECORD, WriteCallback.EMPTY);
+    }
+  }
+
+  @Benchmark
+  @Group("appendAndSend")
+  @GroupThreads(1)
+  public void send(Control control, AccumulatorState state) {
+    if (!control.stopMeasurement) {
+      Batch<String> batch = state._accumulator.getNextAvailableBatch();
+      if (batch != null) {
+        acknowledge(state._accumulator, batch);
+      }
+    }
+  }
+}
@@ -30,6 +30,7 @@ import org.openjdk.jmh.annotations.Group;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -55,6 +56,8 @@ import org.apache.gobblin.util.ExecutorsUtils;
 public class FineGrainedWatermarkTrackerBenchmark {
   @State(value = Scope.Group)
   public static class TrackerState {
+    @Param({"fineGrained", "ringBuffer"})
+    private String _trackerType;
     private FineGrainedWatermarkTracker _watermarkTracker;
     private ScheduledExecutorService _executorService;
     private long _index;
@@ -64,7 +67,8 @@ public class FineGrainedWatermarkTrackerBenchmark {
     public void setup() throws Exception {
       Properties properties = new Properties();
       Config config = ConfigFactory.parseProperties(properties);
-      _watermarkTracker = new FineGrainedWatermarkTracker(config);
+      _watermarkTracker = "ringBuffer".equals(_trackerType) ? new RingBufferWatermarkTracker(config)
+          : new FineGrainedWatermarkTracker(config);
       _index = 0;
       _executorService = new ScheduledThreadPoolExecutor(40,
           ExecutorsUtils.newThreadFactory(Optional.of(LoggerFactory.getLogger(FineGrainedWatermarkTrackerBenchmark.class))));
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+
+/**
+ * A {@link WriteConcurrencyLimiter} that adapts the number of outstanding writes to the observed behavior of the
+ * downstream system, using additive-increase / multiplicative-decrease.
+ *
+ * <ul>
+ *   <li>The smoothed write latency is compared to a baseline (the lowest latency seen, slowly drifting towards the
+ *   current latency). While it stays within {@code latencyTolerance} times the baseline and the window is in use,
+ *   the limit grows by about one write per window of acknowledgements.</li>
+ *   <li>When the smoothed latency exceeds the tolerance, or a write fails, the limit is multiplied by
+ *   {@code backoffRatio}. The first decrease happens right away; after that at most one decrease happens per window
+ *   of completions, so a burst of failures from a single overload event only backs off once.</li>
+ * </ul>
+ * The limit always stays between {@code minLimit} and {@code maxLimit}.
+ */
+public class AdaptiveWriteConcurrencyLimiter implements WriteConcurrencyLimiter {
+  private static final double LATENCY_SMOOTHING_FACTOR = 0.1;
+  private static final double BASELINE_DRIFT_FACTOR = 0.001;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double latencyTolerance;
+  private final double backoffRatio;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition permitAvailable = this.lock.newCondition();
+
+  private volatile double limit;
+  private int inFlight = 0;
+  private double smoothedLatencyNanos = -1;
+  private double baselineLatencyNanos = -1;
+  private long completionsSinceDecrease = 0;
+  private boolean decreased = false;
+
+  public AdaptiveWriteConcurrencyLimiter(int minLimit, int maxLimit, double latencyTolerance, double backoffRatio) {
+    Preconditions.checkArgument(minLimit > 0 && minLimit <= maxLimit, "Min limit must be in (0, maxLimit]");
+    Preconditions.checkArgument(latencyTolerance >= 1.0, "Latency tolerance must be at least 1");
+    Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1.0, "Backoff ratio must be in (0, 1)");
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyTolerance = latencyTolerance;
+    this.backoffRatio = backoffRatio;
+    this.limit = maxLimit;
+  }
+
+  @Override
+  public boolean tryAcquire(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long remainingNanos = unit.toNanos(timeout);
+    this.lock.lockInterruptibly();
+    try {
+      while (this.inFlight >= getLimit()) {
+        if (remainingNanos <= 0) {
+          return false;
+        }
+        remainingNanos = this.permitAvailable.awaitNanos(remainingNanos);
+      }
+      this.inFlight++;
+      return true;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public void release() {
+    this.lock.lock();
+    try {
+      this.inFlight--;
+      this.permitAvailable.signal();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public void onSuccess(long latencyNanos) {
+    this.lock.lock();
+    try {
+      this.completionsSinceDecrease++;
+      if (this.smoothedLatencyNanos < 0) {
+        this.smoothedLatencyNanos = latencyNanos;
+        this.baselineLatencyNanos = latencyNanos;
+        return;
+      }
+      this.smoothedLatencyNanos += LATENCY_SMOOTHING_FACTOR * (latencyNanos - this.smoothedLatencyNanos);
+      this.baselineLatencyNanos = Math.min(latencyNanos,
+          this.baselineLatencyNanos + BASELINE_DRIFT_FACTOR * (this.smoothedLatencyNanos - this.baselineLatencyNanos));
+
+      if (this.smoothedLatencyNanos > this.latencyTolerance * this.baselineLatencyNanos) {
+        maybeDecrease();
+      } else if (this.inFlight >= this.limit / 2) {
+        // only grow while the window is actually being used
+        this.limit = Math.min(this.maxLimit, this.limit + 1.0 / this.limit);
+        this.permitAvailable.signal();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public void onFailure(Throwable throwable) {
+    this.lock.lock();
+    try {
+      this.completionsSinceDecrease++;
+      maybeDecrease();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void maybeDecrease() {
+    if (!this.decreased || this.completionsSinceDecrease >= this.limit) {
+      this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+      this.completionsSinceDecrease = 0;
+      this.decreased = true;
+    }
+  }
+
+  @Override
+  public int getLimit() {
+    return (int) this.limit;
+  }
+
+  @VisibleForTesting
+  int getInFlight() {
+    return this.inFlight;
+  }
+}
@@ -19,14 +19,15 @@ package org.apache.gobblin.writer;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
@@ -63,8 +64,10 @@ import org.apache.gobblin.util.FinalState;
  * 1. Calculate metrics for: number of records in, attempted, successfully written, failed, latency.
  * 2. Wait for a specified amount of time on commit for all pending writes to complete.
  * 3. Do not proceed if a certain failure threshold is exceeded.
- * 4. Support a fixed number of retries on failure of individual records (TODO: retry strategies)
- * 5. Support a max number of outstanding / unacknowledged writes
+ * 4. Support a fixed number of retries on failure of individual records, with a fixed or exponential backoff per
+ *    error class
+ * 5. Support a max number of outstanding / unacknowledged writes, optionally adapted to the observed write latency and
+ *    failures (see {@link AdaptiveWriteConcurrencyLimiter})
  * 6. TODO: Support ordered / unordered write semantics
  *
  *
@@ -79,6 +82,23 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
   public static final int MIN_RETRY_INTERVAL_MILLIS_DEFAULT = 3;
   public static final int MAX_OUTSTANDING_WRITES_DEFAULT = 1000;
 
+  public static final String ADAPTIVE_CONCURRENCY_ENABLED_KEY = "writer.async.adaptiveConcurrency.enabled";
+  public static final boolean ADAPTIVE_CONCURRENCY_ENABLED_DEFAULT = false;
+  public static final String ADAPTIVE_CONCURRENCY_MIN_OUTSTANDING_WRITES_KEY =
+      "writer.async.adaptiveConcurrency.minOutstandingWrites";
+  public static final int ADAPTIVE_CONCURRENCY_MIN_OUTSTANDING_WRITES_DEFAULT = 10;
+  public static final String ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_KEY =
+      "writer.async.adaptiveConcurrency.latencyTolerance";
+  public static final double ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_DEFAULT = 2.0;
+  public static final String ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_KEY = "writer.async.adaptiveConcurrency.backoffRatio";
+  public static final double ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_DEFAULT = 0.9;
+  public static final String RETRY_EXPONENTIAL_BACKOFF_ENABLED_KEY = "writer.async.retry.exponentialBackoff.enabled";
+  public static final boolean RETRY_EXPONENTIAL_BACKOFF_ENABLED_DEFAULT = false;
+  public static final String RETRY_MAX_BACKOFF_MILLIS_KEY = "writer.async.retry.maxBackoffMillis";
+  public static final long RETRY_MAX_BACKOFF_MILLIS_DEFAULT = 10000L;
+  /** Comma separated list of exceptionClassName:baseBackoffMillis */
+  public static final String RETRY_ERROR_CLASS_BACKOFF_MILLIS_KEY = "writer.async.retry.errorClassBackoffMillis";
+
   private final boolean instrumentationEnabled;
 
   private MetricContext metricContext;
@@ -101,13 +121,13 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
   private final double failureAllowanceRatio;
   private final AsyncDataWriter asyncDataWriter;
   private final int numRetries;
-  private final int minRetryIntervalMillis;
+  private final WriteRetryBackoff retryBackoff;
   private final Optional<ScheduledThreadPoolExecutor> retryThreadPool;
   private final Logger log;
   @VisibleForTesting
-  final Optional<LinkedBlockingQueue<Attempt>> retryQueue;
-  private final int maxOutstandingWrites;
-  private final Semaphore writePermits;
+  final Optional<DelayQueue<Attempt>> retryQueue;
+  @VisibleForTesting
+  final WriteConcurrencyLimiter writePermits;
   private volatile Throwable cachedWriteException = null;
 
   @Override
@@ -119,7 +139,7 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
    * A class to store attempts at writing a record
    **/
   @Getter
-  class Attempt {
+  class Attempt implements Delayed {
     private final D record;
     private final Ackable ackable;
     private int attemptNum;
@@ -127,6 +147,8 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     private Throwable prevAttemptFailure; // Any failure
     @Setter
     private long prevAttemptTimestampNanos;
+    @Setter
+    private long nextAttemptTimestampNanos;
 
     void incAttempt() {
       ++this.attemptNum;
@@ -138,6 +160,17 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
       this.attemptNum = 1;
       this.prevAttemptFailure = null;
       this.prevAttemptTimestampNanos = -1;
+      this.nextAttemptTimestampNanos = -1;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(this.nextAttemptTimestampNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
     }
   }
 
@@ -198,6 +231,13 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     } else {
       this.dataWriterTimer = Optional.absent();
     }
+
+    if (this.writePermits != null
+        && !this.metricContext.getGauges().containsKey(MetricNames.DataWriterMetrics.OUTSTANDING_WRITES_LIMIT_GAUGE)) {
+      final WriteConcurrencyLimiter limiter = this.writePermits;
+      this.metricContext.register(MetricNames.DataWriterMetrics.OUTSTANDING_WRITES_LIMIT_GAUGE,
+          (Gauge<Integer>) limiter::getLimit);
+    }
   }
 
   protected AsyncWriterManager(Config config, long commitTimeoutMillis, long commitStepWaitTimeMillis,
@@ -218,15 +258,36 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     this.instrumentationEnabled = GobblinMetrics.isEnabled(state);
     this.metricContext = this.closer.register(Instrumented.getMetricContext(state, asyncDataWriter.getClass()));
 
+    if (ConfigUtils.getBoolean(config, ADAPTIVE_CONCURRENCY_ENABLED_KEY, ADAPTIVE_CONCURRENCY_ENABLED_DEFAULT)) {
+      int minOutstandingWrites = Math.min(maxOutstandingWrites, ConfigUtils.getInt(config,
+          ADAPTIVE_CONCURRENCY_MIN_OUTSTANDING_WRITES_KEY, ADAPTIVE_CONCURRENCY_MIN_OUTSTANDING_WRITES_DEFAULT));
+      double latencyTolerance = ConfigUtils.getDouble(config, ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_KEY,
+          ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_DEFAULT);
+      double backoffRatio = ConfigUtils.getDouble(config, ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_KEY,
+          ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_DEFAULT);
+      this.writePermits = new AdaptiveWriteConcurrencyLimiter(minOutstandingWrites, maxOutstandingWrites,
+          latencyTolerance, backoffRatio);
+      this.log.info("Using adaptive concurrency with outstanding writes between {} and {}", minOutstandingWrites,
+          maxOutstandingWrites);
+    } else {
+      this.writePermits = new FixedWriteConcurrencyLimiter(maxOutstandingWrites);
+    }
+
     regenerateMetrics();
 
     this.commitTimeoutMillis = commitTimeoutMillis;
     this.commitStepWaitTimeMillis = commitStepWaitTimeMillis;
     this.failureAllowanceRatio = failureAllowanceRatio;
-    this.minRetryIntervalMillis = minRetryIntervalMillis;
+    this.retryBackoff = new WriteRetryBackoff(minRetryIntervalMillis,
+        Math.max(minRetryIntervalMillis, ConfigUtils.getLong(config, RETRY_MAX_BACKOFF_MILLIS_KEY,
+            RETRY_MAX_BACKOFF_MILLIS_DEFAULT)),
+        ConfigUtils.getBoolean(config, RETRY_EXPONENTIAL_BACKOFF_ENABLED_KEY,
+            RETRY_EXPONENTIAL_BACKOFF_ENABLED_DEFAULT),
+        WriteRetryBackoff.parseErrorClassBackoffs(
+            ConfigUtils.getString(config, RETRY_ERROR_CLASS_BACKOFF_MILLIS_KEY, "")));
     if (retriesEnabled) {
       this.numRetries = numRetries;
-      this.retryQueue = Optional.of(new LinkedBlockingQueue<Attempt>());
+      this.retryQueue = Optional.of(new DelayQueue<Attempt>());
       this.retryThreadPool = Optional.of(new ScheduledThreadPoolExecutor(1,
           ExecutorsUtils.newDaemonThreadFactory(Optional.of(this.log), Optional.of("AsyncWriteManagerRetry-%d"))));
       this.retryThreadPool.get().execute(new RetryRunner());
@@ -235,8 +296,6 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
       this.retryQueue = Optional.absent();
       this.retryThreadPool = Optional.absent();
     }
-    this.maxOutstandingWrites = maxOutstandingWrites;
-    this.writePermits = new Semaphore(maxOutstandingWrites);
     this.asyncDataWriter = asyncDataWriter;
     this.closer.register(asyncDataWriter);
   }
@@ -264,7 +323,7 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
         if (spinNum % 50 == 0) {
           log.info("Spinning due to pending writes, in = " + this.recordsIn.getCount() +
               ", success = " + this.recordsSuccess.getCount() + ", failed = " + this.recordsFailed.getCount() +
-              ", maxOutstandingWrites = " + this.maxOutstandingWrites);
+              ", maxOutstandingWrites = " + this.writePermits.getLimit());
         }
       }
     } catch (InterruptedException e) {
@@ -306,14 +365,15 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
       @Override
       public void onSuccess(WriteResponse writeResponse) {
         try {
+          long latencyNanos = System.nanoTime() - attempt.getPrevAttemptTimestampNanos();
+          AsyncWriterManager.this.writePermits.onSuccess(latencyNanos);
           attempt.ackable.ack();
           AsyncWriterManager.this.recordsSuccess.mark();
           if (writeResponse.bytesWritten() > 0) {
             AsyncWriterManager.this.bytesWritten.mark(writeResponse.bytesWritten());
           }
           if (AsyncWriterManager.this.dataWriterTimer.isPresent()) {
-            AsyncWriterManager.this.dataWriterTimer.get()
-                .update(System.nanoTime() - attempt.getPrevAttemptTimestampNanos(), TimeUnit.NANOSECONDS);
+            AsyncWriterManager.this.dataWriterTimer.get().update(latencyNanos, TimeUnit.NANOSECONDS);
           }
         } finally {
           AsyncWriterManager.this.writePermits.release();
@@ -327,11 +387,14 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
           AsyncWriterManager.this.dataWriterTimer.get()
               .update(currTime - attempt.getPrevAttemptTimestampNanos(), TimeUnit.NANOSECONDS);
         }
+        AsyncWriterManager.this.writePermits.onFailure(throwable);
         if (attempt.attemptNum <= AsyncWriterManager.this.numRetries) { // attempts must == numRetries + 1
-          log.debug("Attempt {} had failure: {}; re-enqueueing record: {}", attempt.attemptNum, throwable.getMessage(),
-              attempt.getRecord().toString());
+          long backoffMillis = AsyncWriterManager.this.retryBackoff.getBackoffMillis(attempt.attemptNum, throwable);
+          log.debug("Attempt {} had failure: {}; re-enqueueing record in {} ms: {}", attempt.attemptNum,
+              throwable.getMessage(), backoffMillis, attempt.getRecord().toString());
           attempt.incAttempt();
           attempt.setPrevAttemptFailure(throwable);
+          attempt.setNextAttemptTimestampNanos(currTime + backoffMillis * MILLIS_TO_NANOS);
           AsyncWriterManager.this.retryQueue.get().add(attempt);
         } else {
           try {
@@ -352,26 +415,18 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     });
   }
 
+  /**
+   * Retries failed attempts once their backoff has elapsed. The {@link DelayQueue} hands out attempts in the order
+   * their backoff expires, so a long backoff for one error class does not hold up retries for others.
+   */
   private class RetryRunner implements Runnable {
 
-    private final LinkedBlockingQueue<Attempt> retryQueue;
-    private final long minRetryIntervalNanos;
+    private final DelayQueue<Attempt> retryQueue;
 
     public RetryRunner() {
       Preconditions
           .checkArgument(AsyncWriterManager.this.retryQueue.isPresent(), "RetryQueue must be present for RetryRunner");
       this.retryQueue = AsyncWriterManager.this.retryQueue.get();
-      this.minRetryIntervalNanos =
-          AsyncWriterManager.this.minRetryIntervalMillis * MILLIS_TO_NANOS; // 3 milliseconds in nanos
-    }
-
-    private void maybeSleep(long lastAttemptTimestampNanos)
-        throws InterruptedException {
-      long timeDiff = System.nanoTime() - lastAttemptTimestampNanos;
-      long timeToSleep = this.minRetryIntervalNanos - timeDiff;
-      if (timeToSleep > 0) {
-        Thread.sleep(timeToSleep / MILLIS_TO_NANOS);
-      }
     }
 
     @Override
@@ -380,7 +435,6 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
         try {
           Attempt attempt = this.retryQueue.take();
           if (attempt != null) {
-            maybeSleep(attempt.getPrevAttemptTimestampNanos());
             log.debug("Retry thread will retry record: {}", attempt.getRecord().toString());
             attemptWrite(attempt);
           }
@@ -43,6 +43,12 @@ public abstract class Batch<D>{
   public static final long   BATCH_SIZE_DEFAULT = 256 * 1024; // 256KB
   public static final String BATCH_QUEUE_CAPACITY = "writer.batch.queue.capacity";
   public static final long   BATCH_QUEUE_CAPACITY_DEFAULT = 100;
+  public static final String BATCH_MAX_RECORDS = "writer.batch.maxRecords";
+  public static final long   BATCH_MAX_RECORDS_DEFAULT = Long.MAX_VALUE; // no record count limit
+  public static final String BATCH_TARGET_LATENCY = "writer.batch.targetLatency";
+  public static final long   BATCH_TARGET_LATENCY_DEFAULT = -1; // no latency target
+  public static final String BATCH_ACCUMULATOR_LOCK_FREE = "writer.batch.accumulator.lockFree";
+  public static final boolean BATCH_ACCUMULATOR_LOCK_FREE_DEFAULT = false; // use SequentialBasedBatchAccumulator
 
   private final List<Thunk> thunks;
 
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.typesafe.config.Config;
+
+import org.apache.gobblin.annotation.Alpha;
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * Decides when a {@link Batch} that is being filled by a {@link LockFreeBatchAccumulator} should be sealed and
+ * handed off for sending.
+ */
+@Alpha
+public interface BatchSealingPolicy {
+
+  double BYTES_TOLERANCE = 0.95;
+
+  /**
+   * @param batch the open batch
+   * @param ageMillis time since the first record was added to the batch
+   * @return true if the batch should not take any more records
+   */
+  boolean shouldSeal(Batch<?> batch, long ageMillis);
+
+  /**
+   * @return the time after which this policy will seal the batch even if no more records arrive, or
+   * {@link Long#MAX_VALUE} if the policy does not seal by time.
+   */
+  long millisUntilSeal(Batch<?> batch, long ageMillis);
+
+  /**
+   * Called when a sealed batch has been acknowledged by the writer.
+   * @param sendLatencyMillis time between sealing the batch and its acknowledgement
+   */
+  void onBatchAcknowledged(Batch<?> batch, long sendLatencyMillis);
+
+  /**
+   * Build the sealing policy configured by {@link Batch#BATCH_SIZE}, {@link Batch#BATCH_MAX_RECORDS},
+   * {@link Batch#BATCH_TTL} and {@link Batch#BATCH_TARGET_LATENCY}. A batch is sealed as soon as any of them says so.
+   */
+  static BatchSealingPolicy fromConfig(Config config) {
+    List<BatchSealingPolicy> policies = Lists.newArrayList();
+    long batchSize = ConfigUtils.getLong(config, Batch.BATCH_SIZE, Batch.BATCH_SIZE_DEFAULT);
+    // like SequentialBasedBatchAccumulator, consider a batch full at 95% of the batch size
+    policies.add(new BytesPolicy((long) (BYTES_TOLERANCE * batchSize)));
+    long maxRecords = ConfigUtils.getLong(config, Batch.BATCH_MAX_RECORDS, Batch.BATCH_MAX_RECORDS_DEFAULT);
+    if (maxRecords != Long.MAX_VALUE) {
+      policies.add(new CountPolicy(maxRecords));
+    }
+    policies.add(new LingerPolicy(ConfigUtils.getLong(config, Batch.BATCH_TTL, Batch.BATCH_TTL_DEFAULT)));
+    long targetLatencyMillis =
+        ConfigUtils.getLong(config, Batch.BATCH_TARGET_LATENCY, Batch.BATCH_TARGET_LATENCY_DEFAULT);
+    if (targetLatencyMillis > 0) {
+      policies.add(new TargetLatencyPolicy(targetLatencyMillis));
+    }
+    return new AnyOfPolicy(policies);
+  }
+
+  /**
+   * Seals a batch once it holds at least the given number of bytes.
+   */
+  class BytesPolicy implements BatchSealingPolicy {
+    private final long maxBytes;
+
+    public BytesPolicy(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public boolean shouldSeal(Batch<?> batch, long ageMillis) {
+      return batch.getCurrentSizeInByte() >= this.maxBytes;
+    }
+
+    @Override
+    public long millisUntilSeal(Batch<?> batch, long ageMillis) {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void onBatchAcknowledged(Batch<?> batch, long sendLatencyMillis) {
+    }
+  }
+
+  /**
+   * Seals a batch once it holds the given number of records.
+   */
+  class CountPolicy implements BatchSealingPolicy {
+    private final long maxRecords;
+
+    public CountPolicy(long maxRecords) {
+      this.maxRecords = maxRecords;
+    }
+
+    @Override
+    public boolean shouldSeal(Batch<?> batch, long ageMillis) {
+      return batch.getRecords().size() >= this.maxRecords;
+    }
+
+    @Override
+    public long millisUntilSeal(Batch<?> batch, long ageMillis) {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void onBatchAcknowledged(Batch<?> batch, long sendLatencyMillis) {
+    }
+  }
+
+  /**
+   * Seals a batch once it has been open for the given time.
+   */
+  class LingerPolicy implements BatchSealingPolicy {
+    private final long lingerMillis;
+
+    public LingerPolicy(long lingerMillis) {
+      this.lingerMillis = lingerMillis;
+    }
+
+    @Override
+    public boolean shouldSeal(Batch<?> batch, long ageMillis) {
+      return ageMillis >= this.lingerMillis;
+    }
+
+    @Override
+    public long millisUntilSeal(Batch<?> batch, long ageMillis) {
+      return Math.max(0, this.lingerMillis - ageMillis);
+    }
+
+    @Override
+    public void onBatchAcknowledged(Batch<?> batch, long sendLatencyMillis) {
+    }
+  }
+
+  /**
+   * Seals a batch early enough that, given the recently observed send latency, its first record is acknowledged
+   * within the target latency.
+   */
+  class TargetLatencyPolicy implements BatchSealingPolicy {
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    private final long targetLatencyMillis;
+    private volatile double sendLatencyMillis = 0;
+
+    public TargetLatencyPolicy(long targetLatencyMillis) {
+      this.targetLatencyMillis = targetLatencyMillis;
+    }
+
+    @Override
+    public boolean shouldSeal(Batch<?> batch, long ageMillis) {
+      return millisUntilSeal(batch, ageMillis) == 0;
+    }
+
+    @Override
+    public long millisUntilSeal(Batch<?> batch, long ageMillis) {
+      return Math.max(0, this.targetLatencyMillis - (long) this.sendLatencyMillis - ageMillis);
+    }
+
+    @Override
+    public void onBatchAcknowledged(Batch<?> batch, long sendLatencyMillis) {
+      // a lost update under concurrent acknowledgements only slows down convergence
+      this.sendLatencyMillis += SMOOTHING_FACTOR * (sendLatencyMillis - this.sendLatencyMillis);
+    }
+  }
+
+  /**
+   * Seals a batch as soon as any of the given policies would.
+   */
+  class AnyOfPolicy implements BatchSealingPolicy {
+    private final List<BatchSealingPolicy> policies;
+
+    public AnyOfPolicy(List<BatchSealingPolicy> policies) {
+      this.policies = ImmutableList.copyOf(policies);
+    }
+
+    @Override
+    public boolean shouldSeal(Batch<?> batch, long ageMillis) {
+      for (BatchSealingPolicy policy : this.policies) {
+        if (policy.shouldSeal(batch, ageMillis)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public long millisUntilSeal(Batch<?> batch, long ageMillis) {
+      long millis = Long.MAX_VALUE;
+      for (BatchSealingPolicy policy : this.policies) {
+        millis = Math.min(millis, policy.millisUntilSeal(batch, ageMillis));
+      }
+      return millis;
+    }
+
+    @Override
+    public void onBatchAcknowledged(Batch<?> batch, long sendLatencyMillis) {
+      for (BatchSealingPolicy policy : this.policies) {
+        policy.onBatchAcknowledged(batch, sendLatencyMillis);
+      }
+    }
+  }
+}
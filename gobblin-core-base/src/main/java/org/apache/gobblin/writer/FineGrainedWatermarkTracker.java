@@ -86,8 +86,8 @@ public class FineGrainedWatermarkTracker implements Instrumentable, Closeable {
 
   private MetricContext _metricContext;
   protected final Closer _closer;
-  private Meter _watermarksInserted;
-  private Meter _watermarksSwept;
+  protected Meter _watermarksInserted;
+  protected Meter _watermarksSwept;
 
   private final AtomicBoolean _started;
   private final AtomicBoolean _abort;
@@ -146,10 +146,7 @@ public class FineGrainedWatermarkTracker implements Instrumentable, Closeable {
    * progressively increasing.
    */
   public void track(AcknowledgableWatermark acknowledgableWatermark) {
-    if (!_started.get() && _autoStart) {
-      start();
-    }
-    maybeAbort();
+    prepareToTrack();
     String source = acknowledgableWatermark.getCheckpointableWatermark().getSource();
     Deque<AcknowledgableWatermark> sourceWatermarks = _watermarksMap.get(source);
     if (sourceWatermarks == null) {
@@ -160,6 +157,16 @@ public class FineGrainedWatermarkTracker implements Instrumentable, Closeable {
     _watermarksInserted.mark();
   }
 
+  /**
+   * Start the tracker if it is not started yet and auto start is on, and fail if tracking has been aborted.
+   */
+  protected void prepareToTrack() {
+    if (!_started.get() && _autoStart) {
+      start();
+    }
+    maybeAbort();
+  }
+
   private void maybeAbort() throws RuntimeException {
     if (_abort.get()) {
       throw new RuntimeException("Aborting Watermark tracking");
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A {@link WriteConcurrencyLimiter} that allows a fixed number of outstanding writes.
+ */
+public class FixedWriteConcurrencyLimiter implements WriteConcurrencyLimiter {
+  private final int limit;
+  private final Semaphore permits;
+
+  public FixedWriteConcurrencyLimiter(int limit) {
+    this.limit = limit;
+    this.permits = new Semaphore(limit);
+  }
+
+  @Override
+  public boolean tryAcquire(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    return this.permits.tryAcquire(timeout, unit);
+  }
+
+  @Override
+  public void release() {
+    this.permits.release();
+  }
+
+  @Override
+  public void onSuccess(long latencyNanos) {
+  }
+
+  @Override
+  public void onFailure(Throwable throwable) {
+  }
+
+  @Override
+  public int getLimit() {
+    return this.limit;
+  }
+}
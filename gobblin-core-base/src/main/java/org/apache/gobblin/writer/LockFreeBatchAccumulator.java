@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.Futures;
+import com.typesafe.config.Config;
+
+import org.apache.gobblin.annotation.Alpha;
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * A {@link BatchAccumulator} that does not take a lock on the append path.
+ *
+ * <p>
+ *   Every producer thread appends to its own open {@link BytesBoundedBatch}. The batch is guarded by a small state
+ *   machine ({@code EMPTY -> OPEN <-> APPENDING -> SEALED}) that is only changed through compare-and-set, so a batch
+ *   is either being appended to by its producer or sealed by exactly one thread. The state is stamped with the number
+ *   of the batch it belongs to, so the sending thread can never seal a newer batch than the one it looked at, even if
+ *   the producer handed off that batch and opened the next one in between. Producers seal their batch when the
+ *   {@link BatchSealingPolicy} says it is full; the sending thread seals batches that have lingered too long. Sealed
+ *   batches are handed off through a {@link ConcurrentLinkedQueue}.
+ * </p>
+ *
+ * <p>
+ *   Producers park briefly while {@link Batch#BATCH_QUEUE_CAPACITY} sealed batches are waiting to be sent, and the
+ *   sending thread parks until a batch is handed off or the next open batch is due to be sealed.
+ * </p>
+ */
+@Alpha
+public class LockFreeBatchAccumulator<D> extends BatchAccumulator<D> {
+  private static final Logger LOG = LoggerFactory.getLogger(LockFreeBatchAccumulator.class);
+  private static final LargeMessagePolicy DEFAULT_LARGE_MESSAGE_POLICY = LargeMessagePolicy.FAIL;
+  private static final long PRODUCER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final long MAX_CONSUMER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static final int EMPTY = 0;
+  private static final int OPEN = 1;
+  private static final int APPENDING = 2;
+  private static final int SEALED = 3;
+  // the low bits of a buffer's stamp hold the state above, the remaining bits number the batches of the buffer
+  private static final int STATE_BITS = 2;
+  private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+
+  private final long memSizeLimit;
+  private final long capacity;
+  private final BatchSealingPolicy sealingPolicy;
+  private final LargeMessagePolicy largeMessagePolicy;
+
+  private final ThreadLocal<ProducerBuffer<D>> producerBuffer = ThreadLocal.withInitial(this::registerProducer);
+  private final List<ProducerBuffer<D>> producerBuffers = new CopyOnWriteArrayList<>();
+  private final Queue<Batch<D>> sealed = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger numSealed = new AtomicInteger(0);
+  // incomplete batches mapped to the time they were sealed, 0 while still open
+  private final Map<Batch<D>, Long> incomplete = new ConcurrentHashMap<>();
+  private volatile Thread consumerThread;
+
+  /**
+   * The open batch of a single producer thread.
+   */
+  private static final class ProducerBuffer<D> {
+    private final AtomicLong stamp = new AtomicLong(EMPTY);
+    private volatile BytesBoundedBatch<D> batch;
+    private volatile long createdMillis;
+  }
+
+  public LockFreeBatchAccumulator(Properties properties) {
+    this(ConfigUtils.propertiesToConfig(properties));
+  }
+
+  public LockFreeBatchAccumulator(Config config) {
+    this(ConfigUtils.getLong(config, Batch.BATCH_SIZE, Batch.BATCH_SIZE_DEFAULT),
+        ConfigUtils.getLong(config, Batch.BATCH_QUEUE_CAPACITY, Batch.BATCH_QUEUE_CAPACITY_DEFAULT),
+        BatchSealingPolicy.fromConfig(config), DEFAULT_LARGE_MESSAGE_POLICY);
+  }
+
+  public LockFreeBatchAccumulator(long batchSizeLimit, long capacity, BatchSealingPolicy sealingPolicy,
+      LargeMessagePolicy largeMessagePolicy) {
+    this.memSizeLimit = batchSizeLimit;
+    this.capacity = capacity;
+    this.sealingPolicy = sealingPolicy;
+    this.largeMessagePolicy = largeMessagePolicy;
+  }
+
+  private static int stateOf(long stamp) {
+    return (int) (stamp & STATE_MASK);
+  }
+
+  private static long withState(long stamp, int state) {
+    return (stamp & ~STATE_MASK) | state;
+  }
+
+  private static long nextBatch(long stamp, int state) {
+    return (((stamp >>> STATE_BITS) + 1) << STATE_BITS) | state;
+  }
+
+  private ProducerBuffer<D> registerProducer() {
+    ProducerBuffer<D> buffer = new ProducerBuffer<>();
+    this.producerBuffers.add(buffer);
+    return buffer;
+  }
+
+  public long getNumOfBatches() {
+    return this.numSealed.get();
+  }
+
+  @Override
+  public Future<RecordMetadata> enqueue(D record, WriteCallback callback) throws InterruptedException {
+    ProducerBuffer<D> buffer = this.producerBuffer.get();
+    while (true) {
+      long stamp = buffer.stamp.get();
+      int state = stateOf(stamp);
+      if (state == OPEN && buffer.stamp.compareAndSet(stamp, withState(stamp, APPENDING))) {
+        Future<RecordMetadata> future = null;
+        try {
+          future = buffer.batch.tryAppend(record, callback, this.largeMessagePolicy);
+        } catch (RecordTooLargeException e) {
+          // Ok if the record was too large for the current batch
+        }
+        if (future == null) {
+          // no room left, seal this batch and retry with a new one
+          handOff(buffer);
+          continue;
+        }
+        if (this.sealingPolicy.shouldSeal(buffer.batch, System.currentTimeMillis() - buffer.createdMillis)) {
+          handOff(buffer);
+        } else {
+          buffer.stamp.set(withState(stamp, OPEN));
+        }
+        return future;
+      } else if (state == EMPTY || state == SEALED) {
+        // only this producer moves the buffer out of EMPTY or SEALED, so no CAS is needed to start a new batch
+        BytesBoundedBatch<D> batch = new BytesBoundedBatch<>(this.memSizeLimit, Long.MAX_VALUE);
+        LOG.debug("Batch " + batch.getId() + " is generated");
+        Future<RecordMetadata> future;
+        try {
+          future = batch.tryAppend(record, callback, this.largeMessagePolicy);
+        } catch (RecordTooLargeException e) {
+          // If a new batch also wasn't able to accomodate the new message
+          throw new RuntimeException("Failed due to a message that was too large", e);
+        }
+
+        // The future might be null, since the largeMessagePolicy might be set to DROP
+        if (future == null) {
+          LOG.error("Batch " + batch.getId() + " is silently marked as complete, dropping a huge record: " + record);
+          callback.onSuccess(WriteResponse.EMPTY);
+          return Futures.immediateFuture(new RecordMetadata(0));
+        }
+
+        this.incomplete.put(batch, 0L);
+        buffer.batch = batch;
+        buffer.createdMillis = System.currentTimeMillis();
+        if (this.sealingPolicy.shouldSeal(batch, 0)) {
+          buffer.stamp.set(nextBatch(stamp, APPENDING));
+          handOff(buffer);
+        } else {
+          buffer.stamp.set(nextBatch(stamp, OPEN));
+        }
+        return future;
+      }
+      // the sending thread is sealing this batch, retry
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Seal the batch of the given buffer and queue it for sending. Must be called by the producer that moved the buffer
+   * into {@code APPENDING}. Waits until there is room for another sealed batch.
+   */
+  private void handOff(ProducerBuffer<D> buffer) throws InterruptedException {
+    boolean interrupted = false;
+    while (this.numSealed.get() >= this.capacity && !isClosed()) {
+      LOG.debug("Accumulator size {} is greater than capacity {}, waiting", this.numSealed.get(), this.capacity);
+      LockSupport.parkNanos(this, PRODUCER_BACKOFF_NANOS);
+      if (Thread.interrupted()) {
+        // still hand off the batch, so that its records are not lost
+        interrupted = true;
+        break;
+      }
+    }
+    BytesBoundedBatch<D> batch = buffer.batch;
+    buffer.stamp.set(withState(buffer.stamp.get(), SEALED));
+    this.incomplete.replace(batch, System.currentTimeMillis());
+    this.sealed.add(batch);
+    this.numSealed.incrementAndGet();
+    Thread consumer = this.consumerThread;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+    if (interrupted) {
+      throw new InterruptedException("Interrupted while waiting for accumulator capacity");
+    }
+  }
+
+  /**
+   * Seal every open batch for which {@code force} is set or the sealing policy says it is due.
+   * @return milliseconds until the next open batch is due to be sealed
+   */
+  private long sealOpenBatches(boolean force) {
+    long nextDueMillis = Long.MAX_VALUE;
+    long now = System.currentTimeMillis();
+    for (ProducerBuffer<D> buffer : this.producerBuffers) {
+      long stamp = buffer.stamp.get();
+      if (stateOf(stamp) != OPEN) {
+        continue;
+      }
+      // the producer publishes a new batch before its stamp, so this is the batch of the stamp or a newer one, in which
+      // case the stamp has moved on and the compare-and-set below fails
+      BytesBoundedBatch<D> batch = buffer.batch;
+      long ageMillis = now - buffer.createdMillis;
+      if (force || this.sealingPolicy.shouldSeal(batch, ageMillis)) {
+        if (buffer.stamp.compareAndSet(stamp, withState(stamp, SEALED))) {
+          LOG.debug("Batch " + batch.getId() + " is expired");
+          this.incomplete.replace(batch, now);
+          this.sealed.add(batch);
+          this.numSealed.incrementAndGet();
+        }
+      } else {
+        nextDueMillis = Math.min(nextDueMillis, this.sealingPolicy.millisUntilSeal(batch, ageMillis));
+      }
+    }
+    return nextDueMillis;
+  }
+
+  private Batch<D> pollSealed() {
+    Batch<D> batch = this.sealed.poll();
+    if (batch != null) {
+      this.numSealed.decrementAndGet();
+      LOG.debug("retrieve batch " + batch.getId());
+    }
+    return batch;
+  }
+
+  /**
+   * If accumulator has been closed, all open batches are sealed and the first sealed batch is returned, or null if
+   * there is none left. Otherwise the first sealed batch is returned; if there is none, the current thread parks
+   * until a batch is handed off or an open batch is due to be sealed, and null is returned if there is still none.
+   */
+  @Override
+  public Batch<D> getNextAvailableBatch() {
+    this.consumerThread = Thread.currentThread();
+    Batch<D> batch = pollSealed();
+    if (batch != null) {
+      return batch;
+    }
+    if (isClosed()) {
+      sealOpenBatches(true);
+      return pollSealed();
+    }
+    long nextDueMillis = sealOpenBatches(false);
+    batch = pollSealed();
+    if (batch != null) {
+      return batch;
+    }
+    LockSupport.parkNanos(this, Math.min(MAX_CONSUMER_PARK_NANOS, TimeUnit.MILLISECONDS.toNanos(nextDueMillis)));
+    sealOpenBatches(false);
+    return pollSealed();
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    Thread consumer = this.consumerThread;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /**
+   * Seal all open batches and block until all the incomplete batches are acknowledged
+   */
+  @Override
+  public void flush() {
+    try {
+      sealOpenBatches(true);
+      Thread consumer = this.consumerThread;
+      if (consumer != null) {
+        LockSupport.unpark(consumer);
+      }
+      List<Batch<D>> batches = new ArrayList<>(this.incomplete.keySet());
+      LOG.debug("Flush called on {} batches", batches.size());
+      for (Batch<D> batch : batches) {
+        batch.await();
+      }
+    } catch (Exception e) {
+      LOG.error("Error happened while flushing batches");
+    }
+  }
+
+  /**
+   * Once batch is acknowledged, remove it from incomplete list
+   */
+  @Override
+  public void deallocate(Batch<D> batch) {
+    Long sealedMillis = this.incomplete.remove(batch);
+    if (sealedMillis == null) {
+      throw new IllegalStateException("Remove from the incomplete set failed. This should be impossible.");
+    }
+    if (sealedMillis > 0) {
+      this.sealingPolicy.onBatchAcknowledged(batch, System.currentTimeMillis() - sealedMillis);
+    }
+  }
+}
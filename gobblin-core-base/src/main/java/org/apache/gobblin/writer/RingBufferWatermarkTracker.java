@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.typesafe.config.Config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.source.extractor.CheckpointableWatermark;
+
+
+/**
+ * A {@link FineGrainedWatermarkTracker} that keeps the in-flight watermarks of each source in a ring buffer instead of
+ * a linked deque.
+ *
+ * Watermarks of a source are stored in tracking order, so a slot is addressed by a per-source sequence number rather
+ * than by the offset itself, which keeps the ring dense when offsets have gaps. Tracking a watermark is a single array
+ * store and does not take a lock or allocate a node; acknowledgements stay on the {@link AcknowledgableWatermark}
+ * itself. The sweeper advances the head of each ring past the contiguous acked prefix and publishes the highest
+ * acked watermark, which {@link #getCommittableWatermarks()} then reads in constant time per source.
+ *
+ * Same as {@link FineGrainedWatermarkTracker}, {@link #track(AcknowledgableWatermark)} must be called from a single
+ * thread with progressively increasing watermarks.
+ */
+@Slf4j
+public class RingBufferWatermarkTracker extends FineGrainedWatermarkTracker {
+
+  public static final String WATERMARK_TRACKER_RING_BUFFER_ENABLED = "watermark.tracker.ringBuffer.enabled";
+  public static final boolean DEFAULT_WATERMARK_TRACKER_RING_BUFFER_ENABLED = false;
+  private static final int INITIAL_RING_CAPACITY = 1024;
+
+  private final ConcurrentMap<String, WatermarkRing> _rings = new ConcurrentHashMap<>();
+  private final AtomicBoolean _sweeping = new AtomicBoolean(false);
+
+  public RingBufferWatermarkTracker(Config config) {
+    super(config);
+  }
+
+  @Override
+  public void track(AcknowledgableWatermark acknowledgableWatermark) {
+    prepareToTrack();
+    String source = acknowledgableWatermark.getCheckpointableWatermark().getSource();
+    WatermarkRing ring = _rings.get(source);
+    if (ring == null) {
+      ring = new WatermarkRing();
+      _rings.put(source, ring);
+    }
+    ring.add(acknowledgableWatermark);
+    _watermarksInserted.mark();
+  }
+
+  /**
+   * Sweep acked watermarks and return the highest contiguous acked watermark of each source. If a sweep is already
+   * running on another thread, the watermarks published by the previous sweep are returned, which are never ahead of
+   * the acknowledgements.
+   */
+  @Override
+  public Map<String, CheckpointableWatermark> getCommittableWatermarks() {
+    sweep();
+    Map<String, CheckpointableWatermark> commitableWatermarks = new HashMap<>(_rings.size());
+    for (Map.Entry<String, WatermarkRing> entry : _rings.entrySet()) {
+      AcknowledgableWatermark highestAcked = entry.getValue()._highestAcked;
+      if (highestAcked != null) {
+        commitableWatermarks.put(entry.getKey(), highestAcked.getCheckpointableWatermark());
+      }
+    }
+    return commitableWatermarks;
+  }
+
+  @Override
+  public Map<String, CheckpointableWatermark> getUnacknowledgedWatermarks() {
+    Map<String, CheckpointableWatermark> unackedWatermarks = new HashMap<>(_rings.size());
+    for (Map.Entry<String, WatermarkRing> entry : _rings.entrySet()) {
+      AcknowledgableWatermark lowestUnacked = entry.getValue().lowestUnacked();
+      if (lowestUnacked != null) {
+        unackedWatermarks.put(entry.getKey(), lowestUnacked.getCheckpointableWatermark());
+      }
+    }
+    return unackedWatermarks;
+  }
+
+  /**
+   * Advance every ring past its contiguous acked prefix. Unlike {@link FineGrainedWatermarkTracker#sweep()}, the
+   * highest acked watermark is kept outside of the ring, so all acked watermarks of the prefix are collected.
+   * @return number of elements collected, 0 if another sweep is in progress
+   */
+  @Override
+  @VisibleForTesting
+  int sweep() {
+    if (!_sweeping.compareAndSet(false, true)) {
+      return 0;
+    }
+    try {
+      long startTime = System.nanoTime();
+      int swept = 0;
+      for (WatermarkRing ring : _rings.values()) {
+        swept += ring.sweep();
+      }
+      log.debug("Swept {} watermarks in {} nanos", swept, System.nanoTime() - startTime);
+      _watermarksSwept.mark(swept);
+      return swept;
+    } finally {
+      _sweeping.set(false);
+    }
+  }
+
+  @VisibleForTesting
+  int getCapacity(String source) {
+    WatermarkRing ring = _rings.get(source);
+    return ring == null ? 0 : ring._slots.length;
+  }
+
+  /**
+   * A single-producer ring of watermarks. Only the tracking thread writes slots and {@link #_tail}, only the sweeping
+   * thread moves {@link #_head}. A slot is written before {@link #_tail} is published and is only reused once
+   * {@link #_head} has moved past it, so readers that load {@link #_tail} first see every slot before it.
+   */
+  private static class WatermarkRing {
+    private volatile AcknowledgableWatermark[] _slots = new AcknowledgableWatermark[INITIAL_RING_CAPACITY];
+    private volatile long _head = 0;
+    private volatile long _tail = 0;
+    private volatile AcknowledgableWatermark _highestAcked;
+
+    void add(AcknowledgableWatermark watermark) {
+      AcknowledgableWatermark[] slots = _slots;
+      long tail = _tail;
+      if (tail - _head >= slots.length) {
+        slots = grow(slots, tail);
+      }
+      slots[(int) (tail & (slots.length - 1))] = watermark;
+      _tail = tail + 1;
+    }
+
+    /**
+     * Double the ring, copying the in-flight watermarks. A concurrent sweep may still clear slots of the old array,
+     * which leaves stale references in the new one until they are overwritten, but never loses an unswept slot.
+     */
+    private AcknowledgableWatermark[] grow(AcknowledgableWatermark[] slots, long tail) {
+      AcknowledgableWatermark[] grown = new AcknowledgableWatermark[slots.length << 1];
+      for (long seq = _head; seq < tail; seq++) {
+        grown[(int) (seq & (grown.length - 1))] = slots[(int) (seq & (slots.length - 1))];
+      }
+      _slots = grown;
+      return grown;
+    }
+
+    int sweep() {
+      long tail = _tail;
+      AcknowledgableWatermark[] slots = _slots;
+      int mask = slots.length - 1;
+      long head = _head;
+      AcknowledgableWatermark highestAcked = null;
+      while (head < tail) {
+        int index = (int) (head & mask);
+        AcknowledgableWatermark watermark = slots[index];
+        if (!watermark.isAcked()) {
+          break;
+        }
+        slots[index] = null;
+        highestAcked = watermark;
+        head++;
+      }
+      int swept = (int) (head - _head);
+      if (highestAcked != null) {
+        _highestAcked = highestAcked;
+        _head = head;
+      }
+      return swept;
+    }
+
+    AcknowledgableWatermark lowestUnacked() {
+      long tail = _tail;
+      AcknowledgableWatermark[] slots = _slots;
+      int mask = slots.length - 1;
+      for (long seq = _head; seq < tail; seq++) {
+        AcknowledgableWatermark watermark = slots[(int) (seq & mask)];
+        // a cleared slot was swept concurrently, so it was acked
+        if (watermark != null && !watermark.isAcked()) {
+          return watermark;
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Bounds the number of outstanding (unacknowledged) writes issued by {@link AsyncWriterManager}.
+ * Implementations may use the outcome of each write to adjust the bound.
+ */
+public interface WriteConcurrencyLimiter {
+
+  /**
+   * Acquire a permit for a new write, waiting up to the given time for one to become available.
+   * @return true if a permit was acquired
+   */
+  boolean tryAcquire(long timeout, TimeUnit unit)
+      throws InterruptedException;
+
+  /**
+   * Return a permit once a write has been acknowledged, or has failed for the last time.
+   */
+  void release();
+
+  /**
+   * Called when a write attempt succeeds.
+   * @param latencyNanos time between issuing the attempt and its acknowledgement
+   */
+  void onSuccess(long latencyNanos);
+
+  /**
+   * Called when a write attempt fails, whether or not it will be retried.
+   */
+  void onFailure(Throwable throwable);
+
+  /**
+   * @return the current maximum number of outstanding writes
+   */
+  int getLimit();
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+
+
+/**
+ * Computes how long {@link AsyncWriterManager} waits before retrying a failed write.
+ *
+ * The base delay depends on the class of the failure: the first class name in the failure's cause chain (checking
+ * super classes as well) that has a configured delay wins, otherwise the default delay is used. By default every retry
+ * waits for the base delay. With exponential backoff, the delay doubles with every attempt up to
+ * {@code maxBackoffMillis}, and a random jitter of up to half the delay is subtracted so that writes failing together
+ * do not retry together.
+ */
+public class WriteRetryBackoff {
+  private final long defaultBaseMillis;
+  private final long maxBackoffMillis;
+  private final boolean exponential;
+  private final Map<String, Long> baseMillisByErrorClass;
+
+  public WriteRetryBackoff(long defaultBaseMillis, long maxBackoffMillis, boolean exponential,
+      Map<String, Long> baseMillisByErrorClass) {
+    Preconditions.checkArgument(defaultBaseMillis >= 0, "Base backoff must not be negative");
+    Preconditions.checkArgument(maxBackoffMillis >= defaultBaseMillis, "Max backoff must be at least the base backoff");
+    this.defaultBaseMillis = defaultBaseMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.exponential = exponential;
+    this.baseMillisByErrorClass = ImmutableMap.copyOf(baseMillisByErrorClass);
+  }
+
+  /**
+   * Parse per error class base delays from a string of the form
+   * {@code java.net.SocketTimeoutException:1000,com.example.ThrottledException:5000}.
+   */
+  public static Map<String, Long> parseErrorClassBackoffs(String errorClassBackoffs) {
+    if (Strings.isNullOrEmpty(errorClassBackoffs)) {
+      return ImmutableMap.of();
+    }
+    ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+    for (Map.Entry<String, String> entry : Splitter.on(',').omitEmptyStrings().trimResults()
+        .withKeyValueSeparator(':').split(errorClassBackoffs).entrySet()) {
+      builder.put(entry.getKey(), Long.parseLong(entry.getValue()));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @param attemptNum the number of the attempt that just failed, starting at 1
+   * @param failure the failure of that attempt
+   * @return the delay in milliseconds before the next attempt
+   */
+  public long getBackoffMillis(int attemptNum, Throwable failure) {
+    long baseMillis = getBaseMillis(failure);
+    if (!this.exponential) {
+      return baseMillis;
+    }
+    long backoff = baseMillis << Math.min(Math.max(attemptNum - 1, 0), 30);
+    if (backoff < baseMillis || backoff > this.maxBackoffMillis) {
+      backoff = this.maxBackoffMillis;
+    }
+    if (backoff <= 1) {
+      return backoff;
+    }
+    return backoff - ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+  }
+
+  private long getBaseMillis(Throwable failure) {
+    if (!this.baseMillisByErrorClass.isEmpty()) {
+      for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+        for (Class<?> clazz = t.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+          Long baseMillis = this.baseMillisByErrorClass.get(clazz.getName());
+          if (baseMillis != null) {
+            return baseMillis;
+          }
+        }
+      }
+    }
+    return this.defaultBaseMillis;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+
+public class AdaptiveWriteConcurrencyLimiterTest {
+
+  @Test
+  public void testBacksOffOnFailuresAndLatency()
+      throws Exception {
+    AdaptiveWriteConcurrencyLimiter limiter = new AdaptiveWriteConcurrencyLimiter(2, 100, 2.0, 0.5);
+    Assert.assertEquals(limiter.getLimit(), 100);
+
+    // the first failure backs off right away, and a burst of failures within one window only backs off once
+    limiter.onFailure(new IOException("failed"));
+    Assert.assertEquals(limiter.getLimit(), 50);
+    for (int i = 0; i < 10; i++) {
+      limiter.onFailure(new IOException("failed"));
+    }
+    Assert.assertEquals(limiter.getLimit(), 50);
+
+    // latency well above the baseline backs off as well
+    limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+    for (int i = 0; i < 200; i++) {
+      limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+    Assert.assertTrue(limiter.getLimit() < 50);
+
+    // never below the min limit
+    for (int i = 0; i < 1000; i++) {
+      limiter.onFailure(new IOException("failed"));
+    }
+    Assert.assertEquals(limiter.getLimit(), 2);
+  }
+
+  @Test
+  public void testGrowsWhileWindowIsUsed()
+      throws Exception {
+    AdaptiveWriteConcurrencyLimiter limiter = new AdaptiveWriteConcurrencyLimiter(4, 8, 2.0, 0.5);
+    for (int i = 0; i < 8; i++) {
+      limiter.onFailure(new IOException("failed"));
+    }
+    Assert.assertEquals(limiter.getLimit(), 4);
+
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+    }
+    Assert.assertFalse(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+
+    // steady latency with a full window grows the limit
+    for (int i = 0; i < 100; i++) {
+      limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+    Assert.assertEquals(limiter.getLimit(), 8);
+    Assert.assertTrue(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(limiter.getInFlight(), 5);
+
+    for (int i = 0; i < 5; i++) {
+      limiter.release();
+    }
+    Assert.assertEquals(limiter.getInFlight(), 0);
+  }
+
+  @Test
+  public void testRetryBackoffPerErrorClass() {
+    WriteRetryBackoff fixedBackoff = new WriteRetryBackoff(10, 1000, false,
+        WriteRetryBackoff.parseErrorClassBackoffs("java.net.SocketTimeoutException:400"));
+    Assert.assertEquals(fixedBackoff.getBackoffMillis(1, new IOException("failed")), 10);
+    Assert.assertEquals(fixedBackoff.getBackoffMillis(5, new IOException("failed")), 10);
+    Assert.assertEquals(fixedBackoff.getBackoffMillis(5, new SocketTimeoutException("timed out")), 400);
+
+    WriteRetryBackoff backoff = new WriteRetryBackoff(10, 1000, true,
+        WriteRetryBackoff.parseErrorClassBackoffs("java.net.SocketTimeoutException:400"));
+
+    for (int i = 0; i < 20; i++) {
+      long first = backoff.getBackoffMillis(1, new IOException("failed"));
+      Assert.assertTrue(first >= 5 && first <= 10, "Unexpected backoff " + first);
+      long third = backoff.getBackoffMillis(3, new IOException("failed"));
+      Assert.assertTrue(third >= 20 && third <= 40, "Unexpected backoff " + third);
+
+      // matched through the cause chain, and capped at the max backoff
+      long wrapped = backoff.getBackoffMillis(1, new RuntimeException(new SocketTimeoutException("timed out")));
+      Assert.assertTrue(wrapped >= 200 && wrapped <= 400, "Unexpected backoff " + wrapped);
+      long capped = backoff.getBackoffMillis(5, new SocketTimeoutException("timed out"));
+      Assert.assertTrue(capped >= 500 && capped <= 1000, "Unexpected backoff " + capped);
+    }
+    Assert.assertEquals(WriteRetryBackoff.parseErrorClassBackoffs(""), ImmutableMap.of());
+  }
+}
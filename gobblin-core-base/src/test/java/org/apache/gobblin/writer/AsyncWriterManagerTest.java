@@ -19,9 +19,9 @@ package org.apache.gobblin.writer;
 
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -288,7 +288,7 @@ public class AsyncWriterManagerTest {
       }
     }, 0, tickDiffInNanos, TimeUnit.NANOSECONDS);
 
-    LinkedBlockingQueue retryQueue = (LinkedBlockingQueue) asyncWriterManager.retryQueue.get();
+    DelayQueue retryQueue = asyncWriterManager.retryQueue.get();
 
     int sleepTime = 100;
     int totalTime = 10000;
@@ -89,7 +89,7 @@ public class FineGrainedWatermarkTrackerTest {
     }
   }
 
-  private static void verifyCommitables(FineGrainedWatermarkTracker tracker, SortedSet<Integer> holes, long maxWatermark) {
+  static void verifyCommitables(FineGrainedWatermarkTracker tracker, SortedSet<Integer> holes, long maxWatermark) {
     // commitable should be the first hole -1
     // uncommitable should be the first hole
     Map<String, CheckpointableWatermark> uncommitted = tracker.getUnacknowledgedWatermarks();
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+
+public class LockFreeBatchAccumulatorTest {
+
+  private static LockFreeBatchAccumulator<String> newAccumulator(long maxRecords, long lingerMillis, long capacity) {
+    BatchSealingPolicy policy = new BatchSealingPolicy.AnyOfPolicy(ImmutableList.of(
+        new BatchSealingPolicy.CountPolicy(maxRecords), new BatchSealingPolicy.LingerPolicy(lingerMillis)));
+    return new LockFreeBatchAccumulator<>(1024, capacity, policy, LargeMessagePolicy.FAIL);
+  }
+
+  @Test
+  public void testSealByCount() throws Exception {
+    LockFreeBatchAccumulator<String> accumulator = newAccumulator(2, 60000, 10);
+    for (int i = 0; i < 5; i++) {
+      accumulator.append("record" + i, WriteCallback.EMPTY);
+    }
+    Assert.assertEquals(accumulator.getNumOfBatches(), 2);
+
+    Batch<String> batch = accumulator.getNextAvailableBatch();
+    Assert.assertEquals(batch.getRecords(), ImmutableList.of("record0", "record1"));
+    batch = accumulator.getNextAvailableBatch();
+    Assert.assertEquals(batch.getRecords(), ImmutableList.of("record2", "record3"));
+    // the last batch is still open
+    Assert.assertNull(accumulator.getNextAvailableBatch());
+
+    accumulator.close();
+    batch = accumulator.getNextAvailableBatch();
+    Assert.assertEquals(batch.getRecords(), ImmutableList.of("record4"));
+    Assert.assertNull(accumulator.getNextAvailableBatch());
+  }
+
+  @Test
+  public void testSealByBytes() throws Exception {
+    LockFreeBatchAccumulator<String> accumulator = newAccumulator(Long.MAX_VALUE, 60000, 10);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 400; ++i) {
+      builder.append('a');
+    }
+    String record = builder.toString();
+    // each record takes 400 bytes plus overhead, so only two fit into a batch of 1024 bytes
+    for (int i = 0; i < 3; i++) {
+      accumulator.append(record, WriteCallback.EMPTY);
+    }
+    Assert.assertEquals(accumulator.getNextAvailableBatch().getRecords().size(), 2);
+  }
+
+  @Test
+  public void testSealByLinger() throws Exception {
+    LockFreeBatchAccumulator<String> accumulator = newAccumulator(100, 500, 10);
+    accumulator.append("record", WriteCallback.EMPTY);
+    Assert.assertNull(accumulator.getNextAvailableBatch());
+    Thread.sleep(600);
+    Batch<String> batch = accumulator.getNextAvailableBatch();
+    Assert.assertNotNull(batch);
+    Assert.assertEquals(batch.getRecords(), ImmutableList.of("record"));
+
+    // the producer starts a new batch after the sending thread sealed its previous one
+    accumulator.append("record2", WriteCallback.EMPTY);
+    accumulator.close();
+    Assert.assertEquals(accumulator.getNextAvailableBatch().getRecords(), ImmutableList.of("record2"));
+  }
+
+  @Test
+  public void testCapacity() throws Exception {
+    final LockFreeBatchAccumulator<String> accumulator = newAccumulator(1, 60000, 1);
+    accumulator.append("record0", WriteCallback.EMPTY);
+
+    final CountDownLatch appended = new CountDownLatch(1);
+    Thread producer = new Thread(() -> {
+      try {
+        accumulator.append("record1", WriteCallback.EMPTY);
+        appended.countDown();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    producer.start();
+
+    // the second producer cannot hand off its batch until the first one is taken
+    Assert.assertFalse(appended.await(200, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(accumulator.getNextAvailableBatch().getRecords(), ImmutableList.of("record0"));
+    Assert.assertTrue(appended.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(accumulator.getNextAvailableBatch().getRecords(), ImmutableList.of("record1"));
+  }
+
+  @Test
+  public void testFlushWaitsForAcknowledgement() throws Exception {
+    final LockFreeBatchAccumulator<String> accumulator = newAccumulator(100, 60000, 10);
+    accumulator.append("record", WriteCallback.EMPTY);
+
+    Thread sender = new Thread(() -> {
+      Batch<String> batch;
+      while ((batch = accumulator.getNextAvailableBatch()) == null) {
+        // wait for flush to seal the open batch
+      }
+      batch.onSuccess(WriteResponse.EMPTY);
+      batch.done();
+      accumulator.deallocate(batch);
+    });
+    sender.start();
+
+    accumulator.flush();
+    sender.join(5000);
+    Assert.assertFalse(sender.isAlive());
+  }
+
+  @Test
+  public void testConcurrentProducersAndSealers() throws Exception {
+    final int numProducers = 4;
+    final int recordsPerProducer = 20000;
+    // a short linger and a flushing thread make the sending and flushing threads race the producers for open batches
+    final LockFreeBatchAccumulator<String> accumulator = newAccumulator(10, 1, 1000);
+    final Set<String> received = ConcurrentHashMap.newKeySet();
+    final Set<Long> batchIds = ConcurrentHashMap.newKeySet();
+    final AtomicBoolean duplicate = new AtomicBoolean(false);
+    final AtomicBoolean producing = new AtomicBoolean(true);
+
+    Thread sender = new Thread(() -> {
+      while (true) {
+        Batch<String> batch = accumulator.getNextAvailableBatch();
+        if (batch == null) {
+          if (accumulator.isClosed()) {
+            return;
+          }
+          continue;
+        }
+        if (!batchIds.add(batch.getId())) {
+          duplicate.set(true);
+        }
+        for (String record : batch.getRecords()) {
+          if (!received.add(record)) {
+            duplicate.set(true);
+          }
+        }
+        batch.onSuccess(WriteResponse.EMPTY);
+        batch.done();
+        accumulator.deallocate(batch);
+      }
+    });
+    Thread flusher = new Thread(() -> {
+      while (producing.get()) {
+        accumulator.flush();
+      }
+    });
+    List<Thread> producers = new ArrayList<>();
+    for (int p = 0; p < numProducers; p++) {
+      final int producer = p;
+      producers.add(new Thread(() -> {
+        try {
+          for (int i = 0; i < recordsPerProducer; i++) {
+            accumulator.append(producer + "-" + i, WriteCallback.EMPTY);
+          }
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }));
+    }
+
+    sender.start();
+    flusher.start();
+    for (Thread producer : producers) {
+      producer.start();
+    }
+    for (Thread producer : producers) {
+      producer.join(60000);
+      Assert.assertFalse(producer.isAlive());
+    }
+    producing.set(false);
+    // a batch that was sealed but never queued would leave flush waiting forever
+    flusher.join(10000);
+    Assert.assertFalse(flusher.isAlive());
+
+    accumulator.close();
+    sender.join(10000);
+    Assert.assertFalse(sender.isAlive());
+
+    Assert.assertFalse(duplicate.get());
+    Set<String> expected = new HashSet<>();
+    for (int p = 0; p < numProducers; p++) {
+      for (int i = 0; i < recordsPerProducer; i++) {
+        expected.add(p + "-" + i);
+      }
+    }
+    Assert.assertEquals(received, expected);
+  }
+
+  @Test
+  public void testTargetLatencyPolicy() throws Exception {
+    BatchSealingPolicy.TargetLatencyPolicy policy = new BatchSealingPolicy.TargetLatencyPolicy(100);
+    BytesBoundedBatch<String> batch = new BytesBoundedBatch<>(1024, 1000);
+    Assert.assertEquals(policy.millisUntilSeal(batch, 0), 100);
+    Assert.assertFalse(policy.shouldSeal(batch, 50));
+
+    // batches take about 80ms to be acknowledged, so they have to be sealed after about 20ms
+    for (int i = 0; i < 50; i++) {
+      policy.onBatchAcknowledged(batch, 80);
+    }
+    Assert.assertTrue(policy.millisUntilSeal(batch, 0) <= 21);
+    Assert.assertTrue(policy.shouldSeal(batch, 50));
+  }
+}
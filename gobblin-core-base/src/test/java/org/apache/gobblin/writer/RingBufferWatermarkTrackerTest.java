@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.writer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.apache.gobblin.source.extractor.CheckpointableWatermark;
+import org.apache.gobblin.source.extractor.DefaultCheckpointableWatermark;
+import org.apache.gobblin.source.extractor.extract.LongWatermark;
+
+
+@Test
+public class RingBufferWatermarkTrackerTest {
+
+  private static AcknowledgableWatermark[] track(RingBufferWatermarkTracker tracker, String source, int numWatermarks) {
+    AcknowledgableWatermark[] acknowledgableWatermarks = new AcknowledgableWatermark[numWatermarks];
+    for (int i = 0; i < numWatermarks; ++i) {
+      acknowledgableWatermarks[i] =
+          new AcknowledgableWatermark(new DefaultCheckpointableWatermark(source, new LongWatermark(i)));
+      tracker.track(acknowledgableWatermarks[i]);
+    }
+    return acknowledgableWatermarks;
+  }
+
+  /**
+   * Acknowledges all but a few random watermarks, including enough of them to grow the ring, and checks the
+   * committable and unacknowledged watermarks before and after sweeping.
+   */
+  @Test
+  public void testRandomHoles() throws IOException {
+    Random random = new Random();
+    for (int j = 0; j < 100; ++j) {
+      RingBufferWatermarkTracker tracker = new RingBufferWatermarkTracker(ConfigFactory.empty());
+      tracker.setAutoStart(false);
+      int numWatermarks = 1 + random.nextInt(5000);
+      AcknowledgableWatermark[] acknowledgableWatermarks = track(tracker, "default", numWatermarks);
+
+      SortedSet<Integer> holes = new TreeSet<>();
+      int numMissingAcks = random.nextInt(numWatermarks);
+      for (int i = 0; i < numMissingAcks; ++i) {
+        holes.add(random.nextInt(numWatermarks));
+      }
+      for (int i = 0; i < numWatermarks; ++i) {
+        if (!holes.contains(i)) {
+          acknowledgableWatermarks[i].ack();
+        }
+      }
+
+      FineGrainedWatermarkTrackerTest.verifyCommitables(tracker, holes, numWatermarks - 1);
+      tracker.sweep();
+      FineGrainedWatermarkTrackerTest.verifyCommitables(tracker, holes, numWatermarks - 1);
+      tracker.close();
+    }
+  }
+
+  /**
+   * The whole acked prefix is swept, the highest acked watermark is kept outside of the ring.
+   */
+  @Test
+  public void testSweep() throws IOException {
+    RingBufferWatermarkTracker tracker = new RingBufferWatermarkTracker(ConfigFactory.empty());
+    tracker.setAutoStart(false);
+    AcknowledgableWatermark[] acknowledgableWatermarks = track(tracker, "default", 10);
+    for (int i = 0; i < 10; ++i) {
+      if (i != 4) {
+        acknowledgableWatermarks[i].ack();
+      }
+    }
+
+    Assert.assertEquals(tracker.sweep(), 4);
+    Assert.assertEquals(tracker.sweep(), 0);
+    Assert.assertEquals(((LongWatermark) tracker.getCommittableWatermarks().get("default").getWatermark()).getValue(),
+        3L);
+
+    acknowledgableWatermarks[4].ack();
+    Assert.assertEquals(tracker.sweep(), 6);
+    Assert.assertEquals(((LongWatermark) tracker.getCommittableWatermarks().get("default").getWatermark()).getValue(),
+        9L);
+    Assert.assertTrue(tracker.getUnacknowledgedWatermarks().isEmpty());
+    tracker.close();
+  }
+
+  /**
+   * Sources are tracked independently, and a ring only grows while its unswept watermarks exceed its capacity.
+   */
+  @Test
+  public void testMultipleSourcesAndGrowth() throws IOException {
+    RingBufferWatermarkTracker tracker = new RingBufferWatermarkTracker(ConfigFactory.empty());
+    tracker.setAutoStart(false);
+    for (int round = 0; round < 10; ++round) {
+      for (AcknowledgableWatermark watermark : track(tracker, "acked", 1000)) {
+        watermark.ack();
+      }
+      tracker.sweep();
+    }
+    track(tracker, "unacked", 3000);
+
+    Assert.assertEquals(tracker.getCapacity("acked"), 1024);
+    Assert.assertEquals(tracker.getCapacity("unacked"), 4096);
+    Map<String, CheckpointableWatermark> commitables = tracker.getCommittableWatermarks();
+    Assert.assertEquals(commitables.size(), 1);
+    Assert.assertEquals(((LongWatermark) commitables.get("acked").getWatermark()).getValue(), 999L);
+    Map<String, CheckpointableWatermark> unacked = tracker.getUnacknowledgedWatermarks();
+    Assert.assertEquals(unacked.size(), 1);
+    Assert.assertEquals(((LongWatermark) unacked.get("unacked").getWatermark()).getValue(), 0L);
+    tracker.close();
+  }
+
+  /**
+   * Watermarks are tracked on one thread and acked on others while the sweeper is running.
+   */
+  @Test
+  public void testConcurrentAcks() throws Exception {
+    ExecutorService ackingService = Executors.newFixedThreadPool(4);
+    RingBufferWatermarkTracker tracker = new RingBufferWatermarkTracker(
+        ConfigFactory.parseMap(Collections.singletonMap(
+            FineGrainedWatermarkTracker.WATERMARK_TRACKER_SWEEP_INTERVAL_MS, 1)));
+    tracker.start();
+    int numWatermarks = 50000;
+    for (int i = 0; i < numWatermarks; ++i) {
+      final AcknowledgableWatermark ackable =
+          new AcknowledgableWatermark(new DefaultCheckpointableWatermark("default", new LongWatermark(i)));
+      tracker.track(ackable);
+      ackingService.submit(ackable::ack);
+    }
+    ackingService.shutdown();
+    Assert.assertTrue(ackingService.awaitTermination(1, TimeUnit.MINUTES));
+
+    FineGrainedWatermarkTrackerTest.verifyCommitables(tracker, new TreeSet<Integer>(), numWatermarks - 1);
+    tracker.close();
+  }
+}
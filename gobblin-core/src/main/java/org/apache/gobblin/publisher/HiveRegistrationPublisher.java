@@ -20,6 +20,7 @@ package org.apache.gobblin.publisher;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
@@ -192,17 +193,20 @@ public class HiveRegistrationPublisher extends DataPublisher {
         new ExecutorCompletionService<>(this.hivePolicyExecutor);
 
     int toRegisterPathCount = computeSpecs(states, completionService);
+    List<HiveSpec> specsToRegister = new ArrayList<>();
     for (int i = 0; i < toRegisterPathCount; i++) {
       try {
         for (HiveSpec spec : completionService.take().get()) {
           allRegisteredPartitions.add(spec);
-          this.hiveRegister.register(spec);
+          specsToRegister.add(spec);
         }
       } catch (InterruptedException | ExecutionException e) {
         log.info("Failed to generate HiveSpec", e);
         throw new IOException(e);
       }
     }
+    // Registering all specs at once lets the register batch partitions of the same table
+    this.hiveRegister.register(specsToRegister);
     log.info("Finished registering all HiveSpecs");
   }
 
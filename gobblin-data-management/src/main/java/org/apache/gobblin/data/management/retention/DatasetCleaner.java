@@ -46,7 +46,11 @@ import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.DynamicConfigGenerator;
 import org.apache.gobblin.configuration.State;
 import org.apache.gobblin.data.management.retention.dataset.CleanableDataset;
+import org.apache.gobblin.data.management.retention.dataset.CleanableHiveDataset;
+import org.apache.gobblin.data.management.retention.dataset.FsCleanableHelper;
+import org.apache.gobblin.data.management.retention.dataset.MultiVersionCleanableDatasetBase;
 import org.apache.gobblin.data.management.retention.profile.MultiCleanableDatasetFinder;
+import org.apache.gobblin.data.management.trash.BatchedTrashDeleter;
 import org.apache.gobblin.dataset.Dataset;
 import org.apache.gobblin.dataset.DatasetsFinder;
 import org.apache.gobblin.instrumented.Instrumentable;
@@ -89,6 +93,7 @@ public class DatasetCleaner implements Instrumentable, Closeable {
   private Optional<Meter> datasetsCleanFailureMeter = Optional.absent();
   private Optional<CountDownLatch> finishCleanSignal;
   private final List<Throwable> throwables;
+  private final Optional<BatchedTrashDeleter> batchedTrashDeleter;
 
   public DatasetCleaner(FileSystem fs, Properties props) throws IOException {
 
@@ -129,6 +134,13 @@ public class DatasetCleaner implements Instrumentable, Closeable {
         Integer.parseInt(properties.getProperty(MAX_CONCURRENT_DATASETS_CLEANED, DEFAULT_MAX_CONCURRENT_DATASETS_CLEANED)),
         100, ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("Dataset-cleaner-pool-%d")));
     this.service = ExecutorsUtils.loggingDecorator(executor);
+    // A single deleter for all datasets, so that its thread pool and rate limit apply to the whole job
+    if (Boolean.valueOf(
+        properties.getProperty(FsCleanableHelper.BATCH_DELETE_KEY, FsCleanableHelper.BATCH_DELETE_DEFAULT))) {
+      this.batchedTrashDeleter = Optional.of(this.closer.register(new BatchedTrashDeleter(properties)));
+    } else {
+      this.batchedTrashDeleter = Optional.absent();
+    }
 
     this.throwables = Lists.newArrayList();
   }
@@ -141,6 +153,9 @@ public class DatasetCleaner implements Instrumentable, Closeable {
     List<Dataset> dataSets = this.datasetFinder.findDatasets();
     this.finishCleanSignal = Optional.of(new CountDownLatch(dataSets.size()));
     for (final Dataset dataset : dataSets) {
+      if (this.batchedTrashDeleter.isPresent()) {
+        setBatchedTrashDeleter(dataset, this.batchedTrashDeleter.get());
+      }
       ListenableFuture<Void> future = this.service.submit(new Callable<Void>() {
         @Override
         public Void call() throws Exception {
@@ -173,6 +188,14 @@ public class DatasetCleaner implements Instrumentable, Closeable {
     }
   }
 
+  private static void setBatchedTrashDeleter(Dataset dataset, BatchedTrashDeleter deleter) {
+    if (dataset instanceof MultiVersionCleanableDatasetBase) {
+      ((MultiVersionCleanableDatasetBase<?>) dataset).getFsCleanableHelper().setBatchedTrashDeleter(deleter);
+    } else if (dataset instanceof CleanableHiveDataset) {
+      ((CleanableHiveDataset) dataset).getFsCleanableHelper().setBatchedTrashDeleter(deleter);
+    }
+  }
+
   @Override
   public void close() throws IOException {
     try {
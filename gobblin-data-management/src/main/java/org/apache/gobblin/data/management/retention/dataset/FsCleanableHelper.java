@@ -17,9 +17,11 @@
 package org.apache.gobblin.data.management.retention.dataset;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -29,8 +31,11 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 
+import com.google.common.base.Optional;
+import com.google.common.io.Closer;
 import com.typesafe.config.Config;
 
+import org.apache.gobblin.data.management.trash.BatchedTrashDeleter;
 import org.apache.gobblin.data.management.trash.ProxiedTrash;
 import org.apache.gobblin.data.management.trash.TrashFactory;
 import org.apache.gobblin.data.management.version.FileSystemDatasetVersion;
@@ -46,6 +51,8 @@ import org.apache.gobblin.util.PathUtils;
  * <li> Skip Trash - Delete permanent by setting {@value #SKIP_TRASH_KEY} to true.
  * <li> Auto delete empty parent directories - By setting {@value #DELETE_EMPTY_DIRECTORIES_KEY} to true.
  * <li> Proxy as owner and delete - By setting {@value #DELETE_AS_OWNER_KEY} to true.
+ * <li> Batched deletes - Delete all versions of a dataset through a {@link BatchedTrashDeleter} by setting
+ * {@value #BATCH_DELETE_KEY} to true.
  * </ul>
  * </p>
  */
@@ -67,6 +74,9 @@ public class FsCleanableHelper {
   public static final String DELETE_AS_OWNER_KEY = CONFIGURATION_KEY_PREFIX + "delete.as.owner";
   public static final String DELETE_AS_OWNER_DEFAULT = Boolean.toString(true);
 
+  public static final String BATCH_DELETE_KEY = CONFIGURATION_KEY_PREFIX + "batch.delete";
+  public static final String BATCH_DELETE_DEFAULT = Boolean.toString(false);
+
   protected final FileSystem fs;
   @Getter
   protected final ProxiedTrash trash;
@@ -74,7 +84,10 @@ public class FsCleanableHelper {
   protected final boolean skipTrash;
   protected final boolean deleteEmptyDirectories;
   protected final boolean deleteAsOwner;
+  protected final boolean batchDelete;
   protected final Logger log;
+  private final Properties properties;
+  private Optional<BatchedTrashDeleter> batchedTrashDeleter = Optional.absent();
 
   public FsCleanableHelper(FileSystem fs, Properties properties, boolean simulate, boolean skipTrash, boolean deleteEmptyDirectories, boolean deleteAsOwner,
       Logger log) throws IOException {
@@ -93,6 +106,8 @@ public class FsCleanableHelper {
     }
     this.trash = TrashFactory.createProxiedTrash(this.fs, thisProperties);
     this.deleteAsOwner = deleteAsOwner;
+    this.batchDelete = Boolean.valueOf(properties.getProperty(BATCH_DELETE_KEY, BATCH_DELETE_DEFAULT));
+    this.properties = thisProperties;
   }
 
   public FsCleanableHelper(final FileSystem fs, final Properties props, Config config, Logger log) throws IOException {
@@ -102,6 +117,15 @@ public class FsCleanableHelper {
         Boolean.valueOf(props.getProperty(DELETE_AS_OWNER_KEY, DELETE_AS_OWNER_DEFAULT)), log);
   }
 
+  /**
+   * Use a {@link BatchedTrashDeleter} shared with other datasets when {@value #BATCH_DELETE_KEY} is true, so that its
+   * thread pool and rate limit apply to the whole job. Otherwise every {@link #clean(Collection, FileSystemDataset)}
+   * creates its own.
+   */
+  public void setBatchedTrashDeleter(BatchedTrashDeleter batchedTrashDeleter) {
+    this.batchedTrashDeleter = Optional.of(batchedTrashDeleter);
+  }
+
   /**
    * Delete a single {@link FileSystemDatasetVersion}. All the parent {@link Path}s are after deletion, are
    * added to <code>possiblyEmptyDirectories</code>. Caller need to call {@link #cleanEmptyDirectories(Set, FileSystemDataset)}
@@ -147,6 +171,10 @@ public class FsCleanableHelper {
       log.warn("No deletable dataset version can be found. Ignoring.");
       return;
     }
+    if (this.batchDelete) {
+      cleanInBatch(deletableVersions, fsDataset);
+      return;
+    }
     Set<Path> possiblyEmptyDirectories = new HashSet<>();
     for (FileSystemDatasetVersion fsdv : deletableVersions) {
       clean(fsdv, possiblyEmptyDirectories);
@@ -154,6 +182,37 @@ public class FsCleanableHelper {
     cleanEmptyDirectories(possiblyEmptyDirectories, fsDataset);
   }
 
+  /**
+   * Delete the paths of all <code>deletableVersions</code> through a {@link BatchedTrashDeleter}. If empty parent
+   * directories are deleted, fully expired directories below the dataset root are moved to trash as a whole.
+   */
+  private void cleanInBatch(final Collection<? extends FileSystemDatasetVersion> deletableVersions,
+      final FileSystemDataset fsDataset) throws IOException {
+    List<Path> pathsToDelete = new ArrayList<>();
+    for (FileSystemDatasetVersion fsdv : deletableVersions) {
+      log.info("Deleting dataset version " + fsdv);
+      pathsToDelete.addAll(fsdv.getPaths());
+    }
+    Optional<Path> collapseRoot =
+        this.deleteEmptyDirectories ? Optional.of(fsDataset.datasetRoot()) : Optional.<Path>absent();
+    Closer closer = Closer.create();
+    try {
+      BatchedTrashDeleter deleter = this.batchedTrashDeleter.isPresent() ? this.batchedTrashDeleter.get()
+          : closer.register(new BatchedTrashDeleter(this.properties));
+      BatchedTrashDeleter.Result result =
+          deleter.delete(this.fs, this.trash, this.deleteAsOwner, pathsToDelete, collapseRoot);
+      if (result.getFailedPaths() > 0) {
+        log.error(String.format("Failed to delete %d paths of dataset %s", result.getFailedPaths(),
+            fsDataset.datasetRoot()));
+      }
+      cleanEmptyDirectories(result.getPossiblyEmptyDirectories(), fsDataset);
+    } catch (Throwable t) {
+      throw closer.rethrow(t);
+    } finally {
+      closer.close();
+    }
+  }
+
   /**
    * Deletes any empty paths in <code>possiblyEmptyDirectories</code> all the way upto the {@link FileSystemDataset#datasetRoot()}.
    */
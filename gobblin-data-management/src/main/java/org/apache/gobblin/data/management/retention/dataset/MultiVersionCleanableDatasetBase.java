@@ -32,6 +32,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.typesafe.config.Config;
@@ -45,6 +46,8 @@ import org.apache.gobblin.data.management.retention.policy.RetentionPolicy;
 import org.apache.gobblin.data.management.trash.ProxiedTrash;
 import org.apache.gobblin.data.management.version.DatasetVersion;
 import org.apache.gobblin.data.management.version.FileSystemDatasetVersion;
+import org.apache.gobblin.data.management.version.finder.AbstractDatasetVersionFinder;
+import org.apache.gobblin.data.management.version.finder.IncrementalVersionLister;
 import org.apache.gobblin.data.management.version.finder.VersionFinder;
 import org.apache.gobblin.dataset.FileSystemDataset;
 import org.apache.gobblin.util.ConfigUtils;
@@ -157,8 +160,11 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
   @VisibleForTesting
   protected final boolean isDatasetBlacklisted;
 
+  @Getter
   private final FsCleanableHelper fsCleanableHelper;
 
+  private final Optional<IncrementalVersionLister> incrementalVersionLister;
+
   protected final Logger log;
 
   /**
@@ -228,6 +234,7 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
     this.trash = this.fsCleanableHelper.getTrash();
     this.deleteAsOwner = deleteAsOwner;
     this.isDatasetBlacklisted = isDatasetBlacklisted;
+    this.incrementalVersionLister = IncrementalVersionLister.create(fs, properties);
 
   }
 
@@ -276,7 +283,7 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
       this.log.info(String.format("Cleaning dataset %s. Using version finder %s and policy %s", this,
           versionFinder.getClass().getName(), selectionPolicy));
 
-      List<T> versions = Lists.newArrayList(versionFinder.findDatasetVersions(this));
+      List<T> versions = Lists.newArrayList(findDatasetVersions(versionFinder));
 
       if (versions.isEmpty()) {
         this.log.warn("No dataset version can be found. Ignoring.");
@@ -310,6 +317,18 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
     }
   }
 
+  /**
+   * Versions are found with the {@link IncrementalVersionLister} if it is enabled and the finder lists versions by
+   * glob pattern.
+   */
+  private Collection<? extends T> findDatasetVersions(VersionFinder<? extends T> versionFinder) throws IOException {
+    if (this.incrementalVersionLister.isPresent() && versionFinder instanceof AbstractDatasetVersionFinder) {
+      return ((AbstractDatasetVersionFinder<? extends T>) versionFinder).findDatasetVersions(this,
+          this.incrementalVersionLister.get());
+    }
+    return versionFinder.findDatasetVersions(this);
+  }
+
   protected void cleanImpl(Collection<T> deletableVersions) throws IOException {
     this.fsCleanableHelper.clean(deletableVersions, this);
   }
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.trash;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+
+import lombok.Getter;
+
+import org.apache.gobblin.util.ExecutorsUtils;
+import org.apache.gobblin.util.PathUtils;
+import org.apache.gobblin.util.limiter.Limiter;
+import org.apache.gobblin.util.limiter.NoopLimiter;
+import org.apache.gobblin.util.limiter.RateBasedLimiter;
+
+
+/**
+ * Moves a large set of {@link Path}s to a {@link ProxiedTrash} with as few file system operations as possible.
+ *
+ * <p>
+ *   Paths are grouped by parent directory, and each parent is listed once instead of checking every path for
+ *   existence. If a collapse root is given, a directory strictly below it whose children are all being deleted is
+ *   moved to trash as a whole instead of child by child, and the same check is repeated on its parent. This has the
+ *   same end result as deleting the children and then cleaning up empty parent directories, except that the directory
+ *   ends up in trash as well. Anything written into such a directory between the listing and the move is moved with it.
+ * </p>
+ *
+ * <p>
+ *   Listings and trash moves run on a pool of {@value #THREADS_KEY} threads with at most twice that many operations
+ *   in flight per {@link #delete} call, and are throttled to {@value #QPS_KEY} operations per second if set. The pool
+ *   and the throttle are shared by all calls, so a single instance should be created per job, e.g. by
+ *   {@link org.apache.gobblin.data.management.retention.DatasetCleaner}, and used for all of its datasets. Progress is
+ *   logged every {@value #PROGRESS_INTERVAL} operations, and the counters over all calls are available through getters.
+ * </p>
+ */
+public class BatchedTrashDeleter implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchedTrashDeleter.class);
+
+  public static final String BATCHED_TRASH_PREFIX = "gobblin.trash.batched.";
+  public static final String THREADS_KEY = BATCHED_TRASH_PREFIX + "threads";
+  public static final int DEFAULT_THREADS = 20;
+  /** Maximum number of listings and trash moves per second. Unlimited if not set. */
+  public static final String QPS_KEY = BATCHED_TRASH_PREFIX + "qps";
+
+  static final int PROGRESS_INTERVAL = 10000;
+
+  private final Limiter limiter;
+  private final int maxInFlight;
+  private final ExecutorService executor;
+
+  @Getter
+  private final AtomicLong listedDirectories = new AtomicLong();
+  @Getter
+  private final AtomicLong collapsedDirectories = new AtomicLong();
+  @Getter
+  private final AtomicLong missingPaths = new AtomicLong();
+  @Getter
+  private final AtomicLong movedPaths = new AtomicLong();
+  @Getter
+  private final AtomicLong failedPaths = new AtomicLong();
+  private final AtomicLong operations = new AtomicLong();
+  private final long startTime = System.currentTimeMillis();
+
+  public BatchedTrashDeleter(Properties properties) {
+    this.limiter = properties.containsKey(QPS_KEY)
+        ? new RateBasedLimiter(Double.parseDouble(properties.getProperty(QPS_KEY))) : new NoopLimiter();
+    this.limiter.start();
+    int threads = properties.containsKey(THREADS_KEY)
+        ? Integer.parseInt(properties.getProperty(THREADS_KEY)) : DEFAULT_THREADS;
+    this.maxInFlight = 2 * threads;
+    this.executor = Executors.newFixedThreadPool(threads,
+        ExecutorsUtils.newThreadFactory(Optional.of(LOGGER), Optional.of("Batched-trash-delete-pool-%d")));
+  }
+
+  /**
+   * Move all existing <code>paths</code> to trash. Safe to call concurrently, e.g. for different datasets.
+   * @param fs {@link FileSystem} of the paths, used to list their parents.
+   * @param trash {@link ProxiedTrash} the paths are moved to.
+   * @param deleteAsOwner whether paths are moved to trash as their owner.
+   * @param paths {@link Path}s to delete. Paths below another path in the collection are deleted with it.
+   * @param collapseRoot if present, directories strictly below it whose children are all deleted are moved as a whole.
+   * @return the parents of all {@link Path}s that were moved, which may now be empty, and the number of failed moves.
+   */
+  public Result delete(FileSystem fs, ProxiedTrash trash, boolean deleteAsOwner, Collection<Path> paths,
+      Optional<Path> collapseRoot) throws IOException {
+    final Deletion deletion = new Deletion(fs, trash, deleteAsOwner);
+    Map<Path, Path> candidates = new HashMap<>();
+    for (Path path : paths) {
+      Path qualifiedPath = fs.makeQualified(path);
+      candidates.put(PathUtils.getPathWithoutSchemeAndAuthority(qualifiedPath), qualifiedPath);
+    }
+    removeNestedPaths(candidates);
+
+    List<Path> pathsToMove = plan(deletion, candidates, collapseRoot.isPresent()
+        ? Optional.of(PathUtils.getPathWithoutSchemeAndAuthority(fs.makeQualified(collapseRoot.get())))
+        : Optional.<Path>absent());
+    LOGGER.info(String.format("Moving %d paths to trash for %d requested paths.", pathsToMove.size(), paths.size()));
+
+    final Set<Path> possiblyEmptyDirectories = new HashSet<>();
+    List<Callable<Path>> moves = new ArrayList<>(pathsToMove.size());
+    for (final Path path : pathsToMove) {
+      moves.add(new Callable<Path>() {
+        @Override
+        public Path call() throws Exception {
+          return moveToTrash(deletion, path);
+        }
+      });
+    }
+    runPipelined(moves, new ResultHandler<Path>() {
+      @Override
+      public void handle(Path movedPath) {
+        if (movedPath != null) {
+          possiblyEmptyDirectories.add(movedPath.getParent());
+        }
+      }
+    });
+    logProgress("Finished batch");
+    return new Result(possiblyEmptyDirectories, deletion.failedPaths.get());
+  }
+
+  /**
+   * Decide which paths to move, walking up from the deepest candidates. Every level lists the parents of its
+   * candidates, drops candidates that no longer exist, and replaces fully deleted directories by their parent.
+   */
+  private List<Path> plan(final Deletion deletion, Map<Path, Path> candidates, final Optional<Path> collapseRoot)
+      throws IOException {
+    final TreeMap<Integer, Map<Path, Path>> candidatesByDepth = new TreeMap<>();
+    for (Map.Entry<Path, Path> candidate : candidates.entrySet()) {
+      addCandidate(candidatesByDepth, candidate.getKey(), candidate.getValue());
+    }
+
+    final List<Path> pathsToMove = new ArrayList<>();
+    while (!candidatesByDepth.isEmpty()) {
+      Map<Path, Path> level = candidatesByDepth.pollLastEntry().getValue();
+      Map<Path, Map<Path, Path>> levelByParent = new HashMap<>();
+      for (Map.Entry<Path, Path> candidate : level.entrySet()) {
+        Path parent = candidate.getKey().getParent();
+        if (parent == null) {
+          pathsToMove.add(candidate.getValue());
+          continue;
+        }
+        if (!levelByParent.containsKey(parent)) {
+          levelByParent.put(parent, new HashMap<Path, Path>());
+        }
+        levelByParent.get(parent).put(candidate.getKey(), candidate.getValue());
+      }
+
+      List<Callable<SiblingGroup>> listings = new ArrayList<>(levelByParent.size());
+      for (final Map.Entry<Path, Map<Path, Path>> group : levelByParent.entrySet()) {
+        listings.add(new Callable<SiblingGroup>() {
+          @Override
+          public SiblingGroup call() throws Exception {
+            return listSiblings(deletion, group.getKey(), group.getValue());
+          }
+        });
+      }
+      runPipelined(listings, new ResultHandler<SiblingGroup>() {
+        @Override
+        public void handle(SiblingGroup group) {
+          if (group.isComplete() && collapseRoot.isPresent() && isStrictDescendant(group.getParent(),
+              collapseRoot.get())) {
+            BatchedTrashDeleter.this.collapsedDirectories.incrementAndGet();
+            Path anyChild = group.getExisting().values().iterator().next();
+            addCandidate(candidatesByDepth, group.getParent(), anyChild.getParent());
+          } else {
+            pathsToMove.addAll(group.getExisting().values());
+          }
+        }
+      });
+    }
+    return pathsToMove;
+  }
+
+  private SiblingGroup listSiblings(Deletion deletion, Path parent, Map<Path, Path> siblings)
+      throws IOException, InterruptedException {
+    FileStatus[] children;
+    try {
+      this.limiter.acquirePermits(1);
+      children = deletion.fs.listStatus(siblings.values().iterator().next().getParent());
+      this.listedDirectories.incrementAndGet();
+    } catch (FileNotFoundException fnfe) {
+      children = new FileStatus[0];
+    } catch (IOException ioe) {
+      LOGGER.warn(String.format("Failed to list %s, moving its %d candidates one by one.", parent, siblings.size()),
+          ioe);
+      return new SiblingGroup(parent, siblings, false);
+    }
+
+    Map<Path, Path> existing = new HashMap<>();
+    for (FileStatus child : children) {
+      Path childPath = PathUtils.getPathWithoutSchemeAndAuthority(child.getPath());
+      if (siblings.containsKey(childPath)) {
+        existing.put(childPath, siblings.get(childPath));
+      }
+    }
+    if (existing.size() < siblings.size()) {
+      this.missingPaths.addAndGet(siblings.size() - existing.size());
+      LOGGER.info(String.format("%d of %d paths to delete under %s do not exist.", siblings.size() - existing.size(),
+          siblings.size(), parent));
+    }
+    return new SiblingGroup(parent, existing, !existing.isEmpty() && existing.size() == children.length);
+  }
+
+  private Path moveToTrash(Deletion deletion, Path path) throws InterruptedException {
+    try {
+      this.limiter.acquirePermits(1);
+      boolean moved =
+          deletion.deleteAsOwner ? deletion.trash.moveToTrashAsOwner(path) : deletion.trash.moveToTrash(path);
+      if (moved) {
+        this.movedPaths.incrementAndGet();
+        return path;
+      }
+      LOGGER.error("Failed to delete path " + path);
+    } catch (IOException ioe) {
+      LOGGER.error("Failed to delete path " + path, ioe);
+    }
+    this.failedPaths.incrementAndGet();
+    deletion.failedPaths.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Run all <code>tasks</code> on the executor, keeping at most {@link #maxInFlight} of them queued or running, and
+   * hand their results to <code>handler</code> in the calling thread as they complete.
+   */
+  private <T> void runPipelined(List<Callable<T>> tasks, ResultHandler<T> handler) throws IOException {
+    CompletionService<T> completionService = new ExecutorCompletionService<>(this.executor);
+    int inFlight = 0;
+    Iterator<Callable<T>> iterator = tasks.iterator();
+    while (iterator.hasNext() || inFlight > 0) {
+      if (iterator.hasNext() && inFlight < this.maxInFlight) {
+        completionService.submit(iterator.next());
+        inFlight++;
+        continue;
+      }
+      try {
+        handler.handle(completionService.take().get());
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while deleting paths.", ie);
+      } catch (ExecutionException ee) {
+        Throwables.propagateIfInstanceOf(ee.getCause(), IOException.class);
+        throw new IOException(ee.getCause());
+      }
+      inFlight--;
+      if (this.operations.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+        logProgress("Progress");
+      }
+    }
+  }
+
+  private void logProgress(String prefix) {
+    LOGGER.info(String.format("%s: listed %d directories, collapsed %d directories, moved %d paths to trash, "
+            + "%d paths failed, %d paths did not exist, in %d ms.", prefix, this.listedDirectories.get(),
+        this.collapsedDirectories.get(), this.movedPaths.get(), this.failedPaths.get(), this.missingPaths.get(),
+        System.currentTimeMillis() - this.startTime));
+  }
+
+  private static void addCandidate(TreeMap<Integer, Map<Path, Path>> candidatesByDepth, Path key, Path path) {
+    int depth = key.depth();
+    if (!candidatesByDepth.containsKey(depth)) {
+      candidatesByDepth.put(depth, new HashMap<Path, Path>());
+    }
+    candidatesByDepth.get(depth).put(key, path);
+  }
+
+  /**
+   * Remove candidates that are below another candidate, since moving the ancestor moves them as well.
+   */
+  private static void removeNestedPaths(Map<Path, Path> candidates) {
+    Iterator<Path> iterator = candidates.keySet().iterator();
+    while (iterator.hasNext()) {
+      for (Path ancestor = iterator.next().getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+        if (candidates.containsKey(ancestor)) {
+          iterator.remove();
+          break;
+        }
+      }
+    }
+  }
+
+  private static boolean isStrictDescendant(Path path, Path root) {
+    return PathUtils.isAncestor(root, path) && !root.equals(path);
+  }
+
+  @Override
+  public void close() throws IOException {
+    ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(LOGGER));
+    this.limiter.stop();
+  }
+
+  private interface ResultHandler<T> {
+    void handle(T result);
+  }
+
+  /**
+   * Outcome of a single {@link #delete} call.
+   */
+  @Getter
+  public static class Result {
+    private final Set<Path> possiblyEmptyDirectories;
+    private final long failedPaths;
+
+    Result(Set<Path> possiblyEmptyDirectories, long failedPaths) {
+      this.possiblyEmptyDirectories = possiblyEmptyDirectories;
+      this.failedPaths = failedPaths;
+    }
+  }
+
+  /**
+   * The file system and trash of a single {@link #delete} call, and the paths it failed to move.
+   */
+  private static class Deletion {
+    private final FileSystem fs;
+    private final ProxiedTrash trash;
+    private final boolean deleteAsOwner;
+    private final AtomicLong failedPaths = new AtomicLong();
+
+    Deletion(FileSystem fs, ProxiedTrash trash, boolean deleteAsOwner) {
+      this.fs = fs;
+      this.trash = trash;
+      this.deleteAsOwner = deleteAsOwner;
+    }
+  }
+
+  /**
+   * The candidates under a single parent directory that exist, and whether they are all of its children.
+   */
+  @Getter
+  private static class SiblingGroup {
+    private final Path parent;
+    private final Map<Path, Path> existing;
+    private final boolean complete;
+
+    SiblingGroup(Path parent, Map<Path, Path> existing, boolean complete) {
+      this.parent = parent;
+      this.existing = existing;
+      this.complete = complete;
+    }
+  }
+}
@@ -71,8 +71,19 @@ public abstract class AbstractDatasetVersionFinder<T extends FileSystemDatasetVe
   public Collection<T> findDatasetVersions(Dataset dataset) throws IOException {
     FileSystemDataset fsDataset = (FileSystemDataset) dataset;
     Path versionGlobStatus = new Path(fsDataset.datasetRoot(), globVersionPattern());
-    FileStatus[] dataSetVersionPaths = this.fs.globStatus(versionGlobStatus);
+    return toDatasetVersions(fsDataset, this.fs.globStatus(versionGlobStatus));
+  }
+
+  /**
+   * Same as {@link #findDatasetVersions(Dataset)}, but lists the version directories through an
+   * {@link IncrementalVersionLister}, which only lists directories that changed since its previous run.
+   */
+  public Collection<T> findDatasetVersions(Dataset dataset, IncrementalVersionLister lister) throws IOException {
+    FileSystemDataset fsDataset = (FileSystemDataset) dataset;
+    return toDatasetVersions(fsDataset, lister.globStatus(fsDataset.datasetRoot(), globVersionPattern()));
+  }
 
+  private Collection<T> toDatasetVersions(FileSystemDataset fsDataset, FileStatus[] dataSetVersionPaths) {
     List<T> dataSetVersions = Lists.newArrayList();
     for (FileStatus dataSetVersionPath : dataSetVersionPaths) {
       T datasetVersion =
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.version.finder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.GlobFilter;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.util.PathUtils;
+
+
+/**
+ * Lists the versions matching a glob pattern under a dataset root, reusing the listings of the previous run for
+ * directories that have not changed since.
+ *
+ * The pattern is matched one path component at a time. All directories above the last component are listed, which
+ * yields the current modification times of the directories holding the versions. Each of those is only listed again
+ * if its modification time differs from the one in the {@link VersionListingSnapshot} of the previous run, since
+ * creating, deleting or renaming a version changes the modification time of its parent. The snapshot is persisted
+ * per dataset and pattern under {@link #SNAPSHOT_DIR_KEY}.
+ *
+ * Statuses of versions reused from the snapshot carry the length and modification time seen when their parent was
+ * last listed, so a version modified in place is not noticed until the next full listing. Every
+ * {@link #FULL_LISTING_INTERVAL_HOURS_KEY} hours all directories are listed again to reconcile the snapshot with
+ * the file system.
+ */
+@Slf4j
+public class IncrementalVersionLister {
+  private static final String CONFIGURATION_KEY_PREFIX = "gobblin.retention.version.incrementalListing.";
+  public static final String ENABLED_KEY = CONFIGURATION_KEY_PREFIX + "enabled";
+  public static final String SNAPSHOT_DIR_KEY = CONFIGURATION_KEY_PREFIX + "snapshotDir";
+  public static final String FULL_LISTING_INTERVAL_HOURS_KEY = CONFIGURATION_KEY_PREFIX + "fullListingIntervalHours";
+  public static final long DEFAULT_FULL_LISTING_INTERVAL_HOURS = 7 * 24;
+
+  private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+  private final FileSystem fs;
+  private final Path snapshotDir;
+  private final long fullListingIntervalMillis;
+
+  public IncrementalVersionLister(FileSystem fs, Path snapshotDir, long fullListingIntervalMillis) {
+    this.fs = fs;
+    this.snapshotDir = snapshotDir;
+    this.fullListingIntervalMillis = fullListingIntervalMillis;
+  }
+
+  /**
+   * @return a lister if {@link #ENABLED_KEY} is set in the properties
+   */
+  public static Optional<IncrementalVersionLister> create(FileSystem fs, Properties props) {
+    if (!Boolean.parseBoolean(props.getProperty(ENABLED_KEY, Boolean.FALSE.toString()))) {
+      return Optional.absent();
+    }
+    Preconditions.checkArgument(props.containsKey(SNAPSHOT_DIR_KEY), "Missing required property " + SNAPSHOT_DIR_KEY);
+    long intervalHours = Long.parseLong(props.getProperty(FULL_LISTING_INTERVAL_HOURS_KEY,
+        Long.toString(DEFAULT_FULL_LISTING_INTERVAL_HOURS)));
+    return Optional.of(new IncrementalVersionLister(fs, new Path(props.getProperty(SNAPSHOT_DIR_KEY)),
+        TimeUnit.HOURS.toMillis(intervalHours)));
+  }
+
+  /**
+   * Equivalent of {@link FileSystem#globStatus(Path)} for the pattern relative to the dataset root.
+   */
+  public FileStatus[] globStatus(Path datasetRoot, Path globPattern) throws IOException {
+    String pattern = globPattern.toString();
+    if (globPattern.isAbsolute() || hasSeparatorInBraces(pattern)) {
+      return this.fs.globStatus(new Path(datasetRoot, globPattern));
+    }
+
+    Path snapshotPath = getSnapshotPath(datasetRoot, pattern);
+    long now = System.currentTimeMillis();
+    VersionListingSnapshot previous = readSnapshot(snapshotPath);
+    boolean fullListing = previous == null || now - previous.getFullListingTime() >= this.fullListingIntervalMillis;
+    VersionListingSnapshot current = new VersionListingSnapshot(fullListing ? now : previous.getFullListingTime());
+
+    List<FileStatus> matches = new ArrayList<>();
+    try {
+      matches.add(this.fs.getFileStatus(datasetRoot));
+    } catch (FileNotFoundException e) {
+      return new FileStatus[0];
+    }
+    List<String> components = new ArrayList<>();
+    for (String component : pattern.split(Path.SEPARATOR)) {
+      if (!component.isEmpty()) {
+        components.add(component);
+      }
+    }
+    int listed = 0;
+    int reused = 0;
+    for (int i = 0; i < components.size(); i++) {
+      boolean lastComponent = i == components.size() - 1;
+      GlobFilter filter = new GlobFilter(components.get(i));
+      List<FileStatus> nextMatches = new ArrayList<>();
+      for (FileStatus dir : matches) {
+        if (!dir.isDirectory()) {
+          continue;
+        }
+        String dirKey = PathUtils.getPathWithoutSchemeAndAuthority(dir.getPath()).toString();
+        List<FileStatus> children = null;
+        if (lastComponent && !fullListing) {
+          children = previous.getChildren(dirKey, dir.getPath(), dir.getModificationTime());
+        }
+        if (children == null) {
+          children = listStatus(dir.getPath());
+          listed++;
+        } else {
+          reused++;
+        }
+        if (lastComponent) {
+          current.putChildren(dirKey, dir.getModificationTime(), children);
+        }
+        for (FileStatus child : children) {
+          if (filter.accept(child.getPath())) {
+            nextMatches.add(child);
+          }
+        }
+      }
+      matches = nextMatches;
+    }
+
+    writeSnapshot(snapshotPath, current);
+    log.info("Found {} versions under {}: listed {} directories, reused {} from snapshot{}", matches.size(),
+        datasetRoot, listed, reused, fullListing ? " (full listing)" : "");
+    return matches.toArray(new FileStatus[matches.size()]);
+  }
+
+  private List<FileStatus> listStatus(Path dir) throws IOException {
+    List<FileStatus> children = new ArrayList<>();
+    try {
+      for (FileStatus child : this.fs.listStatus(dir)) {
+        children.add(child);
+      }
+    } catch (FileNotFoundException e) {
+      // removed concurrently
+    }
+    return children;
+  }
+
+  private Path getSnapshotPath(Path datasetRoot, String pattern) {
+    String key = this.fs.makeQualified(datasetRoot).toString() + Path.SEPARATOR + pattern;
+    return new Path(this.snapshotDir, Hashing.sha1().hashString(key, Charsets.UTF_8).toString() + SNAPSHOT_EXTENSION);
+  }
+
+  private VersionListingSnapshot readSnapshot(Path snapshotPath) {
+    try {
+      if (!this.fs.exists(snapshotPath)) {
+        return null;
+      }
+      return VersionListingSnapshot.read(this.fs.open(snapshotPath));
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable version listing snapshot " + snapshotPath, e);
+      return null;
+    }
+  }
+
+  private void writeSnapshot(Path snapshotPath, VersionListingSnapshot snapshot) {
+    Path tmpPath = new Path(snapshotPath.getParent(), "_" + snapshotPath.getName() + ".tmp");
+    try {
+      snapshot.write(this.fs.create(tmpPath, true));
+      this.fs.delete(snapshotPath, false);
+      if (!this.fs.rename(tmpPath, snapshotPath)) {
+        throw new IOException(String.format("Unable to move %s to %s", tmpPath, snapshotPath));
+      }
+    } catch (IOException e) {
+      // The next run will list every directory
+      log.warn("Failed to persist version listing snapshot " + snapshotPath, e);
+    }
+  }
+
+  /**
+   * Brace alternatives may contain path separators, e.g. {a/b,c}, which cannot be matched component by component.
+   */
+  private static boolean hasSeparatorInBraces(String pattern) {
+    int depth = 0;
+    for (char c : pattern.toCharArray()) {
+      if (c == '{') {
+        depth++;
+      } else if (c == '}') {
+        depth--;
+      } else if (c == Path.SEPARATOR_CHAR && depth > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.version.finder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+
+import lombok.Getter;
+
+
+/**
+ * Listings of the directories holding dataset versions, as of the last run of an {@link IncrementalVersionLister}.
+ *
+ * Directories are keyed by their path without scheme and authority, and children are stored with the fields of
+ * {@link FileStatus} that version finders and cleaners use. The serialized form is a gzipped binary stream.
+ */
+public class VersionListingSnapshot {
+  private static final int FORMAT_VERSION = 1;
+
+  /** Time of the last run that listed every directory instead of reusing a previous snapshot */
+  @Getter
+  private final long fullListingTime;
+  private final Map<String, DirectoryListing> listings;
+
+  public VersionListingSnapshot(long fullListingTime) {
+    this(fullListingTime, new HashMap<>());
+  }
+
+  private VersionListingSnapshot(long fullListingTime, Map<String, DirectoryListing> listings) {
+    this.fullListingTime = fullListingTime;
+    this.listings = listings;
+  }
+
+  /**
+   * @return the children of the directory if it was listed with the given modification time, otherwise null
+   */
+  public List<FileStatus> getChildren(String dirKey, Path path, long modificationTime) {
+    DirectoryListing listing = this.listings.get(dirKey);
+    if (listing == null || listing.modificationTime != modificationTime) {
+      return null;
+    }
+    List<FileStatus> children = new ArrayList<>(listing.children.size());
+    for (ChildStatus child : listing.children) {
+      children.add(child.toFileStatus(path));
+    }
+    return children;
+  }
+
+  public void putChildren(String dirKey, long modificationTime, List<FileStatus> children) {
+    List<ChildStatus> childStatuses = new ArrayList<>(children.size());
+    for (FileStatus child : children) {
+      childStatuses.add(new ChildStatus(child));
+    }
+    this.listings.put(dirKey, new DirectoryListing(modificationTime, childStatuses));
+  }
+
+  public int size() {
+    return this.listings.size();
+  }
+
+  /**
+   * Serialize the snapshot to the stream, which is closed afterwards.
+   */
+  public void write(OutputStream out) throws IOException {
+    try (DataOutputStream dataOut = new DataOutputStream(new GZIPOutputStream(out))) {
+      dataOut.writeInt(FORMAT_VERSION);
+      dataOut.writeLong(this.fullListingTime);
+      dataOut.writeInt(this.listings.size());
+      for (Map.Entry<String, DirectoryListing> entry : this.listings.entrySet()) {
+        dataOut.writeUTF(entry.getKey());
+        dataOut.writeLong(entry.getValue().modificationTime);
+        dataOut.writeInt(entry.getValue().children.size());
+        for (ChildStatus child : entry.getValue().children) {
+          child.write(dataOut);
+        }
+      }
+    }
+  }
+
+  /**
+   * Deserialize a snapshot from the stream, which is closed afterwards.
+   */
+  public static VersionListingSnapshot read(InputStream in) throws IOException {
+    try (DataInputStream dataIn = new DataInputStream(new GZIPInputStream(in))) {
+      int formatVersion = dataIn.readInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException("Unsupported version listing snapshot format " + formatVersion);
+      }
+      long fullListingTime = dataIn.readLong();
+      int numListings = dataIn.readInt();
+      Map<String, DirectoryListing> listings = new HashMap<>(numListings * 2);
+      for (int i = 0; i < numListings; i++) {
+        String dirKey = dataIn.readUTF();
+        long modificationTime = dataIn.readLong();
+        int numChildren = dataIn.readInt();
+        List<ChildStatus> children = new ArrayList<>(numChildren);
+        for (int j = 0; j < numChildren; j++) {
+          children.add(ChildStatus.read(dataIn));
+        }
+        listings.put(dirKey, new DirectoryListing(modificationTime, children));
+      }
+      return new VersionListingSnapshot(fullListingTime, listings);
+    }
+  }
+
+  private static class DirectoryListing {
+    private final long modificationTime;
+    private final List<ChildStatus> children;
+
+    DirectoryListing(long modificationTime, List<ChildStatus> children) {
+      this.modificationTime = modificationTime;
+      this.children = children;
+    }
+  }
+
+  private static class ChildStatus {
+    private final String name;
+    private final boolean isDirectory;
+    private final long length;
+    private final long modificationTime;
+    private final short permission;
+    private final String owner;
+    private final String group;
+
+    ChildStatus(FileStatus status) {
+      this(status.getPath().getName(), status.isDirectory(), status.getLen(), status.getModificationTime(),
+          status.getPermission().toShort(), status.getOwner(), status.getGroup());
+    }
+
+    ChildStatus(String name, boolean isDirectory, long length, long modificationTime, short permission, String owner,
+        String group) {
+      this.name = name;
+      this.isDirectory = isDirectory;
+      this.length = length;
+      this.modificationTime = modificationTime;
+      this.permission = permission;
+      this.owner = owner;
+      this.group = group;
+    }
+
+    FileStatus toFileStatus(Path parent) {
+      return new FileStatus(this.length, this.isDirectory, 0, 0, this.modificationTime, 0,
+          new FsPermission(this.permission), this.owner, this.group, new Path(parent, this.name));
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeUTF(this.name);
+      out.writeBoolean(this.isDirectory);
+      out.writeLong(this.length);
+      out.writeLong(this.modificationTime);
+      out.writeShort(this.permission);
+      out.writeUTF(this.owner == null ? "" : this.owner);
+      out.writeUTF(this.group == null ? "" : this.group);
+    }
+
+    static ChildStatus read(DataInputStream in) throws IOException {
+      return new ChildStatus(in.readUTF(), in.readBoolean(), in.readLong(), in.readLong(), in.readShort(),
+          in.readUTF(), in.readUTF());
+    }
+  }
+}
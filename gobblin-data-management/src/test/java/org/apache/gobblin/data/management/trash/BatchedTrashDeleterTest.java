@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.trash;
+
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+
+import org.apache.gobblin.util.PathUtils;
+
+
+@Test(groups = { "gobblin.data.management.trash" })
+public class BatchedTrashDeleterTest {
+  private FileSystem fs;
+  private Path datasetRoot;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    this.fs = FileSystem.getLocal(new Configuration());
+    this.datasetRoot = new Path(Files.createTempDir().getAbsolutePath(), "BatchedTrashDeleterTest");
+    for (String version : new String[] { "2016/01/01/00", "2016/01/01/01", "2016/01/02/00", "2016/01/02/01" }) {
+      this.fs.mkdirs(new Path(this.datasetRoot, version));
+    }
+  }
+
+  @AfterClass
+  public void cleanUp() throws Exception {
+    this.fs.delete(this.datasetRoot.getParent(), true);
+  }
+
+  @Test
+  public void testCollapseFullyDeletedDirectories() throws Exception {
+    TestTrash trash = (TestTrash) TrashFactory.createProxiedTrash(this.fs, TestTrash.propertiesForTestTrash());
+    Properties properties = new Properties();
+    properties.setProperty(BatchedTrashDeleter.THREADS_KEY, "2");
+
+    try (BatchedTrashDeleter deleter = new BatchedTrashDeleter(properties)) {
+      BatchedTrashDeleter.Result result = deleter.delete(this.fs, trash, false, ImmutableList.of(
+          version("2016/01/01/00"), version("2016/01/01/01"), version("2016/01/02/00"), version("2016/01/03/00")),
+          Optional.of(this.datasetRoot));
+
+      Assert.assertEquals(deletedPaths(trash), ImmutableSet.of(version("2016/01/01"), version("2016/01/02/00")));
+      Assert.assertEquals(stripped(result.getPossiblyEmptyDirectories()),
+          ImmutableSet.of(version("2016/01"), version("2016/01/02")));
+      Assert.assertEquals(deleter.getCollapsedDirectories().get(), 1);
+      Assert.assertEquals(deleter.getMovedPaths().get(), 2);
+      Assert.assertEquals(deleter.getMissingPaths().get(), 1);
+      Assert.assertEquals(deleter.getFailedPaths().get(), 0);
+      Assert.assertEquals(result.getFailedPaths(), 0);
+    }
+  }
+
+  @Test
+  public void testNoCollapseWithoutRoot() throws Exception {
+    TestTrash trash = (TestTrash) TrashFactory.createProxiedTrash(this.fs, TestTrash.propertiesForTestTrash());
+
+    try (BatchedTrashDeleter deleter = new BatchedTrashDeleter(new Properties())) {
+      deleter.delete(this.fs, trash, false, ImmutableList.of(version("2016/01/01/00"), version("2016/01/01/01")),
+          Optional.<Path>absent());
+
+      Assert.assertEquals(deletedPaths(trash), ImmutableSet.of(version("2016/01/01/00"), version("2016/01/01/01")));
+      Assert.assertEquals(deleter.getCollapsedDirectories().get(), 0);
+      Assert.assertEquals(deleter.getListedDirectories().get(), 1);
+    }
+  }
+
+  @Test
+  public void testNestedPathsAreDeletedWithAncestor() throws Exception {
+    TestTrash trash = (TestTrash) TrashFactory.createProxiedTrash(this.fs, TestTrash.propertiesForTestTrash());
+
+    try (BatchedTrashDeleter deleter = new BatchedTrashDeleter(new Properties())) {
+      deleter.delete(this.fs, trash, true, ImmutableList.of(version("2016/01/02"), version("2016/01/02/00")),
+          Optional.of(this.datasetRoot));
+
+      Assert.assertEquals(deletedPaths(trash), ImmutableSet.of(version("2016/01/02")));
+      Assert.assertEquals(deleter.getMovedPaths().get(), 1);
+    }
+  }
+
+  @Test
+  public void testSharedAcrossDatasets() throws Exception {
+    TestTrash trash1 = (TestTrash) TrashFactory.createProxiedTrash(this.fs, TestTrash.propertiesForTestTrash());
+    TestTrash trash2 = (TestTrash) TrashFactory.createProxiedTrash(this.fs, TestTrash.propertiesForTestTrash());
+
+    try (BatchedTrashDeleter deleter = new BatchedTrashDeleter(new Properties())) {
+      BatchedTrashDeleter.Result result1 = deleter.delete(this.fs, trash1, false,
+          ImmutableList.of(version("2016/01/01/00")), Optional.<Path>absent());
+      BatchedTrashDeleter.Result result2 = deleter.delete(this.fs, trash2, false,
+          ImmutableList.of(version("2016/01/02/00")), Optional.<Path>absent());
+
+      Assert.assertEquals(deletedPaths(trash1), ImmutableSet.of(version("2016/01/01/00")));
+      Assert.assertEquals(deletedPaths(trash2), ImmutableSet.of(version("2016/01/02/00")));
+      Assert.assertEquals(stripped(result1.getPossiblyEmptyDirectories()), ImmutableSet.of(version("2016/01/01")));
+      Assert.assertEquals(stripped(result2.getPossiblyEmptyDirectories()), ImmutableSet.of(version("2016/01/02")));
+      Assert.assertEquals(deleter.getMovedPaths().get(), 2);
+      Assert.assertEquals(deleter.getListedDirectories().get(), 2);
+    }
+  }
+
+  private Path version(String relativePath) {
+    return PathUtils.getPathWithoutSchemeAndAuthority(new Path(this.datasetRoot, relativePath));
+  }
+
+  private static Set<Path> deletedPaths(TestTrash trash) {
+    Set<Path> paths = Sets.newHashSet();
+    for (TestTrash.DeleteOperation operation : trash.getDeleteOperations()) {
+      paths.add(PathUtils.getPathWithoutSchemeAndAuthority(operation.getPath()));
+    }
+    return paths;
+  }
+
+  private static Set<Path> stripped(Set<Path> paths) {
+    Set<Path> strippedPaths = Sets.newHashSet();
+    for (Path path : paths) {
+      strippedPaths.add(PathUtils.getPathWithoutSchemeAndAuthority(path));
+    }
+    return strippedPaths;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.version.finder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+
+public class IncrementalVersionListerTest {
+  private static final long MTIME = 1600000000000L;
+  private static final Path PATTERN = new Path("*/*/*");
+
+  private File tmpDir;
+  private FileSystem fs;
+  private Path datasetRoot;
+  private Path snapshotDir;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    this.tmpDir = Files.createTempDir();
+    this.fs = FileSystem.getLocal(new Configuration());
+    this.datasetRoot = new Path(this.tmpDir.getAbsolutePath(), "dataset");
+    this.snapshotDir = new Path(this.tmpDir.getAbsolutePath(), "snapshots");
+    for (String version : new String[]{"2020/01/01", "2020/01/02", "2020/02/01"}) {
+      this.fs.mkdirs(new Path(this.datasetRoot, version));
+    }
+    this.fs.setTimes(new Path(this.datasetRoot, "2020/01"), MTIME, -1);
+    this.fs.setTimes(new Path(this.datasetRoot, "2020/02"), MTIME, -1);
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(this.tmpDir);
+  }
+
+  @Test
+  public void testChangedDirectoriesAreListed() throws IOException {
+    IncrementalVersionLister lister = newLister(TimeUnit.HOURS.toMillis(1));
+    Assert.assertEquals(versions(lister), ImmutableSet.of("2020/01/01", "2020/01/02", "2020/02/01"));
+    Assert.assertEquals(versions(lister), globVersions());
+
+    this.fs.mkdirs(new Path(this.datasetRoot, "2020/01/03"));
+    this.fs.delete(new Path(this.datasetRoot, "2020/01/01"), true);
+    this.fs.setTimes(new Path(this.datasetRoot, "2020/01"), MTIME + 1000, -1);
+    this.fs.mkdirs(new Path(this.datasetRoot, "2020/03/01"));
+    Assert.assertEquals(versions(lister), ImmutableSet.of("2020/01/02", "2020/01/03", "2020/02/01", "2020/03/01"));
+    Assert.assertEquals(versions(lister), globVersions());
+  }
+
+  @Test
+  public void testUnchangedDirectoriesAreReused() throws IOException {
+    IncrementalVersionLister lister = newLister(TimeUnit.HOURS.toMillis(1));
+    versions(lister);
+
+    // A version added without a change to the modification time of its parent is only seen by a full listing
+    this.fs.mkdirs(new Path(this.datasetRoot, "2020/02/02"));
+    this.fs.setTimes(new Path(this.datasetRoot, "2020/02"), MTIME, -1);
+    Assert.assertEquals(versions(lister), ImmutableSet.of("2020/01/01", "2020/01/02", "2020/02/01"));
+
+    IncrementalVersionLister fullLister = newLister(0);
+    Assert.assertEquals(versions(fullLister), globVersions());
+    Assert.assertTrue(versions(fullLister).contains("2020/02/02"));
+  }
+
+  @Test
+  public void testMissingDatasetRoot() throws IOException {
+    IncrementalVersionLister lister = newLister(TimeUnit.HOURS.toMillis(1));
+    Assert.assertEquals(lister.globStatus(new Path(this.datasetRoot, "missing"), PATTERN).length, 0);
+  }
+
+  @Test
+  public void testUnreadableSnapshotTriggersFullListing() throws IOException {
+    IncrementalVersionLister lister = newLister(TimeUnit.HOURS.toMillis(1));
+    versions(lister);
+    for (FileStatus snapshot : this.fs.listStatus(this.snapshotDir)) {
+      FileUtils.writeStringToFile(new File(snapshot.getPath().toUri().getPath()), "corrupt");
+    }
+    this.fs.mkdirs(new Path(this.datasetRoot, "2020/02/02"));
+    this.fs.setTimes(new Path(this.datasetRoot, "2020/02"), MTIME, -1);
+    Assert.assertEquals(versions(lister), globVersions());
+  }
+
+  private IncrementalVersionLister newLister(long fullListingIntervalMillis) {
+    return new IncrementalVersionLister(this.fs, this.snapshotDir, fullListingIntervalMillis);
+  }
+
+  private Set<String> versions(IncrementalVersionLister lister) throws IOException {
+    return toVersions(lister.globStatus(this.datasetRoot, PATTERN));
+  }
+
+  private Set<String> globVersions() throws IOException {
+    return toVersions(this.fs.globStatus(new Path(this.datasetRoot, PATTERN)));
+  }
+
+  private Set<String> toVersions(FileStatus[] statuses) {
+    Set<String> versions = new TreeSet<>();
+    String root = this.fs.makeQualified(this.datasetRoot).toString() + Path.SEPARATOR;
+    for (FileStatus status : statuses) {
+      versions.add(status.getPath().toString().substring(root.length()));
+    }
+    return versions;
+  }
+}
@@ -19,7 +19,9 @@ package org.apache.gobblin.hive;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -29,10 +31,12 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.reflect.ConstructorUtils;
 
+import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -131,7 +135,22 @@ public abstract class HiveRegister implements Closeable {
     return future;
   }
 
-  private String getSpecId(HiveSpec spec) {
+  /**
+   * Register a collection of {@link HiveSpec}s. This method is asynchronous and returns immediately.
+   * By default each {@link HiveSpec} is registered independently via {@link #register(HiveSpec)}; subclasses may
+   * override this method to register {@link HiveSpec}s of the same table together.
+   *
+   * @return a {@link ListenableFuture} that completes when all given {@link HiveSpec}s are registered.
+   */
+  public ListenableFuture<Void> register(Collection<HiveSpec> specs) {
+    List<ListenableFuture<Void>> specFutures = new ArrayList<>(specs.size());
+    for (HiveSpec spec : specs) {
+      specFutures.add(register(spec));
+    }
+    return Futures.transform(Futures.allAsList(specFutures), Functions.<Void>constant(null));
+  }
+
+  protected String getSpecId(HiveSpec spec) {
     Optional<HivePartition> partition = spec.getPartition();
     if (partition.isPresent()) {
       return String.format("%s.%s@%s", spec.getTable().getDbName(), spec.getTable().getTableName(),
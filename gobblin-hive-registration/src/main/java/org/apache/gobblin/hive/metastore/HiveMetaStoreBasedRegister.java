@@ -18,7 +18,11 @@
 package org.apache.gobblin.hive.metastore;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -29,6 +33,7 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
@@ -40,12 +45,16 @@ import org.joda.time.DateTime;
 
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,6 +70,9 @@ import org.apache.gobblin.hive.HiveRegister;
 import org.apache.gobblin.hive.HiveRegistrationUnit.Column;
 import org.apache.gobblin.hive.HiveTable;
 import org.apache.gobblin.hive.spec.HiveSpec;
+import org.apache.gobblin.hive.spec.HiveSpecWithPostActivities;
+import org.apache.gobblin.hive.spec.HiveSpecWithPreActivities;
+import org.apache.gobblin.hive.spec.HiveSpecWithPredicates;
 import org.apache.gobblin.metrics.GobblinMetrics;
 import org.apache.gobblin.metrics.GobblinMetricsRegistry;
 import org.apache.gobblin.metrics.MetricContext;
@@ -85,6 +97,16 @@ import org.apache.gobblin.util.AvroUtils;
  *   thread pool whose size is controlled by {@link HiveRegProps#HIVE_REGISTER_THREADS}.
  * </p>
  *
+ * <p>
+ *   If {@link #BATCH_PARTITION_REGISTRATION} is enabled, {@link #register(Collection)} registers the partitions of
+ *   each table as a batch, see {@link #addOrAlterPartitionBatch(IMetaStoreClient, Table, List)}.
+ * </p>
+ *
+ * <p>
+ *   If {@link HivePartitionCache#ENABLED} is set, partitions whose metadata matches a {@link HivePartitionCache}
+ *   entry are skipped without any metastore call.
+ * </p>
+ *
  * @author Ziyang Liu
  */
 @Slf4j
@@ -119,6 +141,19 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
    * We make this optimization configurable by setting {@link #OPTIMIZED_CHECK_ENABLED} to be true.
    */
   public static final String OPTIMIZED_CHECK_ENABLED = "hiveRegister.cacheDbTableExistence";
+  /**
+   * When enabled, partition specs passed to {@link #register(Collection)} are grouped by table. For every chunk of
+   * {@link #PARTITION_BATCH_SIZE} partitions, the existing partitions are fetched with one getPartitionsByNames call
+   * and new and changed partitions are written with one add_partitions and one alter_partitions call, under a
+   * single table lock.
+   */
+  public static final String BATCH_PARTITION_REGISTRATION = HIVE_REGISTER_METRICS_PREFIX + "batchPartitionRegistration";
+  public static final String PARTITION_BATCH_SIZE = HIVE_REGISTER_METRICS_PREFIX + "partitionBatchSize";
+  public static final int DEFAULT_PARTITION_BATCH_SIZE = 100;
+  public static final String PARTITION_BATCH_TIMER = HIVE_REGISTER_METRICS_PREFIX + "partitionBatchTimer";
+  public static final String GET_PARTITIONS_BY_NAMES = HIVE_REGISTER_METRICS_PREFIX + "getPartitionsByNamesTimer";
+  public static final String ADD_PARTITIONS = HIVE_REGISTER_METRICS_PREFIX + "addPartitionsTimer";
+  public static final String ALTER_PARTITIONS = HIVE_REGISTER_METRICS_PREFIX + "alterPartitionsTimer";
 
   private final HiveMetastoreClientPool clientPool;
   private final HiveLock locks;
@@ -126,6 +161,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
   private final MetricContext metricContext;
   private final boolean shouldUpdateLatestSchema;
   private final boolean registerPartitionWithPullMode;
+  private final boolean batchPartitionRegistration;
+  private final int partitionBatchSize;
+  private final Optional<HivePartitionCache> partitionCache;
 
   /**
    * Local cache that contains records for both databases and tables.
@@ -164,6 +202,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
     this.skipDiffComputation = state.getPropAsBoolean(SKIP_PARTITION_DIFF_COMPUTATION, false);
     this.shouldUpdateLatestSchema = state.getPropAsBoolean(FETCH_LATEST_SCHEMA, false);
     this.registerPartitionWithPullMode = state.getPropAsBoolean(REGISTER_PARTITION_WITH_PULL_MODE, false);
+    this.batchPartitionRegistration = state.getPropAsBoolean(BATCH_PARTITION_REGISTRATION, false);
+    this.partitionBatchSize = state.getPropAsInt(PARTITION_BATCH_SIZE, DEFAULT_PARTITION_BATCH_SIZE);
+    Preconditions.checkArgument(this.partitionBatchSize > 0, PARTITION_BATCH_SIZE + " must be positive");
     if(this.shouldUpdateLatestSchema) {
       this.schemaRegistry = Optional.of(KafkaSchemaRegistry.get(state.getProperties()));
       topicName = state.getProp(KafkaSource.TOPIC_NAME);
@@ -178,6 +219,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
         GobblinMetricsRegistry.getInstance().getMetricContext(state, HiveMetaStoreBasedRegister.class, GobblinMetrics.getCustomTagsFromState(state));
 
     this.eventSubmitter = new EventSubmitter.Builder(this.metricContext, "org.apache.gobblin.hive.HiveMetaStoreBasedRegister").build();
+
+    this.partitionCache = state.getPropAsBoolean(HivePartitionCache.ENABLED, false)
+        ? Optional.of(HivePartitionCache.get(state, metastoreURI)) : Optional.<HivePartitionCache>absent();
   }
 
   @Override
@@ -209,6 +253,225 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
     }
   }
 
+  /**
+   * If {@link #BATCH_PARTITION_REGISTRATION} is enabled, partition specs without predicates or activities are grouped
+   * by table and each group is registered by a single task; all other specs are registered individually.
+   */
+  @Override
+  public ListenableFuture<Void> register(Collection<HiveSpec> specs) {
+    if (!this.batchPartitionRegistration) {
+      return super.register(specs);
+    }
+    List<ListenableFuture<Void>> specFutures = new ArrayList<>();
+    Map<String, List<HiveSpec>> specsByTable = new LinkedHashMap<>();
+    for (HiveSpec spec : specs) {
+      if (canRegisterInBatch(spec)) {
+        String tableKey = spec.getTable().getDbName() + ":" + spec.getTable().getTableName();
+        specsByTable.computeIfAbsent(tableKey, key -> new ArrayList<>()).add(spec);
+      } else {
+        specFutures.add(register(spec));
+      }
+    }
+    for (List<HiveSpec> tableSpecs : specsByTable.values()) {
+      ListenableFuture<Void> future = this.executor.submit(() -> {
+        try {
+          registerPartitionBatch(tableSpecs);
+          return null;
+        } catch (Exception e) {
+          log.error("Exception during hive registration", e);
+          throw e;
+        }
+      });
+      for (HiveSpec spec : tableSpecs) {
+        this.futures.put(getSpecId(spec), future);
+      }
+      specFutures.add(future);
+    }
+    return Futures.transform(Futures.allAsList(specFutures), Functions.<Void>constant(null));
+  }
+
+  private static boolean canRegisterInBatch(HiveSpec spec) {
+    return spec.getPartition().isPresent()
+        && !(spec instanceof HiveSpecWithPredicates && !((HiveSpecWithPredicates) spec).getPredicates().isEmpty())
+        && !(spec instanceof HiveSpecWithPreActivities
+            && !((HiveSpecWithPreActivities) spec).getPreActivities().isEmpty())
+        && !(spec instanceof HiveSpecWithPostActivities
+            && !((HiveSpecWithPostActivities) spec).getPostActivities().isEmpty());
+  }
+
+  /**
+   * Register partition specs that all belong to the same table. The database and table are created or altered once,
+   * based on the last spec, which leaves the table as it would have been after registering the specs one by one. The
+   * partitions are then added or altered in chunks of {@link #partitionBatchSize}.
+   */
+  private void registerPartitionBatch(List<HiveSpec> specs) throws IOException {
+    Table table = HiveMetaStoreUtils.getTable(specs.get(specs.size() - 1).getTable());
+    if (table.getTableType().equals(TableType.VIRTUAL_VIEW.name())) {
+      for (HiveSpec spec : specs) {
+        registerPath(spec);
+      }
+      return;
+    }
+
+    try (Timer.Context context = this.metricContext.timer(PATH_REGISTER_TIMER).time();
+        AutoReturnableObject<IMetaStoreClient> client = this.clientPool.getClient()) {
+      registerPartitionBatch(client.get(), specs);
+      for (HiveSpec spec : specs) {
+        HiveMetaStoreEventHelper.submitSuccessfulPathRegistration(eventSubmitter, spec);
+      }
+    } catch (TException e) {
+      for (HiveSpec spec : specs) {
+        HiveMetaStoreEventHelper.submitFailedPathRegistration(eventSubmitter, spec, e);
+      }
+      throw new IOException(e);
+    }
+  }
+
+  @VisibleForTesting
+  void registerPartitionBatch(IMetaStoreClient client, List<HiveSpec> specs) throws TException, IOException {
+    HiveSpec lastSpec = specs.get(specs.size() - 1);
+    Table table = HiveMetaStoreUtils.getTable(lastSpec.getTable());
+    createDbIfNotExists(client, table.getDbName());
+    createOrAlterTable(client, table, lastSpec);
+
+    List<HivePartition> partitions = new ArrayList<>(specs.size());
+    for (HiveSpec spec : specs) {
+      partitions.add(spec.getPartition().get());
+    }
+    for (List<HivePartition> chunk : Lists.partition(partitions, this.partitionBatchSize)) {
+      addOrAlterPartitionBatch(client, table, chunk);
+    }
+  }
+
+  /**
+   * Add or alter a batch of partitions of the given table while holding the table lock. Existing partitions are
+   * fetched with a single getPartitionsByNames call; absent partitions are added with add_partitions and partitions
+   * that differ from the existing ones are updated with alter_partitions. If add_partitions fails because another
+   * writer added one of the partitions in the meantime, the partitions of this batch are added one by one instead.
+   */
+  @VisibleForTesting
+  void addOrAlterPartitionBatch(IMetaStoreClient client, Table table, List<HivePartition> partitions)
+      throws TException, IOException {
+    String dbName = table.getDbName();
+    String tableName = table.getTableName();
+    Map<String, HivePartition> partitionsByName = new LinkedHashMap<>();
+    for (HivePartition partition : partitions) {
+      Preconditions.checkArgument(table.getPartitionKeysSize() == partition.getValues().size(),
+          String.format("Partition key size is %s but partition value size is %s", table.getPartitionKeysSize(),
+              partition.getValues().size()));
+      // A later spec of the same partition wins, as it would have when registered one by one
+      partitionsByName.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
+    }
+
+    int numPartitions = partitionsByName.size();
+    partitionsByName.values().removeIf(partition -> isPartitionUnchanged(table, partition, 0));
+    if (partitionsByName.isEmpty()) {
+      if (numPartitions > 0) {
+        // The getPartitionsByNames lookup is the only call saved for a batch, add and alter calls are shared
+        this.metricContext.counter(HivePartitionCache.SAVED_RPC).inc();
+        log.debug(String.format("All %d partitions of table %s in db %s are unchanged", numPartitions, tableName,
+            dbName));
+      }
+      return;
+    }
+
+    try (Timer.Context batchContext = this.metricContext.timer(PARTITION_BATCH_TIMER).time();
+        AutoCloseableHiveLock lock = this.locks.getTableLock(dbName, tableName)) {
+      Map<String, Partition> existingPartitions = new HashMap<>();
+      try (Timer.Context context = this.metricContext.timer(GET_PARTITIONS_BY_NAMES).time()) {
+        for (Partition existing : client.getPartitionsByNames(dbName, tableName,
+            new ArrayList<>(partitionsByName.keySet()))) {
+          existingPartitions.put(Warehouse.makePartName(table.getPartitionKeys(), existing.getValues()), existing);
+        }
+      }
+
+      List<HivePartition> newPartitions = new ArrayList<>();
+      List<Partition> changedPartitions = new ArrayList<>();
+      for (Map.Entry<String, HivePartition> entry : partitionsByName.entrySet()) {
+        Partition existing = existingPartitions.get(entry.getKey());
+        if (existing == null) {
+          newPartitions.add(entry.getValue());
+        } else if (!this.skipDiffComputation) {
+          HivePartition existingPartition = HiveMetaStoreUtils.getHivePartition(existing);
+          if (needToUpdatePartition(existingPartition, entry.getValue())) {
+            changedPartitions.add(
+                getPartitionWithCreateTime(HiveMetaStoreUtils.getPartition(entry.getValue()), existingPartition));
+          }
+        }
+      }
+
+      if (!newPartitions.isEmpty()) {
+        List<Partition> nativePartitions = new ArrayList<>(newPartitions.size());
+        for (HivePartition partition : newPartitions) {
+          nativePartitions.add(getPartitionWithCreateTimeNow(HiveMetaStoreUtils.getPartition(partition)));
+        }
+        try (Timer.Context context = this.metricContext.timer(ADD_PARTITIONS).time()) {
+          client.add_partitions(nativePartitions);
+          log.info(String.format("Added %d partitions to table %s in db %s", nativePartitions.size(), tableName,
+              dbName));
+        } catch (AlreadyExistsException e) {
+          log.info(String.format("Some of %d partitions were concurrently added to table %s in db %s, "
+              + "adding them one by one", nativePartitions.size(), tableName, dbName));
+          for (HivePartition partition : newPartitions) {
+            addOrAlterPartitionUnderTableLock(client, table, partition);
+          }
+        }
+      }
+
+      if (!changedPartitions.isEmpty()) {
+        try (Timer.Context context = this.metricContext.timer(ALTER_PARTITIONS).time()) {
+          client.alter_partitions(dbName, tableName, changedPartitions);
+        }
+        log.info(String.format("Updated %d partitions in table %s in db %s", changedPartitions.size(), tableName,
+            dbName));
+      }
+    }
+    for (HivePartition partition : partitionsByName.values()) {
+      cachePartition(table, partition);
+    }
+  }
+
+  /**
+   * @param savedRpcs the number of metastore calls the caller saves if the partition is unchanged.
+   * @return true if {@link #partitionCache} holds the partition with metadata that does not need to be updated.
+   */
+  private boolean isPartitionUnchanged(Table table, HivePartition partition, int savedRpcs) {
+    if (!this.partitionCache.isPresent()) {
+      return false;
+    }
+    Optional<HivePartition> cachedPartition =
+        this.partitionCache.get().getPartition(table.getDbName(), table.getTableName(), partition.getValues());
+    this.metricContext.counter(cachedPartition.isPresent() ? HivePartitionCache.CACHE_HIT
+        : HivePartitionCache.CACHE_MISS).inc();
+    if (cachedPartition.isPresent() && !needToUpdatePartition(cachedPartition.get(), partition)) {
+      this.metricContext.counter(HivePartitionCache.SAVED_RPC).inc(savedRpcs);
+      return true;
+    }
+    return false;
+  }
+
+  private void cachePartition(Table table, HivePartition partition) {
+    if (this.partitionCache.isPresent()) {
+      this.partitionCache.get().put(table.getDbName(), table.getTableName(), partition);
+    }
+  }
+
+  private void addOrAlterPartitionUnderTableLock(IMetaStoreClient client, Table table, HivePartition partition)
+      throws TException {
+    Partition nativePartition = HiveMetaStoreUtils.getPartition(partition);
+    try {
+      try (Timer.Context context = this.metricContext.timer(ADD_PARTITION_TIMER).time()) {
+        client.add_partition(getPartitionWithCreateTimeNow(nativePartition));
+      }
+    } catch (AlreadyExistsException e) {
+      if (this.skipDiffComputation) {
+        onPartitionExistWithoutComputingDiff(table, nativePartition, e);
+      } else {
+        onPartitionExist(client, table, partition, nativePartition, null);
+      }
+    }
+  }
+
   /**
    * This method is used to update the table schema to the latest schema
    * It will fetch creation time of the latest schema from schema registry and compare that
@@ -432,6 +695,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
         try (Timer.Context context = this.metricContext.timer(ADD_PARTITION_TIMER).time()) {
           client.get().add_partition(getPartitionWithCreateTimeNow(HiveMetaStoreUtils.getPartition(partition)));
         }
+        if (this.partitionCache.isPresent()) {
+          this.partitionCache.get().put(table.getDbName(), table.getTableName(), partition);
+        }
         HiveMetaStoreEventHelper.submitSuccessfulPartitionAdd(this.eventSubmitter, table, partition);
         return true;
       }
@@ -529,6 +795,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
         try (Timer.Context context = this.metricContext.timer(DROP_TABLE).time()) {
           client.get().dropTable(dbName, tableName, false, false);
         }
+        if (this.partitionCache.isPresent()) {
+          this.partitionCache.get().invalidateTable(dbName, tableName);
+        }
         String metastoreURI = this.clientPool.getHiveConf().get(HiveMetaStoreClientFactory.HIVE_METASTORE_TOKEN_SIGNATURE, "null");
         HiveMetaStoreEventHelper.submitSuccessfulTableDrop(eventSubmitter, dbName, tableName, metastoreURI);
         log.info("Dropped table " + tableName + " in db " + dbName);
@@ -550,6 +819,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
       try (Timer.Context context = this.metricContext.timer(DROP_TABLE).time()) {
         client.get().dropPartition(dbName, tableName, partitionValues, false);
       }
+      if (this.partitionCache.isPresent()) {
+        this.partitionCache.get().invalidatePartition(dbName, tableName, partitionValues);
+      }
       String metastoreURI = this.clientPool.getHiveConf().get(HiveMetaStoreClientFactory.HIVE_METASTORE_TOKEN_SIGNATURE, "null");
       HiveMetaStoreEventHelper.submitSuccessfulPartitionDrop(eventSubmitter, dbName, tableName, partitionValues, metastoreURI);
       log.info("Dropped partition " + partitionValues + " in table " + tableName + " in db " + dbName);
@@ -609,11 +881,18 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
 
   private void addOrAlterPartition(IMetaStoreClient client, Table table, HivePartition partition)
       throws TException, IOException {
+    // Push mode would have issued add_partition and getPartition, pull mode only getPartition
+    if (isPartitionUnchanged(table, partition, registerPartitionWithPullMode ? 1 : 2)) {
+      log.debug(String.format("Partition %s in table %s is cached and no need to update", stringifyPartition(partition),
+          table.getTableName()));
+      return;
+    }
     if(!registerPartitionWithPullMode) {
       addOrAlterPartitionWithPushMode(client, table, partition);
     } else {
       addOrAlterPartitionWithPullMode(client, table, partition);
     }
+    cachePartition(table, partition);
   }
   private void addOrAlterPartitionWithPullMode(IMetaStoreClient client, Table table, HivePartition partition)
       throws TException, IOException {
@@ -769,6 +1048,9 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
         client.get().alter_partition(table.getDbName(), table.getTableName(),
             getPartitionWithCreateTimeNow(HiveMetaStoreUtils.getPartition(partition)));
       }
+      if (this.partitionCache.isPresent()) {
+        this.partitionCache.get().put(table.getDbName(), table.getTableName(), partition);
+      }
       HiveMetaStoreEventHelper.submitSuccessfulPartitionAlter(eventSubmitter, table, partition);
     } catch (TException e) {
       HiveMetaStoreEventHelper.submitFailedPartitionAlter(eventSubmitter, table, partition, e);
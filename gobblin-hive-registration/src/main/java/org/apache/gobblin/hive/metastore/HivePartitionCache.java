@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.hive.metastore;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.hive.HivePartition;
+
+
+/**
+ * A bounded, TTL-based cache of Hive partition metadata, used by {@link HiveMetaStoreBasedRegister} to skip
+ * re-registering partitions whose metadata has not changed.
+ *
+ * <p>
+ *   One cache is shared by all the registers of a JVM that write to the same metastore (see
+ *   {@link #get(State, Optional)}), so that it outlives the register created for each publish. It only holds the
+ *   partitions the registers wrote or looked up themselves, and never lists the partitions of a whole table. At most
+ *   {@link #MAX_PARTITIONS} partitions are cached, each for at most {@link #TTL_SECONDS} seconds, which bounds how long
+ *   a change made to the metastore by another writer can go unnoticed.
+ * </p>
+ */
+public class HivePartitionCache {
+
+  public static final String PARTITION_CACHE_PREFIX =
+      HiveMetaStoreBasedRegister.HIVE_REGISTER_METRICS_PREFIX + "partitionCache.";
+  public static final String ENABLED = PARTITION_CACHE_PREFIX + "enabled";
+  public static final String MAX_PARTITIONS = PARTITION_CACHE_PREFIX + "maxPartitions";
+  public static final long DEFAULT_MAX_PARTITIONS = 100000;
+  public static final String TTL_SECONDS = PARTITION_CACHE_PREFIX + "ttlSeconds";
+  // Long enough for partitions registered by an hourly publish to still be cached at the next one
+  public static final long DEFAULT_TTL_SECONDS = TimeUnit.HOURS.toSeconds(3);
+
+  public static final String CACHE_HIT = PARTITION_CACHE_PREFIX + "hit";
+  public static final String CACHE_MISS = PARTITION_CACHE_PREFIX + "miss";
+  public static final String SAVED_RPC = PARTITION_CACHE_PREFIX + "savedRpc";
+
+  private static final String DEFAULT_METASTORE = "default";
+  private static final ConcurrentMap<String, HivePartitionCache> CACHES_BY_METASTORE = new ConcurrentHashMap<>();
+
+  /**
+   * Partitions keyed by their db name, table name and values.
+   */
+  private final Cache<List<String>, HivePartition> partitions;
+
+  /**
+   * Get the cache shared by the registers of this JVM that write to the given metastore. The size and TTL of the
+   * cache are taken from the state of the first register that asks for it.
+   */
+  public static HivePartitionCache get(State state, Optional<String> metastoreURI) {
+    return CACHES_BY_METASTORE.computeIfAbsent(metastoreURI.or(DEFAULT_METASTORE),
+        metastore -> new HivePartitionCache(state));
+  }
+
+  @VisibleForTesting
+  HivePartitionCache(State state) {
+    this.partitions = CacheBuilder.newBuilder()
+        .maximumSize(state.getPropAsLong(MAX_PARTITIONS, DEFAULT_MAX_PARTITIONS))
+        .expireAfterWrite(state.getPropAsLong(TTL_SECONDS, DEFAULT_TTL_SECONDS), TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * @return the cached {@link HivePartition}, or {@link Optional#absent()} if the partition is not cached.
+   */
+  public Optional<HivePartition> getPartition(String dbName, String tableName, List<String> partitionValues) {
+    return Optional.fromNullable(this.partitions.getIfPresent(getPartitionKey(dbName, tableName, partitionValues)));
+  }
+
+  /**
+   * Record a partition that was just added, altered or found to be up to date in the metastore.
+   */
+  public void put(String dbName, String tableName, HivePartition partition) {
+    this.partitions.put(getPartitionKey(dbName, tableName, partition.getValues()), partition);
+  }
+
+  public void invalidatePartition(String dbName, String tableName, List<String> partitionValues) {
+    this.partitions.invalidate(getPartitionKey(dbName, tableName, partitionValues));
+  }
+
+  public void invalidateTable(String dbName, String tableName) {
+    this.partitions.asMap().keySet().removeIf(key -> key.get(0).equals(dbName) && key.get(1).equals(tableName));
+  }
+
+  private static List<String> getPartitionKey(String dbName, String tableName, List<String> partitionValues) {
+    return ImmutableList.<String>builder().add(dbName).add(tableName).addAll(partitionValues).build();
+  }
+}
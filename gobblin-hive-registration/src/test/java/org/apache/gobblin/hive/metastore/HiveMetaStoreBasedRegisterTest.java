@@ -17,21 +17,29 @@
 package org.apache.gobblin.hive.metastore;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.util.List;
 import java.util.Properties;
 import org.apache.avro.Schema;
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.hive.HivePartition;
+import org.apache.gobblin.hive.HiveRegistrationUnit;
 import org.apache.gobblin.hive.HiveTable;
 import org.apache.gobblin.hive.spec.SimpleHiveSpec;
 import org.apache.gobblin.metrics.kafka.KafkaSchemaRegistry;
 import org.apache.gobblin.metrics.kafka.SchemaRegistryException;
 import org.apache.gobblin.util.AvroUtils;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.ql.io.avro.AvroContainerInputFormat;
 import org.apache.hadoop.hive.ql.io.avro.AvroContainerOutputFormat;
 import org.apache.hadoop.hive.serde2.avro.AvroSerDe;
 import org.apache.hadoop.hive.serde2.avro.AvroSerdeUtils;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -102,6 +110,94 @@ public class HiveMetaStoreBasedRegisterTest {
 
   }
 
+  @Test
+  public void testAddOrAlterPartitionBatch() throws Exception {
+    HiveMetaStoreBasedRegister register = new HiveMetaStoreBasedRegister(new State(), Optional.absent());
+    HiveTable hiveTable = new HiveTable.Builder().withDbName("testdb").withTableName("testtable")
+        .withPartitionKeys(ImmutableList.of(new HiveRegistrationUnit.Column("datepartition", "string", "")))
+        .build();
+    hiveTable.setLocation("/data/testtable");
+    Table table = HiveMetaStoreUtils.getTable(hiveTable);
+
+    HivePartition newPartition = buildPartition("2021-01-01", "/data/testtable/2021-01-01");
+    HivePartition unchangedPartition = buildPartition("2021-01-02", "/data/testtable/2021-01-02");
+    HivePartition changedPartition = buildPartition("2021-01-03", "/data/testtable/2021-01-03");
+
+    IMetaStoreClient client = Mockito.mock(IMetaStoreClient.class);
+    Mockito.when(client.getPartitionsByNames(Mockito.eq("testdb"), Mockito.eq("testtable"), Mockito.anyList()))
+        .thenReturn(ImmutableList.of(HiveMetaStoreUtils.getPartition(unchangedPartition),
+            HiveMetaStoreUtils.getPartition(buildPartition("2021-01-03", "/data/testtable/old"))));
+
+    register.addOrAlterPartitionBatch(client, table,
+        ImmutableList.of(newPartition, unchangedPartition, changedPartition));
+
+    ArgumentCaptor<List> partitionNames = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(client).getPartitionsByNames(Mockito.eq("testdb"), Mockito.eq("testtable"),
+        partitionNames.capture());
+    Assert.assertEquals(partitionNames.getValue(),
+        ImmutableList.of("datepartition=2021-01-01", "datepartition=2021-01-02", "datepartition=2021-01-03"));
+
+    ArgumentCaptor<List> added = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(client).add_partitions(added.capture());
+    Assert.assertEquals(added.getValue().size(), 1);
+    Assert.assertEquals(((Partition) added.getValue().get(0)).getValues(), ImmutableList.of("2021-01-01"));
+
+    ArgumentCaptor<List> altered = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(client).alter_partitions(Mockito.eq("testdb"), Mockito.eq("testtable"), altered.capture());
+    Assert.assertEquals(altered.getValue().size(), 1);
+    Assert.assertEquals(((Partition) altered.getValue().get(0)).getSd().getLocation(), "/data/testtable/2021-01-03");
+
+    Mockito.verify(client, Mockito.never()).getPartition(Mockito.anyString(), Mockito.anyString(), Mockito.anyList());
+    Mockito.verify(client, Mockito.never()).add_partition(Mockito.any(Partition.class));
+  }
+
+  @Test
+  public void testRegisterPartitionBatchUsesLastTableSpec() throws Exception {
+    HiveMetaStoreBasedRegister register = new HiveMetaStoreBasedRegister(new State(), Optional.absent());
+    IMetaStoreClient client = Mockito.mock(IMetaStoreClient.class);
+    Mockito.when(client.tableExists("testdb", "testtable")).thenReturn(true);
+    Mockito.when(client.getTable("testdb", "testtable"))
+        .thenReturn(HiveMetaStoreUtils.getTable(buildTable("old")));
+
+    SimpleHiveSpec firstSpec = new SimpleHiveSpec.Builder(new Path("/data/testtable/2021-01-01"))
+        .withTable(buildTable("first"))
+        .withPartition(Optional.of(buildPartition("2021-01-01", "/data/testtable/2021-01-01")))
+        .build();
+    SimpleHiveSpec lastSpec = new SimpleHiveSpec.Builder(new Path("/data/testtable/2021-01-02"))
+        .withTable(buildTable("last"))
+        .withPartition(Optional.of(buildPartition("2021-01-02", "/data/testtable/2021-01-02")))
+        .build();
+    register.registerPartitionBatch(client, ImmutableList.of(firstSpec, lastSpec));
+
+    // the table is left as described by the last spec, as if the specs had been registered one by one
+    ArgumentCaptor<Table> altered = ArgumentCaptor.forClass(Table.class);
+    Mockito.verify(client).alter_table(Mockito.eq("testdb"), Mockito.eq("testtable"), altered.capture());
+    Assert.assertEquals(altered.getValue().getParameters().get("version"), "last");
+    Mockito.verify(client, Mockito.never()).createTable(Mockito.any(Table.class));
+
+    ArgumentCaptor<List> added = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(client).add_partitions(added.capture());
+    Assert.assertEquals(added.getValue().size(), 2);
+  }
+
+  private static HiveTable buildTable(String version) {
+    State props = new State();
+    props.setProp("version", version);
+    HiveTable hiveTable = new HiveTable.Builder().withDbName("testdb").withTableName("testtable")
+        .withPartitionKeys(ImmutableList.of(new HiveRegistrationUnit.Column("datepartition", "string", "")))
+        .withProps(props)
+        .build();
+    hiveTable.setLocation("/data/testtable");
+    return hiveTable;
+  }
+
+  private static HivePartition buildPartition(String value, String location) {
+    HivePartition partition = new HivePartition.Builder().withDbName("testdb").withTableName("testtable")
+        .withPartitionValues(ImmutableList.of(value)).build();
+    partition.setLocation(location);
+    return partition;
+  }
+
   public static class MockSchemaRegistry extends KafkaSchemaRegistry<String, Schema> {
     static Schema latestSchema = Schema.create(Schema.Type.STRING);
 
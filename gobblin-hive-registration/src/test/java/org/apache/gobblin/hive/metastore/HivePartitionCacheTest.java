@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.hive.metastore;
+
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.hive.HivePartition;
+import org.apache.gobblin.hive.HiveRegistrationUnit;
+import org.apache.gobblin.hive.HiveTable;
+
+
+public class HivePartitionCacheTest {
+
+  @Test
+  public void testTrackWrites() throws Exception {
+    HivePartitionCache cache = new HivePartitionCache(new State());
+    Assert.assertFalse(cache.getPartition("db", "table", ImmutableList.of("a")).isPresent());
+
+    cache.put("db", "table", buildPartition("db", "a", "/data/a"));
+    cache.put("db", "table", buildPartition("db", "b", "/data/b"));
+    cache.put("db", "other", buildPartition("db", "a", "/data/other/a"));
+    Assert.assertEquals(cache.getPartition("db", "table", ImmutableList.of("a")).get().getLocation().get(), "/data/a");
+    Assert.assertEquals(cache.getPartition("db", "other", ImmutableList.of("a")).get().getLocation().get(),
+        "/data/other/a");
+
+    cache.invalidatePartition("db", "table", ImmutableList.of("a"));
+    Assert.assertFalse(cache.getPartition("db", "table", ImmutableList.of("a")).isPresent());
+    Assert.assertTrue(cache.getPartition("db", "table", ImmutableList.of("b")).isPresent());
+
+    cache.invalidateTable("db", "table");
+    Assert.assertFalse(cache.getPartition("db", "table", ImmutableList.of("b")).isPresent());
+    Assert.assertTrue(cache.getPartition("db", "other", ImmutableList.of("a")).isPresent());
+  }
+
+  @Test
+  public void testSharedPerMetastore() {
+    HivePartitionCache cache = HivePartitionCache.get(new State(), Optional.of("thrift://metastore-a:9083"));
+    Assert.assertSame(HivePartitionCache.get(new State(), Optional.of("thrift://metastore-a:9083")), cache);
+    Assert.assertNotSame(HivePartitionCache.get(new State(), Optional.of("thrift://metastore-b:9083")), cache);
+  }
+
+  @Test
+  public void testCacheOutlivesRegister() throws Exception {
+    State state = new State();
+    state.setProp(HivePartitionCache.ENABLED, true);
+    HiveTable hiveTable = new HiveTable.Builder().withDbName("cachedb").withTableName("table")
+        .withPartitionKeys(ImmutableList.of(new HiveRegistrationUnit.Column("datepartition", "string", "")))
+        .build();
+    hiveTable.setLocation("/data/table");
+    Table table = HiveMetaStoreUtils.getTable(hiveTable);
+    List<HivePartition> partitions = ImmutableList.of(buildPartition("cachedb", "2021-01-01", "/data/a"),
+        buildPartition("cachedb", "2021-01-02", "/data/b"));
+
+    IMetaStoreClient client = Mockito.mock(IMetaStoreClient.class);
+    new HiveMetaStoreBasedRegister(state, Optional.absent()).addOrAlterPartitionBatch(client, table, partitions);
+    Mockito.verify(client).getPartitionsByNames(Mockito.eq("cachedb"), Mockito.eq("table"), Mockito.anyList());
+    // only the partitions being registered are looked up, the whole table is never listed
+    Mockito.verify(client, Mockito.never()).listPartitions(Mockito.anyString(), Mockito.anyString(),
+        Mockito.anyShort());
+
+    // a register created for the next publish finds the partitions in the cache and makes no metastore call
+    IMetaStoreClient nextClient = Mockito.mock(IMetaStoreClient.class);
+    new HiveMetaStoreBasedRegister(state, Optional.absent()).addOrAlterPartitionBatch(nextClient, table, partitions);
+    Mockito.verifyZeroInteractions(nextClient);
+  }
+
+  private static HivePartition buildPartition(String dbName, String value, String location) {
+    HivePartition partition = new HivePartition.Builder().withDbName(dbName).withTableName("table")
+        .withPartitionValues(ImmutableList.of(value)).build();
+    partition.setLocation(location);
+    return partition;
+  }
+}
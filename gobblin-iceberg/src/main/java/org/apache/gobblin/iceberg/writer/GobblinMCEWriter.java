@@ -21,11 +21,15 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -37,13 +41,16 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.serde2.avro.AvroSerdeUtils;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -60,6 +67,7 @@ import org.apache.gobblin.hive.writer.MetadataWriter;
 import org.apache.gobblin.instrumented.Instrumented;
 import org.apache.gobblin.metadata.DataFile;
 import org.apache.gobblin.metadata.GobblinMetadataChangeEvent;
+import org.apache.gobblin.metadata.IntegerLongPair;
 import org.apache.gobblin.metadata.OperationType;
 import org.apache.gobblin.metrics.MetricContext;
 import org.apache.gobblin.metrics.event.EventSubmitter;
@@ -68,6 +76,7 @@ import org.apache.gobblin.source.extractor.CheckpointableWatermark;
 import org.apache.gobblin.source.extractor.extract.LongWatermark;
 import org.apache.gobblin.stream.RecordEnvelope;
 import org.apache.gobblin.util.ClustersNames;
+import org.apache.gobblin.util.ExecutorsUtils;
 import org.apache.gobblin.util.HadoopUtils;
 import org.apache.gobblin.util.ParallelRunner;
 import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
@@ -82,8 +91,10 @@ import org.apache.gobblin.writer.DataWriterBuilder;
  * 0. Consuming {@link GobblinMetadataChangeEvent} and execute metadata registration.
  * 1. Managing a map of Iceberg tables that it is currently processing
  * 2. Ensuring that the underlying metadata writers flush the metadata associated with each Iceberg table
- * 3. Call flush method for a specific table on a change in operation type
+ * 3. Call flush method for a specific table on a change in operation type, or once the table has accumulated more
+ *    data files, bytes or GMCE offsets than the configured thresholds
  * 4. Calculate {@Link HiveSpec}s and pass them to metadata writers to register metadata
+ * 5. Flushing independent tables concurrently on a bounded pool of {@link #METADATA_FLUSH_THREADS} threads
  */
 @SuppressWarnings("UnstableApiUsage")
 @Slf4j
@@ -99,6 +110,16 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
   public static final String GMCE_METADATA_WRITER_MAX_ERROR_DATASET = "gmce.metadata.writer.max.error.dataset";
   public static final int DEFUALT_GMCE_METADATA_WRITER_MAX_ERROR_DATASET = 0;
   public static final int DEFAULT_ICEBERG_PARALLEL_TIMEOUT_MILLS = 60000;
+  public static final String METADATA_FLUSH_THREADS = "gmce.metadata.writer.flush.threads";
+  public static final int DEFAULT_METADATA_FLUSH_THREADS = 1;
+  // A table is flushed ahead of the flush interval once its pending data files, bytes or GMCE offsets reach these
+  public static final String GMCE_METADATA_WRITER_FLUSH_MAX_DATA_FILES = "gmce.metadata.writer.flush.max.data.files";
+  public static final long DEFAULT_GMCE_METADATA_WRITER_FLUSH_MAX_DATA_FILES = Long.MAX_VALUE;
+  public static final String GMCE_METADATA_WRITER_FLUSH_MAX_DATA_BYTES = "gmce.metadata.writer.flush.max.data.bytes";
+  public static final long DEFAULT_GMCE_METADATA_WRITER_FLUSH_MAX_DATA_BYTES = Long.MAX_VALUE;
+  public static final String GMCE_METADATA_WRITER_FLUSH_MAX_WATERMARK_INTERVAL =
+      "gmce.metadata.writer.flush.max.watermark.interval";
+  public static final long DEFAULT_GMCE_METADATA_WRITER_FLUSH_MAX_WATERMARK_INTERVAL = Long.MAX_VALUE;
   public static final String TABLE_NAME_DELIMITER = ".";
   @Getter
   List<MetadataWriter> metadataWriters;
@@ -116,6 +137,10 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
   @Setter
   private int maxErrorDataset;
   protected EventSubmitter eventSubmitter;
+  private final Optional<ListeningExecutorService> flushExecutor;
+  private final long maxPendingDataFiles;
+  private final long maxPendingDataBytes;
+  private final long maxPendingWatermarkInterval;
 
   @AllArgsConstructor
   static class TableStatus {
@@ -124,6 +149,17 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
     String gmceTopicPartition;
     long gmceLowWatermark;
     long gmceHighWatermark;
+    long pendingDataFiles;
+    long pendingDataBytes;
+  }
+
+  /**
+   * The first writer that failed to flush a table, along with its exception.
+   */
+  @AllArgsConstructor
+  private static class FlushFailure {
+    int writerIndex;
+    IOException exception;
   }
 
   GobblinMCEWriter(DataWriterBuilder<Schema, GenericRecord> builder, State properties) throws IOException {
@@ -144,6 +180,16 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
         state.getPropAsInt(METADATA_PARALLEL_RUNNER_TIMEOUT_MILLS, DEFAULT_ICEBERG_PARALLEL_TIMEOUT_MILLS);
     MetricContext metricContext = Instrumented.getMetricContext(state, this.getClass());
     eventSubmitter = new EventSubmitter.Builder(metricContext, GOBBLIN_MCE_WRITER_METRIC_NAMESPACE).build();
+    int flushThreads = state.getPropAsInt(METADATA_FLUSH_THREADS, DEFAULT_METADATA_FLUSH_THREADS);
+    flushExecutor = flushThreads > 1 ? Optional.of(ExecutorsUtils.loggingDecorator(Executors.newFixedThreadPool(
+        flushThreads, ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("GMCEFlush-%d")))))
+        : Optional.absent();
+    maxPendingDataFiles = state.getPropAsLong(GMCE_METADATA_WRITER_FLUSH_MAX_DATA_FILES,
+        DEFAULT_GMCE_METADATA_WRITER_FLUSH_MAX_DATA_FILES);
+    maxPendingDataBytes = state.getPropAsLong(GMCE_METADATA_WRITER_FLUSH_MAX_DATA_BYTES,
+        DEFAULT_GMCE_METADATA_WRITER_FLUSH_MAX_DATA_BYTES);
+    maxPendingWatermarkInterval = state.getPropAsLong(GMCE_METADATA_WRITER_FLUSH_MAX_WATERMARK_INTERVAL,
+        DEFAULT_GMCE_METADATA_WRITER_FLUSH_MAX_WATERMARK_INTERVAL);
   }
 
   @Override
@@ -267,26 +313,69 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
     // 3. therefore fetching one path's HiveSpec and iterate through it is good enough to cover all table destinations.
     Collection<HiveSpec> specs =
         newSpecsMap.isEmpty() ? oldSpecsMap.values().iterator().next() : newSpecsMap.values().iterator().next();
+    long offset = ((LongWatermark) watermark.getWatermark()).getValue();
+    long newDataFiles = gmce.getNewFiles() == null ? 0 : gmce.getNewFiles().size();
+    long newDataBytes = getDataBytes(gmce);
     for (HiveSpec spec : specs) {
       String dbName = spec.getTable().getDbName();
       String tableName = spec.getTable().getTableName();
       String tableString = Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName);
       if (!tableOperationTypeMap.containsKey(tableString)) {
-        tableOperationTypeMap.put(tableString, new TableStatus(gmce.getOperationType(),
-            gmce.getDatasetIdentifier().getNativeName(), watermark.getSource(),
-            ((LongWatermark)watermark.getWatermark()).getValue()-1, ((LongWatermark)watermark.getWatermark()).getValue()));
+        tableOperationTypeMap.put(tableString, newTableStatus(gmce, watermark.getSource(), offset - 1, offset));
       } else if (tableOperationTypeMap.get(tableString).operationType != gmce.getOperationType()) {
         flush(dbName, tableName);
-        tableOperationTypeMap.put(tableString, new TableStatus(gmce.getOperationType(),
-            gmce.getDatasetIdentifier().getNativeName(), watermark.getSource(),
-            ((LongWatermark)watermark.getWatermark()).getValue()-1, ((LongWatermark)watermark.getWatermark()).getValue()));
+        tableOperationTypeMap.put(tableString, newTableStatus(gmce, watermark.getSource(), offset - 1, offset));
       }
-      tableOperationTypeMap.get(tableString).gmceHighWatermark = ((LongWatermark)watermark.getWatermark()).getValue();
+      tableOperationTypeMap.get(tableString).gmceHighWatermark = offset;
       write(recordEnvelope, newSpecsMap, oldSpecsMap, spec);
+      TableStatus tableStatus = tableOperationTypeMap.get(tableString);
+      if (tableStatus != null) {
+        tableStatus.pendingDataFiles += newDataFiles;
+        tableStatus.pendingDataBytes += newDataBytes;
+        if (reachedFlushThreshold(tableStatus)) {
+          log.info("Flushing table {} ahead of the flush interval with {} data files, {} bytes pending", tableString,
+              tableStatus.pendingDataFiles, tableStatus.pendingDataBytes);
+          flush(dbName, tableName);
+          if (tableOperationTypeMap.containsKey(tableString)) {
+            // Everything up to this GMCE is committed, so start the next accumulation period from it
+            tableOperationTypeMap.put(tableString, newTableStatus(gmce, watermark.getSource(), offset, offset));
+          }
+        }
+      }
     }
     this.recordCount.incrementAndGet();
   }
 
+  private TableStatus newTableStatus(GobblinMetadataChangeEvent gmce, String gmceTopicPartition, long lowWatermark,
+      long highWatermark) {
+    return new TableStatus(gmce.getOperationType(), gmce.getDatasetIdentifier().getNativeName(), gmceTopicPartition,
+        lowWatermark, highWatermark, 0L, 0L);
+  }
+
+  private boolean reachedFlushThreshold(TableStatus tableStatus) {
+    return tableStatus.pendingDataFiles >= maxPendingDataFiles || tableStatus.pendingDataBytes >= maxPendingDataBytes
+        || tableStatus.gmceHighWatermark - tableStatus.gmceLowWatermark >= maxPendingWatermarkInterval;
+  }
+
+  /**
+   * Estimate the size of the new files of a GMCE from their column sizes. Column sizes are only reported for columnar
+   * formats, so files of row-oriented formats (e.g. Avro) don't count towards
+   * {@link #GMCE_METADATA_WRITER_FLUSH_MAX_DATA_BYTES}.
+   */
+  private static long getDataBytes(GobblinMetadataChangeEvent gmce) {
+    long bytes = 0;
+    if (gmce.getNewFiles() != null) {
+      for (DataFile file : gmce.getNewFiles()) {
+        if (file.getFileMetrics() != null && file.getFileMetrics().getColumnSizes() != null) {
+          for (IntegerLongPair columnSize : file.getFileMetrics().getColumnSizes()) {
+            bytes += columnSize.getValue();
+          }
+        }
+      }
+    }
+    return bytes;
+  }
+
   // Add fault tolerant ability and make sure we can emit GTE as desired
   private void write(RecordEnvelope recordEnvelope, ConcurrentHashMap newSpecsMap, ConcurrentHashMap oldSpecsMap, HiveSpec spec) throws IOException {
     boolean meetException = false;
@@ -329,26 +418,46 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
 
   // Add fault tolerant ability and make sure we can emit GTE as desired
   private void flush(String dbName, String tableName) throws IOException {
-    boolean meetException = false;
-    String tableString = Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName);
-    if (tableOperationTypeMap.get(tableString).gmceLowWatermark == tableOperationTypeMap.get(tableString).gmceHighWatermark) {
-      // No need to flush
-      return;
+    if (needsFlush(Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName))) {
+      completeFlush(dbName, tableName, flushWriters(dbName, tableName));
     }
-    for (MetadataWriter writer : metadataWriters) {
-      if(meetException) {
-        writer.reset(dbName, tableName);
-      } else {
-        try {
-          writer.flush(dbName, tableName);
-        } catch (IOException e) {
-          meetException = true;
-          writer.reset(dbName, tableName);
-          addOrThrowException(e, tableString, dbName, tableName);
-        }
+  }
+
+  private boolean needsFlush(String tableString) {
+    TableStatus tableStatus = tableOperationTypeMap.get(tableString);
+    return tableStatus.gmceLowWatermark != tableStatus.gmceHighWatermark;
+  }
+
+  /**
+   * Flush the table in each metadata writer, stopping at the first writer that fails. This only touches the writers,
+   * so it is safe to run for different tables concurrently.
+   * @return the first failure, or null if all writers flushed the table
+   */
+  private FlushFailure flushWriters(String dbName, String tableName) {
+    for (int i = 0; i < metadataWriters.size(); i++) {
+      try {
+        metadataWriters.get(i).flush(dbName, tableName);
+      } catch (IOException e) {
+        return new FlushFailure(i, e);
       }
     }
+    return null;
+  }
+
+  /**
+   * Reset the failed and remaining writers of a table after {@link #flushWriters(String, String)}, and update the
+   * error bookkeeping. Must be called from the writer thread.
+   */
+  private void completeFlush(String dbName, String tableName, FlushFailure failure) throws IOException {
+    String tableString = Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName);
     String datasetPath = tableOperationTypeMap.get(tableString).datasetPath;
+    boolean meetException = failure != null;
+    if (meetException) {
+      for (MetadataWriter writer : metadataWriters.subList(failure.writerIndex, metadataWriters.size())) {
+        writer.reset(dbName, tableName);
+      }
+      addOrThrowException(failure.exception, tableString, dbName, tableName);
+    }
     if (!meetException && datasetErrorMap.containsKey(datasetPath) && datasetErrorMap.get(datasetPath).containsKey(tableString)) {
       // We only want to emit GTE when the table watermark moves. There can be two scenario that watermark move, one is after one flush interval,
       // we commit new watermark to state store, anther is here, where during the flush interval, we flush table because table operation changes.
@@ -373,9 +482,13 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
   @Override
   public void flush() throws IOException {
     log.info(String.format("start to flushing %s records", String.valueOf(recordCount.get())));
-    for (String tableString : tableOperationTypeMap.keySet()) {
-      List<String> tid = Splitter.on(TABLE_NAME_DELIMITER).splitToList(tableString);
-      flush(tid.get(0), tid.get(1));
+    if (flushExecutor.isPresent()) {
+      flushInParallel();
+    } else {
+      for (String tableString : Lists.newArrayList(tableOperationTypeMap.keySet())) {
+        List<String> tid = Splitter.on(TABLE_NAME_DELIMITER).splitToList(tableString);
+        flush(tid.get(0), tid.get(1));
+      }
     }
     tableOperationTypeMap.clear();
     recordCount.lazySet(0L);
@@ -388,10 +501,52 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
     }
   }
 
+  /**
+   * Commit all tables concurrently on {@link #flushExecutor}. Writers are only flushed on the pool; resetting writers
+   * of failed tables and error reporting happen afterwards on this thread, in the same table order as a sequential
+   * flush.
+   */
+  private void flushInParallel() throws IOException {
+    Map<String, Future<FlushFailure>> futures = new LinkedHashMap<>();
+    for (String tableString : tableOperationTypeMap.keySet()) {
+      if (needsFlush(tableString)) {
+        List<String> tid = Splitter.on(TABLE_NAME_DELIMITER).splitToList(tableString);
+        futures.put(tableString, flushExecutor.get().submit(() -> flushWriters(tid.get(0), tid.get(1))));
+      }
+    }
+    Map<String, FlushFailure> failures = new LinkedHashMap<>();
+    Throwable unexpected = null;
+    for (Map.Entry<String, Future<FlushFailure>> entry : futures.entrySet()) {
+      try {
+        failures.put(entry.getKey(), entry.getValue().get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while flushing table " + entry.getKey(), e);
+      } catch (ExecutionException e) {
+        // Wait for the remaining flushes before surfacing the error
+        unexpected = unexpected == null ? e.getCause() : unexpected;
+      }
+    }
+    if (unexpected != null) {
+      Throwables.propagateIfPossible(unexpected, IOException.class);
+      throw new IOException(unexpected);
+    }
+    for (Map.Entry<String, FlushFailure> entry : failures.entrySet()) {
+      List<String> tid = Splitter.on(TABLE_NAME_DELIMITER).splitToList(entry.getKey());
+      completeFlush(tid.get(0), tid.get(1), entry.getValue());
+    }
+  }
+
   @Override
   public void close() throws IOException {
-    this.flush();
-    this.closer.close();
+    try {
+      this.flush();
+    } finally {
+      if (flushExecutor.isPresent()) {
+        ExecutorsUtils.shutdownExecutorService(flushExecutor.get(), Optional.of(log));
+      }
+      this.closer.close();
+    }
   }
 
   /**
@@ -30,15 +30,18 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -186,18 +189,23 @@ public class IcebergMetadataWriter implements MetadataWriter {
   protected HiveCatalog catalog;
   protected final Configuration conf;
   protected final ReadWriteLock readWriteLock;
+  // Per-table locks, so that writes and flushes of different tables can run concurrently
+  private final Map<TableIdentifier, Lock> tableLocks;
   private final HiveLock locks;
   private final boolean useDataLocationAsTableLocation;
   private final ParallelRunner parallelRunner;
   private FsPermission permission;
+  private final long tableMetadataIdleEvictionMillis;
+  private volatile long lastEvictionCheckTime;
 
   public IcebergMetadataWriter(State state) throws IOException {
     this.schemaRegistry = KafkaSchemaRegistry.get(state.getProperties());
     conf = HadoopUtils.getConfFromState(state);
     initializeCatalog();
-    tableTopicPartitionMap = new HashMap<>();
-    tableMetadataMap = new HashMap<>();
-    tableCurrentWatermarkMap = new HashMap<>();
+    tableTopicPartitionMap = new ConcurrentHashMap<>();
+    tableMetadataMap = new ConcurrentHashMap<>();
+    tableCurrentWatermarkMap = new ConcurrentHashMap<>();
+    tableLocks = new ConcurrentHashMap<>();
     List<Tag<?>> tags = Lists.newArrayList();
     String clusterIdentifier = ClustersNames.getInstance().getClusterName();
     tags.add(new Tag<>(CLUSTER_IDENTIFIER_KEY_NAME, clusterIdentifier));
@@ -209,7 +217,8 @@ public class IcebergMetadataWriter implements MetadataWriter {
         state.getProp(ICEBERG_REGISTRATION_BLACKLIST, ""));
 
     // Use rw-lock to make it thread-safe when flush and write(which is essentially aggregate & reading metadata),
-    // are called in separate threads.
+    // are called in separate threads. Writes and flushes hold the read lock plus the lock of their table, while
+    // eviction of idle tables holds the write lock.
     readWriteLock = new ReentrantReadWriteLock();
     this.locks = new HiveLock(state.getProperties());
     parallelRunner = closer.register(new ParallelRunner(state.getPropAsInt(SNAPSHOT_EXPIRE_THREADS, 20),
@@ -233,6 +242,11 @@ public class IcebergMetadataWriter implements MetadataWriter {
     this.newPartitionTableWhitelistBlacklist = new WhitelistBlacklist(state.getProp(ICEBERG_NEW_PARTITION_WHITELIST, ""),
         state.getProp(ICEBERG_NEW_PARTITION_BLACKLIST, ""));
     this.auditCheckGranularity = state.getProp(AUDIT_CHECK_GRANULARITY, DEFAULT_AUDIT_CHECK_GRANULARITY);
+    long idleEvictionMinutes =
+        state.getPropAsLong(TABLE_METADATA_IDLE_EVICTION_MINUTES, DEFAULT_TABLE_METADATA_IDLE_EVICTION_MINUTES);
+    this.tableMetadataIdleEvictionMillis =
+        idleEvictionMinutes < 0 ? -1L : TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+    this.lastEvictionCheckTime = System.currentTimeMillis();
   }
 
   @VisibleForTesting
@@ -780,11 +794,15 @@ public class IcebergMetadataWriter implements MetadataWriter {
    */
   @Override
   public void flush(String dbName, String tableName) throws IOException {
-    Lock writeLock = readWriteLock.writeLock();
-    writeLock.lock();
+    evictIdleTableMetadata();
+    TableIdentifier tid = TableIdentifier.of(dbName, tableName);
+    Lock readLock = readWriteLock.readLock();
+    readLock.lock();
+    Lock tableLock = getTableLock(tid);
+    tableLock.lock();
     try {
-      TableIdentifier tid = TableIdentifier.of(dbName, tableName);
       TableMetadata tableMetadata = tableMetadataMap.getOrDefault(tid, new TableMetadata());
+      tableMetadata.lastAccessTime = System.currentTimeMillis();
       if (tableMetadata.transaction.isPresent()) {
         Transaction transaction = tableMetadata.transaction.get();
         Map<String, String> props = tableMetadata.newProperties.or(
@@ -859,7 +877,8 @@ public class IcebergMetadataWriter implements MetadataWriter {
     } catch (Exception e) {
       throw new IOException(String.format("Fail to flush table %s %s", dbName, tableName), e);
     } finally {
-      writeLock.unlock();
+      tableLock.unlock();
+      readLock.unlock();
     }
   }
 
@@ -868,6 +887,65 @@ public class IcebergMetadataWriter implements MetadataWriter {
       this.tableMetadataMap.remove(TableIdentifier.of(dbName, tableName));
   }
 
+  private Lock getTableLock(TableIdentifier tid) {
+    return tableLocks.computeIfAbsent(tid, t -> new ReentrantLock());
+  }
+
+  /**
+   * Drop the in-memory state of tables that have no uncommitted transaction and have not been written or flushed
+   * for {@link IcebergMetadataWriterConfigKeys#TABLE_METADATA_IDLE_EVICTION_MINUTES}, so that the cached {@link Table},
+   * candidate schemas and added-files cache of inactive tables don't pile up on the heap. An evicted table is reloaded
+   * from the catalog, with its watermark read back from the table properties, on its next GMCE.
+   *
+   * This is best effort: the check is skipped when a write or flush is in progress.
+   */
+  private void evictIdleTableMetadata() {
+    long now = System.currentTimeMillis();
+    if (tableMetadataIdleEvictionMillis < 0 || now - lastEvictionCheckTime < tableMetadataIdleEvictionMillis) {
+      return;
+    }
+    if (evictTableMetadataIdleSince(now - tableMetadataIdleEvictionMillis) >= 0) {
+      lastEvictionCheckTime = now;
+    }
+  }
+
+  /**
+   * Drop the in-memory state of the tables with no uncommitted transaction that were last written or flushed before
+   * the given time.
+   * @return the number of evicted tables, or -1 if a write or flush was in progress and nothing was evicted
+   */
+  @VisibleForTesting
+  int evictTableMetadataIdleSince(long idleSinceMillis) {
+    Lock writeLock = readWriteLock.writeLock();
+    if (!writeLock.tryLock()) {
+      return -1;
+    }
+    try {
+      int evicted = 0;
+      Iterator<Map.Entry<TableIdentifier, TableMetadata>> iterator = tableMetadataMap.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<TableIdentifier, TableMetadata> entry = iterator.next();
+        TableMetadata tableMetadata = entry.getValue();
+        if (!tableMetadata.transaction.isPresent() && tableMetadata.lastAccessTime < idleSinceMillis) {
+          iterator.remove();
+          tableCurrentWatermarkMap.remove(entry.getKey());
+          tableTopicPartitionMap.remove(entry.getKey());
+          tableLocks.remove(entry.getKey());
+          evicted++;
+        }
+      }
+      log.info("Evicted in-memory metadata of {} idle tables, {} tables remain", evicted, tableMetadataMap.size());
+      return evicted;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  boolean hasTableMetadata(String dbName, String tableName) {
+    return tableMetadataMap.containsKey(TableIdentifier.of(dbName, tableName));
+  }
+
   /**
    * NOTE: completion watermark for a window [t1, t2] is marked as t2 if audit counts match
    * for that window (aka its is set to the beginning of next window)
@@ -1011,16 +1089,19 @@ public class IcebergMetadataWriter implements MetadataWriter {
   @Override
   public void writeEnvelope(RecordEnvelope<GenericRecord> recordEnvelope, Map<String, Collection<HiveSpec>> newSpecsMap,
       Map<String, Collection<HiveSpec>> oldSpecsMap, HiveSpec tableSpec) throws IOException {
+    evictIdleTableMetadata();
+    String dbName = tableSpec.getTable().getDbName();
+    String tableName = tableSpec.getTable().getTableName();
+    TableIdentifier tid = TableIdentifier.of(dbName, tableName);
     Lock readLock = readWriteLock.readLock();
     readLock.lock();
+    Lock tableLock = getTableLock(tid);
+    tableLock.lock();
     try {
       GenericRecord genericRecord = recordEnvelope.getRecord();
       GobblinMetadataChangeEvent gmce =
           (GobblinMetadataChangeEvent) SpecificData.get().deepCopy(genericRecord.getSchema(), genericRecord);
-      String dbName = tableSpec.getTable().getDbName();
-      String tableName = tableSpec.getTable().getTableName();
       if (whitelistBlacklist.acceptTable(dbName, tableName)) {
-        TableIdentifier tid = TableIdentifier.of(dbName, tableName);
         String topicPartition = tableTopicPartitionMap.computeIfAbsent(tid,
             t -> recordEnvelope.getWatermark().getSource());
         Long currentWatermark = getAndPersistCurrentWatermark(tid, topicPartition);
@@ -1041,6 +1122,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
 
           write(gmce, newSpecsMap, oldSpecsMap, tableSpec);
           tableCurrentWatermarkMap.put(tid, currentOffset);
+          tableMetadataMap.get(tid).lastAccessTime = System.currentTimeMillis();
         } else {
           log.warn(String.format("Skip processing record %s since it has lower watermark", genericRecord.toString()));
         }
@@ -1049,6 +1131,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
             tableSpec.getTable().getTableName()));
       }
     } finally {
+      tableLock.unlock();
       readLock.unlock();
     }
   }
@@ -1098,6 +1181,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
             TimeUnit.HOURS)
         .build();
     long lowestGMCEEmittedTime = Long.MAX_VALUE;
+    volatile long lastAccessTime = System.currentTimeMillis();
 
     /**
      * Always use this method to obtain {@link AppendFiles} object within flush interval
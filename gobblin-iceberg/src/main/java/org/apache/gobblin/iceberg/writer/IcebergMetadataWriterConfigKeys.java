@@ -40,6 +40,9 @@ public class IcebergMetadataWriterConfigKeys {
   public static final boolean DEFAULT_ICEBERG_NEW_PARTITION_ENABLED = false;
   public static final String ICEBERG_NEW_PARTITION_WHITELIST = "iceberg.new.partition.whitelist";
   public static final String ICEBERG_NEW_PARTITION_BLACKLIST = "iceberg.new.partition.blacklist";
+  // In-memory metadata of a table without pending changes is dropped after this long without writes or flushes
+  public static final String TABLE_METADATA_IDLE_EVICTION_MINUTES = "iceberg.table.metadata.idle.eviction.minutes";
+  public static final long DEFAULT_TABLE_METADATA_IDLE_EVICTION_MINUTES = -1L;
 
 
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.iceberg.writer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.Path;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.hive.HiveTable;
+import org.apache.gobblin.hive.policy.HiveRegistrationPolicy;
+import org.apache.gobblin.hive.spec.HiveSpec;
+import org.apache.gobblin.hive.spec.SimpleHiveSpec;
+import org.apache.gobblin.hive.writer.MetadataWriter;
+import org.apache.gobblin.metadata.DataFile;
+import org.apache.gobblin.metadata.DataMetrics;
+import org.apache.gobblin.metadata.DataOrigin;
+import org.apache.gobblin.metadata.DatasetIdentifier;
+import org.apache.gobblin.metadata.GobblinMetadataChangeEvent;
+import org.apache.gobblin.metadata.OperationType;
+import org.apache.gobblin.metadata.SchemaSource;
+import org.apache.gobblin.metrics.event.EventSubmitter;
+import org.apache.gobblin.metrics.event.GobblinEventBuilder;
+import org.apache.gobblin.source.extractor.extract.LongWatermark;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaPartition;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaStreamingExtractor;
+import org.apache.gobblin.stream.RecordEnvelope;
+import org.apache.gobblin.util.ClustersNames;
+
+
+public class GobblinMCEWriterTest {
+
+  private static final String DB_NAME = "testdb";
+
+  @Test
+  public void testFlushOnPendingDataFilesThreshold() throws Exception {
+    State state = getState();
+    state.setProp(GobblinMCEWriter.GMCE_METADATA_WRITER_FLUSH_MAX_DATA_FILES, 2);
+    GobblinMCEWriter gobblinMCEWriter = new GobblinMCEWriter(new GobblinMCEWriterBuilder(), state);
+    MetadataWriter metadataWriter = Mockito.mock(MetadataWriter.class);
+    setMetadataWriters(gobblinMCEWriter, metadataWriter);
+
+    gobblinMCEWriter.writeEnvelope(buildEnvelope("tableA", 10L));
+    Mockito.verify(metadataWriter, Mockito.never()).flush(Mockito.anyString(), Mockito.anyString());
+
+    // The second data file reaches the threshold, so the table is flushed ahead of the flush interval
+    gobblinMCEWriter.writeEnvelope(buildEnvelope("tableA", 11L));
+    Mockito.verify(metadataWriter, Mockito.times(1)).flush(DB_NAME, "tableA");
+
+    // Nothing was written to the table since, so the regular flush has nothing to commit
+    gobblinMCEWriter.flush();
+    Mockito.verify(metadataWriter, Mockito.times(1)).flush(DB_NAME, "tableA");
+
+    gobblinMCEWriter.writeEnvelope(buildEnvelope("tableA", 12L));
+    gobblinMCEWriter.flush();
+    Mockito.verify(metadataWriter, Mockito.times(2)).flush(DB_NAME, "tableA");
+    gobblinMCEWriter.close();
+  }
+
+  @Test
+  public void testParallelFlushWithFailure() throws Exception {
+    State state = getState();
+    state.setProp(GobblinMCEWriter.METADATA_FLUSH_THREADS, 4);
+    GobblinMCEWriter gobblinMCEWriter = new GobblinMCEWriter(new GobblinMCEWriterBuilder(), state);
+    gobblinMCEWriter.setMaxErrorDataset(1);
+    List<GobblinEventBuilder> eventsSent = new ArrayList<>();
+    gobblinMCEWriter.eventSubmitter = Mockito.mock(EventSubmitter.class);
+    Mockito.doAnswer(invocation -> eventsSent.add(invocation.getArgumentAt(0, GobblinEventBuilder.class)))
+        .when(gobblinMCEWriter.eventSubmitter).submit(Mockito.any(GobblinEventBuilder.class));
+    MetadataWriter firstWriter = Mockito.mock(MetadataWriter.class);
+    MetadataWriter secondWriter = Mockito.mock(MetadataWriter.class);
+    Mockito.doThrow(new IOException("Test failure")).when(firstWriter).flush(DB_NAME, "tableB");
+    setMetadataWriters(gobblinMCEWriter, firstWriter, secondWriter);
+
+    gobblinMCEWriter.writeEnvelope(buildEnvelope("tableA", 10L));
+    gobblinMCEWriter.writeEnvelope(buildEnvelope("tableB", 11L));
+    gobblinMCEWriter.flush();
+
+    // tableA is committed by both writers
+    Mockito.verify(firstWriter).flush(DB_NAME, "tableA");
+    Mockito.verify(secondWriter).flush(DB_NAME, "tableA");
+    Mockito.verify(firstWriter, Mockito.never()).reset(DB_NAME, "tableA");
+    Mockito.verify(secondWriter, Mockito.never()).reset(DB_NAME, "tableA");
+
+    // tableB failed in the first writer, so the second one never flushes it and both drop its pending state
+    Mockito.verify(secondWriter, Mockito.never()).flush(DB_NAME, "tableB");
+    Mockito.verify(firstWriter).reset(DB_NAME, "tableB");
+    Mockito.verify(secondWriter).reset(DB_NAME, "tableB");
+
+    Assert.assertTrue(gobblinMCEWriter.tableOperationTypeMap.isEmpty());
+    Map<String, GobblinMetadataException> tableErrors = gobblinMCEWriter.getDatasetErrorMap().get("/data/tableB");
+    Assert.assertNotNull(tableErrors);
+    // The error was reported when the GMCE watermark moved on, and cleared afterwards
+    Assert.assertTrue(tableErrors.isEmpty());
+    Assert.assertEquals(eventsSent.size(), 1);
+    Assert.assertEquals(eventsSent.get(0).getMetadata().get(IcebergMCEMetadataKeys.FAILURE_EVENT_TABLE_NAME), "tableB");
+    Assert.assertEquals(eventsSent.get(0).getMetadata().get(IcebergMCEMetadataKeys.GMCE_LOW_WATERMARK), "10");
+    Assert.assertEquals(eventsSent.get(0).getMetadata().get(IcebergMCEMetadataKeys.GMCE_HIGH_WATERMARK), "11");
+    gobblinMCEWriter.close();
+  }
+
+  private static State getState() {
+    State state = new State();
+    state.setProp(GobblinMCEWriter.GMCE_METADATA_WRITER_CLASSES, NoopMetadataWriter.class.getName());
+    state.setProp(GobblinMCEWriter.DEFAULT_HIVE_REGISTRATION_POLICY_KEY, TestHiveRegistrationPolicy.class.getName());
+    return state;
+  }
+
+  private static void setMetadataWriters(GobblinMCEWriter gobblinMCEWriter, MetadataWriter... metadataWriters) {
+    gobblinMCEWriter.metadataWriters.clear();
+    gobblinMCEWriter.metadataWriters.addAll(Lists.newArrayList(metadataWriters));
+  }
+
+  private static RecordEnvelope<GenericRecord> buildEnvelope(String tableName, long offset) {
+    GobblinMetadataChangeEvent gmce = GobblinMetadataChangeEvent.newBuilder()
+        .setDatasetIdentifier(DatasetIdentifier.newBuilder()
+            .setDataOrigin(DataOrigin.EI)
+            .setDataPlatformUrn("urn:li:dataPlatform:hdfs")
+            .setNativeName("/data/" + tableName)
+            .build())
+        .setFlowId("testFlow")
+        .setNewFiles(Lists.newArrayList(DataFile.newBuilder()
+            .setFilePath("/data/" + tableName + "/" + offset + "/data.avro")
+            .setFileFormat("avro")
+            .setFileMetrics(DataMetrics.newBuilder().setRecordCount(10L).build())
+            .build()))
+        .setSchemaSource(SchemaSource.EVENT)
+        .setOperationType(OperationType.add_files)
+        .setCluster(ClustersNames.getInstance().getClusterName())
+        .build();
+    GenericRecord genericGmce = GenericData.get().deepCopy(gmce.getSchema(), gmce);
+    return new RecordEnvelope<>(genericGmce, new KafkaStreamingExtractor.KafkaWatermark(
+        new KafkaPartition.Builder().withTopicName("GobblinMetadataChangeEvent_test").withId(1).build(),
+        new LongWatermark(offset)));
+  }
+
+  /**
+   * Registers the partition directories /data/&lt;table&gt;/&lt;partition&gt; to table &lt;table&gt; of {@link #DB_NAME}.
+   */
+  public static class TestHiveRegistrationPolicy implements HiveRegistrationPolicy {
+
+    public TestHiveRegistrationPolicy(State props) {
+    }
+
+    @Override
+    public Collection<HiveSpec> getHiveSpecs(Path path) throws IOException {
+      HiveTable table = new HiveTable.Builder().withDbName(DB_NAME).withTableName(path.getParent().getName()).build();
+      return ImmutableList.<HiveSpec>of(new SimpleHiveSpec.Builder<>(path).withTable(table).build());
+    }
+  }
+
+  public static class NoopMetadataWriter implements MetadataWriter {
+
+    public NoopMetadataWriter(State state) {
+    }
+
+    @Override
+    public void flush(String dbName, String tableName) throws IOException {
+    }
+
+    @Override
+    public void reset(String dbName, String tableName) throws IOException {
+    }
+
+    @Override
+    public void writeEnvelope(RecordEnvelope<GenericRecord> recordEnvelope,
+        Map<String, Collection<HiveSpec>> newSpecsMap, Map<String, Collection<HiveSpec>> oldSpecsMap, HiveSpec tableSpec)
+        throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+  }
+}
@@ -388,6 +388,55 @@ public class IcebergMetadataWriterTest extends HiveMetastoreTest {
     gobblinMCEWriter.metadataWriters.remove(0);
   }
 
+  @Test(dependsOnMethods={"testFaultTolerant"}, groups={"icebergMetadataWriterTest"})
+  public void testEvictIdleTableMetadata() throws IOException {
+    IcebergMetadataWriter icebergWriter =
+        (IcebergMetadataWriter) gobblinMCEWriterWithCompletness.getMetadataWriters().iterator().next();
+    gmce.getDatasetIdentifier().setNativeName(new File(tmpDir, "data/tracking/testIcebergTable").getAbsolutePath());
+    gmce.setOperationType(OperationType.add_files);
+    File hourlyFile = new File(tmpDir, "data/tracking/testIcebergTable/hourly/2021/09/16/11/data2.avro");
+    Files.createParentDirs(hourlyFile);
+    writeRecord(hourlyFile);
+    gmce.setNewFiles(Lists.newArrayList(DataFile.newBuilder()
+        .setFilePath(hourlyFile.toString())
+        .setFileFormat("avro")
+        .setFileMetrics(DataMetrics.newBuilder().setRecordCount(10L).build())
+        .build()));
+    gmce.setTopicPartitionOffsetsRange(ImmutableMap.<String, String>builder().put("testTopic-1", "6000-7000").build());
+    GenericRecord genericGmce = GenericData.get().deepCopy(gmce.getSchema(), gmce);
+
+    // A table with an open transaction is never evicted
+    gobblinMCEWriterWithCompletness.writeEnvelope(new RecordEnvelope<>(genericGmce,
+        new KafkaStreamingExtractor.KafkaWatermark(
+            new KafkaPartition.Builder().withTopicName("GobblinMetadataChangeEvent_test").withId(1).build(),
+            new LongWatermark(70L))));
+    Assert.assertTrue(icebergWriter.hasTableMetadata(dbName, "testIcebergTable"));
+    Assert.assertEquals(icebergWriter.evictTableMetadataIdleSince(Long.MAX_VALUE), 0);
+
+    gobblinMCEWriterWithCompletness.flush();
+    Assert.assertEquals(icebergWriter.evictTableMetadataIdleSince(Long.MAX_VALUE), 1);
+    Assert.assertFalse(icebergWriter.hasTableMetadata(dbName, "testIcebergTable"));
+
+    // The watermark of an evicted table is read back from the table, so an already committed GMCE is skipped
+    gobblinMCEWriterWithCompletness.writeEnvelope(new RecordEnvelope<>(genericGmce,
+        new KafkaStreamingExtractor.KafkaWatermark(
+            new KafkaPartition.Builder().withTopicName("GobblinMetadataChangeEvent_test").withId(1).build(),
+            new LongWatermark(70L))));
+    Assert.assertFalse(icebergWriter.hasTableMetadata(dbName, "testIcebergTable"));
+
+    gmce.setTopicPartitionOffsetsRange(ImmutableMap.<String, String>builder().put("testTopic-1", "7000-8000").build());
+    GenericRecord genericGmce_7000_8000 = GenericData.get().deepCopy(gmce.getSchema(), gmce);
+    gobblinMCEWriterWithCompletness.writeEnvelope(new RecordEnvelope<>(genericGmce_7000_8000,
+        new KafkaStreamingExtractor.KafkaWatermark(
+            new KafkaPartition.Builder().withTopicName("GobblinMetadataChangeEvent_test").withId(1).build(),
+            new LongWatermark(71L))));
+    Assert.assertTrue(icebergWriter.hasTableMetadata(dbName, "testIcebergTable"));
+    gobblinMCEWriterWithCompletness.flush();
+    Table table = catalog.loadTable(catalog.listTables(Namespace.of(dbName)).get(0));
+    Assert.assertEquals(table.properties().get("gmce.low.watermark.GobblinMetadataChangeEvent_test-1"), "70");
+    Assert.assertEquals(table.properties().get("gmce.high.watermark.GobblinMetadataChangeEvent_test-1"), "71");
+  }
+
   @Test(dependsOnMethods={"testChangeProperty"}, groups={"icebergMetadataWriterTest"})
   public void testWriteAddFileGMCECompleteness() throws IOException {
     // Creating a copy of gmce with static type in GenericRecord to work with writeEnvelop method
@@ -55,6 +55,13 @@ public interface DatasetStateStore<T extends State> extends StateStore<T> {
 
   public void persistDatasetURNs(String storeName, Collection<String> datasetUrns) throws IOException;
 
+  /**
+   * Called after a job has persisted the dataset states of a run through {@link #persistDatasetState(String, State)},
+   * so that an implementation can write anything it batches across datasets. Does nothing by default.
+   */
+  default void flushDatasetStates(String storeName) throws IOException {
+  }
+
   @Override
   default List<? extends DatasetStateStoreEntryManager> getMetadataForTables(StateStorePredicate predicate)
       throws IOException {
@@ -111,5 +111,11 @@ public class MetricNames {
      * A {@link com.codahale.metrics.Timer} measuring the time taken for each write operation.
      */
     public static final String WRITE_TIMER = "gobblin.writer.write.time";
+
+    /**
+     * A {@link com.codahale.metrics.Gauge} reporting the current limit on outstanding writes of an
+     * {@link org.apache.gobblin.writer.AsyncWriterManager}.
+     */
+    public static final String OUTSTANDING_WRITES_LIMIT_GAUGE = "gobblin.writer.outstanding.writes.limit";
   }
 }
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.source.extractor.extract.kafka;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.typesafe.config.Config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.kafka.client.DecodeableKafkaRecord;
+import org.apache.gobblin.util.ConfigUtils;
+import org.apache.gobblin.util.ExecutorsUtils;
+import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
+
+
+/**
+ * Decodes Kafka records on a bounded pool of decoder threads while keeping the order of records within each partition.
+ *
+ * Raw records, whose value is the serialized byte array, are submitted in consumption order and queued per partition.
+ * {@link #poll()} and {@link #take()} only hand out the head of a partition queue once it is decoded, so records of a
+ * partition come out in offset order and their {@link KafkaStreamingExtractor.KafkaWatermark}s are emitted in the same
+ * order as without the pipeline. Partitions do not wait on each other.
+ *
+ * This class is not thread safe: submitting and taking records must happen on the task thread.
+ */
+@Slf4j
+public class KafkaDecodePipeline implements Closeable {
+  public static final String KAFKA_DECODE_PIPELINE_PREFIX = "gobblin.kafka.extractor.decodePipeline.";
+  public static final String KAFKA_DECODE_PIPELINE_ENABLED = KAFKA_DECODE_PIPELINE_PREFIX + "enabled";
+  public static final boolean DEFAULT_KAFKA_DECODE_PIPELINE_ENABLED = false;
+  public static final String KAFKA_DECODE_PIPELINE_NUM_THREADS = KAFKA_DECODE_PIPELINE_PREFIX + "numThreads";
+  public static final int DEFAULT_KAFKA_DECODE_PIPELINE_NUM_THREADS = 4;
+  public static final String KAFKA_DECODE_PIPELINE_MAX_IN_FLIGHT_RECORDS =
+      KAFKA_DECODE_PIPELINE_PREFIX + "maxInFlightRecords";
+  public static final int DEFAULT_KAFKA_DECODE_PIPELINE_MAX_IN_FLIGHT_RECORDS = 1000;
+  public static final String KAFKA_DECODE_PIPELINE_DECODER_CLASS = KAFKA_DECODE_PIPELINE_PREFIX + "decoderClass";
+
+  private final ExecutorService executor;
+  private final ThreadLocal<KafkaRecordDecoder<?>> decoders;
+  private final int maxInFlightRecords;
+  private final Map<Integer, ArrayDeque<PendingRecord>> pendingByPartition = new HashMap<>();
+  private final List<ArrayDeque<PendingRecord>> partitionQueues = new ArrayList<>();
+  private final Semaphore completions = new Semaphore(0);
+  private int nextQueueIndex = 0;
+  private int size = 0;
+
+  public KafkaDecodePipeline(Config config) {
+    this(createDecoderSupplier(config),
+        ConfigUtils.getInt(config, KAFKA_DECODE_PIPELINE_NUM_THREADS, DEFAULT_KAFKA_DECODE_PIPELINE_NUM_THREADS),
+        ConfigUtils.getInt(config, KAFKA_DECODE_PIPELINE_MAX_IN_FLIGHT_RECORDS,
+            DEFAULT_KAFKA_DECODE_PIPELINE_MAX_IN_FLIGHT_RECORDS));
+  }
+
+  @VisibleForTesting
+  KafkaDecodePipeline(Supplier<KafkaRecordDecoder<?>> decoderSupplier, int numThreads, int maxInFlightRecords) {
+    Preconditions.checkArgument(numThreads > 0, KAFKA_DECODE_PIPELINE_NUM_THREADS + " must be positive");
+    Preconditions.checkArgument(maxInFlightRecords > 0,
+        KAFKA_DECODE_PIPELINE_MAX_IN_FLIGHT_RECORDS + " must be positive");
+    this.decoders = ThreadLocal.withInitial(decoderSupplier);
+    this.maxInFlightRecords = maxInFlightRecords;
+    this.executor = Executors.newFixedThreadPool(numThreads,
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("KafkaDecodePipeline-%d")));
+  }
+
+  private static Supplier<KafkaRecordDecoder<?>> createDecoderSupplier(Config config) {
+    Preconditions.checkArgument(config.hasPath(KAFKA_DECODE_PIPELINE_DECODER_CLASS),
+        "Missing required property " + KAFKA_DECODE_PIPELINE_DECODER_CLASS);
+    String decoderClass = config.getString(KAFKA_DECODE_PIPELINE_DECODER_CLASS);
+    return () -> {
+      try {
+        return (KafkaRecordDecoder<?>) GobblinConstructorUtils.invokeLongestConstructor(Class.forName(decoderClass),
+            config);
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException("Failed to instantiate decoder " + decoderClass, e);
+      }
+    };
+  }
+
+  /**
+   * @return number of records submitted and not handed out yet
+   */
+  public int size() {
+    return this.size;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public boolean isFull() {
+    return this.size >= this.maxInFlightRecords;
+  }
+
+  /**
+   * Schedule a raw record for decoding. The value of the record must be its serialized byte array.
+   */
+  public void submit(DecodeableKafkaRecord rawRecord) {
+    Preconditions.checkState(!isFull(), "Decode pipeline is full");
+    PendingRecord pending = new PendingRecord(rawRecord);
+    ArrayDeque<PendingRecord> queue = this.pendingByPartition.get(rawRecord.getPartition());
+    if (queue == null) {
+      queue = new ArrayDeque<>();
+      this.pendingByPartition.put(rawRecord.getPartition(), queue);
+      this.partitionQueues.add(queue);
+    }
+    queue.add(pending);
+    this.size++;
+    this.executor.execute(pending);
+  }
+
+  /**
+   * @return the next decoded record whose predecessors in the same partition have all been handed out, or null if no
+   * such record is decoded yet. Partitions are visited round robin.
+   */
+  public DecodedRecord poll() {
+    // Permits of decodes finished before this scan are stale, as the scan sees their records. Dropping them keeps
+    // take() from spinning and the permit count bounded when most records are handed out here.
+    this.completions.drainPermits();
+    int numQueues = this.partitionQueues.size();
+    for (int i = 0; i < numQueues; i++) {
+      ArrayDeque<PendingRecord> queue = this.partitionQueues.get((this.nextQueueIndex + i) % numQueues);
+      PendingRecord head = queue.peek();
+      if (head != null && head.done) {
+        queue.poll();
+        this.size--;
+        this.nextQueueIndex = (this.nextQueueIndex + i + 1) % numQueues;
+        return head.toDecodedRecord();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Same as {@link #poll()}, but waits until a record can be handed out.
+   * @throws IllegalStateException if the pipeline is empty
+   */
+  public DecodedRecord take() throws InterruptedException {
+    Preconditions.checkState(!isEmpty(), "Decode pipeline is empty");
+    while (true) {
+      DecodedRecord record = poll();
+      if (record != null) {
+        return record;
+      }
+      Preconditions.checkState(!this.executor.isTerminated(), "Decode pipeline is closed");
+      // every decode finished after the scan in poll() releases a permit, so this only wakes up when some partition
+      // may have progressed
+      this.completions.tryAcquire(1, TimeUnit.SECONDS);
+    }
+  }
+
+  @VisibleForTesting
+  int getAvailableCompletions() {
+    return this.completions.availablePermits();
+  }
+
+  @Override
+  public void close() throws IOException {
+    ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(log), 5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * A raw record scheduled for decoding. Fields are written by a decoder thread before {@link #done} is set.
+   */
+  private class PendingRecord implements Runnable {
+    private final DecodeableKafkaRecord rawRecord;
+    private final long submitTime = System.nanoTime();
+    private Object value;
+    private Throwable error;
+    private long decodeNanos;
+    private volatile boolean done = false;
+
+    PendingRecord(DecodeableKafkaRecord rawRecord) {
+      this.rawRecord = rawRecord;
+    }
+
+    @Override
+    public void run() {
+      long startTime = System.nanoTime();
+      try {
+        Object rawValue = this.rawRecord.getValue();
+        if (rawValue != null) {
+          if (!(rawValue instanceof byte[])) {
+            throw new IllegalStateException("Decode pipeline requires byte array values but got "
+                + rawValue.getClass().getName() + ", please configure a byte array value deserializer");
+          }
+          this.value = decoders.get().decode(this.rawRecord.getTopic(), (byte[]) rawValue);
+        }
+      } catch (Throwable t) {
+        this.error = t;
+      } finally {
+        this.decodeNanos = System.nanoTime() - startTime;
+        this.done = true;
+        completions.release();
+      }
+    }
+
+    DecodedRecord toDecodedRecord() {
+      return new DecodedRecord(new DecodedKafkaRecord(this.rawRecord, this.value), this.error, this.decodeNanos,
+          System.nanoTime() - this.submitTime);
+    }
+  }
+
+  /**
+   * The outcome of decoding a record, with the time spent decoding it on a decoder thread and the time between its
+   * submission and it being handed out.
+   */
+  public static class DecodedRecord {
+    private final DecodeableKafkaRecord record;
+    private final Throwable error;
+    @Getter
+    private final long decodeNanos;
+    @Getter
+    private final long queueNanos;
+
+    DecodedRecord(DecodeableKafkaRecord record, Throwable error, long decodeNanos, long queueNanos) {
+      this.record = record;
+      this.error = error;
+      this.decodeNanos = decodeNanos;
+      this.queueNanos = queueNanos;
+    }
+
+    /**
+     * @return the partition of the record, also available if decoding failed
+     */
+    public int getPartition() {
+      return this.record.getPartition();
+    }
+
+    /**
+     * @return the decoded record
+     * @throws IOException if the record could not be decoded
+     */
+    public DecodeableKafkaRecord getRecord() throws IOException {
+      if (this.error != null) {
+        throw new IOException(String.format("Failed to decode record at offset %d of %s-%d",
+            this.record.getOffset(), this.record.getTopic(), this.record.getPartition()), this.error);
+      }
+      return this.record;
+    }
+  }
+
+  /**
+   * A {@link DecodeableKafkaRecord} carrying the decoded value of a raw record, with the metadata of the raw record.
+   */
+  private static class DecodedKafkaRecord implements DecodeableKafkaRecord<Object, Object> {
+    private final DecodeableKafkaRecord rawRecord;
+    private final Object value;
+
+    DecodedKafkaRecord(DecodeableKafkaRecord rawRecord, Object value) {
+      this.rawRecord = rawRecord;
+      this.value = value;
+    }
+
+    @Override
+    public Object getKey() {
+      return this.rawRecord.getKey();
+    }
+
+    @Override
+    public Object getValue() {
+      return this.value;
+    }
+
+    @Override
+    public long getOffset() {
+      return this.rawRecord.getOffset();
+    }
+
+    @Override
+    public long getNextOffset() {
+      return this.rawRecord.getNextOffset();
+    }
+
+    @Override
+    public long getValueSizeInBytes() {
+      return this.rawRecord.getValueSizeInBytes();
+    }
+
+    @Override
+    public long getTimestamp() {
+      return this.rawRecord.getTimestamp();
+    }
+
+    @Override
+    public boolean isTimestampLogAppend() {
+      return this.rawRecord.isTimestampLogAppend();
+    }
+
+    @Override
+    public int getPartition() {
+      return this.rawRecord.getPartition();
+    }
+
+    @Override
+    public String getTopic() {
+      return this.rawRecord.getTopic();
+    }
+
+    @Override
+    public long getRecordCreationTimestamp(String fieldName, TimeUnit timeUnit) {
+      return this.rawRecord.getRecordCreationTimestamp(fieldName, timeUnit);
+    }
+  }
+}
@@ -73,6 +73,8 @@ public class KafkaExtractorStatsTracker {
   private static final String READ_RECORD_TIME = "readRecordTime";
   private static final String DECODE_RECORD_TIME = "decodeRecordTime";
   private static final String FETCH_MESSAGE_BUFFER_TIME = "fetchMessageBufferTime";
+  private static final String DECODE_QUEUE_TIME = "decodeQueueTime";
+  private static final String MAX_DECODE_QUEUE_DEPTH = "maxDecodeQueueDepth";
   private static final String LAST_RECORD_HEADER_TIMESTAMP = "lastRecordHeaderTimestamp";
   private static final String OBSERVED_LATENCY_HISTOGRAM = "observedLatencyHistogram";
 
@@ -170,6 +172,8 @@ public class KafkaExtractorStatsTracker {
     private long partitionTotalSize;
     private long decodeRecordTime;
     private long fetchMessageBufferTime;
+    private long decodeQueueTime;
+    private int maxDecodeQueueDepth;
     private long readRecordTime;
     private long startFetchEpochTime;
     private long stopFetchEpochTime;
@@ -300,6 +304,23 @@ public class KafkaExtractorStatsTracker {
     });
   }
 
+  /**
+   * A method that is called when a record decoded by a {@link KafkaDecodePipeline} is handed out, in addition to
+   * {@link #onDecodeableRecord(int, long, long, long, long, long)}.
+   * @param partitionIdx the index of Kafka Partition.
+   * @param decodeNanos the time spent decoding the record on a decoder thread.
+   * @param queueNanos the time between the record being submitted to the pipeline and it being handed out.
+   * @param queueDepth the number of records still in the pipeline.
+   */
+  public void onDecodePipelineRecord(int partitionIdx, long decodeNanos, long queueNanos, int queueDepth) {
+    this.statsMap.computeIfPresent(this.partitions.get(partitionIdx), (k, v) -> {
+      v.decodeRecordTime += decodeNanos;
+      v.decodeQueueTime += queueNanos;
+      v.maxDecodeQueueDepth = Math.max(v.maxDecodeQueueDepth, queueDepth);
+      return v;
+    });
+  }
+
   /**
    * A method that is called after a batch of records has been fetched from Kafka e.g. via a consumer.poll().
    * @param partitionIdx the index of Kafka partition
@@ -440,6 +461,8 @@ public class KafkaExtractorStatsTracker {
     tagsForPartition.put(DECODE_RECORD_TIME, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getDecodeRecordTime())));
     tagsForPartition.put(FETCH_MESSAGE_BUFFER_TIME,
         Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getFetchMessageBufferTime())));
+    tagsForPartition.put(DECODE_QUEUE_TIME, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getDecodeQueueTime())));
+    tagsForPartition.put(MAX_DECODE_QUEUE_DEPTH, Integer.toString(stats.getMaxDecodeQueueDepth()));
     tagsForPartition.put(READ_RECORD_TIME, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getReadRecordTime())));
     tagsForPartition.put(UNDECODABLE_MESSAGE_COUNT, Long.toString(stats.getDecodingErrorCount()));
     tagsForPartition.put(NULL_RECORD_COUNT, Long.toString(stats.getNullRecordCount()));
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.source.extractor.extract.kafka;
+
+import java.io.IOException;
+
+
+/**
+ * Decodes the raw value of a Kafka record. Used by {@link KafkaDecodePipeline} to move deserialization off the task
+ * thread when the consumer client is configured with a byte array value deserializer.
+ *
+ * Each decoder thread creates its own instance through a constructor that takes a {@link com.typesafe.config.Config}
+ * (or a no-arg constructor), so implementations do not need to be thread safe.
+ *
+ * @param <V> type of the decoded value
+ */
+public interface KafkaRecordDecoder<V> {
+
+  /**
+   * @param topic topic the record was read from
+   * @param value serialized value of the record
+   * @return the decoded value, or null if the record should be treated as a null-valued record
+   */
+  V decode(String topic, byte[] value) throws IOException;
+}
@@ -18,6 +18,8 @@
 package org.apache.gobblin.source.extractor.extract.kafka;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
@@ -45,6 +48,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.typesafe.config.Config;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -60,6 +64,7 @@ import org.apache.gobblin.kafka.client.GobblinKafkaConsumerClient.GobblinKafkaCo
 import org.apache.gobblin.metrics.MetricContext;
 import org.apache.gobblin.metrics.event.lineage.LineageInfo;
 import org.apache.gobblin.source.extractor.extract.EventBasedSource;
+import org.apache.gobblin.source.extractor.extract.kafka.workunit.packer.KafkaMakespanWorkUnitPacker;
 import org.apache.gobblin.source.extractor.extract.kafka.workunit.packer.KafkaWorkUnitPacker;
 import org.apache.gobblin.source.extractor.limiter.LimiterConfigurationKeys;
 import org.apache.gobblin.source.workunit.Extract;
@@ -611,7 +616,8 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
             partition.getId()));
   }
 
-  private long getPreviousOffsetForPartition(KafkaPartition partition, SourceState state)
+  @VisibleForTesting
+  long getPreviousOffsetForPartition(KafkaPartition partition, SourceState state)
       throws PreviousOffsetNotFoundException {
 
     getAllPreviousOffsetState(state);
@@ -623,7 +629,8 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
         .format("Previous offset for topic %s, partition %s not found.", partition.getTopicName(), partition.getId()));
   }
 
-  private long getPreviousExpectedHighWatermark(KafkaPartition partition, SourceState state)
+  @VisibleForTesting
+  long getPreviousExpectedHighWatermark(KafkaPartition partition, SourceState state)
       throws PreviousOffsetNotFoundException {
 
     getAllPreviousOffsetState(state);
@@ -636,7 +643,8 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
             partition.getId()));
   }
 
-  private long getPreviousLowWatermark(KafkaPartition partition, SourceState state)
+  @VisibleForTesting
+  long getPreviousLowWatermark(KafkaPartition partition, SourceState state)
       throws PreviousOffsetNotFoundException {
 
     getAllPreviousOffsetState(state);
@@ -669,6 +677,7 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
       this.isDatasetStateEnabled.set(true);
     }
 
+    Map<KafkaPartition, List<PreviousOffsetRange>> previousOffsetRanges = Maps.newHashMap();
     for (WorkUnitState workUnitState : state.getPreviousWorkUnitStates()) {
       List<KafkaPartition> partitions = KafkaUtils.getPartitions(workUnitState);
       WorkUnit workUnit = workUnitState.getWorkunit();
@@ -683,17 +692,11 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
       for (int i = 0; i < partitions.size(); i++) {
         KafkaPartition partition = partitions.get(i);
 
-        if (watermark.get(i) != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
-          this.previousOffsets.put(partition, watermark.get(i));
-        }
-
-        if (previousLowWatermark.get(i) != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
-          this.previousLowWatermarks.put(partition, previousLowWatermark.get(i));
-        }
-
-        if (previousExpectedHighWatermark.get(i) != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
-          this.previousExpectedHighWatermarks.put(partition, previousExpectedHighWatermark.get(i));
+        if (!previousOffsetRanges.containsKey(partition)) {
+          previousOffsetRanges.put(partition, Lists.<PreviousOffsetRange>newArrayList());
         }
+        previousOffsetRanges.get(partition).add(new PreviousOffsetRange(previousLowWatermark.get(i),
+            previousExpectedHighWatermark.get(i), watermark.get(i)));
 
         this.previousOffsetFetchEpochTimes.put(partition,
             KafkaUtils.getPropAsLongFromSingleOrMultiWorkUnitState(workUnitState, OFFSET_FETCH_EPOCH_TIME, i));
@@ -706,9 +709,64 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
       }
     }
 
+    for (Map.Entry<KafkaPartition, List<PreviousOffsetRange>> entry : previousOffsetRanges.entrySet()) {
+      setPreviousOffsets(entry.getKey(), entry.getValue());
+    }
+
     this.doneGettingAllPreviousOffsets = true;
   }
 
+  /**
+   * Set the previous offset and watermarks of a partition from the offset ranges it was pulled in by the previous run.
+   *
+   * A partition is normally pulled by a single work unit. {@link KafkaMakespanWorkUnitPacker} may split it into
+   * consecutive offset ranges pulled by different work units, in which case the partition resumes from the end of the
+   * longest prefix of ranges that were pulled completely, so that no offset is skipped if a later range got further
+   * than an earlier one. The later ranges that were already pulled are then pulled again.
+   */
+  private void setPreviousOffsets(KafkaPartition partition, List<PreviousOffsetRange> ranges) {
+    Collections.sort(ranges, new Comparator<PreviousOffsetRange>() {
+      @Override
+      public int compare(PreviousOffsetRange r1, PreviousOffsetRange r2) {
+        return Long.compare(r1.lowWatermark, r2.lowWatermark);
+      }
+    });
+
+    long previousOffset = ranges.get(0).actualHighWatermark;
+    for (int i = 1; i < ranges.size(); i++) {
+      PreviousOffsetRange previousRange = ranges.get(i - 1);
+      if (previousRange.actualHighWatermark < previousRange.expectedHighWatermark
+          || ranges.get(i).lowWatermark != previousRange.expectedHighWatermark) {
+        break;
+      }
+      previousOffset = ranges.get(i).actualHighWatermark;
+    }
+    long previousLowWatermark = ranges.get(0).lowWatermark;
+    long previousExpectedHighWatermark = ranges.get(ranges.size() - 1).expectedHighWatermark;
+
+    if (previousOffset != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
+      this.previousOffsets.put(partition, previousOffset);
+    }
+
+    if (previousLowWatermark != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
+      this.previousLowWatermarks.put(partition, previousLowWatermark);
+    }
+
+    if (previousExpectedHighWatermark != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
+      this.previousExpectedHighWatermarks.put(partition, previousExpectedHighWatermark);
+    }
+  }
+
+  /**
+   * The offsets a partition was pulled between by one work unit of the previous run.
+   */
+  @AllArgsConstructor
+  private static class PreviousOffsetRange {
+    private final long lowWatermark;
+    private final long expectedHighWatermark;
+    private final long actualHighWatermark;
+  }
+
   /**
    * A topic can be configured to move to the latest offset in {@link #TOPICS_MOVE_TO_LATEST_OFFSET}.
    *
@@ -106,9 +106,11 @@ public class KafkaStreamingExtractor<S> extends FlushingExtractor<S, DecodeableK
   private final Map<Integer, Integer> partitionIdToIndexMap;
   private final String recordCreationTimestampFieldName;
   private final TimeUnit recordCreationTimestampUnit;
+  private final Optional<KafkaDecodePipeline> decodePipeline;
 
   private Iterator<KafkaConsumerRecord> messageIterator = null;
   private long readStartTime;
+  private long fetchStartTime;
   private long lastExtractorStatsReportingTime;
   private Map<KafkaPartition, Long> latestOffsetMap = Maps.newHashMap();
 
@@ -269,6 +271,9 @@ public class KafkaStreamingExtractor<S> extends FlushingExtractor<S, DecodeableK
         this.workUnitState.getProp(KafkaSource.RECORD_CREATION_TIMESTAMP_FIELD, null);
     this.recordCreationTimestampUnit = TimeUnit.valueOf(
         this.workUnitState.getProp(KafkaSource.RECORD_CREATION_TIMESTAMP_UNIT, TimeUnit.MILLISECONDS.name()));
+    this.decodePipeline = state.getPropAsBoolean(KafkaDecodePipeline.KAFKA_DECODE_PIPELINE_ENABLED,
+        KafkaDecodePipeline.DEFAULT_KAFKA_DECODE_PIPELINE_ENABLED) ? Optional.of(this.closer.register(
+        new KafkaDecodePipeline(ConfigUtils.propertiesToConfig(state.getProperties())))) : Optional.absent();
   }
 
   private Map<KafkaPartition, LongWatermark> getTopicPartitionWatermarks(List<KafkaPartition> topicPartitions) {
@@ -351,38 +356,17 @@ public class KafkaStreamingExtractor<S> extends FlushingExtractor<S, DecodeableK
       return null;
     }
     this.readStartTime = System.nanoTime();
-    long fetchStartTime = System.nanoTime();
+    this.fetchStartTime = System.nanoTime();
     try {
-      DecodeableKafkaRecord kafkaConsumerRecord;
-      while(true) {
-        while (this.messageIterator == null || !this.messageIterator.hasNext()) {
-          Long currentTime = System.currentTimeMillis();
-          //it's time to flush, so break the while loop and directly return null
-          if ((currentTime - timeOfLastFlush) > this.flushIntervalMillis) {
-            return new FlushRecordEnvelope();
-          }
-          try {
-            fetchStartTime = System.nanoTime();
-            this.messageIterator = this.kafkaConsumerClient.consume();
-          } catch (Exception e) {
-            log.error("Failed to consume from Kafka", e);
-          }
-        }
-        kafkaConsumerRecord = (DecodeableKafkaRecord) this.messageIterator.next();
-        if (kafkaConsumerRecord.getValue() != null) {
-          break;
-        } else {
-          //Filter the null-valued records early, so that they do not break the pipeline downstream.
-          if (shouldLogError()) {
-            log.error("Encountered a null-valued record at offset: {}, partition: {}", kafkaConsumerRecord.getOffset(),
-                kafkaConsumerRecord.getPartition());
-          }
-          this.statsTracker.onNullRecord(this.partitionIdToIndexMap.get(kafkaConsumerRecord.getPartition()));
-        }
+      DecodeableKafkaRecord kafkaConsumerRecord = this.decodePipeline.isPresent()
+          ? readFromDecodePipeline(this.decodePipeline.get()) : readFromConsumer();
+      //it's time to flush, so directly return a flush record
+      if (kafkaConsumerRecord == null) {
+        return new FlushRecordEnvelope();
       }
 
       int partitionIndex = this.partitionIdToIndexMap.get(kafkaConsumerRecord.getPartition());
-      this.statsTracker.onFetchNextMessageBuffer(partitionIndex, fetchStartTime);
+      this.statsTracker.onFetchNextMessageBuffer(partitionIndex, this.fetchStartTime);
 
       // track time for converting KafkaConsumerRecord to a RecordEnvelope
       long decodeStartTime = System.nanoTime();
@@ -410,6 +394,82 @@ public class KafkaStreamingExtractor<S> extends FlushingExtractor<S, DecodeableK
     }
   }
 
+  /**
+   * @return the next non-null record from the consumer, or null if it is time to flush.
+   */
+  private DecodeableKafkaRecord readFromConsumer() {
+    while (true) {
+      while (this.messageIterator == null || !this.messageIterator.hasNext()) {
+        if ((System.currentTimeMillis() - timeOfLastFlush) > this.flushIntervalMillis) {
+          return null;
+        }
+        consume();
+      }
+      DecodeableKafkaRecord kafkaConsumerRecord = (DecodeableKafkaRecord) this.messageIterator.next();
+      if (kafkaConsumerRecord.getValue() != null) {
+        return kafkaConsumerRecord;
+      }
+      //Filter the null-valued records early, so that they do not break the pipeline downstream.
+      onNullRecord(kafkaConsumerRecord);
+    }
+  }
+
+  /**
+   * Fill the {@link KafkaDecodePipeline} from the consumer and return the next decoded, non-null record in partition
+   * order. Records still being decoded are drained before polling Kafka again.
+   * @return the next record, or null if it is time to flush and nothing is in flight.
+   */
+  private DecodeableKafkaRecord readFromDecodePipeline(KafkaDecodePipeline pipeline)
+      throws IOException, InterruptedException {
+    while (true) {
+      while (!pipeline.isFull() && this.messageIterator != null && this.messageIterator.hasNext()) {
+        DecodeableKafkaRecord rawRecord = (DecodeableKafkaRecord) this.messageIterator.next();
+        if (rawRecord.getValue() == null) {
+          onNullRecord(rawRecord);
+        } else {
+          pipeline.submit(rawRecord);
+        }
+      }
+
+      KafkaDecodePipeline.DecodedRecord decodedRecord = pipeline.poll();
+      if (decodedRecord == null && !pipeline.isEmpty()) {
+        decodedRecord = pipeline.take();
+      }
+      if (decodedRecord != null) {
+        this.statsTracker.onDecodePipelineRecord(this.partitionIdToIndexMap.get(decodedRecord.getPartition()),
+            decodedRecord.getDecodeNanos(), decodedRecord.getQueueNanos(), pipeline.size());
+        DecodeableKafkaRecord kafkaConsumerRecord = decodedRecord.getRecord();
+        if (kafkaConsumerRecord.getValue() != null) {
+          return kafkaConsumerRecord;
+        }
+        onNullRecord(kafkaConsumerRecord);
+        continue;
+      }
+
+      if ((System.currentTimeMillis() - timeOfLastFlush) > this.flushIntervalMillis) {
+        return null;
+      }
+      consume();
+    }
+  }
+
+  private void consume() {
+    try {
+      this.fetchStartTime = System.nanoTime();
+      this.messageIterator = this.kafkaConsumerClient.consume();
+    } catch (Exception e) {
+      log.error("Failed to consume from Kafka", e);
+    }
+  }
+
+  private void onNullRecord(DecodeableKafkaRecord kafkaConsumerRecord) {
+    if (shouldLogError()) {
+      log.error("Encountered a null-valued record at offset: {}, partition: {}", kafkaConsumerRecord.getOffset(),
+          kafkaConsumerRecord.getPartition());
+    }
+    this.statsTracker.onNullRecord(this.partitionIdToIndexMap.get(kafkaConsumerRecord.getPartition()));
+  }
+
   private boolean shouldLogError() {
     return (this.statsTracker.getUndecodableMessageCount() + this.statsTracker.getNullRecordCount()) <= MAX_LOG_ERRORS;
   }
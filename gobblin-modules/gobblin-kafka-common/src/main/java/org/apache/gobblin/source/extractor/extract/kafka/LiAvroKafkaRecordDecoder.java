@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.source.extractor.extract.kafka;
+
+import java.io.IOException;
+
+import org.apache.avro.generic.GenericRecord;
+
+import com.google.common.collect.Maps;
+import com.typesafe.config.Config;
+
+import org.apache.gobblin.kafka.serialize.LiAvroDeserializerBase;
+import org.apache.gobblin.kafka.serialize.SerializationException;
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * A {@link KafkaRecordDecoder} for records written by {@link org.apache.gobblin.kafka.serialize.LiAvroSerializerBase},
+ * resolving writer schemas through the schema registry configured in the job.
+ */
+public class LiAvroKafkaRecordDecoder implements KafkaRecordDecoder<GenericRecord> {
+
+  private final LiAvroDeserializerBase deserializer = new LiAvroDeserializerBase();
+
+  public LiAvroKafkaRecordDecoder(Config config) {
+    this.deserializer.configure(Maps.fromProperties(ConfigUtils.configToProperties(config)), false);
+  }
+
+  @Override
+  public GenericRecord decode(String topic, byte[] value) throws IOException {
+    try {
+      return this.deserializer.deserialize(topic, value);
+    } catch (SerializationException e) {
+      throw new IOException(e);
+    }
+  }
+}
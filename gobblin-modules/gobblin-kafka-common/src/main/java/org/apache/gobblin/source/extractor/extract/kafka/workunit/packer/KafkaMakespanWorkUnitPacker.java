@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.math.DoubleMath;
+import com.google.common.primitives.Doubles;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.SourceState;
+import org.apache.gobblin.source.extractor.extract.AbstractSource;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaSource;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaUtils;
+import org.apache.gobblin.source.workunit.MultiWorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * An implementation of {@link KafkaWorkUnitPacker} that packs partitions by their predicted processing time, so as to
+ * minimize the makespan, i.e. the time until the last container is done.
+ *
+ * Unless another size estimator is configured, the size of each {@link WorkUnit} is its predicted duration in
+ * milliseconds from {@link KafkaPredictedDurationWorkUnitSizeEstimator}. Packing then works in three steps:
+ * <ol>
+ *   <li>A partition whose predicted duration is longer than the ideal makespan (the total predicted duration over the
+ *   number of containers) would leave its container straggling however it is packed. Its offset range is handed off
+ *   in consecutive sub-ranges, each a {@link WorkUnit} of its own, so that other containers can take over the part
+ *   of its lag it would not get to in time. {@link KafkaSource} resumes such a partition from the end of the longest
+ *   fully pulled prefix of its sub-ranges. The trade-off is re-ingestion: if an early sub-range falls short, the next
+ *   run pulls again the later sub-ranges, even though their records were already published. Splitting therefore
+ *   suits sinks that tolerate duplicates.</li>
+ *   <li>{@link WorkUnit}s are assigned longest first to the container with the least predicted work.</li>
+ *   <li>{@link WorkUnit}s are moved or swapped between the containers with the most and the least predicted work for
+ *   as long as this shortens the makespan.</li>
+ * </ol>
+ *
+ * As in {@link KafkaSingleLevelWorkUnitPacker}, all empty partitions of a topic are put in a single {@link WorkUnit}.
+ * Unlike {@link #worstFitDecreasingBinPacking(List, int)}, the load of a container is the plain sum of the predicted
+ * durations of its {@link WorkUnit}s; the cost of each additional {@link WorkUnit} is part of the prediction.
+ */
+public class KafkaMakespanWorkUnitPacker extends KafkaWorkUnitPacker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KafkaMakespanWorkUnitPacker.class);
+
+  /** Maximum number of sub-ranges the offset range of a straggling partition is split into. 1 disables splitting. */
+  public static final String MAX_SPLITS_PER_PARTITION = "kafka.workunit.packer.makespan.maxSplitsPerPartition";
+  public static final int DEFAULT_MAX_SPLITS_PER_PARTITION = 4;
+  /** Minimum number of records in a sub-range of a split partition. */
+  public static final String MIN_RECORDS_PER_SPLIT = "kafka.workunit.packer.makespan.minRecordsPerSplit";
+  public static final long DEFAULT_MIN_RECORDS_PER_SPLIT = 10000;
+
+  private static final int MAX_REBALANCE_ITERATIONS = 1000;
+
+  private static final Comparator<WorkUnit> SIZE_DESC_COMPARATOR = new Comparator<WorkUnit>() {
+    @Override
+    public int compare(WorkUnit w1, WorkUnit w2) {
+      return Doubles.compare(getWorkUnitEstSize(w2), getWorkUnitEstSize(w1));
+    }
+  };
+
+  private static final Comparator<Container> DURATION_ASC_COMPARATOR = new Comparator<Container>() {
+    @Override
+    public int compare(Container c1, Container c2) {
+      return Doubles.compare(c1.duration, c2.duration);
+    }
+  };
+
+  private final int maxSplitsPerPartition;
+  private final long minRecordsPerSplit;
+
+  public KafkaMakespanWorkUnitPacker(AbstractSource<?, ?> source, SourceState state) {
+    super(source, state);
+    this.maxSplitsPerPartition = state.getPropAsInt(MAX_SPLITS_PER_PARTITION, DEFAULT_MAX_SPLITS_PER_PARTITION);
+    this.minRecordsPerSplit = Math.max(1, state.getPropAsLong(MIN_RECORDS_PER_SPLIT, DEFAULT_MIN_RECORDS_PER_SPLIT));
+  }
+
+  @Override
+  KafkaWorkUnitSizeEstimator getWorkUnitSizeEstimator() {
+    if (this.state.contains(KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE)) {
+      return super.getWorkUnitSizeEstimator();
+    }
+    return new KafkaPredictedDurationWorkUnitSizeEstimator(this.state);
+  }
+
+  @Override
+  public List<WorkUnit> pack(Map<String, List<WorkUnit>> workUnitsByTopic, int numContainers) {
+    if (workUnitsByTopic == null || workUnitsByTopic.isEmpty()) {
+      return Lists.newArrayList();
+    }
+    Preconditions.checkArgument(numContainers > 0, "Number of containers must be positive");
+
+    double idealMakespan = setWorkUnitEstSizes(workUnitsByTopic) / numContainers;
+    List<WorkUnit> workUnits = Lists.newArrayList();
+    for (List<WorkUnit> workUnitsForTopic : workUnitsByTopic.values()) {
+      MultiWorkUnit zeroSizeWorkUnit = MultiWorkUnit.createEmpty();
+      for (WorkUnit workUnit : workUnitsForTopic) {
+        if (DoubleMath.fuzzyEquals(getWorkUnitEstSize(workUnit), 0.0, EPS)) {
+          addWorkUnitToMultiWorkUnit(workUnit, zeroSizeWorkUnit);
+        } else {
+          workUnits.addAll(splitStraggler(workUnit, idealMakespan));
+        }
+      }
+      if (!zeroSizeWorkUnit.getWorkUnits().isEmpty()) {
+        workUnits.add(squeezeMultiWorkUnit(zeroSizeWorkUnit));
+      }
+    }
+    return minMakespanBinPacking(workUnits, numContainers);
+  }
+
+  /**
+   * Split the offset range of a partition that is predicted to take longer than the ideal makespan into consecutive
+   * sub-ranges of about the same number of records.
+   */
+  private List<WorkUnit> splitStraggler(WorkUnit workUnit, double idealMakespan) {
+    long lowWatermark = workUnit.getPropAsLong(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY);
+    long highWatermark = workUnit.getPropAsLong(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY);
+    long numOfRecords = highWatermark - lowWatermark;
+    int numSplits = (int) Math.min(Math.min(this.maxSplitsPerPartition,
+        Math.ceil(getWorkUnitEstSize(workUnit) / idealMakespan)), numOfRecords / this.minRecordsPerSplit);
+
+    if (numSplits <= 1) {
+      workUnit.setWatermarkInterval(getWatermarkIntervalFromWorkUnit(workUnit));
+      return Lists.newArrayList(workUnit);
+    }
+
+    LOG.info(String.format("Splitting partition %s with a predicted duration of %f ms into %d offset ranges",
+        KafkaUtils.getPartition(workUnit), getWorkUnitEstSize(workUnit), numSplits));
+    List<WorkUnit> splits = Lists.newArrayList();
+    for (int i = 0; i < numSplits; i++) {
+      WorkUnit split = WorkUnit.copyOf(workUnit);
+      split.setProp(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY, lowWatermark + numOfRecords * i / numSplits);
+      split.setProp(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY, lowWatermark + numOfRecords * (i + 1) / numSplits);
+      split.setWatermarkInterval(getWatermarkIntervalFromWorkUnit(split));
+      setWorkUnitEstSize(split);
+      splits.add(split);
+    }
+    return splits;
+  }
+
+  private List<WorkUnit> minMakespanBinPacking(List<WorkUnit> workUnits, int numContainers) {
+    Collections.sort(workUnits, SIZE_DESC_COMPARATOR);
+    PriorityQueue<Container> pQueue = new PriorityQueue<>(numContainers, DURATION_ASC_COMPARATOR);
+    for (int i = 0; i < numContainers; i++) {
+      pQueue.add(new Container());
+    }
+    for (WorkUnit workUnit : workUnits) {
+      Container shortestContainer = pQueue.poll();
+      shortestContainer.add(workUnit);
+      pQueue.add(shortestContainer);
+    }
+
+    List<Container> containers = Lists.newArrayList(pQueue);
+    rebalance(containers);
+
+    Collections.sort(containers, DURATION_ASC_COMPARATOR);
+    List<WorkUnit> multiWorkUnits = Lists.newArrayList();
+    for (Container container : containers) {
+      if (container.workUnits.isEmpty()) {
+        continue;
+      }
+      MultiWorkUnit multiWorkUnit = MultiWorkUnit.createEmpty();
+      addWorkUnitsToMultiWorkUnit(container.workUnits, multiWorkUnit);
+      LOG.info(String.format("MultiWorkUnit %d: predicted duration=%f ms, partitions=%s", multiWorkUnits.size(),
+          container.duration, getMultiWorkUnitPartitions(multiWorkUnit)));
+      multiWorkUnits.add(multiWorkUnit);
+    }
+    if (multiWorkUnits.isEmpty()) {
+      return multiWorkUnits;
+    }
+
+    double minDuration = getWorkUnitEstSize(multiWorkUnits.get(0));
+    double maxDuration = getWorkUnitEstSize(multiWorkUnits.get(multiWorkUnits.size() - 1));
+    LOG.info(String.format("Min predicted duration of multiWorkUnit = %f ms; Max predicted duration of multiWorkUnit "
+        + "= %f ms; Diff = %f%%", minDuration, maxDuration, (maxDuration - minDuration) / maxDuration * 100.0));
+    this.state.setProp(MIN_MULTIWORKUNIT_LOAD, minDuration);
+    this.state.setProp(MAX_MULTIWORKUNIT_LOAD, maxDuration);
+    return multiWorkUnits;
+  }
+
+  /**
+   * Repeatedly move a {@link WorkUnit} from the longest to the shortest container, or swap a {@link WorkUnit} of the
+   * longest container with a shorter one of the shortest container. Moving work of duration d between them shortens
+   * both below the current longest duration if 0 < d < gap, and evens them out best when d is closest to gap / 2.
+   */
+  private static void rebalance(List<Container> containers) {
+    for (int i = 0; i < MAX_REBALANCE_ITERATIONS; i++) {
+      Container longest = Collections.max(containers, DURATION_ASC_COMPARATOR);
+      Container shortest = Collections.min(containers, DURATION_ASC_COMPARATOR);
+      double gap = longest.duration - shortest.duration;
+
+      List<WorkUnit> candidatesFromShortest = Lists.newArrayList(shortest.workUnits);
+      // null stands for moving without swapping anything back
+      candidatesFromShortest.add(null);
+      WorkUnit bestFromLongest = null;
+      WorkUnit bestFromShortest = null;
+      double bestDistance = Double.MAX_VALUE;
+      for (WorkUnit fromLongest : longest.workUnits) {
+        for (WorkUnit fromShortest : candidatesFromShortest) {
+          double delta = getWorkUnitEstSize(fromLongest)
+              - (fromShortest == null ? 0.0 : getWorkUnitEstSize(fromShortest));
+          if (delta > EPS && delta < gap - EPS && Math.abs(gap / 2 - delta) < bestDistance) {
+            bestFromLongest = fromLongest;
+            bestFromShortest = fromShortest;
+            bestDistance = Math.abs(gap / 2 - delta);
+          }
+        }
+      }
+      if (bestFromLongest == null) {
+        return;
+      }
+
+      longest.remove(bestFromLongest);
+      shortest.add(bestFromLongest);
+      if (bestFromShortest != null) {
+        shortest.remove(bestFromShortest);
+        longest.add(bestFromShortest);
+      }
+    }
+  }
+
+  /**
+   * The {@link WorkUnit}s assigned to a container, with the sum of their predicted durations.
+   */
+  private static class Container {
+    private final List<WorkUnit> workUnits = Lists.newArrayList();
+    private double duration = 0.0;
+
+    private void add(WorkUnit workUnit) {
+      this.workUnits.add(workUnit);
+      this.duration += getWorkUnitEstSize(workUnit);
+    }
+
+    private void remove(WorkUnit workUnit) {
+      for (int i = 0; i < this.workUnits.size(); i++) {
+        if (this.workUnits.get(i) == workUnit) {
+          this.workUnits.remove(i);
+          this.duration -= getWorkUnitEstSize(workUnit);
+          return;
+        }
+      }
+    }
+  }
+}
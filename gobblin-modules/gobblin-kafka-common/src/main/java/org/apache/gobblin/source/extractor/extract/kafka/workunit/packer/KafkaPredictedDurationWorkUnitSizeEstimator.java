@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.SourceState;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaPartition;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaUtils;
+import org.apache.gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * An implementation of {@link KafkaWorkUnitSizeEstimator} which estimates the size of a {@link WorkUnit} as its
+ * predicted processing time in milliseconds: the number of records between its low and high watermarks, i.e. the
+ * current lag of the partition, times the predicted time to pull a record of the partition, plus a fixed overhead per
+ * {@link WorkUnit}.
+ *
+ * Unlike {@link KafkaAvgRecordTimeBasedWorkUnitSizeEstimator}, which uses one avg time per record for all partitions
+ * of a topic, the time per record is predicted per partition, so that the partitions that decode or write slower than
+ * the rest of their topic are not underestimated. The prediction is an exponentially weighted average over runs: the
+ * avg time per record observed in the previous run is blended with the prediction the previous run was packed with,
+ * which is recorded in each {@link WorkUnit} as "[topicname].[partitionid].predicted.record.millis".
+ *
+ * A partition without history uses the geometric mean of the predictions of its topic, and a topic without history
+ * the geometric mean of all topics, or 1.0 if nothing was pulled in the previous run.
+ */
+public class KafkaPredictedDurationWorkUnitSizeEstimator implements KafkaWorkUnitSizeEstimator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KafkaPredictedDurationWorkUnitSizeEstimator.class);
+
+  /** Weight of the time per record observed in the previous run against the previous prediction. */
+  public static final String SMOOTHING_FACTOR = "kafka.workunit.size.estimator.predictedDuration.smoothingFactor";
+  public static final double DEFAULT_SMOOTHING_FACTOR = 0.5;
+  /** Fixed cost of a {@link WorkUnit}, e.g. for setting up the task and the first fetch, in milliseconds. */
+  public static final String WORKUNIT_OVERHEAD_MILLIS =
+      "kafka.workunit.size.estimator.predictedDuration.workUnitOverheadMillis";
+  public static final long DEFAULT_WORKUNIT_OVERHEAD_MILLIS = 1000;
+
+  static final String PREDICTED_RECORD_MILLIS = "predicted.record.millis";
+
+  private final double smoothingFactor;
+  private final long workUnitOverheadMillis;
+  private final Map<KafkaPartition, Double> estPartitionMillis = Maps.newHashMap();
+  private final Map<String, Double> estTopicMillis = Maps.newHashMap();
+  private double avgEstTopicMillis = 1.0;
+
+  public KafkaPredictedDurationWorkUnitSizeEstimator(SourceState state) {
+    this.smoothingFactor = state.getPropAsDouble(SMOOTHING_FACTOR, DEFAULT_SMOOTHING_FACTOR);
+    this.workUnitOverheadMillis = state.getPropAsLong(WORKUNIT_OVERHEAD_MILLIS, DEFAULT_WORKUNIT_OVERHEAD_MILLIS);
+    readPrevRecordMillis(state);
+  }
+
+  @Override
+  public double calcEstimatedSize(WorkUnit workUnit) {
+    long numOfRecords = workUnit.getPropAsLong(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY)
+        - workUnit.getPropAsLong(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY);
+    if (numOfRecords <= 0) {
+      return 0.0;
+    }
+    KafkaPartition partition = KafkaUtils.getPartition(workUnit);
+    double recordMillis = getEstRecordMillis(partition);
+    // Recorded so that the next run can smooth its observation against this prediction
+    workUnit.setProp(getPredictedRecordMillisPropName(partition), recordMillis);
+    return this.workUnitOverheadMillis + recordMillis * numOfRecords;
+  }
+
+  private double getEstRecordMillis(KafkaPartition partition) {
+    if (this.estPartitionMillis.containsKey(partition)) {
+      return this.estPartitionMillis.get(partition);
+    }
+    if (this.estTopicMillis.containsKey(partition.getTopicName())) {
+      return this.estTopicMillis.get(partition.getTopicName());
+    }
+    return this.avgEstTopicMillis;
+  }
+
+  private static String getPredictedRecordMillisPropName(KafkaPartition partition) {
+    return KafkaUtils.getPartitionPropName(partition.getTopicName(), partition.getId()) + "." + PREDICTED_RECORD_MILLIS;
+  }
+
+  /**
+   * Predict the time to pull a record of every partition that was pulled in the previous run, and of every topic
+   * from its partitions.
+   */
+  private void readPrevRecordMillis(SourceState state) {
+    Map<KafkaPartition, List<Double>> observedMillis = Maps.newHashMap();
+    Map<KafkaPartition, Double> prevPredictedMillis = Maps.newHashMap();
+
+    for (WorkUnitState workUnitState : state.getPreviousWorkUnitStates()) {
+      for (KafkaPartition partition : KafkaUtils.getPartitions(workUnitState)) {
+        // A partition pulled by several work units in the previous run has one observation per work unit
+        if (KafkaUtils.containsPartitionAvgRecordMillis(workUnitState, partition)) {
+          if (!observedMillis.containsKey(partition)) {
+            observedMillis.put(partition, Lists.<Double>newArrayList());
+          }
+          observedMillis.get(partition).add(KafkaUtils.getPartitionAvgRecordMillis(workUnitState, partition));
+        }
+        if (workUnitState.contains(getPredictedRecordMillisPropName(partition))) {
+          prevPredictedMillis.put(partition,
+              workUnitState.getPropAsDouble(getPredictedRecordMillisPropName(partition)));
+        }
+      }
+    }
+
+    Map<String, List<Double>> partitionMillisByTopic = Maps.newHashMap();
+    for (KafkaPartition partition : observedMillis.keySet()) {
+      double observed = KafkaAvgRecordTimeBasedWorkUnitSizeEstimator.geometricMean(observedMillis.get(partition));
+      double predicted = prevPredictedMillis.containsKey(partition)
+          ? this.smoothingFactor * observed + (1 - this.smoothingFactor) * prevPredictedMillis.get(partition)
+          : observed;
+      this.estPartitionMillis.put(partition, predicted);
+      if (!partitionMillisByTopic.containsKey(partition.getTopicName())) {
+        partitionMillisByTopic.put(partition.getTopicName(), Lists.<Double>newArrayList());
+      }
+      partitionMillisByTopic.get(partition.getTopicName()).add(predicted);
+    }
+
+    for (Map.Entry<String, List<Double>> entry : partitionMillisByTopic.entrySet()) {
+      double estMillisForTopic = KafkaAvgRecordTimeBasedWorkUnitSizeEstimator.geometricMean(entry.getValue());
+      this.estTopicMillis.put(entry.getKey(), estMillisForTopic);
+      LOG.info(String.format("Predicted time to pull a record for topic %s is %f milliseconds", entry.getKey(),
+          estMillisForTopic));
+    }
+    if (!this.estTopicMillis.isEmpty()) {
+      this.avgEstTopicMillis =
+          KafkaAvgRecordTimeBasedWorkUnitSizeEstimator.geometricMean(Lists.newArrayList(this.estTopicMillis.values()));
+    }
+    LOG.info("For all topics not pulled in the previous run, predicted time to pull a record is "
+        + this.avgEstTopicMillis + " milliseconds");
+  }
+}
@@ -72,12 +72,15 @@ public abstract class KafkaWorkUnitPacker {
   public enum PackerType {
     SINGLE_LEVEL,
     BI_LEVEL,
+    MAKESPAN,
     CUSTOM
   }
 
   public enum SizeEstimatorType {
     AVG_RECORD_TIME,
-    AVG_RECORD_SIZE, CUSTOM
+    AVG_RECORD_SIZE,
+    PREDICTED_DURATION,
+    CUSTOM
   }
 
   public static final String KAFKA_WORKUNIT_PACKER_TYPE = "kafka.workunit.packer.type";
@@ -119,7 +122,7 @@ public abstract class KafkaWorkUnitPacker {
   };
 
 
-  private void setWorkUnitEstSize(WorkUnit workUnit) {
+  protected void setWorkUnitEstSize(WorkUnit workUnit) {
     workUnit.setProp(ESTIMATED_WORKUNIT_SIZE, this.sizeEstimator.calcEstimatedSize(workUnit));
   }
 
@@ -143,6 +146,8 @@ public abstract class KafkaWorkUnitPacker {
         return new KafkaAvgRecordTimeBasedWorkUnitSizeEstimator(this.state);
       case AVG_RECORD_SIZE:
         return new KafkaAvgRecordSizeBasedWorkUnitSizeEstimator(this.state);
+      case PREDICTED_DURATION:
+        return new KafkaPredictedDurationWorkUnitSizeEstimator(this.state);
       case CUSTOM:
         Preconditions.checkArgument(this.state.contains(KAFKA_WORKUNIT_SIZE_ESTIMATOR_CUSTOMIZED_TYPE));
         String className = this.state.getProp(KAFKA_WORKUNIT_SIZE_ESTIMATOR_CUSTOMIZED_TYPE);
@@ -152,7 +157,7 @@ public abstract class KafkaWorkUnitPacker {
     }
   }
 
-  private static void setWorkUnitEstSize(WorkUnit workUnit, double estSize) {
+  protected static void setWorkUnitEstSize(WorkUnit workUnit, double estSize) {
     workUnit.setProp(ESTIMATED_WORKUNIT_SIZE, estSize);
   }
 
@@ -393,6 +398,8 @@ public abstract class KafkaWorkUnitPacker {
         return new KafkaSingleLevelWorkUnitPacker(source, state);
       case BI_LEVEL:
         return new KafkaBiLevelWorkUnitPacker(source, state);
+      case MAKESPAN:
+        return new KafkaMakespanWorkUnitPacker(source, state);
       case CUSTOM:
         Preconditions.checkArgument(state.contains(KAFKA_WORKUNIT_PACKER_CUSTOMIZED_TYPE));
         String className = state.getProp(KAFKA_WORKUNIT_PACKER_CUSTOMIZED_TYPE);
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.source.extractor.extract.kafka;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import org.apache.gobblin.kafka.client.BaseKafkaConsumerRecord;
+import org.apache.gobblin.kafka.client.DecodeableKafkaRecord;
+
+
+public class KafkaDecodePipelineTest {
+
+  private static class RawRecord extends BaseKafkaConsumerRecord implements DecodeableKafkaRecord<String, byte[]> {
+    private final byte[] value;
+
+    RawRecord(int partition, long offset) {
+      super(offset, 0, "testTopic", partition);
+      this.value = (partition + ":" + offset).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getKey() {
+      return null;
+    }
+
+    @Override
+    public byte[] getValue() {
+      return this.value;
+    }
+  }
+
+  @Test
+  public void testPerPartitionOrder() throws Exception {
+    Random random = new Random();
+    int numPartitions = 3;
+    int numRecords = 3000;
+    try (KafkaDecodePipeline pipeline = new KafkaDecodePipeline(() -> (topic, value) -> {
+      try {
+        Thread.sleep(random.nextInt(2));
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      return new String(value, StandardCharsets.UTF_8);
+    }, 8, 100)) {
+      Map<Integer, Long> nextOffsets = new HashMap<>();
+      int submitted = 0;
+      int taken = 0;
+      while (taken < numRecords) {
+        while (submitted < numRecords && !pipeline.isFull()) {
+          pipeline.submit(new RawRecord(submitted % numPartitions, submitted / numPartitions));
+          submitted++;
+        }
+        Assert.assertTrue(pipeline.size() <= 100);
+        DecodeableKafkaRecord record = pipeline.take().getRecord();
+        long expectedOffset = nextOffsets.getOrDefault(record.getPartition(), 0L);
+        Assert.assertEquals(record.getOffset(), expectedOffset);
+        Assert.assertEquals(record.getValue(), record.getPartition() + ":" + record.getOffset());
+        nextOffsets.put(record.getPartition(), expectedOffset + 1);
+        taken++;
+      }
+      Assert.assertTrue(pipeline.isEmpty());
+      Assert.assertNull(pipeline.poll());
+    }
+  }
+
+  @Test
+  public void testBlockedPartitionDoesNotBlockOthers() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    try (KafkaDecodePipeline pipeline = new KafkaDecodePipeline(() -> (topic, value) -> {
+      String decoded = new String(value, StandardCharsets.UTF_8);
+      if (decoded.startsWith("0:")) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+      return decoded;
+    }, 2, 10)) {
+      pipeline.submit(new RawRecord(0, 0));
+      pipeline.submit(new RawRecord(1, 0));
+      pipeline.submit(new RawRecord(1, 1));
+
+      Assert.assertEquals(pipeline.take().getRecord().getValue(), "1:0");
+      Assert.assertEquals(pipeline.take().getRecord().getValue(), "1:1");
+      Assert.assertNull(pipeline.poll());
+      Assert.assertEquals(pipeline.size(), 1);
+
+      latch.countDown();
+      KafkaDecodePipeline.DecodedRecord decodedRecord = pipeline.take();
+      Assert.assertEquals(decodedRecord.getRecord().getValue(), "0:0");
+      Assert.assertTrue(decodedRecord.getQueueNanos() >= decodedRecord.getDecodeNanos());
+    }
+  }
+
+  @Test
+  public void testTakeBlocksAfterPolls() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    try (KafkaDecodePipeline pipeline = new KafkaDecodePipeline(() -> (topic, value) -> {
+      String decoded = new String(value, StandardCharsets.UTF_8);
+      if (decoded.startsWith("1:")) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+      return decoded;
+    }, 2, 100)) {
+      for (int i = 0; i < 50; i++) {
+        pipeline.submit(new RawRecord(0, i));
+      }
+      int polled = 0;
+      while (polled < 50) {
+        if (pipeline.poll() != null) {
+          polled++;
+        }
+      }
+      // Records handed out by poll() do not leave their completions behind
+      Assert.assertTrue(pipeline.getAvailableCompletions() <= 1);
+
+      pipeline.submit(new RawRecord(1, 0));
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        Future<KafkaDecodePipeline.DecodedRecord> taken = executor.submit(() -> pipeline.take());
+        Thread.sleep(200);
+        Assert.assertFalse(taken.isDone());
+        Assert.assertEquals(pipeline.getAvailableCompletions(), 0);
+
+        latch.countDown();
+        Assert.assertEquals(taken.get(10, TimeUnit.SECONDS).getRecord().getValue(), "1:0");
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  public void testDecodeFailure() throws Exception {
+    try (KafkaDecodePipeline pipeline = new KafkaDecodePipeline(() -> (topic, value) -> {
+      throw new IOException("bad record");
+    }, 1, 10)) {
+      pipeline.submit(new RawRecord(2, 5));
+      KafkaDecodePipeline.DecodedRecord decodedRecord = pipeline.take();
+      Assert.assertEquals(decodedRecord.getPartition(), 2);
+      try {
+        decodedRecord.getRecord();
+        Assert.fail("Expected the decode failure to be rethrown");
+      } catch (IOException e) {
+        Assert.assertEquals(e.getCause().getMessage(), "bad record");
+      }
+    }
+  }
+}
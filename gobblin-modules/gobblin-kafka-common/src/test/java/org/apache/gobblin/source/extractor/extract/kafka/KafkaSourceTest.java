@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.source.extractor.extract.kafka;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+import org.apache.gobblin.configuration.SourceState;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.source.extractor.WatermarkInterval;
+import org.apache.gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * Unit tests for how {@link KafkaSource} resumes a partition from the work units of the previous run.
+ */
+public class KafkaSourceTest {
+
+  private static final String TOPIC = "testTopic";
+  private static final KafkaPartition PARTITION = new KafkaPartition.Builder().withTopicName(TOPIC).withId(0).build();
+
+  @Test
+  public void testSingleRange() throws PreviousOffsetNotFoundException {
+    // An unsplit partition resumes from wherever its only work unit got to, as before
+    SourceState state = createSourceState(workUnitState(0, 100, 80));
+    KafkaSource<String, byte[]> source = new KafkaSimpleSource();
+
+    Assert.assertEquals(source.getPreviousOffsetForPartition(PARTITION, state), 80);
+    Assert.assertEquals(source.getPreviousLowWatermark(PARTITION, state), 0);
+    Assert.assertEquals(source.getPreviousExpectedHighWatermark(PARTITION, state), 100);
+  }
+
+  @Test
+  public void testAllSplitsComplete() throws PreviousOffsetNotFoundException {
+    SourceState state = createSourceState(workUnitState(0, 100, 100), workUnitState(100, 200, 200),
+        workUnitState(200, 300, 300));
+    KafkaSource<String, byte[]> source = new KafkaSimpleSource();
+
+    Assert.assertEquals(source.getPreviousOffsetForPartition(PARTITION, state), 300);
+    Assert.assertEquals(source.getPreviousLowWatermark(PARTITION, state), 0);
+    Assert.assertEquals(source.getPreviousExpectedHighWatermark(PARTITION, state), 300);
+  }
+
+  @Test
+  public void testIncompleteMiddleSplit() throws PreviousOffsetNotFoundException {
+    // The last split is complete, but resuming after it would skip the offsets the middle split did not get to
+    SourceState state = createSourceState(workUnitState(0, 100, 100), workUnitState(100, 200, 150),
+        workUnitState(200, 300, 300));
+    KafkaSource<String, byte[]> source = new KafkaSimpleSource();
+
+    Assert.assertEquals(source.getPreviousOffsetForPartition(PARTITION, state), 150);
+    Assert.assertEquals(source.getPreviousLowWatermark(PARTITION, state), 0);
+    Assert.assertEquals(source.getPreviousExpectedHighWatermark(PARTITION, state), 300);
+  }
+
+  @Test
+  public void testOutOfOrderWorkUnitStates() throws PreviousOffsetNotFoundException {
+    SourceState state = createSourceState(workUnitState(200, 300, 300), workUnitState(0, 100, 100),
+        workUnitState(100, 200, 200));
+    KafkaSource<String, byte[]> source = new KafkaSimpleSource();
+
+    Assert.assertEquals(source.getPreviousOffsetForPartition(PARTITION, state), 300);
+    Assert.assertEquals(source.getPreviousLowWatermark(PARTITION, state), 0);
+    Assert.assertEquals(source.getPreviousExpectedHighWatermark(PARTITION, state), 300);
+  }
+
+  private static SourceState createSourceState(WorkUnitState... workUnitStates) {
+    return new SourceState(new State(), Lists.newArrayList(workUnitStates));
+  }
+
+  private static WorkUnitState workUnitState(long lowWatermark, long expectedHighWatermark, long actualHighWatermark) {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setProp(KafkaSource.TOPIC_NAME, TOPIC);
+    workUnit.setProp(KafkaSource.PARTITION_ID, PARTITION.getId());
+    workUnit.setWatermarkInterval(new WatermarkInterval(multiLongWatermark(lowWatermark),
+        multiLongWatermark(expectedHighWatermark)));
+    WorkUnitState workUnitState = new WorkUnitState(workUnit);
+    workUnitState.setActualHighWatermark(multiLongWatermark(actualHighWatermark));
+    return workUnitState;
+  }
+
+  private static MultiLongWatermark multiLongWatermark(long value) {
+    return new MultiLongWatermark(Lists.newArrayList(value));
+  }
+}
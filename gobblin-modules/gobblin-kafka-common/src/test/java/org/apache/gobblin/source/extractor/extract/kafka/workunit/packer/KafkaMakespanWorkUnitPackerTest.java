@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.SourceState;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.source.extractor.extract.AbstractSource;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaPartition;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaSource;
+import org.apache.gobblin.source.extractor.extract.kafka.KafkaUtils;
+import org.apache.gobblin.source.workunit.MultiWorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnit;
+
+
+public class KafkaMakespanWorkUnitPackerTest {
+  private static final String TOPIC = "topic";
+
+  private final AbstractSource source = Mockito.mock(AbstractSource.class);
+
+  @Test
+  public void testGetInstance() {
+    SourceState state = new SourceState();
+    state.setProp(KafkaWorkUnitPacker.KAFKA_WORKUNIT_PACKER_TYPE, "MAKESPAN");
+    KafkaWorkUnitPacker packer = KafkaWorkUnitPacker.getInstance(this.source, state);
+    Assert.assertTrue(packer instanceof KafkaMakespanWorkUnitPacker);
+    Assert.assertTrue(packer.getWorkUnitSizeEstimator() instanceof KafkaPredictedDurationWorkUnitSizeEstimator);
+
+    state.setProp(KafkaWorkUnitPacker.KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE, "AVG_RECORD_SIZE");
+    packer = KafkaWorkUnitPacker.getInstance(this.source, state);
+    Assert.assertTrue(packer.getWorkUnitSizeEstimator() instanceof KafkaAvgRecordSizeBasedWorkUnitSizeEstimator);
+  }
+
+  @Test
+  public void testPackSplitsStragglers() {
+    SourceState state = new SourceState();
+    state.setProp(KafkaPredictedDurationWorkUnitSizeEstimator.WORKUNIT_OVERHEAD_MILLIS, 0);
+    KafkaWorkUnitPacker packer = new KafkaMakespanWorkUnitPacker(this.source, state);
+
+    // One hot partition with as much lag as the other five together
+    Map<String, List<WorkUnit>> workUnitsByTopic = Maps.newHashMap();
+    List<WorkUnit> workUnits = Lists.newArrayList(createWorkUnit(0, 0, 1000000));
+    for (int i = 1; i <= 5; i++) {
+      workUnits.add(createWorkUnit(i, 0, 100000));
+    }
+    workUnitsByTopic.put(TOPIC, workUnits);
+
+    List<WorkUnit> packed = packer.pack(workUnitsByTopic, 3);
+    Assert.assertEquals(packed.size(), 3);
+    List<Long> hotPartitionRanges = Lists.newArrayList();
+    for (WorkUnit workUnit : packed) {
+      Assert.assertEquals(KafkaWorkUnitPacker.getWorkUnitEstSize(workUnit), 500000, 1);
+      for (WorkUnit inner : ((MultiWorkUnit) workUnit).getWorkUnits()) {
+        if (inner.getProp(KafkaSource.PARTITION_ID).equals("0")) {
+          hotPartitionRanges.add(inner.getPropAsLong(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY));
+          hotPartitionRanges.add(inner.getPropAsLong(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY));
+        }
+      }
+    }
+    Collections.sort(hotPartitionRanges);
+    Assert.assertEquals(hotPartitionRanges, Lists.newArrayList(0L, 500000L, 500000L, 1000000L));
+  }
+
+  @Test
+  public void testPackWithoutSplitting() {
+    SourceState state = new SourceState();
+    state.setProp(KafkaPredictedDurationWorkUnitSizeEstimator.WORKUNIT_OVERHEAD_MILLIS, 0);
+    state.setProp(KafkaMakespanWorkUnitPacker.MAX_SPLITS_PER_PARTITION, 1);
+    KafkaWorkUnitPacker packer = new KafkaMakespanWorkUnitPacker(this.source, state);
+
+    // Longest first alone ends with 9000 and 7000 ms; swapping evens this out to {5000, 3000} and {4000, 2000, 2000}
+    Map<String, List<WorkUnit>> workUnitsByTopic = Maps.newHashMap();
+    workUnitsByTopic.put(TOPIC, Lists.newArrayList(createWorkUnit(0, 0, 5000), createWorkUnit(1, 0, 4000),
+        createWorkUnit(2, 0, 3000), createWorkUnit(3, 0, 2000), createWorkUnit(4, 0, 2000)));
+
+    List<WorkUnit> packed = packer.pack(workUnitsByTopic, 2);
+    Assert.assertEquals(packed.size(), 2);
+    Assert.assertEquals(KafkaWorkUnitPacker.getWorkUnitEstSize(packed.get(0)), 8000, 1);
+    Assert.assertEquals(KafkaWorkUnitPacker.getWorkUnitEstSize(packed.get(1)), 8000, 1);
+    Assert.assertEquals(state.getPropAsDouble(KafkaWorkUnitPacker.MAX_MULTIWORKUNIT_LOAD), 8000, 1);
+  }
+
+  @Test
+  public void testPredictedDurationEstimator() {
+    KafkaPartition partition0 = new KafkaPartition.Builder().withTopicName(TOPIC).withId(0).build();
+    KafkaPartition partition1 = new KafkaPartition.Builder().withTopicName(TOPIC).withId(1).build();
+
+    // Partition 0 was split in two in the previous run, and was predicted to take 2 ms per record
+    WorkUnit previousWorkUnit = createWorkUnit(0, 0, 100);
+    previousWorkUnit.setProp(KafkaUtils.getPartitionPropName(TOPIC, 0) + "."
+        + KafkaPredictedDurationWorkUnitSizeEstimator.PREDICTED_RECORD_MILLIS, 2.0);
+    WorkUnitState previous0a = new WorkUnitState(previousWorkUnit);
+    KafkaUtils.setPartitionAvgRecordMillis(previous0a, partition0, 2.0);
+    WorkUnitState previous0b = new WorkUnitState(previousWorkUnit);
+    KafkaUtils.setPartitionAvgRecordMillis(previous0b, partition0, 8.0);
+    WorkUnitState previous1 = new WorkUnitState(createWorkUnit(1, 0, 100));
+    KafkaUtils.setPartitionAvgRecordMillis(previous1, partition1, 1.0);
+
+    SourceState state = new SourceState(new State(), Lists.newArrayList(previous0a, previous0b, previous1));
+    state.setProp(KafkaPredictedDurationWorkUnitSizeEstimator.SMOOTHING_FACTOR, 0.5);
+    state.setProp(KafkaPredictedDurationWorkUnitSizeEstimator.WORKUNIT_OVERHEAD_MILLIS, 10);
+    KafkaPredictedDurationWorkUnitSizeEstimator estimator = new KafkaPredictedDurationWorkUnitSizeEstimator(state);
+
+    // Observed 4 ms per record (geometric mean of 2 and 8), smoothed with the previous prediction of 2 ms
+    Assert.assertEquals(estimator.calcEstimatedSize(createWorkUnit(0, 100, 200)), 10 + 3.0 * 100, 0.001);
+    Assert.assertEquals(estimator.calcEstimatedSize(createWorkUnit(1, 100, 200)), 10 + 1.0 * 100, 0.001);
+    // A new partition of the topic uses the geometric mean of the topic
+    Assert.assertEquals(estimator.calcEstimatedSize(createWorkUnit(2, 100, 200)), 10 + Math.sqrt(3.0) * 100, 0.001);
+    Assert.assertEquals(estimator.calcEstimatedSize(createWorkUnit(3, 100, 100)), 0.0, 0.001);
+  }
+
+  private static WorkUnit createWorkUnit(int partitionId, long lowWatermark, long highWatermark) {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setProp(KafkaSource.TOPIC_NAME, TOPIC);
+    workUnit.setProp(KafkaSource.PARTITION_ID, partitionId);
+    workUnit.setProp(KafkaSource.LEADER_ID, 0);
+    workUnit.setProp(KafkaSource.LEADER_HOSTANDPORT, "localhost:9092");
+    workUnit.setProp(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY, lowWatermark);
+    workUnit.setProp(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY, highWatermark);
+    return workUnit;
+  }
+}
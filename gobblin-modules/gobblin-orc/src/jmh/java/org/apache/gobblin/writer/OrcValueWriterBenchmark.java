@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.gobblin.util.orc.AvroOrcSchemaConverter;
+
+
+/**
+ * Compares {@link GenericRecordToOrcValueWriter} and {@link CompiledGenericRecordToOrcValueWriter} filling a row
+ * batch, for a wide flat schema and for a nested schema with records, lists, maps and a union.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 3)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrcValueWriterBenchmark {
+  private static final int BATCH_SIZE = 1000;
+  private static final int WIDE_SCHEMA_FIELDS = 200;
+
+  @State(value = Scope.Thread)
+  public static class WriterState {
+    @Param({"wide", "nested"})
+    public String schemaType;
+
+    @Param({"generic", "compiled"})
+    public String writerType;
+
+    private OrcValueWriter<GenericRecord> valueWriter;
+    private VectorizedRowBatch rowBatch;
+    private List<GenericRecord> records;
+
+    @Setup
+    public void setup() {
+      Random random = new Random(1);
+      Schema schema = schemaType.equals("wide") ? buildWideSchema() : buildNestedSchema();
+      this.records = new ArrayList<>(BATCH_SIZE);
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        this.records.add(schemaType.equals("wide") ? buildWideRecord(schema, random)
+            : buildNestedRecord(schema, random));
+      }
+      TypeDescription orcSchema = AvroOrcSchemaConverter.getOrcSchema(schema);
+      this.valueWriter = writerType.equals("compiled") ? new CompiledGenericRecordToOrcValueWriter(orcSchema, schema)
+          : new GenericRecordToOrcValueWriter(orcSchema, schema);
+      this.rowBatch = orcSchema.createRowBatch(BATCH_SIZE);
+    }
+  }
+
+  @Benchmark
+  public VectorizedRowBatch writeBatch(WriterState state) throws IOException {
+    state.rowBatch.reset();
+    for (GenericRecord record : state.records) {
+      state.valueWriter.write(record, state.rowBatch);
+    }
+    return state.rowBatch;
+  }
+
+  private static Schema buildWideSchema() {
+    SchemaBuilder.FieldAssembler<Schema> fields = SchemaBuilder.record("Wide").fields();
+    for (int i = 0; i < WIDE_SCHEMA_FIELDS; i++) {
+      switch (i % 4) {
+        case 0:
+          fields = fields.optionalLong("long" + i);
+          break;
+        case 1:
+          fields = fields.optionalInt("int" + i);
+          break;
+        case 2:
+          fields = fields.optionalDouble("double" + i);
+          break;
+        default:
+          fields = fields.optionalString("string" + i);
+      }
+    }
+    return fields.endRecord();
+  }
+
+  private static GenericRecord buildWideRecord(Schema schema, Random random) {
+    GenericRecord record = new GenericData.Record(schema);
+    for (int i = 0; i < WIDE_SCHEMA_FIELDS; i++) {
+      switch (i % 4) {
+        case 0:
+          record.put(i, random.nextLong());
+          break;
+        case 1:
+          record.put(i, random.nextInt());
+          break;
+        case 2:
+          record.put(i, random.nextDouble());
+          break;
+        default:
+          record.put(i, new Utf8("value-" + random.nextInt(1000)));
+      }
+    }
+    return record;
+  }
+
+  private static Schema buildNestedSchema() {
+    Schema inner = SchemaBuilder.record("Inner").fields()
+        .requiredString("name")
+        .requiredLong("timestamp")
+        .name("tags").type().array().items().stringType().noDefault()
+        .endRecord();
+    return SchemaBuilder.record("Nested").fields()
+        .requiredLong("id")
+        .name("inner").type(inner).noDefault()
+        .name("items").type().array().items(inner).noDefault()
+        .name("attributes").type().map().values().longType().noDefault()
+        .name("value").type().unionOf().intType().and().stringType().endUnion().noDefault()
+        .endRecord();
+  }
+
+  private static GenericRecord buildNestedRecord(Schema schema, Random random) {
+    Schema innerSchema = schema.getField("inner").schema();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("id", random.nextLong());
+    record.put("inner", buildInnerRecord(innerSchema, random));
+    List<GenericRecord> items = new ArrayList<>();
+    for (int i = random.nextInt(8); i > 0; i--) {
+      items.add(buildInnerRecord(innerSchema, random));
+    }
+    record.put("items", items);
+    Map<Utf8, Long> attributes = new HashMap<>();
+    for (int i = random.nextInt(8); i > 0; i--) {
+      attributes.put(new Utf8("attribute-" + i), random.nextLong());
+    }
+    record.put("attributes", attributes);
+    record.put("value", random.nextBoolean() ? (Object) random.nextInt() : new Utf8("value-" + random.nextInt()));
+    return record;
+  }
+
+  private static GenericRecord buildInnerRecord(Schema schema, Random random) {
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("name", new Utf8("name-" + random.nextInt(1000)));
+    record.put("timestamp", random.nextLong());
+    List<Utf8> tags = new ArrayList<>();
+    for (int i = random.nextInt(4); i > 0; i--) {
+      tags.add(new Utf8("tag-" + i));
+    }
+    record.put("tags", tags);
+    return record;
+  }
+}
@@ -0,0 +1,462 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.storage.common.type.HiveDecimal;
+import org.apache.orc.storage.ql.exec.vector.BytesColumnVector;
+import org.apache.orc.storage.ql.exec.vector.ColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DecimalColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DoubleColumnVector;
+import org.apache.orc.storage.ql.exec.vector.ListColumnVector;
+import org.apache.orc.storage.ql.exec.vector.LongColumnVector;
+import org.apache.orc.storage.ql.exec.vector.MapColumnVector;
+import org.apache.orc.storage.ql.exec.vector.MultiValuedColumnVector;
+import org.apache.orc.storage.ql.exec.vector.StructColumnVector;
+import org.apache.orc.storage.ql.exec.vector.UnionColumnVector;
+import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.apache.gobblin.util.orc.AvroOrcSchemaConverter;
+
+
+/**
+ * An {@link OrcValueWriter} that compiles an Avro schema and its ORC {@link TypeDescription} once into a tree of
+ * {@link FieldWriter}s, instead of dispatching on the runtime type of every value as
+ * {@link GenericRecordToOrcValueWriter} does.
+ *
+ * <ul>
+ *   <li>Every writer is specialized on the Avro type of its field, e.g. enum symbols are looked up in a table of
+ *   pre-encoded bytes, and {@link Utf8} and {@link ByteBuffer} values are referenced without copying.</li>
+ *   <li>Record fields are read by position through {@link IndexedRecord#get(int)}. Numeric values are read through
+ *   {@link Number} without a cast per Avro type; Avro hands out boxed values, so no further unboxing is avoidable.</li>
+ *   <li>Union branches are resolved by the class of the value when the branches are distinguishable by class, falling
+ *   back to {@link GenericData#resolveUnion(Schema, Object)} otherwise.</li>
+ *   <li>The child vectors of lists and maps are sized once per batch from the average number of elements per row
+ *   seen in previous batches, so they rarely need to be enlarged row by row.</li>
+ * </ul>
+ */
+public class CompiledGenericRecordToOrcValueWriter implements OrcValueWriter<GenericRecord> {
+  public static final String ENABLED = GobblinBaseOrcWriter.ORC_WRITER_PREFIX + "compiledValueWriter";
+
+  private final FieldWriter[] fieldWriters;
+
+  // How many times a child vector had to be enlarged in the middle of a batch, for testing.
+  @VisibleForTesting
+  int resizeCount = 0;
+
+  public CompiledGenericRecordToOrcValueWriter(TypeDescription typeDescription, Schema avroSchema) {
+    if (typeDescription.getCategory() != TypeDescription.Category.STRUCT) {
+      throw new IllegalArgumentException("Top level must be a struct " + typeDescription);
+    }
+    this.fieldWriters = compileFields(typeDescription, avroSchema);
+  }
+
+  @Override
+  public void write(GenericRecord value, VectorizedRowBatch output)
+      throws IOException {
+    int row = output.size++;
+    for (int c = 0; c < this.fieldWriters.length; ++c) {
+      writeNullable(this.fieldWriters[c], value.get(c), output.cols[c], row);
+    }
+  }
+
+  private static void writeNullable(FieldWriter writer, Object value, ColumnVector output, int row) {
+    if (value == null) {
+      output.noNulls = false;
+      output.isNull[row] = true;
+    } else {
+      output.isNull[row] = false;
+      writer.write(value, output, row);
+    }
+  }
+
+  /**
+   * Writes a non-null value into a {@link ColumnVector} at a given row.
+   */
+  interface FieldWriter {
+    void write(Object value, ColumnVector output, int row);
+  }
+
+  private FieldWriter[] compileFields(TypeDescription struct, Schema recordSchema) {
+    List<TypeDescription> children = struct.getChildren();
+    FieldWriter[] writers = new FieldWriter[children.size()];
+    for (int c = 0; c < writers.length; ++c) {
+      writers[c] = compile(children.get(c), recordSchema.getFields().get(c).schema());
+    }
+    return writers;
+  }
+
+  private FieldWriter compile(TypeDescription orcType, Schema schema) {
+    Schema avroSchema = AvroOrcSchemaConverter.sanitizeNullableSchema(schema);
+    switch (orcType.getCategory()) {
+      case BOOLEAN:
+        return (value, output, row) -> ((LongColumnVector) output).vector[row] = (Boolean) value ? 1 : 0;
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        return (value, output, row) -> ((LongColumnVector) output).vector[row] = ((Number) value).longValue();
+      case FLOAT:
+      case DOUBLE:
+        return (value, output, row) -> ((DoubleColumnVector) output).vector[row] = ((Number) value).doubleValue();
+      case STRING:
+      case CHAR:
+      case VARCHAR:
+        return avroSchema.getType() == Schema.Type.ENUM ? new EnumWriter(avroSchema) : new StringWriter();
+      case BINARY:
+        return avroSchema.getType() == Schema.Type.FIXED ? new FixedWriter() : new BytesWriter();
+      case DECIMAL:
+        return new DecimalWriter(orcType.getScale());
+      case STRUCT:
+        return new StructWriter(compileFields(orcType, avroSchema));
+      case LIST:
+        return new ListWriter(compile(orcType.getChildren().get(0), avroSchema.getElementType()));
+      case MAP:
+        return new MapWriter(new StringWriter(), compile(orcType.getChildren().get(1), avroSchema.getValueType()));
+      case UNION:
+        return compileUnion(orcType, avroSchema);
+      default:
+        throw new IllegalArgumentException("Unhandled type " + orcType);
+    }
+  }
+
+  private FieldWriter compileUnion(TypeDescription orcType, Schema avroSchema) {
+    List<TypeDescription> orcBranches = orcType.getChildren();
+    if (avroSchema.getType() != Schema.Type.UNION || orcBranches.isEmpty()) {
+      // The Avro null type is an empty ORC union, whose values are always null
+      return (value, output, row) -> {
+        output.noNulls = false;
+        output.isNull[row] = true;
+      };
+    }
+    FieldWriter[] branches = new FieldWriter[orcBranches.size()];
+    Class<?>[] branchClasses = new Class<?>[branches.length];
+    // Branches whose values have no specific class, i.e. records, enums and fixed. One of them can still be
+    // resolved by class, as the branch taking whatever no other branch does.
+    int numUntypedBranches = 0;
+    boolean distinguishable = true;
+    for (int b = 0; b < branches.length; ++b) {
+      Schema branchSchema = avroSchema.getTypes().get(b);
+      branches[b] = compile(orcBranches.get(b), branchSchema);
+      branchClasses[b] = getValueClass(branchSchema);
+      if (branchClasses[b] == Object.class) {
+        numUntypedBranches++;
+        continue;
+      }
+      for (int other = 0; other < b; ++other) {
+        if (branchClasses[other] != Object.class && (branchClasses[b].isAssignableFrom(branchClasses[other])
+            || branchClasses[other].isAssignableFrom(branchClasses[b]))) {
+          distinguishable = false;
+        }
+      }
+    }
+    return new UnionWriter(avroSchema, branches,
+        distinguishable && numUntypedBranches <= 1 ? branchClasses : null);
+  }
+
+  /**
+   * @return the class every generic Avro value of the given schema is an instance of.
+   */
+  private static Class<?> getValueClass(Schema schema) {
+    switch (schema.getType()) {
+      case BOOLEAN:
+        return Boolean.class;
+      case INT:
+        return Integer.class;
+      case LONG:
+        return Long.class;
+      case FLOAT:
+        return Float.class;
+      case DOUBLE:
+        return Double.class;
+      case STRING:
+        return CharSequence.class;
+      case BYTES:
+        return ByteBuffer.class;
+      case ARRAY:
+        return Collection.class;
+      case MAP:
+        return Map.class;
+      default:
+        // Records, enums and fixed of different names share a class
+        return Object.class;
+    }
+  }
+
+  static class StringWriter implements FieldWriter {
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      if (value instanceof Utf8) {
+        Utf8 utf8 = (Utf8) value;
+        ((BytesColumnVector) output).setRef(row, utf8.getBytes(), 0, utf8.getByteLength());
+      } else {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        ((BytesColumnVector) output).setRef(row, bytes, 0, bytes.length);
+      }
+    }
+  }
+
+  static class EnumWriter implements FieldWriter {
+    private final Schema enumSchema;
+    private final byte[][] symbols;
+
+    EnumWriter(Schema enumSchema) {
+      this.enumSchema = enumSchema;
+      List<String> symbolNames = enumSchema.getEnumSymbols();
+      this.symbols = new byte[symbolNames.size()][];
+      for (int i = 0; i < this.symbols.length; ++i) {
+        this.symbols[i] = symbolNames.get(i).getBytes(StandardCharsets.UTF_8);
+      }
+    }
+
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      String symbol = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+      byte[] bytes = this.symbols[this.enumSchema.getEnumOrdinal(symbol)];
+      ((BytesColumnVector) output).setRef(row, bytes, 0, bytes.length);
+    }
+  }
+
+  static class FixedWriter implements FieldWriter {
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      byte[] bytes = ((GenericFixed) value).bytes();
+      ((BytesColumnVector) output).setRef(row, bytes, 0, bytes.length);
+    }
+  }
+
+  static class BytesWriter implements FieldWriter {
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      if (value instanceof byte[]) {
+        byte[] bytes = (byte[]) value;
+        ((BytesColumnVector) output).setRef(row, bytes, 0, bytes.length);
+        return;
+      }
+      ByteBuffer buffer = (ByteBuffer) value;
+      if (buffer.hasArray()) {
+        ((BytesColumnVector) output).setRef(row, buffer.array(), buffer.arrayOffset() + buffer.position(),
+            buffer.remaining());
+      } else {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        ((BytesColumnVector) output).setRef(row, bytes, 0, bytes.length);
+      }
+    }
+  }
+
+  static class DecimalWriter implements FieldWriter {
+    private final int scale;
+
+    DecimalWriter(int scale) {
+      this.scale = scale;
+    }
+
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      buffer.rewind();
+      byte[] unscaled = new byte[buffer.limit()];
+      buffer.get(unscaled);
+      ((DecimalColumnVector) output).vector[row].set(HiveDecimal.create(new BigInteger(unscaled), this.scale));
+    }
+  }
+
+  static class StructWriter implements FieldWriter {
+    private final FieldWriter[] fields;
+
+    StructWriter(FieldWriter[] fields) {
+      this.fields = fields;
+    }
+
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      IndexedRecord record = (IndexedRecord) value;
+      ColumnVector[] fieldVectors = ((StructColumnVector) output).fields;
+      for (int c = 0; c < this.fields.length; ++c) {
+        writeNullable(this.fields[c], record.get(c), fieldVectors[c], row);
+      }
+    }
+  }
+
+  static class UnionWriter implements FieldWriter {
+    private final Schema unionSchema;
+    private final FieldWriter[] branches;
+    // Null if the branches cannot be told apart by the class of a value
+    private final Class<?>[] branchClasses;
+
+    UnionWriter(Schema unionSchema, FieldWriter[] branches, Class<?>[] branchClasses) {
+      this.unionSchema = unionSchema;
+      this.branches = branches;
+      this.branchClasses = branchClasses;
+    }
+
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      UnionColumnVector cv = (UnionColumnVector) output;
+      int tag = resolveBranch(value);
+      for (int b = 0; b < this.branches.length; ++b) {
+        if (b == tag) {
+          cv.fields[b].isNull[row] = false;
+          cv.tags[row] = b;
+          this.branches[b].write(value, cv.fields[b], row);
+        } else {
+          cv.fields[b].noNulls = false;
+          cv.fields[b].isNull[row] = true;
+        }
+      }
+    }
+
+    private int resolveBranch(Object value) {
+      if (this.branchClasses != null) {
+        int untypedBranch = -1;
+        for (int b = 0; b < this.branchClasses.length; ++b) {
+          if (this.branchClasses[b] == Object.class) {
+            untypedBranch = b;
+          } else if (this.branchClasses[b].isInstance(value)) {
+            return b;
+          }
+        }
+        if (untypedBranch >= 0) {
+          return untypedBranch;
+        }
+      }
+      return GenericData.get().resolveUnion(this.unionSchema, value);
+    }
+  }
+
+  /**
+   * Base for lists and maps, keeping track of the average number of elements per row to size the child vectors of
+   * the next batch.
+   */
+  abstract class MultiValuedWriter implements FieldWriter {
+    private long rowsWritten;
+    private long elementsWritten;
+
+    /**
+     * Reserve room for {@code numElements} more children and return the offset of the first one.
+     */
+    int addElements(MultiValuedColumnVector cv, int row, int numElements) {
+      if (cv.childCount == 0 && this.rowsWritten > 0) {
+        // First row of a new batch: size the children for the whole batch based on previous batches
+        long expected = (this.elementsWritten * cv.isNull.length + this.rowsWritten - 1) / this.rowsWritten;
+        ensureChildSize((int) Math.min(Integer.MAX_VALUE, expected), false, cv);
+      }
+      int offset = (int) cv.childCount;
+      cv.offsets[row] = offset;
+      cv.lengths[row] = numElements;
+      cv.childCount += numElements;
+      if (cv.childCount > getChildCapacity(cv)) {
+        resizeCount++;
+        ensureChildSize((int) Math.max(cv.childCount, 2L * getChildCapacity(cv)), true, cv);
+      }
+      this.rowsWritten++;
+      this.elementsWritten += numElements;
+      return offset;
+    }
+
+    abstract int getChildCapacity(MultiValuedColumnVector cv);
+
+    abstract void ensureChildSize(int size, boolean preserveData, MultiValuedColumnVector cv);
+  }
+
+  class ListWriter extends MultiValuedWriter {
+    private final FieldWriter elementWriter;
+
+    ListWriter(FieldWriter elementWriter) {
+      this.elementWriter = elementWriter;
+    }
+
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      ListColumnVector cv = (ListColumnVector) output;
+      if (value instanceof List) {
+        List<?> list = (List<?>) value;
+        int offset = addElements(cv, row, list.size());
+        for (int e = 0; e < list.size(); ++e) {
+          writeNullable(this.elementWriter, list.get(e), cv.child, offset + e);
+        }
+      } else {
+        Collection<?> collection = (Collection<?>) value;
+        int offset = addElements(cv, row, collection.size());
+        for (Object element : collection) {
+          writeNullable(this.elementWriter, element, cv.child, offset++);
+        }
+      }
+    }
+
+    @Override
+    int getChildCapacity(MultiValuedColumnVector cv) {
+      return ((ListColumnVector) cv).child.isNull.length;
+    }
+
+    @Override
+    void ensureChildSize(int size, boolean preserveData, MultiValuedColumnVector cv) {
+      ((ListColumnVector) cv).child.ensureSize(size, preserveData);
+    }
+  }
+
+  class MapWriter extends MultiValuedWriter {
+    private final FieldWriter keyWriter;
+    private final FieldWriter valueWriter;
+
+    MapWriter(FieldWriter keyWriter, FieldWriter valueWriter) {
+      this.keyWriter = keyWriter;
+      this.valueWriter = valueWriter;
+    }
+
+    @Override
+    public void write(Object value, ColumnVector output, int row) {
+      MapColumnVector cv = (MapColumnVector) output;
+      Map<?, ?> map = (Map<?, ?>) value;
+      int offset = addElements(cv, row, map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeNullable(this.keyWriter, entry.getKey(), cv.keys, offset);
+        writeNullable(this.valueWriter, entry.getValue(), cv.values, offset);
+        offset++;
+      }
+    }
+
+    @Override
+    int getChildCapacity(MultiValuedColumnVector cv) {
+      return ((MapColumnVector) cv).keys.isNull.length;
+    }
+
+    @Override
+    void ensureChildSize(int size, boolean preserveData, MultiValuedColumnVector cv) {
+      ((MapColumnVector) cv).keys.ensureSize(size, preserveData);
+      ((MapColumnVector) cv).values.ensureSize(size, preserveData);
+    }
+  }
+}
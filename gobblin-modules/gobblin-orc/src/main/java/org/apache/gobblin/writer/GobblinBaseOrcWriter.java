@@ -19,6 +19,12 @@ package org.apache.gobblin.writer;
 
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.serde2.SerDeException;
@@ -38,11 +44,13 @@ import org.apache.orc.storage.ql.exec.vector.UnionColumnVector;
 import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.gobblin.configuration.State;
 import org.apache.gobblin.state.ConstructState;
+import org.apache.gobblin.util.ExecutorsUtils;
 
 import static org.apache.gobblin.configuration.ConfigurationKeys.AVG_RECORD_SIZE;
 
@@ -88,11 +96,32 @@ public abstract class GobblinBaseOrcWriter<S, D> extends FsDataWriter<D> {
    */
   private static final String ORC_WRITER_DEEP_CLEAN_EVERY_BATCH = ORC_WRITER_PREFIX + "deepCleanBatch";
 
+  /**
+   * When enabled, full row batches are encoded into the ORC file by a dedicated thread while the task thread fills the
+   * next batch. At most {@link #ORC_WRITER_PIPELINED_NUM_BATCHES} row batches are held in memory; the memory of the
+   * batches beyond the first one is reserved in the shared {@link GobblinOrcMemoryManager}.
+   */
+  public static final String ORC_WRITER_PIPELINED = ORC_WRITER_PREFIX + "pipelined";
+  public static final String ORC_WRITER_PIPELINED_NUM_BATCHES = ORC_WRITER_PREFIX + "pipelined.numBatches";
+  public static final int DEFAULT_ORC_WRITER_PIPELINED_NUM_BATCHES = 2;
+
   private final OrcValueWriter<D> valueWriter;
+  // The batch being filled by the task thread. In pipelined mode it is swapped with a free batch once full.
   @VisibleForTesting
-  final VectorizedRowBatch rowBatch;
+  VectorizedRowBatch rowBatch;
   private final Writer orcFileWriter;
 
+  private final boolean pipelined;
+  // The following fields are only set in pipelined mode
+  private ExecutorService encoder;
+  private BlockingQueue<VectorizedRowBatch> freeBatches;
+  private Future<?> lastEncode;
+  private volatile Throwable encodeFailure;
+  // Rows handed over to the encoder thread; the ORC file writer itself must only be touched by that thread
+  private volatile long rowsSubmitted = 0;
+  private GobblinOrcMemoryManager memoryManager;
+  private long reservedBatchMemory;
+
   // the close method may be invoked multiple times, but the underlying writer only supports close being called once
   private volatile boolean closed = false;
   private final boolean deepCleanBatch;
@@ -172,9 +201,30 @@ public abstract class GobblinBaseOrcWriter<S, D> extends FsDataWriter<D> {
     OrcFile.WriterOptions options = OrcFile.writerOptions(properties.getProperties(), conf);
     options.setSchema(typeDescription);
 
+    this.pipelined = properties.getPropAsBoolean(ORC_WRITER_PIPELINED, false);
+    if (this.pipelined) {
+      this.memoryManager = GobblinOrcMemoryManager.getSharedInstance(conf);
+      options.memory(this.memoryManager);
+    }
+
     // For buffer-writer, flush has to be executed before close so it is better we maintain the life-cycle of fileWriter
     // instead of delegating it to closer object in FsDataWriter.
     this.orcFileWriter = OrcFile.createWriter(this.stagingFile, options);
+
+    if (this.pipelined) {
+      int numBatches = Math.max(2,
+          properties.getPropAsInt(ORC_WRITER_PIPELINED_NUM_BATCHES, DEFAULT_ORC_WRITER_PIPELINED_NUM_BATCHES));
+      this.freeBatches = new ArrayBlockingQueue<>(numBatches - 1);
+      for (int i = 1; i < numBatches; i++) {
+        this.freeBatches.add(typeDescription.createRowBatch(this.batchSize));
+      }
+      this.reservedBatchMemory = (numBatches - 1) * this.batchSize * getEstimatedRecordSize(properties);
+      this.memoryManager.reserveRowBatchMemory(this.stagingFile, this.reservedBatchMemory);
+      this.encoder = Executors.newSingleThreadExecutor(
+          ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("OrcRowBatchEncoder-%d")));
+      log.info("Pipelined ORC writer with " + numBatches + " row batches, reserved " + this.reservedBatchMemory
+          + " bytes for the batches waiting to be encoded");
+    }
   }
 
   /**
@@ -197,7 +247,7 @@ public abstract class GobblinBaseOrcWriter<S, D> extends FsDataWriter<D> {
 
   @Override
   public long recordsWritten() {
-    return this.orcFileWriter.getNumberOfRows();
+    return this.pipelined ? this.rowsSubmitted : this.orcFileWriter.getNumberOfRows();
   }
 
   @Override
@@ -216,9 +266,19 @@ public abstract class GobblinBaseOrcWriter<S, D> extends FsDataWriter<D> {
     return state;
   }
 
+  /**
+   * In pipelined mode, returns only after all buffered row batches have been encoded into the ORC file writer.
+   */
   @Override
   public void flush()
       throws IOException {
+    if (this.pipelined) {
+      if (rowBatch.size > 0) {
+        submitRowBatch();
+      }
+      waitForEncoder();
+      return;
+    }
     if (rowBatch.size > 0) {
       orcFileWriter.addRowBatch(rowBatch);
       rowBatch.reset();
@@ -228,10 +288,76 @@ public abstract class GobblinBaseOrcWriter<S, D> extends FsDataWriter<D> {
     }
   }
 
+  /**
+   * Hand the full {@link #rowBatch} over to the encoder thread and continue with a free batch, blocking while all
+   * batches are waiting to be encoded.
+   */
+  private void submitRowBatch()
+      throws IOException {
+    checkEncodeFailure();
+    final VectorizedRowBatch fullBatch = this.rowBatch;
+    this.rowsSubmitted += fullBatch.size;
+    this.lastEncode = this.encoder.submit(() -> encodeRowBatch(fullBatch));
+    try {
+      this.rowBatch = this.freeBatches.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a row batch to be encoded", e);
+    }
+  }
+
+  private void encodeRowBatch(VectorizedRowBatch batch) {
+    try {
+      // Once a batch failed, the ORC file is incomplete and later batches are dropped
+      if (this.encodeFailure == null) {
+        this.orcFileWriter.addRowBatch(batch);
+      }
+    } catch (Throwable t) {
+      log.error("Failed to encode a row batch into " + this.stagingFile, t);
+      this.encodeFailure = t;
+    } finally {
+      batch.reset();
+      if (deepCleanBatch) {
+        deepCleanRowBatch(batch);
+      }
+      this.freeBatches.add(batch);
+    }
+  }
+
+  private void waitForEncoder()
+      throws IOException {
+    if (this.lastEncode != null) {
+      try {
+        // The encoder is single-threaded, so all earlier batches are done once the last one is
+        this.lastEncode.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for row batches to be encoded", e);
+      } catch (ExecutionException e) {
+        throw new IOException(e.getCause());
+      }
+    }
+    checkEncodeFailure();
+  }
+
+  private void checkEncodeFailure()
+      throws IOException {
+    if (this.encodeFailure != null) {
+      throw new IOException("Failed to encode row batches into " + this.stagingFile, this.encodeFailure);
+    }
+  }
+
   private synchronized void closeInternal()
       throws IOException {
     if (!closed) {
-      this.flush();
+      try {
+        this.flush();
+      } finally {
+        if (this.pipelined) {
+          ExecutorsUtils.shutdownExecutorService(this.encoder, Optional.of(log));
+          this.memoryManager.releaseRowBatchMemory(this.stagingFile);
+        }
+      }
       this.orcFileWriter.close();
       this.closed = true;
     } else {
@@ -270,6 +396,10 @@ public abstract class GobblinBaseOrcWriter<S, D> extends FsDataWriter<D> {
       throws IOException {
     valueWriter.write(record, rowBatch);
     if (rowBatch.size == this.batchSize) {
+      if (this.pipelined) {
+        submitRowBatch();
+        return;
+      }
       orcFileWriter.addRowBatch(rowBatch);
       rowBatch.reset();
       if (deepCleanBatch) {
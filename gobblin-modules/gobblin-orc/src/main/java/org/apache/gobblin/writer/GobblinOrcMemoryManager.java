@@ -31,6 +31,8 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public class GobblinOrcMemoryManager extends MemoryManagerImpl {
+  private static GobblinOrcMemoryManager sharedInstance;
+
   public GobblinOrcMemoryManager(Configuration conf) {
     super(conf);
     log.info("The pool reserved for memory manager is :{}", getTotalMemoryPool());
@@ -49,4 +51,33 @@ public class GobblinOrcMemoryManager extends MemoryManagerImpl {
     super.removeWriter(path);
     log.info("Closing writer for Path {}, Current allocation: {}", path.toString(), getAllocationScale());
   }
+
+  /**
+   * Get a memory manager shared by all writers in this JVM that opt into it, so that their allocations are scaled
+   * against a single memory pool.
+   */
+  public static synchronized GobblinOrcMemoryManager getSharedInstance(Configuration conf) {
+    if (sharedInstance == null) {
+      sharedInstance = new GobblinOrcMemoryManager(conf);
+    }
+    return sharedInstance;
+  }
+
+  /**
+   * Account for memory held by a writer outside of the ORC file writer, e.g. row batches waiting to be encoded.
+   * The reservation shrinks the allocation of all other writers of this memory manager until it is released.
+   */
+  public void reserveRowBatchMemory(Path path, long bytes)
+      throws IOException {
+    addWriter(getRowBatchReservationPath(path), bytes, newScale -> false);
+  }
+
+  public void releaseRowBatchMemory(Path path)
+      throws IOException {
+    removeWriter(getRowBatchReservationPath(path));
+  }
+
+  private static Path getRowBatchReservationPath(Path path) {
+    return new Path(path.getParent(), path.getName() + ".rowBatches");
+  }
 }
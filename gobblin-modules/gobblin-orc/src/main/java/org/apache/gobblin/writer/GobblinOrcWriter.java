@@ -50,6 +50,9 @@ public class GobblinOrcWriter extends GobblinBaseOrcWriter<Schema, GenericRecord
   @Override
   protected OrcValueWriter<GenericRecord> getOrcValueWriter(TypeDescription typeDescription, Schema inputSchema,
       State state) {
+    if (state.getPropAsBoolean(CompiledGenericRecordToOrcValueWriter.ENABLED, false)) {
+      return new CompiledGenericRecordToOrcValueWriter(typeDescription, this.inputSchema);
+    }
     return new GenericRecordToOrcValueWriter(typeDescription, this.inputSchema, this.properties);
   }
 
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Writable;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+import org.apache.gobblin.util.orc.AvroOrcSchemaConverter;
+
+import static org.apache.gobblin.writer.GenericRecordToOrcValueWriterTest.deserializeOrcRecords;
+
+
+public class CompiledGenericRecordToOrcValueWriterTest {
+
+  @DataProvider(name = "testResources")
+  public Object[][] testResources() {
+    return new Object[][]{{"union_test"}, {"decimal_test"}, {"list_map_test"}, {"orc_writer_list_test"},
+        {"orc_writer_test"}};
+  }
+
+  /**
+   * The compiled writer has to produce the same ORC records as {@link GenericRecordToOrcValueWriter}.
+   */
+  @Test(dataProvider = "testResources")
+  public void testSameOutputAsGenericWriter(String resource) throws Exception {
+    Schema schema = new Schema.Parser().parse(
+        this.getClass().getClassLoader().getResourceAsStream(resource + "/schema.avsc"));
+    List<GenericRecord> recordList =
+        GobblinOrcWriterTest.deserializeAvroRecords(this.getClass(), schema, resource + "/data.json");
+    TypeDescription orcSchema = AvroOrcSchemaConverter.getOrcSchema(schema);
+
+    List<Writable> expected =
+        writeAndRead(orcSchema, new GenericRecordToOrcValueWriter(orcSchema, schema), recordList);
+    List<Writable> actual =
+        writeAndRead(orcSchema, new CompiledGenericRecordToOrcValueWriter(orcSchema, schema), recordList);
+    Assert.assertEquals(actual.toString(), expected.toString());
+  }
+
+  @Test
+  public void testChildVectorsSizedFromPreviousBatches() throws Exception {
+    Schema schema = new Schema.Parser().parse(
+        this.getClass().getClassLoader().getResourceAsStream("list_map_test/schema.avsc"));
+    List<GenericRecord> recordList =
+        GobblinOrcWriterTest.deserializeAvroRecords(this.getClass(), schema, "list_map_test/data.json");
+    TypeDescription orcSchema = AvroOrcSchemaConverter.getOrcSchema(schema);
+    CompiledGenericRecordToOrcValueWriter valueWriter = new CompiledGenericRecordToOrcValueWriter(orcSchema, schema);
+    VectorizedRowBatch rowBatch = orcSchema.createRowBatch(10);
+
+    for (GenericRecord record : recordList) {
+      valueWriter.write(record, rowBatch);
+    }
+    // Only the first batch has to grow the list and the map children row by row
+    Assert.assertEquals(valueWriter.resizeCount, 2);
+
+    rowBatch.reset();
+    for (GenericRecord record : recordList) {
+      valueWriter.write(record, rowBatch);
+    }
+    Assert.assertEquals(valueWriter.resizeCount, 2);
+  }
+
+  private static List<Writable> writeAndRead(TypeDescription orcSchema, OrcValueWriter<GenericRecord> valueWriter,
+      List<GenericRecord> records) throws Exception {
+    VectorizedRowBatch rowBatch = orcSchema.createRowBatch();
+    for (GenericRecord record : records) {
+      valueWriter.write(record, rowBatch);
+    }
+
+    File tempFile = new File(Files.createTempDir(), "orc");
+    tempFile.deleteOnExit();
+    Path filePath = new Path(tempFile.getAbsolutePath());
+    OrcFile.WriterOptions options = OrcFile.writerOptions(new Properties(), new Configuration());
+    options.setSchema(orcSchema);
+    Writer orcFileWriter = OrcFile.createWriter(filePath, options);
+    orcFileWriter.addRowBatch(rowBatch);
+    orcFileWriter.close();
+    return deserializeOrcRecords(filePath, FileSystem.get(new Configuration()));
+  }
+}
@@ -210,4 +210,49 @@ public class GobblinOrcWriterTest {
       Assert.fail();
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testPipelinedWrite() throws Exception {
+    Schema schema =
+        new Schema.Parser().parse(this.getClass().getClassLoader().getResourceAsStream("orc_writer_test/schema.avsc"));
+    List<GenericRecord> recordList = deserializeAvroRecords(this.getClass(), schema, "orc_writer_test/data.json");
+
+    FsDataWriterBuilder<Schema, GenericRecord> mockBuilder =
+        (FsDataWriterBuilder<Schema, GenericRecord>) Mockito.mock(FsDataWriterBuilder.class);
+    when(mockBuilder.getSchema()).thenReturn(schema);
+
+    State dummyState = new WorkUnit();
+    String stagingDir = Files.createTempDir().getAbsolutePath();
+    String outputDir = Files.createTempDir().getAbsolutePath();
+    dummyState.setProp(ConfigurationKeys.WRITER_STAGING_DIR, stagingDir);
+    dummyState.setProp(ConfigurationKeys.WRITER_FILE_PATH, "pipelined");
+    dummyState.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, outputDir);
+    dummyState.setProp(GobblinOrcWriter.ORC_WRITER_PIPELINED, true);
+    // Every record fills a batch, so the writer keeps handing batches to the encoder thread
+    dummyState.setProp(GobblinOrcWriter.ORC_WRITER_BATCH_SIZE, 1);
+    when(mockBuilder.getFileName(dummyState)).thenReturn("file");
+    Path outputFilePath = new Path(outputDir, "pipelined/file");
+
+    Closer closer = Closer.create();
+    GobblinOrcWriter orcWriter = closer.register(new GobblinOrcWriter(mockBuilder, dummyState));
+    for (int i = 0; i < 10; i++) {
+      for (GenericRecord record : recordList) {
+        orcWriter.write(record);
+      }
+    }
+
+    // Rows handed to the encoder thread are counted, whether or not they are encoded yet
+    Assert.assertEquals(orcWriter.recordsWritten(), 10 * recordList.size());
+
+    // Flush waits for all batches handed to the encoder thread
+    orcWriter.flush();
+    Assert.assertEquals(orcWriter.recordsWritten(), 10 * recordList.size());
+    Assert.assertEquals(orcWriter.rowBatch.size, 0);
+
+    orcWriter.commit();
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    Assert.assertTrue(fs.exists(outputFilePath));
+    Assert.assertEquals(deserializeOrcRecords(outputFilePath, fs).size(), 10 * recordList.size());
+    closer.close();
+  }
+}
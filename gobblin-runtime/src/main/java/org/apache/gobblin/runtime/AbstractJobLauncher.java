@@ -26,6 +26,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -51,6 +52,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -557,12 +559,21 @@ public abstract class AbstractJobLauncher implements JobLauncher {
             public void forWorkUnit(WorkUnit workUnit) {
               jobState.incrementTaskCount();
               jobState.addTaskState(new TaskState(new WorkUnitState(workUnit, jobState)));
+              AbstractJobLauncher.this.jobContext.addTaskOfDataset(workUnit);
             }
           });
 
-          // If it is a streaming source, workunits cannot be counted
-          this.jobContext.getJobState().setProp(NUM_WORKUNITS,
-              workUnitStream.isSafeToMaterialize() ? workUnitStream.getMaterializedWorkUnitCollection().size() : 0);
+          if (workUnitStream.isFiniteStream() && jobState.getPropAsBoolean(
+              ConfigurationKeys.WORK_UNIT_PIPELINED_DISPATCH_ENABLED,
+              ConfigurationKeys.DEFAULT_WORK_UNIT_PIPELINED_DISPATCH_ENABLED)) {
+            // Work units are counted as the launcher consumes them, so the stream is not materialized upfront
+            this.jobContext.getJobState().setProp(NUM_WORKUNITS, 0);
+            workUnitStream = countWorkUnitsAtEndOfStream(workUnitStream);
+          } else {
+            // If it is a streaming source, workunits cannot be counted
+            this.jobContext.getJobState().setProp(NUM_WORKUNITS,
+                workUnitStream.isSafeToMaterialize() ? workUnitStream.getMaterializedWorkUnitCollection().size() : 0);
+          }
 
           // dump the work unit if tracking logs are enabled
           if (jobState.getPropAsBoolean(ConfigurationKeys.WORK_UNIT_ENABLE_TRACKING_LOGS)) {
@@ -785,6 +796,32 @@ public abstract class AbstractJobLauncher implements JobLauncher {
     runWorkUnits(materializeWorkUnitList(workUnitStream));
   }
 
+  /**
+   * Wrap a finite {@link WorkUnitStream} so that {@link #NUM_WORKUNITS} is set once the launcher has consumed all of
+   * its {@link WorkUnit}s, without materializing the stream.
+   */
+  private WorkUnitStream countWorkUnitsAtEndOfStream(WorkUnitStream workUnitStream) {
+    final Iterator<WorkUnit> workUnits = workUnitStream.getWorkUnits();
+    final JobState jobState = this.jobContext.getJobState();
+    Iterator<WorkUnit> countingWorkUnits = new AbstractIterator<WorkUnit>() {
+      private int numWorkUnits = 0;
+
+      @Override
+      protected WorkUnit computeNext() {
+        if (workUnits.hasNext()) {
+          this.numWorkUnits++;
+          return workUnits.next();
+        }
+        LOG.info(String.format("All %d work units of job %s have been created", this.numWorkUnits,
+            jobState.getJobId()));
+        jobState.setProp(NUM_WORKUNITS, this.numWorkUnits);
+        return endOfData();
+      }
+    };
+    return new BasicWorkUnitStream.Builder(countingWorkUnits).setFiniteStream(true)
+        .setSafeToMaterialize(workUnitStream.isSafeToMaterialize()).build();
+  }
+
   /**
    * Materialize a {@link WorkUnitStream} into an in-memory list. Note that infinite work unit streams cannot be materialized.
    */
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.gobblin.annotation.Alias;
+
+
+/**
+ * A {@link TaskExecutorQueue} that keeps one FIFO queue per job and shares the task executor threads between jobs.
+ *
+ * <p>
+ *   The next task comes from the job with the highest priority that has queued tasks. Among jobs of that priority, the
+ *   job with the fewest running tasks relative to its weight goes first, and ties go to the job whose oldest task has
+ *   waited longest. A job that already runs its maximum number of concurrent tasks is skipped until one of its tasks
+ *   finishes.
+ * </p>
+ */
+@Alias("fairShare")
+public class FairShareTaskExecutorQueue implements TaskExecutorQueue {
+
+  private final Map<String, JobQueue> jobQueues = new LinkedHashMap<>();
+  private int size = 0;
+
+  @Override
+  public void add(Entry entry) {
+    JobQueue jobQueue = this.jobQueues.get(entry.getJobId());
+    if (jobQueue == null) {
+      jobQueue = new JobQueue();
+      this.jobQueues.put(entry.getJobId(), jobQueue);
+    }
+    jobQueue.queued.add(entry);
+    this.size++;
+  }
+
+  @Override
+  public Entry poll() {
+    JobQueue next = null;
+    for (JobQueue jobQueue : this.jobQueues.values()) {
+      if (jobQueue.isEligible() && (next == null || jobQueue.goesBefore(next))) {
+        next = jobQueue;
+      }
+    }
+    if (next == null) {
+      return null;
+    }
+    next.running++;
+    this.size--;
+    return next.queued.poll();
+  }
+
+  @Override
+  public void onTaskFinished(Entry entry) {
+    JobQueue jobQueue = this.jobQueues.get(entry.getJobId());
+    if (jobQueue == null) {
+      return;
+    }
+    jobQueue.running--;
+    if (jobQueue.running <= 0 && jobQueue.queued.isEmpty()) {
+      this.jobQueues.remove(entry.getJobId());
+    }
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return the number of jobs with queued or running tasks
+   */
+  int getNumberOfJobs() {
+    return this.jobQueues.size();
+  }
+
+  private static class JobQueue {
+    private final Deque<Entry> queued = new ArrayDeque<>();
+    private int running = 0;
+
+    private boolean isEligible() {
+      if (this.queued.isEmpty()) {
+        return false;
+      }
+      int maxConcurrentTasks = this.queued.peek().getMaxConcurrentTasks();
+      return maxConcurrentTasks <= 0 || this.running < maxConcurrentTasks;
+    }
+
+    /**
+     * Whether this job should get the next thread before the other job. Both jobs must be eligible.
+     */
+    private boolean goesBefore(JobQueue other) {
+      Entry head = this.queued.peek();
+      Entry otherHead = other.queued.peek();
+      if (head.getPriority() != otherHead.getPriority()) {
+        return head.getPriority() > otherHead.getPriority();
+      }
+      int share = Double.compare(this.running / weight(head), other.running / weight(otherHead));
+      if (share != 0) {
+        return share < 0;
+      }
+      return head.getEnqueueTime() < otherHead.getEnqueueTime();
+    }
+
+    private static double weight(Entry entry) {
+      return entry.getWeight() > 0 ? entry.getWeight() : 1.0;
+    }
+  }
+}
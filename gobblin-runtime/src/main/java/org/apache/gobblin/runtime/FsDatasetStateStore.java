@@ -17,13 +17,18 @@
 
 package org.apache.gobblin.runtime;
 
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -32,15 +37,18 @@ import java.util.stream.Stream;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.DefaultCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
@@ -50,6 +58,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.io.Closer;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigValue;
 
@@ -64,6 +73,7 @@ import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.Either;
 import org.apache.gobblin.util.ExecutorsUtils;
+import org.apache.gobblin.util.HadoopUtils;
 import org.apache.gobblin.util.WritableShimSerialization;
 import org.apache.gobblin.util.executors.IteratorExecutor;
 import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
@@ -85,14 +95,31 @@ import org.apache.gobblin.util.hadoop.GobblinSequenceFileReader;
  *   backward compatibility.
  * </p>
  *
+ * <p>
+ *   If {@link ConfigurationKeys#STATE_STORE_LATEST_DATASET_STATES_INDEX_ENABLED} is set, the store also keeps the
+ *   latest state of every dataset of a job in an index. Each job run appends the dataset states it persists to a new
+ *   index segment, and {@link #flushDatasetStates(String)} adds the segment to the index manifest,
+ *   {@link #LATEST_DATASET_STATES_INDEX_NAME}, by swapping in a new manifest. Once the manifest lists more than
+ *   {@link ConfigurationKeys#STATE_STORE_LATEST_DATASET_STATES_INDEX_MAX_SEGMENTS} segments, they are compacted into
+ *   one. The per-dataset files stay the source of truth: {@link #getLatestDatasetStatesByUrns(String)} only uses an
+ *   index entry if the dataset's {@code current} file is not newer than the segment holding the entry, and reads the
+ *   other datasets from their own files.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> implements DatasetStateStore<JobState.DatasetState> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FsDatasetStateStore.class);
+  public static final String LATEST_DATASET_STATES_INDEX_NAME = "_latest_dataset_states.idx";
   private int threadPoolOfGettingDatasetState;
   private static final long CACHE_SIZE = 100;
   private LoadingCache<Path, DatasetUrnStateStoreNameParser> stateStoreNameParserLoadingCache;
+  private boolean latestDatasetStatesIndexEnabled = false;
+  private int latestDatasetStatesIndexMaxSegments =
+      ConfigurationKeys.DEFAULT_STATE_STORE_LATEST_DATASET_STATES_INDEX_MAX_SEGMENTS;
+  // Index segments being written by the current job runs, by store name. Guarded by itself.
+  private final Map<String, IndexSegmentWriter> indexSegmentWriters = new HashMap<>();
 
   protected static DatasetStateStore<JobState.DatasetState> createStateStore(Config config, String className) {
     // Add all job configuration properties so they are picked up by Hadoop
@@ -126,9 +153,18 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
                 }
               });
 
-      return (DatasetStateStore<JobState.DatasetState>) GobblinConstructorUtils
-          .invokeLongestConstructor(Class.forName(className), stateStoreFs, stateStoreRootDir,
+      DatasetStateStore<JobState.DatasetState> stateStore = (DatasetStateStore<JobState.DatasetState>)
+          GobblinConstructorUtils.invokeLongestConstructor(Class.forName(className), stateStoreFs, stateStoreRootDir,
               threadPoolOfGettingDatasetState, stateStoreNameParserLoadingCache);
+      if (stateStore instanceof FsDatasetStateStore) {
+        ((FsDatasetStateStore) stateStore).setLatestDatasetStatesIndexEnabled(
+            ConfigUtils.getBoolean(config, ConfigurationKeys.STATE_STORE_LATEST_DATASET_STATES_INDEX_ENABLED,
+                ConfigurationKeys.DEFAULT_STATE_STORE_LATEST_DATASET_STATES_INDEX_ENABLED));
+        ((FsDatasetStateStore) stateStore).setLatestDatasetStatesIndexMaxSegments(
+            ConfigUtils.getInt(config, ConfigurationKeys.STATE_STORE_LATEST_DATASET_STATES_INDEX_MAX_SEGMENTS,
+                ConfigurationKeys.DEFAULT_STATE_STORE_LATEST_DATASET_STATES_INDEX_MAX_SEGMENTS));
+      }
+      return stateStore;
     } catch (IOException e) {
       throw new RuntimeException(e);
     } catch (ReflectiveOperationException e) {
@@ -165,6 +201,21 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
     this.useTmpFileForPut = false;
   }
 
+  /**
+   * Set whether {@link #persistDatasetState(String, JobState.DatasetState)} also appends the persisted dataset states
+   * to the latest dataset states index, which {@link #flushDatasetStates(String)} then makes visible.
+   */
+  public void setLatestDatasetStatesIndexEnabled(boolean latestDatasetStatesIndexEnabled) {
+    this.latestDatasetStatesIndexEnabled = latestDatasetStatesIndexEnabled;
+  }
+
+  /**
+   * Set the number of segments the latest dataset states index of a job may have before they are compacted into one.
+   */
+  public void setLatestDatasetStatesIndexMaxSegments(int latestDatasetStatesIndexMaxSegments) {
+    this.latestDatasetStatesIndexMaxSegments = latestDatasetStatesIndexMaxSegments;
+  }
+
   @Override
   public String sanitizeDatasetStatestoreNameFromDatasetURN(String storeName, String datasetURN)
       throws IOException {
@@ -280,7 +331,18 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
   @Override
   public List<JobState.DatasetState> getAll(String storeName)
       throws IOException {
-    return super.getAll(storeName);
+    List<JobState.DatasetState> states = Lists.newArrayList();
+    Path storePath = new Path(this.storeRootDir, storeName);
+    if (!this.fs.exists(storePath)) {
+      return states;
+    }
+
+    // The latest dataset states index only holds copies of states in other tables
+    for (FileStatus status : this.fs.listStatus(storePath,
+        path -> !path.getName().contains(LATEST_DATASET_STATES_INDEX_NAME))) {
+      states.addAll(getAll(storeName, status.getPath().getName()));
+    }
+    return states;
   }
 
   /**
@@ -297,12 +359,7 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
       return ImmutableMap.of();
     }
 
-    FileStatus[] stateStoreFileStatuses = this.fs.listStatus(stateStorePath, new PathFilter() {
-      @Override
-      public boolean accept(Path path) {
-        return path.getName().endsWith(CURRENT_DATASET_STATE_FILE_SUFFIX + DATASET_STATE_STORE_TABLE_SUFFIX);
-      }
-    });
+    FileStatus[] stateStoreFileStatuses = listCurrentTables(stateStorePath);
 
     if (stateStoreFileStatuses == null || stateStoreFileStatuses.length == 0) {
       return ImmutableMap.of();
@@ -310,8 +367,24 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
 
     final Map<String, JobState.DatasetState> datasetStatesByUrns = new ConcurrentHashMap<>();
 
+    Map<String, JobState.DatasetState> indexedDatasetStates = getIndexedLatestDatasetStates(stateStorePath,
+        readIndexManifest(stateStorePath), stateStoreFileStatuses);
+    List<FileStatus> unindexedFileStatuses = Lists.newArrayList();
+    for (FileStatus stateStoreFileStatus : stateStoreFileStatuses) {
+      JobState.DatasetState indexedDatasetState = indexedDatasetStates.get(stateStoreFileStatus.getPath().getName());
+      if (indexedDatasetState != null) {
+        datasetStatesByUrns.put(indexedDatasetState.getDatasetUrn(), indexedDatasetState);
+      } else {
+        unindexedFileStatuses.add(stateStoreFileStatus);
+      }
+    }
+    if (!indexedDatasetStates.isEmpty()) {
+      LOGGER.info("Got {} dataset states of job {} from the latest dataset states index, reading {} from their files",
+          indexedDatasetStates.size(), jobName, unindexedFileStatuses.size());
+    }
+
     Iterator<Callable<Void>> callableIterator = Iterators
-        .transform(Arrays.asList(stateStoreFileStatuses).iterator(), new Function<FileStatus, Callable<Void>>() {
+        .transform(unindexedFileStatuses.iterator(), new Function<FileStatus, Callable<Void>>() {
           @Override
           public Callable<Void> apply(final FileStatus stateStoreFileStatus) {
             return new Callable<Void>() {
@@ -389,6 +462,9 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
     LOGGER.info("Persisting " + tableName + " to the job state store");
     put(jobName, tableName, datasetState);
     createAlias(jobName, tableName, getAliasName(datasetStatestoreName));
+    if (this.latestDatasetStatesIndexEnabled) {
+      appendToIndexSegment(jobName, getAliasName(datasetStatestoreName), datasetState);
+    }
 
     Path originalDatasetUrnPath = new Path(new Path(this.storeRootDir, jobName), getAliasName(datasetUrn));
     // This should only happen for the first time.
@@ -399,6 +475,205 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
     }
   }
 
+  /**
+   * Append a persisted dataset state to the index segment of the current run of the given job, starting a new segment
+   * if there is none. The state is serialized right away, so the caller may still change it.
+   */
+  private void appendToIndexSegment(String storeName, String tableName, JobState.DatasetState datasetState)
+      throws IOException {
+    synchronized (this.indexSegmentWriters) {
+      IndexSegmentWriter segmentWriter = this.indexSegmentWriters.get(storeName);
+      if (segmentWriter == null) {
+        Path segmentPath = new Path(new Path(this.storeRootDir, storeName),
+            LATEST_DATASET_STATES_INDEX_NAME + "." + UUID.randomUUID());
+        segmentWriter = new IndexSegmentWriter(segmentPath, createIndexSegmentWriter(segmentPath));
+        this.indexSegmentWriters.put(storeName, segmentWriter);
+      }
+      segmentWriter.writer.append(new Text(tableName), datasetState);
+    }
+  }
+
+  /**
+   * Add the index segment holding the dataset states persisted since the last flush to the latest dataset states index
+   * of the given job, if the index is enabled. Only the small index manifest is rewritten, next to the old one and
+   * then renamed over it. Once the manifest lists more than the maximum number of segments, the segments are compacted
+   * into one holding the latest entry of every dataset.
+   */
+  @Override
+  public void flushDatasetStates(String storeName)
+      throws IOException {
+    IndexSegmentWriter segmentWriter;
+    synchronized (this.indexSegmentWriters) {
+      segmentWriter = this.indexSegmentWriters.remove(storeName);
+    }
+    if (segmentWriter == null) {
+      return;
+    }
+    segmentWriter.writer.close();
+
+    Path storePath = new Path(this.storeRootDir, storeName);
+    List<String> segmentNames = readIndexManifest(storePath);
+    segmentNames.add(segmentWriter.path.getName());
+    if (segmentNames.size() <= this.latestDatasetStatesIndexMaxSegments) {
+      writeIndexManifest(storePath, segmentNames);
+      LOGGER.info("Added segment {} to the latest dataset states index of job {}", segmentWriter.path.getName(),
+          storeName);
+      return;
+    }
+
+    // Entries that are older than the current table of their dataset are dropped, as the compacted segment is newer
+    Map<String, JobState.DatasetState> indexedDatasetStates =
+        getIndexedLatestDatasetStates(storePath, segmentNames, listCurrentTables(storePath));
+    Path compactedSegmentPath = new Path(storePath, LATEST_DATASET_STATES_INDEX_NAME + "." + UUID.randomUUID());
+    Closer closer = Closer.create();
+    try {
+      SequenceFile.Writer writer = closer.register(createIndexSegmentWriter(compactedSegmentPath));
+      for (Map.Entry<String, JobState.DatasetState> entry : indexedDatasetStates.entrySet()) {
+        writer.append(new Text(entry.getKey()), entry.getValue());
+      }
+    } catch (Throwable t) {
+      throw closer.rethrow(t);
+    } finally {
+      closer.close();
+    }
+    writeIndexManifest(storePath, Lists.newArrayList(compactedSegmentPath.getName()));
+    deleteUnlistedIndexSegments(storePath, storeName, compactedSegmentPath.getName());
+    LOGGER.info("Compacted {} segments of the latest dataset states index of job {} into one with {} dataset states",
+        segmentNames.size(), storeName, indexedDatasetStates.size());
+  }
+
+  /**
+   * Delete the index segments of a job other than the given listed one, i.e. the compacted segments and those left
+   * behind by runs that never flushed them. A segment that this store is still writing for the job is kept.
+   */
+  private void deleteUnlistedIndexSegments(Path storePath, String storeName, String listedSegmentName)
+      throws IOException {
+    String openSegmentName;
+    synchronized (this.indexSegmentWriters) {
+      IndexSegmentWriter segmentWriter = this.indexSegmentWriters.get(storeName);
+      openSegmentName = segmentWriter == null ? null : segmentWriter.path.getName();
+    }
+    FileStatus[] segmentStatuses = this.fs.listStatus(storePath,
+        path -> path.getName().startsWith(LATEST_DATASET_STATES_INDEX_NAME + "."));
+    for (FileStatus segmentStatus : segmentStatuses) {
+      String segmentName = segmentStatus.getPath().getName();
+      if (!segmentName.equals(listedSegmentName) && !segmentName.equals(openSegmentName)) {
+        this.fs.delete(segmentStatus.getPath(), false);
+      }
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private SequenceFile.Writer createIndexSegmentWriter(Path segmentPath)
+      throws IOException {
+    return SequenceFile.createWriter(this.fs, this.conf, segmentPath, Text.class, JobState.DatasetState.class,
+        SequenceFile.CompressionType.BLOCK, new DefaultCodec());
+  }
+
+  /**
+   * Get the names of the segments listed in the latest dataset states index manifest of a job, oldest first. A missing
+   * or unreadable manifest counts as an empty index.
+   */
+  private List<String> readIndexManifest(Path storePath) {
+    Path manifestPath = new Path(storePath, LATEST_DATASET_STATES_INDEX_NAME);
+    List<String> segmentNames = Lists.newArrayList();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(this.fs.open(manifestPath),
+        Charsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          segmentNames.add(line);
+        }
+      }
+    } catch (FileNotFoundException e) {
+      return Lists.newArrayList();
+    } catch (IOException e) {
+      LOGGER.warn("Failed to read the latest dataset states index manifest " + manifestPath + ", ignoring it", e);
+      return Lists.newArrayList();
+    }
+    return segmentNames;
+  }
+
+  private void writeIndexManifest(Path storePath, List<String> segmentNames)
+      throws IOException {
+    Path manifestPath = new Path(storePath, LATEST_DATASET_STATES_INDEX_NAME);
+    Path tmpManifestPath = new Path(storePath, TMP_FILE_PREFIX + LATEST_DATASET_STATES_INDEX_NAME);
+    try (FSDataOutputStream out = this.fs.create(tmpManifestPath, true)) {
+      for (String segmentName : segmentNames) {
+        out.write((segmentName + "\n").getBytes(Charsets.UTF_8));
+      }
+    }
+    HadoopUtils.renamePath(this.fs, tmpManifestPath, manifestPath, true);
+  }
+
+  private FileStatus[] listCurrentTables(Path storePath)
+      throws IOException {
+    return this.fs.listStatus(storePath, new PathFilter() {
+      @Override
+      public boolean accept(Path path) {
+        return path.getName().endsWith(CURRENT_DATASET_STATE_FILE_SUFFIX + DATASET_STATE_STORE_TABLE_SUFFIX);
+      }
+    });
+  }
+
+  /**
+   * Get the latest entries of the given segments of the latest dataset states index of a job, by current table name,
+   * that are at least as recent as the given current tables. An entry is as recent as the segment holding it. Entries
+   * of datasets whose current table was written after the segment, or no longer exists, are left out. If a segment
+   * cannot be read, the whole index is ignored.
+   */
+  private Map<String, JobState.DatasetState> getIndexedLatestDatasetStates(Path storePath, List<String> segmentNames,
+      FileStatus[] currentTableStatuses) {
+    Map<String, JobState.DatasetState> indexedDatasetStates = new HashMap<>();
+    Map<String, JobState.DatasetState> indexEntries = new HashMap<>();
+    Map<String, Long> indexEntryModificationTimes = new HashMap<>();
+
+    Configuration deserializeConf = new Configuration(this.conf);
+    WritableShimSerialization.addToHadoopConfiguration(deserializeConf);
+    for (String segmentName : segmentNames) {
+      Path segmentPath = new Path(storePath, segmentName);
+      try {
+        long segmentModificationTime = this.fs.getFileStatus(segmentPath).getModificationTime();
+        try (@SuppressWarnings("deprecation") SequenceFile.Reader reader = new SequenceFile.Reader(this.fs,
+            segmentPath, deserializeConf)) {
+          Text key = new Text();
+          while (reader.next(key)) {
+            // Later segments hold newer entries
+            indexEntries.put(key.toString(),
+                (JobState.DatasetState) reader.getCurrentValue(new JobState.DatasetState()));
+            indexEntryModificationTimes.put(key.toString(), segmentModificationTime);
+          }
+        }
+      } catch (IOException e) {
+        LOGGER.warn("Failed to read the latest dataset states index segment " + segmentPath
+            + ", ignoring the index", e);
+        return indexedDatasetStates;
+      }
+    }
+
+    for (FileStatus currentTableStatus : currentTableStatuses) {
+      String tableName = currentTableStatus.getPath().getName();
+      if (indexEntries.containsKey(tableName)
+          && currentTableStatus.getModificationTime() <= indexEntryModificationTimes.get(tableName)) {
+        indexedDatasetStates.put(tableName, indexEntries.get(tableName));
+      }
+    }
+    return indexedDatasetStates;
+  }
+
+  /**
+   * An index segment that is being written, until it is added to the latest dataset states index manifest.
+   */
+  private static class IndexSegmentWriter {
+    private final Path path;
+    private final SequenceFile.Writer writer;
+
+    IndexSegmentWriter(Path path, SequenceFile.Writer writer) {
+      this.path = path;
+      this.writer = writer;
+    }
+  }
+
   private String sanitizeJobId(String jobId) {
     return jobId.replaceAll("[-/]", "_");
   }
@@ -20,11 +20,15 @@ package org.apache.gobblin.runtime;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -56,6 +60,7 @@ import org.apache.gobblin.commit.CommitSequenceStore;
 import org.apache.gobblin.commit.DeliverySemantics;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.configuration.WorkUnitState;
 import org.apache.gobblin.instrumented.Instrumented;
 import org.apache.gobblin.metastore.DatasetStateStore;
 import org.apache.gobblin.metastore.JobHistoryStore;
@@ -68,6 +73,7 @@ import org.apache.gobblin.runtime.troubleshooter.IssueRepository;
 import org.apache.gobblin.runtime.util.JobMetrics;
 import org.apache.gobblin.source.Source;
 import org.apache.gobblin.source.extractor.JobCommitPolicy;
+import org.apache.gobblin.source.workunit.WorkUnit;
 import org.apache.gobblin.util.ClassAliasResolver;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.Either;
@@ -110,6 +116,15 @@ public class JobContext implements Closeable {
   private final boolean parallelizeCommit;
   private final int parallelCommits;
 
+  // Should datasets be committed as soon as all of their tasks succeed
+  private final boolean earlyDatasetCommit;
+  // Datasets committed while the job was running, and the results of their commits
+  private final Map<String, JobState.DatasetState> earlyCommittedDatasetStates = Maps.newLinkedHashMap();
+  private final Map<String, Future<Void>> earlyCommits = Maps.newLinkedHashMap();
+  private ExecutorService earlyCommitExecutor;
+  // Number of tasks created for each dataset, complete once all work units of the job are known
+  private final Map<String, Integer> taskCountsByDatasetUrn = Maps.newConcurrentMap();
+
   // Were WRITER_STAGING_DIR and WRITER_OUTPUT_DIR provided in the job file
   @Getter
   protected final Boolean stagingDirProvided;
@@ -184,6 +199,8 @@ public class JobContext implements Closeable {
         ConfigurationKeys.DEFAULT_PARALLELIZE_DATASET_COMMIT);
     this.parallelCommits = this.parallelizeCommit ? this.jobState
         .getPropAsInt(ConfigurationKeys.DATASET_COMMIT_THREADS, ConfigurationKeys.DEFAULT_DATASET_COMMIT_THREADS) : 1;
+    this.earlyDatasetCommit = this.jobState.getPropAsBoolean(ConfigurationKeys.EARLY_DATASET_COMMIT_ENABLED,
+        ConfigurationKeys.DEFAULT_EARLY_DATASET_COMMIT_ENABLED);
   }
 
   protected DatasetStateStore createStateStore(Config jobConfig)
@@ -422,6 +439,98 @@ public class JobContext implements Closeable {
     LOG.info("{} more tasks of job {} have completed", newOutputTaskStateEvent.getTaskStates().size(), this.jobId);
     // Update the job execution history store upon new task completion
     storeJobExecutionInfo();
+    if (this.earlyDatasetCommit) {
+      commitCompletedDatasets(newOutputTaskStateEvent.getTaskStates());
+    }
+  }
+
+  /**
+   * Record that a task was created for the given work unit, so that its dataset is only committed early once this
+   * task has succeeded as well.
+   */
+  void addTaskOfDataset(WorkUnit workUnit) {
+    this.taskCountsByDatasetUrn.merge(
+        workUnit.getProp(ConfigurationKeys.DATASET_URN_KEY, ConfigurationKeys.DEFAULT_DATASET_URN), 1, Integer::sum);
+  }
+
+  /**
+   * Commit the datasets of the given newly completed tasks whose tasks have now all succeeded, while the rest of the
+   * job is still running. Commits run one at a time in the background and {@link #commit(boolean)} waits for them.
+   *
+   * <p>
+   *   A dataset is only committed early once every task created for it, as recorded by
+   *   {@link #addTaskOfDataset(WorkUnit)}, has reported success, not just the tasks reported so far. It is then
+   *   committed the same way under any {@link JobCommitPolicy}, and its dataset state is persisted (or its commit
+   *   sequence executed under {@link DeliverySemantics#EXACTLY_ONCE}) on its own, as it would be at the end of the job.
+   *   Datasets with failed tasks, which may still be retried, and datasets whose tasks were not recorded are left to
+   *   the commit at the end of the job. Nothing is committed early until all work units of the job are known, since
+   *   the tasks of a dataset cannot be counted before then.
+   * </p>
+   */
+  synchronized void commitCompletedDatasets(Collection<? extends WorkUnitState> newTaskStates) {
+    if (this.jobState.getPropAsInt(AbstractJobLauncher.NUM_WORKUNITS, 0) <= 0) {
+      return;
+    }
+    Map<String, JobState.DatasetState> datasetStates = null;
+    for (WorkUnitState taskState : newTaskStates) {
+      String datasetUrn = taskState.getProp(ConfigurationKeys.DATASET_URN_KEY, ConfigurationKeys.DEFAULT_DATASET_URN);
+      if (this.earlyCommittedDatasetStates.containsKey(datasetUrn)) {
+        continue;
+      }
+      if (datasetStates == null) {
+        datasetStates = computeDatasetStatesByUrns();
+      }
+      JobState.DatasetState datasetState = datasetStates.get(datasetUrn);
+      Integer taskCount = this.taskCountsByDatasetUrn.get(datasetUrn);
+      if (datasetState == null || taskCount == null || !allTasksSucceeded(datasetState, taskCount)) {
+        continue;
+      }
+
+      this.logger.info(String.format("All %d tasks of dataset %s have succeeded, committing it before job %s completes",
+          datasetState.getTaskStates().size(), datasetUrn, this.jobId));
+      if (this.earlyCommitExecutor == null) {
+        this.earlyCommitExecutor = Executors.newSingleThreadExecutor(
+            ExecutorsUtils.newDaemonThreadFactory(Optional.of(this.logger), Optional.of("Early-commit-thread-%d")));
+      }
+      this.earlyCommittedDatasetStates.put(datasetUrn, datasetState);
+      this.earlyCommits.put(datasetUrn, this.earlyCommitExecutor.submit(
+          createSafeDatasetCommit(shouldCommitDataInJob(this.jobState), false, this.semantics, datasetUrn,
+              datasetState, false, this)));
+    }
+  }
+
+  /**
+   * @return whether the given number of tasks of a dataset have all reported and succeeded
+   */
+  private static boolean allTasksSucceeded(JobState.DatasetState datasetState, int taskCount) {
+    if (datasetState.getTaskStates().size() < taskCount) {
+      return false;
+    }
+    for (TaskState taskState : datasetState.getTaskStates()) {
+      WorkUnitState.WorkingState workingState = taskState.getWorkingState();
+      if (workingState != WorkUnitState.WorkingState.SUCCESSFUL
+          && workingState != WorkUnitState.WorkingState.COMMITTED) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Wait for the commits of datasets committed while the job was running.
+   * @return the result of each early commit by dataset URN
+   */
+  private synchronized Map<String, Either<Void, ExecutionException>> awaitEarlyCommits()
+      throws InterruptedException {
+    Map<String, Either<Void, ExecutionException>> results = Maps.newLinkedHashMap();
+    for (Map.Entry<String, Future<Void>> entry : this.earlyCommits.entrySet()) {
+      try {
+        results.put(entry.getKey(), Either.<Void, ExecutionException>left(entry.getValue().get()));
+      } catch (ExecutionException ee) {
+        results.put(entry.getKey(), Either.<Void, ExecutionException>right(ee));
+      }
+    }
+    return results;
   }
 
   /**
@@ -451,7 +560,16 @@ public class JobContext implements Closeable {
    */
   void commit(final boolean isJobCancelled)
       throws IOException {
-    this.datasetStatesByUrns = Optional.of(computeDatasetStatesByUrns());
+    final Map<String, Either<Void, ExecutionException>> earlyCommitResults;
+    try {
+      earlyCommitResults = awaitEarlyCommits();
+    } catch (InterruptedException exc) {
+      throw new IOException(exc);
+    }
+    // Datasets committed early keep the dataset states they were committed with and are not committed again
+    Map<String, JobState.DatasetState> datasetStates = Maps.newHashMap(computeDatasetStatesByUrns());
+    datasetStates.putAll(this.earlyCommittedDatasetStates);
+    this.datasetStatesByUrns = Optional.of(datasetStates);
     final boolean shouldCommitDataInJob = shouldCommitDataInJob(this.jobState);
     final DeliverySemantics deliverySemantics = DeliverySemantics.parse(this.jobState);
     final int numCommitThreads = numCommitThreads();
@@ -467,7 +585,8 @@ public class JobContext implements Closeable {
       }
 
       List<Either<Void, ExecutionException>> result = new IteratorExecutor<>(Iterables
-          .transform(this.datasetStatesByUrns.get().entrySet(),
+          .transform(Maps.filterKeys(this.datasetStatesByUrns.get(),
+              urn -> !earlyCommitResults.containsKey(urn)).entrySet(),
               new Function<Map.Entry<String, DatasetState>, Callable<Void>>() {
                 @Nullable
                 @Override
@@ -478,6 +597,7 @@ public class JobContext implements Closeable {
               }).iterator(), numCommitThreads,
           ExecutorsUtils.newThreadFactory(Optional.of(this.logger), Optional.of("Commit-thread-%d")))
           .executeAndGetResults();
+      result.addAll(earlyCommitResults.values());
 
       IteratorExecutor.logFailures(result, LOG, 10);
 
@@ -489,13 +609,32 @@ public class JobContext implements Closeable {
       }
     } catch (InterruptedException exc) {
       throw new IOException(exc);
+    } finally {
+      flushDatasetStates();
     }
     this.jobState.setState(JobState.RunningState.COMMITTED);
   }
 
+  /**
+   * Let the dataset state store write what it batched for the dataset states persisted by this job. A failure only
+   * loses what the state store batched, not the persisted dataset states, so it does not fail the job.
+   */
+  private void flushDatasetStates() {
+    try {
+      this.datasetStateStore.flushDatasetStates(this.jobName);
+    } catch (IOException ioe) {
+      this.logger.warn("Failed to flush the dataset states of job " + this.jobName, ioe);
+    }
+  }
+
   @Override
   public void close()
       throws IOException {
+    if (this.earlyCommitExecutor != null) {
+      ExecutorsUtils.shutdownExecutorService(this.earlyCommitExecutor, Optional.of(this.logger));
+    }
+    // Dataset states may have been persisted after the commit, e.g. when a job was cancelled
+    flushDatasetStates();
     this.jobBroker.close();
   }
 
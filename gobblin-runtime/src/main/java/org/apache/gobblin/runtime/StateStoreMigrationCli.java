@@ -100,6 +100,7 @@ public class StateStoreMigrationCli implements CliApplication {
     for (Map.Entry<String, JobState.DatasetState> entry : map.entrySet()) {
       dstDatasetStateStore.persistDatasetState(entry.getKey(), entry.getValue());
     }
+    dstDatasetStateStore.flushDatasetStates(jobName);
 
     if (deleteFromSource) {
       try {
@@ -28,6 +28,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -92,6 +94,7 @@ import org.apache.gobblin.util.TaskEventMetadataUtils;
 import org.apache.gobblin.writer.AcknowledgableWatermark;
 import org.apache.gobblin.writer.DataWriter;
 import org.apache.gobblin.writer.FineGrainedWatermarkTracker;
+import org.apache.gobblin.writer.RingBufferWatermarkTracker;
 import org.apache.gobblin.writer.TrackerBasedWatermarkManager;
 import org.apache.gobblin.writer.WatermarkAwareWriter;
 import org.apache.gobblin.writer.WatermarkManager;
@@ -170,6 +173,9 @@ public class Task implements TaskIFace {
   private volatile long shutdownRequestedTime = Long.MAX_VALUE;
   private final CountDownLatch shutdownLatch;
   protected Future<?> taskFuture;
+  // Guards the task future. A lock rather than synchronized so that a task on a virtual thread does not pin its carrier
+  // thread while the task state tracker does I/O.
+  protected final Lock taskFutureLock = new ReentrantLock();
 
   /**
    * Instantiate a new {@link Task}.
@@ -262,7 +268,10 @@ public class Task implements TaskIFace {
       long commitIntervalMillis = ConfigUtils.getLong(config,
           TaskConfigurationKeys.STREAMING_WATERMARK_COMMIT_INTERVAL_MILLIS,
           TaskConfigurationKeys.DEFAULT_STREAMING_WATERMARK_COMMIT_INTERVAL_MILLIS);
-      this.watermarkTracker = Optional.of(this.closer.register(new FineGrainedWatermarkTracker(config)));
+      this.watermarkTracker = Optional.of(this.closer.register(
+          ConfigUtils.getBoolean(config, RingBufferWatermarkTracker.WATERMARK_TRACKER_RING_BUFFER_ENABLED,
+              RingBufferWatermarkTracker.DEFAULT_WATERMARK_TRACKER_RING_BUFFER_ENABLED)
+              ? new RingBufferWatermarkTracker(config) : new FineGrainedWatermarkTracker(config)));
       this.watermarkManager = Optional.of((WatermarkManager) this.closer.register(
           new TrackerBasedWatermarkManager(this.watermarkStorage.get(), this.watermarkTracker.get(),
               commitIntervalMillis, Optional.of(this.LOG))));
@@ -401,10 +410,13 @@ public class Task implements TaskIFace {
     } catch (Throwable t) {
       failTask(t);
     } finally {
-      synchronized (this) {
+      this.taskFutureLock.lock();
+      try {
         this.taskStateTracker.onTaskRunCompletion(this);
         completeShutdown();
         this.taskFuture = null;
+      } finally {
+        this.taskFutureLock.unlock();
       }
     }
   }
@@ -1032,8 +1044,13 @@ public class Task implements TaskIFace {
     return true;
   }
 
-  public synchronized void setTaskFuture(Future<?> taskFuture) {
-    this.taskFuture = taskFuture;
+  public void setTaskFuture(Future<?> taskFuture) {
+    this.taskFutureLock.lock();
+    try {
+      this.taskFuture = taskFuture;
+    } finally {
+      this.taskFutureLock.unlock();
+    }
   }
 
   @VisibleForTesting
@@ -1045,12 +1062,13 @@ public class Task implements TaskIFace {
    * return true if the task is successfully cancelled.
    * @return
    */
-  public synchronized boolean cancel() {
+  public boolean cancel() {
     LOG.info("Calling task cancel with interrupt flag: {}", this.shouldInterruptTaskOnCancel);
-    if (this.taskFuture != null && this.taskFuture.cancel(this.shouldInterruptTaskOnCancel)) {
-      return true;
-    } else {
-      return false;
+    this.taskFutureLock.lock();
+    try {
+      return this.taskFuture != null && this.taskFuture.cancel(this.shouldInterruptTaskOnCancel);
+    } finally {
+      this.taskFutureLock.unlock();
     }
   }
 }
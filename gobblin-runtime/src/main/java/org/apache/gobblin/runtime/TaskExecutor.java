@@ -27,8 +27,12 @@ import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,13 +40,16 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.MetricSet;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AbstractIdleService;
 
@@ -53,6 +60,7 @@ import org.slf4j.LoggerFactory;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.metrics.GobblinMetrics;
 import org.apache.gobblin.runtime.fork.Fork;
+import org.apache.gobblin.util.ClassAliasResolver;
 import org.apache.gobblin.util.ExecutorsUtils;
 
 import lombok.Getter;
@@ -63,15 +71,43 @@ import static com.codahale.metrics.MetricRegistry.name;
 /**
  * A class for executing {@link Task}s and retrying failed ones as well as for executing {@link Fork}s.
  *
+ * <p>
+ *   By default, tasks run in the order they are submitted. If {@link ConfigurationKeys#TASK_EXECUTOR_QUEUE_CLASS_KEY}
+ *   is set, submitted and retried tasks wait in a {@link TaskExecutorQueue} instead, and a task is handed to the task
+ *   thread pool only when a thread is free, in the order the queue decides. {@link Fork}s always start right away.
+ * </p>
+ *
+ * <p>
+ *   If {@link ConfigurationKeys#TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY} is set and the JVM supports virtual threads,
+ *   every task and fork runs on its own virtual thread, and a semaphore limits the number of tasks running at once to
+ *   {@link ConfigurationKeys#TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS_KEY}. This suits I/O-bound tasks, whose
+ *   concurrency would otherwise be bounded by the task executor thread pool size.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class TaskExecutor extends AbstractIdleService {
 
   private static final Logger LOG = LoggerFactory.getLogger(TaskExecutor.class);
 
-  // Thread pool executor for running tasks
+  // Thread pool executor for running tasks, and for scheduling task retries
   private final ScheduledExecutorService taskExecutor;
 
+  // Executor tasks run on. This is the task thread pool executor, unless tasks run on virtual threads.
+  private final ExecutorService taskRunner;
+
+  // Permits for running tasks, if tasks run on virtual threads and no task queue limits them
+  private final Optional<Semaphore> taskPermits;
+
+  // Maximum number of tasks running at once
+  private final int maxConcurrentTasks;
+
+  // Queue deciding which task runs next, if tasks are not run in submission order
+  private final Optional<TaskExecutorQueue> taskQueue;
+
+  // Number of tasks taken from the task queue that have not finished yet. Guarded by the task queue.
+  private int dispatchedTaskCount = 0;
+
   // A separate thread pool executor for running forks of tasks
   @Getter
   private final ExecutorService forkExecutor;
@@ -139,6 +175,18 @@ public class TaskExecutor extends AbstractIdleService {
   @Getter
   private final Timer taskCreateAndRunTimer;
 
+  // Time tasks waited to start, over all jobs.
+  @Getter
+  private final Histogram queuedTaskTimeHistogram;
+
+  // Time tasks waited to start, per job name. A job's histogram is removed once it has no queued or running tasks.
+  private final MetricRegistry jobQueuedTaskTimes = new MetricRegistry();
+
+  // Number of queued or running tasks per job name
+  private final Map<String, Integer> jobTaskCounts = Maps.newConcurrentMap();
+
+  private final int timerWindowSize;
+
   // The metric set exposed from the task executor.
   private final TaskExecutorQueueMetricSet metricSet = new TaskExecutorQueueMetricSet();
 
@@ -146,38 +194,72 @@ public class TaskExecutor extends AbstractIdleService {
    * Constructor used internally.
    */
   private TaskExecutor(int taskExecutorThreadPoolSize, int coreRetryThreadPoolSize, long retryIntervalInSeconds,
-                       int queuedTaskTimeMaxSize, long queuedTaskTimeMaxAge, int timerWindowSize) {
+                       int queuedTaskTimeMaxSize, long queuedTaskTimeMaxAge, int timerWindowSize,
+                       String taskQueueClass, boolean virtualThreadsEnabled, int virtualThreadMaxConcurrentTasks) {
     Preconditions.checkArgument(taskExecutorThreadPoolSize > 0, "Task executor thread pool size should be positive");
     Preconditions.checkArgument(retryIntervalInSeconds > 0, "Task retry interval should be positive");
     Preconditions.checkArgument(queuedTaskTimeMaxSize > 0, "Queued task time max size should be positive");
     Preconditions.checkArgument(queuedTaskTimeMaxAge > 0, "Queued task time max age should be positive");
 
-    // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
-    this.taskExecutor = ExecutorsUtils.loggingDecorator(Executors.newScheduledThreadPool(
-        taskExecutorThreadPoolSize,
-        ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d"))));
+    boolean useVirtualThreads = virtualThreadsEnabled && ExecutorsUtils.isVirtualThreadSupported();
+    if (virtualThreadsEnabled && !useVirtualThreads) {
+      LOG.warn("Virtual threads are not supported by this JVM, running tasks on platform threads");
+    }
+    this.taskQueue = createTaskQueue(taskQueueClass);
+
+    if (useVirtualThreads) {
+      Preconditions.checkArgument(virtualThreadMaxConcurrentTasks > 0,
+          "Maximum number of concurrent tasks on virtual threads should be positive");
+      LOG.info("Running tasks on virtual threads, at most " + virtualThreadMaxConcurrentTasks + " at once");
+      // The platform thread pool only fires task retries, which then run on virtual threads
+      this.taskExecutor = ExecutorsUtils.loggingDecorator(Executors.newScheduledThreadPool(
+          coreRetryThreadPoolSize,
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskRetryScheduler-%d"))));
+      this.taskRunner = ExecutorsUtils.loggingDecorator(newVirtualThreadExecutor(
+          ExecutorsUtils.newVirtualThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d"))));
+      this.maxConcurrentTasks = virtualThreadMaxConcurrentTasks;
+      this.taskPermits = this.taskQueue.isPresent() ? Optional.<Semaphore>absent()
+          : Optional.of(new Semaphore(virtualThreadMaxConcurrentTasks));
+    } else {
+      // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
+      this.taskExecutor = ExecutorsUtils.loggingDecorator(Executors.newScheduledThreadPool(
+          taskExecutorThreadPoolSize,
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d"))));
+      this.taskRunner = this.taskExecutor;
+      this.maxConcurrentTasks = taskExecutorThreadPoolSize;
+      this.taskPermits = Optional.absent();
+    }
 
     this.retryIntervalInSeconds = retryIntervalInSeconds;
     this.queuedTaskTimeMaxSize = queuedTaskTimeMaxSize;
     this.queuedTaskTimeMaxAge = queuedTaskTimeMaxAge;
     this.taskCreateAndRunTimer = new Timer(new SlidingTimeWindowReservoir(timerWindowSize, TimeUnit.MINUTES));
+    this.queuedTaskTimeHistogram = new Histogram(new SlidingTimeWindowReservoir(timerWindowSize, TimeUnit.MINUTES));
+    this.timerWindowSize = timerWindowSize;
 
-    this.forkExecutor = ExecutorsUtils.loggingDecorator(
-        new ThreadPoolExecutor(
-            // The core thread pool size is equal to that of the task
-            // executor as there's at least one fork per task
-            taskExecutorThreadPoolSize,
-            // The fork executor thread pool size is essentially unbounded. This is to make sure all forks of
-            // a task get a thread to run so all forks of the task are making progress. This is necessary since
-            // otherwise the parent task will be blocked if the record queue (bounded) of some fork is full and
-            // that fork has not yet started to run because of no available thread. The task cannot proceed in
-            // this case because it has to make sure every records go to every forks.
-            Integer.MAX_VALUE,
-            0L,
-            TimeUnit.MILLISECONDS,
-            // The work queue is a SynchronousQueue. This essentially forces a new thread to be created for each fork.
-            new SynchronousQueue<Runnable>(),
-            ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("ForkExecutor-%d"))));
+    if (useVirtualThreads) {
+      // Like the platform fork executor below, every fork gets its own thread
+      this.forkExecutor = ExecutorsUtils.loggingDecorator(newVirtualThreadExecutor(
+          ExecutorsUtils.newVirtualThreadFactory(Optional.of(LOG), Optional.of("ForkExecutor-%d"))));
+    } else {
+      this.forkExecutor = ExecutorsUtils.loggingDecorator(
+          new ThreadPoolExecutor(
+              // The core thread pool size is equal to that of the task
+              // executor as there's at least one fork per task
+              taskExecutorThreadPoolSize,
+              // The fork executor thread pool size is essentially unbounded. This is to make sure all forks of
+              // a task get a thread to run so all forks of the task are making progress. This is necessary since
+              // otherwise the parent task will be blocked if the record queue (bounded) of some fork is full and
+              // that fork has not yet started to run because of no available thread. The task cannot proceed in
+              // this case because it has to make sure every records go to every forks.
+              Integer.MAX_VALUE,
+              0L,
+              TimeUnit.MILLISECONDS,
+              // The work queue is a SynchronousQueue. This essentially forces a new thread to be created for each
+              // fork.
+              new SynchronousQueue<Runnable>(),
+              ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("ForkExecutor-%d"))));
+    }
   }
 
   /**
@@ -195,7 +277,13 @@ public class TaskExecutor extends AbstractIdleService {
         Long.parseLong(properties.getProperty(ConfigurationKeys.QUEUED_TASK_TIME_MAX_AGE,
             Long.toString(ConfigurationKeys.DEFAULT_QUEUED_TASK_TIME_MAX_AGE))),
         Integer.parseInt(properties.getProperty(ConfigurationKeys.METRIC_TIMER_WINDOW_SIZE_IN_MINUTES,
-            Integer.toString(ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES))));
+            Integer.toString(ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES))),
+        properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_QUEUE_CLASS_KEY),
+        Boolean.parseBoolean(properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY,
+            Boolean.toString(ConfigurationKeys.DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED))),
+        Integer.parseInt(properties.getProperty(
+            ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS_KEY,
+            Integer.toString(ConfigurationKeys.DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS))));
   }
 
   /**
@@ -213,7 +301,34 @@ public class TaskExecutor extends AbstractIdleService {
         conf.getLong(ConfigurationKeys.QUEUED_TASK_TIME_MAX_AGE,
             ConfigurationKeys.DEFAULT_QUEUED_TASK_TIME_MAX_AGE),
         conf.getInt(ConfigurationKeys.METRIC_TIMER_WINDOW_SIZE_IN_MINUTES,
-            ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES));
+            ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES),
+        conf.get(ConfigurationKeys.TASK_EXECUTOR_QUEUE_CLASS_KEY),
+        conf.getBoolean(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY,
+            ConfigurationKeys.DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED),
+        conf.getInt(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS_KEY,
+            ConfigurationKeys.DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENT_TASKS));
+  }
+
+  /**
+   * An executor that runs every submitted runnable on a new thread from the given virtual thread factory.
+   */
+  private static ExecutorService newVirtualThreadExecutor(ThreadFactory virtualThreadFactory) {
+    // Virtual threads are cheap to create, so idle ones are not kept for reuse
+    return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(),
+        virtualThreadFactory);
+  }
+
+  private static Optional<TaskExecutorQueue> createTaskQueue(String taskQueueClass) {
+    if (Strings.isNullOrEmpty(taskQueueClass)) {
+      return Optional.absent();
+    }
+    try {
+      LOG.info("Using task executor queue " + taskQueueClass);
+      return Optional.<TaskExecutorQueue>of(
+          new ClassAliasResolver<>(TaskExecutorQueue.class).resolveClass(taskQueueClass).newInstance());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Failed to create task executor queue " + taskQueueClass, e);
+    }
   }
 
   @Override
@@ -234,6 +349,9 @@ public class TaskExecutor extends AbstractIdleService {
     LOG.info("Stopping the task executor");
     try {
       ExecutorsUtils.shutdownExecutorService(this.taskExecutor, Optional.of(LOG));
+      if (this.taskRunner != this.taskExecutor) {
+        ExecutorsUtils.shutdownExecutorService(this.taskRunner, Optional.of(LOG));
+      }
     } finally {
       ExecutorsUtils.shutdownExecutorService(this.forkExecutor, Optional.of(LOG));
     }
@@ -246,7 +364,12 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public void execute(Task task) {
     LOG.info(String.format("Executing task %s", task.getTaskId()));
-    this.taskExecutor.execute(new TrackingTask(task));
+    if (this.taskQueue.isPresent()) {
+      TrackingTask trackingTask = new TrackingTask(task);
+      enqueue(task, trackingTask, trackingTask);
+      return;
+    }
+    this.taskRunner.execute(withTaskPermit(new TrackingTask(task)));
   }
 
   /**
@@ -257,7 +380,13 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public Future<?> submit(Task task) {
     LOG.info(String.format("Submitting task %s", task.getTaskId()));
-    return this.taskExecutor.submit(new TrackingTask(task));
+    if (this.taskQueue.isPresent()) {
+      TrackingTask trackingTask = new TrackingTask(task);
+      FutureTask<?> future = new FutureTask<>(trackingTask, null);
+      enqueue(task, trackingTask, future);
+      return future;
+    }
+    return this.taskRunner.submit(withTaskPermit(new TrackingTask(task)));
   }
 
   /**
@@ -297,11 +426,93 @@ public class TaskExecutor extends AbstractIdleService {
     // Task retry interval increases linearly with number of retries
     long interval = task.getRetryCount() * this.retryIntervalInSeconds;
     // Schedule the retry of the failed task
-    this.taskExecutor.schedule(new TrackingTask(task, interval, TimeUnit.SECONDS), interval, TimeUnit.SECONDS);
+    final TrackingTask trackingTask = new TrackingTask(task, interval, TimeUnit.SECONDS);
+    if (this.taskQueue.isPresent()) {
+      this.taskExecutor.schedule(() -> enqueue(task, trackingTask, trackingTask), interval, TimeUnit.SECONDS);
+    } else if (this.taskRunner != this.taskExecutor) {
+      this.taskExecutor.schedule(() -> this.taskRunner.execute(withTaskPermit(trackingTask)), interval,
+          TimeUnit.SECONDS);
+    } else {
+      this.taskExecutor.schedule(trackingTask, interval, TimeUnit.SECONDS);
+    }
     LOG.info(String.format("Scheduled retry of failed task %s to run in %d seconds", task.getTaskId(), interval));
     task.incrementRetryCount();
   }
 
+  /**
+   * Make the given runnable wait for a task permit before running, if task permits are used.
+   */
+  private Runnable withTaskPermit(final Runnable runnable) {
+    if (!this.taskPermits.isPresent()) {
+      return runnable;
+    }
+    final Semaphore permits = this.taskPermits.get();
+    return () -> {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOG.info("Interrupted while waiting to run a task");
+        return;
+      }
+      try {
+        runnable.run();
+      } finally {
+        permits.release();
+      }
+    };
+  }
+
+  private void enqueue(Task task, TrackingTask trackingTask, Runnable runnable) {
+    TaskExecutorQueue queue = this.taskQueue.get();
+    synchronized (queue) {
+      queue.add(TaskExecutorQueue.Entry.forTask(task.getTaskId(), task.getTaskState(),
+          new QueuedTask(trackingTask, runnable)));
+    }
+    dispatchQueuedTasks();
+  }
+
+  /**
+   * Hand queued tasks to the task thread pool until every thread is busy or no queued task may run.
+   */
+  private void dispatchQueuedTasks() {
+    TaskExecutorQueue queue = this.taskQueue.get();
+    synchronized (queue) {
+      while (this.dispatchedTaskCount < this.maxConcurrentTasks) {
+        final TaskExecutorQueue.Entry entry = queue.poll();
+        if (entry == null) {
+          return;
+        }
+        this.dispatchedTaskCount++;
+        try {
+          this.taskRunner.execute(() -> {
+            try {
+              entry.getRunnable().run();
+            } finally {
+              onQueuedTaskFinished(entry);
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          // The task never runs, so nothing else releases what was taken for it
+          this.dispatchedTaskCount--;
+          queue.onTaskFinished(entry);
+          ((QueuedTask) entry.getRunnable()).reject();
+          LOG.error(String.format("Task %s was rejected by the task executor", entry.getTaskId()), e);
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void onQueuedTaskFinished(TaskExecutorQueue.Entry entry) {
+    TaskExecutorQueue queue = this.taskQueue.get();
+    synchronized (queue) {
+      this.dispatchedTaskCount--;
+      queue.onTaskFinished(entry);
+    }
+    dispatchQueuedTasks();
+  }
+
   public MetricSet getTaskExecutorQueueMetricSet() {
     return this.metricSet;
   }
@@ -413,6 +624,8 @@ public class TaskExecutor extends AbstractIdleService {
           return queuedTaskTotalTime.longValue();
         }
       });
+      metrics.put(name("queued", "time"), queuedTaskTimeHistogram);
+      metrics.put(name("queued", "job"), jobQueuedTaskTimes);
       metrics.put(name("running", "count"), runningTaskCount);
       metrics.put(name("successful", "count"), successfulTaskCount);
       metrics.put(name("failed", "count"), failedTaskCount);
@@ -420,8 +633,38 @@ public class TaskExecutor extends AbstractIdleService {
     }
   }
 
+  /**
+   * A task waiting in the task queue, with the {@link TrackingTask} that tracks it.
+   */
+  private class QueuedTask implements Runnable {
+    private final TrackingTask trackingTask;
+    private final Runnable runnable;
+
+    QueuedTask(TrackingTask trackingTask, Runnable runnable) {
+      this.trackingTask = trackingTask;
+      this.runnable = runnable;
+    }
+
+    @Override
+    public void run() {
+      this.runnable.run();
+    }
+
+    /**
+     * Release the tracking of a task that will never run, and cancel its {@link Future}, if it was submitted.
+     */
+    void reject() {
+      queuedTasks.remove(this.trackingTask.underlyingTask.getTaskId());
+      this.trackingTask.onFinish();
+      if (this.runnable instanceof Future) {
+        ((Future<?>) this.runnable).cancel(false);
+      }
+    }
+  }
+
   private class TrackingTask implements Runnable {
     private Task underlyingTask;
+    private final String jobName;
 
     public TrackingTask(Task task) {
       this(task, 0, TimeUnit.SECONDS);
@@ -433,24 +676,49 @@ public class TaskExecutor extends AbstractIdleService {
       LOG.debug(String.format("Task %s queued to run %s.", task.getTaskId(), timeToRun <= now ? "now" : "at " + timeToRun));
       queuedTasks.putIfAbsent(task.getTaskId(), timeToRun);
       this.underlyingTask = task;
+      this.jobName = task.getTaskState().getProp(ConfigurationKeys.JOB_NAME_KEY);
+      if (this.jobName != null) {
+        jobTaskCounts.merge(this.jobName, 1, Integer::sum);
+      }
     }
 
     @Override
     public void run() {
-      long startTime = System.currentTimeMillis();
-      onStart(startTime);
       try {
-        this.underlyingTask.run();
-        successfulTaskCount.mark();
-      } catch (Exception e) {
-        failedTaskCount.mark();
-        LOG.error(String.format("Task %s failed", underlyingTask.getTaskId()), e);
-        throw e;
+        long startTime = System.currentTimeMillis();
+        onStart(startTime);
+        try {
+          this.underlyingTask.run();
+          successfulTaskCount.mark();
+        } catch (Exception e) {
+          failedTaskCount.mark();
+          LOG.error(String.format("Task %s failed", underlyingTask.getTaskId()), e);
+          throw e;
+        } finally {
+          runningTaskCount.dec();
+        }
       } finally {
-        runningTaskCount.dec();
+        onFinish();
       }
     }
 
+    /**
+     * Drop the queued time histogram of the job once it has no queued or running tasks left. A retry of this task
+     * is queued before this task finishes, so it keeps the histogram of its job.
+     */
+    private void onFinish() {
+      if (this.jobName == null) {
+        return;
+      }
+      jobTaskCounts.compute(this.jobName, (job, count) -> {
+        if (count == null || count <= 1) {
+          jobQueuedTaskTimes.remove(name(job, "time"));
+          return null;
+        }
+        return count - 1;
+      });
+    }
+
     private void onStart(long startTime) {
       Long queueTime = queuedTasks.remove(this.underlyingTask.getTaskId());
       long workUnitCreationTime = this.underlyingTask.getTaskContext().getTaskState().getPropAsLong(ConfigurationKeys.WORK_UNIT_CREATION_TIME_IN_MILLIS, 0);
@@ -458,6 +726,11 @@ public class TaskExecutor extends AbstractIdleService {
       long timeSinceWorkUnitCreation = startTime - workUnitCreationTime;
 
       taskCreateAndRunTimer.update(timeSinceWorkUnitCreation, TimeUnit.MILLISECONDS);
+      queuedTaskTimeHistogram.update(timeInQueue);
+      if (this.jobName != null) {
+        jobQueuedTaskTimes.histogram(name(this.jobName, "time"),
+            () -> new Histogram(new SlidingTimeWindowReservoir(timerWindowSize, TimeUnit.MINUTES))).update(timeInQueue);
+      }
 
       LOG.debug(String.format("Task %s started. Saving queued time of %d ms to history.", underlyingTask.getTaskId(), timeInQueue));
       queuedTaskTimeHistorical.putIfAbsent(System.currentTimeMillis(), timeInQueue);
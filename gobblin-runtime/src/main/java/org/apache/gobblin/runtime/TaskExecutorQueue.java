@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+
+
+/**
+ * Decides which of the queued {@link Task}s of a {@link TaskExecutor} gets the next free task executor thread.
+ *
+ * <p>
+ *   Set {@link ConfigurationKeys#TASK_EXECUTOR_QUEUE_CLASS_KEY} to use one. The {@link TaskExecutor} calls an
+ *   implementation under a lock, so implementations do not need to be thread-safe. Implementations must have a public
+ *   no-arg constructor.
+ * </p>
+ */
+public interface TaskExecutorQueue {
+
+  /**
+   * Add a task that is ready to run.
+   */
+  void add(Entry entry);
+
+  /**
+   * Remove and return the task that should run next, or null if no queued task is allowed to run now.
+   */
+  Entry poll();
+
+  /**
+   * Called when a task returned by {@link #poll()} has finished running.
+   */
+  void onTaskFinished(Entry entry);
+
+  /**
+   * @return the number of queued tasks
+   */
+  int size();
+
+  /**
+   * A queued task together with the scheduling properties of its job.
+   */
+  @Getter
+  @AllArgsConstructor
+  class Entry {
+    private final String taskId;
+    private final String jobId;
+    private final int priority;
+    private final double weight;
+    private final int maxConcurrentTasks;
+    private final long enqueueTime;
+    private final Runnable runnable;
+
+    /**
+     * Create an entry, reading the scheduling properties of the job from the given task state.
+     */
+    public static Entry forTask(String taskId, State taskState, Runnable runnable) {
+      return new Entry(taskId, taskState.getProp(ConfigurationKeys.JOB_ID_KEY, ""),
+          taskState.getPropAsInt(ConfigurationKeys.TASK_EXECUTOR_JOB_PRIORITY_KEY,
+              ConfigurationKeys.DEFAULT_TASK_EXECUTOR_JOB_PRIORITY),
+          taskState.getPropAsDouble(ConfigurationKeys.TASK_EXECUTOR_JOB_WEIGHT_KEY,
+              ConfigurationKeys.DEFAULT_TASK_EXECUTOR_JOB_WEIGHT),
+          taskState.getPropAsInt(ConfigurationKeys.TASK_EXECUTOR_JOB_MAX_CONCURRENT_TASKS_KEY,
+              ConfigurationKeys.DEFAULT_TASK_EXECUTOR_JOB_MAX_CONCURRENT_TASKS),
+          System.currentTimeMillis(), runnable);
+    }
+  }
+}
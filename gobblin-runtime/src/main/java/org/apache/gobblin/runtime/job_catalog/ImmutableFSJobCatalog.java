@@ -37,6 +37,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
@@ -50,11 +51,16 @@ import org.apache.gobblin.runtime.api.GobblinInstanceEnvironment;
 import org.apache.gobblin.runtime.api.JobCatalog;
 import org.apache.gobblin.runtime.api.JobSpec;
 import org.apache.gobblin.runtime.api.JobSpecNotFoundException;
+import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.PathUtils;
 import org.apache.gobblin.util.PullFileLoader;
+import org.apache.gobblin.util.filesystem.EventDrivenPathAlterationObserver;
+import org.apache.gobblin.util.filesystem.JournalPathChangeFeed;
+import org.apache.gobblin.util.filesystem.LocalPathChangeFeed;
 import org.apache.gobblin.util.filesystem.PathAlterationListener;
 import org.apache.gobblin.util.filesystem.PathAlterationObserverScheduler;
 import org.apache.gobblin.util.filesystem.PathAlterationObserver;
+import org.apache.gobblin.util.filesystem.PathChangeFeed;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -119,10 +125,19 @@ public class ImmutableFSJobCatalog extends JobCatalogBase implements JobCatalog
     this.converter = new ImmutableFSJobCatalog.JobSpecConverter(this.jobConfDirPath, getInjectedExtension());
 
     long pollingInterval = cfgAccessor.getPollingInterval();
+    Optional<PathChangeFeed> changeFeed = createChangeFeed(cfgAccessor);
 
     if (pollingInterval == ConfigurationKeys.DISABLED_JOB_CONFIG_FILE_MONITOR_POLLING_INTERVAL) {
       this.pathAlterationDetector = null;
     }
+    else if (observer == null && changeFeed.isPresent()) {
+      // The change feed delivers the changes, the scheduler only runs the periodic full rescan
+      this.pathAlterationDetector = new PathAlterationObserverScheduler(cfgAccessor.getRescanInterval());
+      PathAlterationObserver eventDrivenObserver = new EventDrivenPathAlterationObserver(this.jobConfDirPath, null,
+          changeFeed.get(), cfgAccessor.getChangeFeedPollingInterval());
+      this.pathAlterationDetector.addPathAlterationObserver(getListener(), Optional.of(eventDrivenObserver),
+          this.jobConfDirPath);
+    }
     else {
       this.pathAlterationDetector = new PathAlterationObserverScheduler(pollingInterval);
 
@@ -132,6 +147,28 @@ public class ImmutableFSJobCatalog extends JobCatalogBase implements JobCatalog
     }
   }
 
+  /**
+   * Create the {@link PathChangeFeed} configured by {@link ConfigurationKeys#JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_KEY},
+   * if any, for the job config directory.
+   */
+  protected Optional<PathChangeFeed> createChangeFeed(ConfigAccessor cfgAccessor) throws IOException {
+    switch (cfgAccessor.getChangeFeedType()) {
+      case "none":
+        return Optional.absent();
+      case "local":
+        Preconditions.checkArgument("file".equals(this.fs.getUri().getScheme()),
+            "The local change feed requires a local job config directory, got " + this.jobConfDirPath);
+        return Optional.<PathChangeFeed>of(new LocalPathChangeFeed(this.jobConfDirPath));
+      case "journal":
+        Preconditions.checkArgument(cfgAccessor.getJournalDir().isPresent(),
+            "The journal change feed requires " + ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_JOURNAL_DIR_KEY);
+        return Optional.<PathChangeFeed>of(new JournalPathChangeFeed(this.jobConfDirPath,
+            cfgAccessor.getJournalDir().get()));
+      default:
+        throw new IllegalArgumentException("Unknown job config change feed: " + cfgAccessor.getChangeFeedType());
+    }
+  }
+
   protected PathAlterationListener getListener() {
     return new FSPathAlterationListenerAdaptor(this.jobConfDirPath, this.loader, this.sysConfig, this.listeners,
         this.converter);
@@ -254,6 +291,10 @@ public class ImmutableFSJobCatalog extends JobCatalogBase implements JobCatalog
     private final Path jobConfDirPath;
     private final FileSystem jobConfDirFileSystem;
     private final Set<String> JobConfigurationFileExtensions;
+    private final String changeFeedType;
+    private final Optional<Path> journalDir;
+    private final long changeFeedPollingInterval;
+    private final long rescanInterval;
 
     public ConfigAccessor(Config cfg) {
       this.cfg = cfg;
@@ -283,6 +324,20 @@ public class ImmutableFSJobCatalog extends JobCatalogBase implements JobCatalog
           .omitEmptyStrings()
           .trimResults()
           .split(getJobConfigurationFileExtensionsString()));
+
+      this.changeFeedPollingInterval =
+          ConfigUtils.getLong(this.cfg, ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_POLLING_INTERVAL_KEY,
+              ConfigurationKeys.DEFAULT_JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_POLLING_INTERVAL);
+      this.rescanInterval = ConfigUtils.getLong(this.cfg, ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_RESCAN_INTERVAL_KEY,
+          ConfigurationKeys.DEFAULT_JOB_CONFIG_FILE_MONITOR_RESCAN_INTERVAL);
+      Preconditions.checkArgument(this.rescanInterval > 0,
+          ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_RESCAN_INTERVAL_KEY + " must be positive");
+      this.changeFeedType = ConfigUtils.getString(this.cfg,
+          ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_CHANGE_FEED_KEY,
+          ConfigurationKeys.DEFAULT_JOB_CONFIG_FILE_MONITOR_CHANGE_FEED).trim().toLowerCase();
+      this.journalDir = this.cfg.hasPath(ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_JOURNAL_DIR_KEY) ?
+          Optional.of(new Path(this.cfg.getString(ConfigurationKeys.JOB_CONFIG_FILE_MONITOR_JOURNAL_DIR_KEY))) :
+          Optional.<Path>absent();
     }
 
     private String getJobConfigurationFileExtensionsString() {
@@ -20,10 +20,16 @@ package org.apache.gobblin.runtime.services;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.jmx.JmxReporter;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
 import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
 import com.codahale.metrics.jvm.FileDescriptorRatioGauge;
 import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
@@ -89,7 +95,82 @@ public class JMXReportingService extends AbstractIdleService {
 
   private void registerMetricSetWithPrefix(String prefix, MetricSet metricSet) {
     for (Map.Entry<String, Metric> entry : metricSet.getMetrics().entrySet()) {
-      this.metricRegistry.register(MetricRegistry.name(prefix, entry.getKey()), entry.getValue());
+      String name = MetricRegistry.name(prefix, entry.getKey());
+      if (entry.getValue() instanceof MetricRegistry) {
+        // A nested registry can gain metrics later, e.g. per-job metrics, so follow it instead of copying it once
+        ((MetricRegistry) entry.getValue()).addListener(new PrefixedMetricRegistryListener(name));
+      } else {
+        this.metricRegistry.register(name, entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Registers the metrics added to another {@link MetricRegistry} under a prefix in the registry reported to JMX.
+   */
+  private class PrefixedMetricRegistryListener implements MetricRegistryListener {
+    private final String prefix;
+
+    PrefixedMetricRegistryListener(String prefix) {
+      this.prefix = prefix;
+    }
+
+    private void add(String name, Metric metric) {
+      metricRegistry.register(MetricRegistry.name(this.prefix, name), metric);
+    }
+
+    private void remove(String name) {
+      metricRegistry.remove(MetricRegistry.name(this.prefix, name));
+    }
+
+    @Override
+    public void onGaugeAdded(String name, Gauge<?> gauge) {
+      add(name, gauge);
+    }
+
+    @Override
+    public void onGaugeRemoved(String name) {
+      remove(name);
+    }
+
+    @Override
+    public void onCounterAdded(String name, Counter counter) {
+      add(name, counter);
+    }
+
+    @Override
+    public void onCounterRemoved(String name) {
+      remove(name);
+    }
+
+    @Override
+    public void onHistogramAdded(String name, Histogram histogram) {
+      add(name, histogram);
+    }
+
+    @Override
+    public void onHistogramRemoved(String name) {
+      remove(name);
+    }
+
+    @Override
+    public void onMeterAdded(String name, Meter meter) {
+      add(name, meter);
+    }
+
+    @Override
+    public void onMeterRemoved(String name) {
+      remove(name);
+    }
+
+    @Override
+    public void onTimerAdded(String name, Timer timer) {
+      add(name, timer);
+    }
+
+    @Override
+    public void onTimerRemoved(String name) {
+      remove(name);
     }
   }
 }
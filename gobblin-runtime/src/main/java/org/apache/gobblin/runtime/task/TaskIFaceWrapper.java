@@ -178,12 +178,17 @@ public class TaskIFaceWrapper extends Task {
    * @return
    */
   @Override
-  public synchronized boolean cancel() {
-    if (this.taskFuture != null && this.taskFuture.cancel(true)) {
-      this.taskStateTracker.onTaskRunCompletion(this);
-      return true;
-    } else {
-      return false;
+  public boolean cancel() {
+    this.taskFutureLock.lock();
+    try {
+      if (this.taskFuture != null && this.taskFuture.cancel(true)) {
+        this.taskStateTracker.onTaskRunCompletion(this);
+        return true;
+      } else {
+        return false;
+      }
+    } finally {
+      this.taskFutureLock.unlock();
     }
   }
 }
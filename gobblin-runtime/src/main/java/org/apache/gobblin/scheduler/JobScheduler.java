@@ -20,6 +20,7 @@ package org.apache.gobblin.scheduler;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -511,6 +512,49 @@ public class JobScheduler extends AbstractIdleService {
     return this.scheduledJobs.keySet();
   }
 
+  /**
+   * Get the next fire times of the scheduled jobs. Jobs that will not fire again are left out.
+   *
+   * @return a map from job names to the next fire times in milliseconds since epoch
+   */
+  public Map<String, Long> getNextFireTimes() {
+    Map<String, Long> nextFireTimes = Maps.newHashMap();
+    for (Map.Entry<String, JobKey> entry : Maps.newHashMap(this.scheduledJobs).entrySet()) {
+      try {
+        for (Trigger trigger : this.scheduler.getScheduler().getTriggersOfJob(entry.getValue())) {
+          Date nextFireTime = trigger.getNextFireTime();
+          if (nextFireTime != null) {
+            nextFireTimes.merge(entry.getKey(), nextFireTime.getTime(), Math::min);
+          }
+        }
+      } catch (SchedulerException se) {
+        LOG.warn("Failed to get the triggers of job " + entry.getKey(), se);
+      }
+    }
+    return nextFireTimes;
+  }
+
+  /**
+   * Get the properties a scheduled job was scheduled with.
+   *
+   * @param jobName Job name
+   * @return the job properties, or absent if the job is not scheduled
+   */
+  protected Optional<Properties> getScheduledJobProps(String jobName) {
+    JobKey jobKey = this.scheduledJobs.get(jobName);
+    if (jobKey == null) {
+      return Optional.absent();
+    }
+    try {
+      JobDetail jobDetail = this.scheduler.getScheduler().getJobDetail(jobKey);
+      return jobDetail == null ? Optional.<Properties>absent()
+          : Optional.fromNullable((Properties) jobDetail.getJobDataMap().get(PROPERTIES_KEY));
+    } catch (SchedulerException se) {
+      LOG.warn("Failed to get the job detail of job " + jobName, se);
+      return Optional.absent();
+    }
+  }
+
   /**
    * Schedule Gobblin jobs in general position
    */
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for {@link FairShareTaskExecutorQueue}.
+ */
+public class FairShareTaskExecutorQueueTest {
+
+  private static final Runnable NOOP = () -> { };
+
+  @Test
+  public void testSharesThreadsBetweenJobs() {
+    FairShareTaskExecutorQueue queue = new FairShareTaskExecutorQueue();
+    queue.add(entry("a1", "jobA", 0, 1.0, 0, 1));
+    queue.add(entry("a2", "jobA", 0, 1.0, 0, 2));
+    queue.add(entry("a3", "jobA", 0, 1.0, 0, 3));
+    queue.add(entry("b1", "jobB", 0, 1.0, 0, 4));
+    Assert.assertEquals(queue.size(), 4);
+
+    // jobA goes first because its oldest task has waited longest, then jobB is behind on its share
+    Assert.assertEquals(queue.poll().getTaskId(), "a1");
+    Assert.assertEquals(queue.poll().getTaskId(), "b1");
+    Assert.assertEquals(queue.poll().getTaskId(), "a2");
+    Assert.assertEquals(queue.poll().getTaskId(), "a3");
+    Assert.assertNull(queue.poll());
+    Assert.assertEquals(queue.size(), 0);
+  }
+
+  @Test
+  public void testWeight() {
+    FairShareTaskExecutorQueue queue = new FairShareTaskExecutorQueue();
+    for (int i = 0; i < 3; i++) {
+      queue.add(entry("a" + i, "jobA", 0, 2.0, 0, i));
+      queue.add(entry("b" + i, "jobB", 0, 1.0, 0, 10 + i));
+    }
+
+    // jobA gets twice as many threads as jobB
+    Assert.assertEquals(queue.poll().getTaskId(), "a0");
+    Assert.assertEquals(queue.poll().getTaskId(), "b0");
+    Assert.assertEquals(queue.poll().getTaskId(), "a1");
+    Assert.assertEquals(queue.poll().getTaskId(), "a2");
+    Assert.assertEquals(queue.poll().getTaskId(), "b1");
+  }
+
+  @Test
+  public void testPriority() {
+    FairShareTaskExecutorQueue queue = new FairShareTaskExecutorQueue();
+    queue.add(entry("low1", "low", 0, 1.0, 0, 1));
+    queue.add(entry("low2", "low", 0, 1.0, 0, 2));
+    queue.add(entry("high1", "high", 1, 1.0, 0, 3));
+    queue.add(entry("high2", "high", 1, 1.0, 0, 4));
+
+    Assert.assertEquals(queue.poll().getTaskId(), "high1");
+    Assert.assertEquals(queue.poll().getTaskId(), "high2");
+    Assert.assertEquals(queue.poll().getTaskId(), "low1");
+  }
+
+  @Test
+  public void testMaxConcurrentTasks() {
+    FairShareTaskExecutorQueue queue = new FairShareTaskExecutorQueue();
+    queue.add(entry("a1", "jobA", 1, 1.0, 1, 1));
+    queue.add(entry("a2", "jobA", 1, 1.0, 1, 2));
+
+    TaskExecutorQueue.Entry first = queue.poll();
+    Assert.assertEquals(first.getTaskId(), "a1");
+    // jobA is at its cap until a1 finishes
+    Assert.assertNull(queue.poll());
+    queue.onTaskFinished(first);
+    TaskExecutorQueue.Entry second = queue.poll();
+    Assert.assertEquals(second.getTaskId(), "a2");
+    queue.onTaskFinished(second);
+    Assert.assertEquals(queue.getNumberOfJobs(), 0);
+  }
+
+  private static TaskExecutorQueue.Entry entry(String taskId, String jobId, int priority, double weight,
+      int maxConcurrentTasks, long enqueueTime) {
+    return new TaskExecutorQueue.Entry(taskId, jobId, priority, weight, maxConcurrentTasks, enqueueTime, NOOP);
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.gobblin.runtime.metastore.filesystem.FsDatasetStateStoreEntryM
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -182,6 +183,96 @@ public class FsDatasetStateStoreTest {
     Assert.assertEquals(datasetState.getDuration(), 1000);
   }
 
+  @Test
+  public void testLatestDatasetStatesIndex() throws IOException {
+    String jobName = "TestIndexedJob";
+    FsDatasetStateStore store =
+        new FsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI, FsDatasetStateStoreTest.class.getSimpleName());
+    store.setLatestDatasetStatesIndexEnabled(true);
+    store.persistDatasetState("dataset1", createDatasetState(jobName, "job_1", "dataset1"));
+    store.persistDatasetState("dataset2", createDatasetState(jobName, "job_1", "dataset2"));
+    store.flushDatasetStates(jobName);
+
+    FileSystem fs = FileSystem.getLocal(new Configuration(false));
+    Path storePath = new Path(FsDatasetStateStoreTest.class.getSimpleName(), jobName);
+    Assert.assertTrue(fs.exists(new Path(storePath, FsDatasetStateStore.LATEST_DATASET_STATES_INDEX_NAME)));
+    // The index does not show up as a table of its own
+    Assert.assertEquals(store.getAll(jobName).size(), 4);
+
+    Map<String, JobState.DatasetState> datasetStatesByUrns = store.getLatestDatasetStatesByUrns(jobName);
+    Assert.assertEquals(datasetStatesByUrns.size(), 2);
+    Assert.assertEquals(datasetStatesByUrns.get("dataset1").getJobId(), "job_1");
+    Assert.assertEquals(datasetStatesByUrns.get("dataset2").getJobId(), "job_1");
+
+    // A dataset state persisted after the index was written is read from its own file
+    FsDatasetStateStore storeWithoutIndex =
+        new FsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI, FsDatasetStateStoreTest.class.getSimpleName());
+    storeWithoutIndex.persistDatasetState("dataset1", createDatasetState(jobName, "job_2", "dataset1"));
+    storeWithoutIndex.persistDatasetState("dataset3", createDatasetState(jobName, "job_2", "dataset3"));
+    Path currentTablePath = new Path(storePath, "dataset1-" + FsDatasetStateStore.CURRENT_DATASET_STATE_FILE_SUFFIX
+        + FsDatasetStateStore.DATASET_STATE_STORE_TABLE_SUFFIX);
+    fs.setTimes(currentTablePath, System.currentTimeMillis() + 60000, -1);
+    datasetStatesByUrns = store.getLatestDatasetStatesByUrns(jobName);
+    Assert.assertEquals(datasetStatesByUrns.size(), 3);
+    Assert.assertEquals(datasetStatesByUrns.get("dataset1").getJobId(), "job_2");
+    Assert.assertEquals(datasetStatesByUrns.get("dataset3").getJobId(), "job_2");
+
+    // A dataset state at least as old as the index is read from the index
+    fs.setTimes(currentTablePath, 0, -1);
+    Assert.assertEquals(store.getLatestDatasetStatesByUrns(jobName).get("dataset1").getJobId(), "job_1");
+  }
+
+  @Test
+  public void testLatestDatasetStatesIndexCompaction() throws IOException {
+    String jobName = "TestCompactedIndexJob";
+    FsDatasetStateStore store =
+        new FsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI, FsDatasetStateStoreTest.class.getSimpleName());
+    store.setLatestDatasetStatesIndexEnabled(true);
+    store.setLatestDatasetStatesIndexMaxSegments(2);
+    FileSystem fs = FileSystem.getLocal(new Configuration(false));
+    Path storePath = new Path(FsDatasetStateStoreTest.class.getSimpleName(), jobName);
+    PathFilter segmentFilter =
+        path -> path.getName().startsWith(FsDatasetStateStore.LATEST_DATASET_STATES_INDEX_NAME + ".");
+
+    // Every run only adds the dataset states it persisted as a new segment
+    store.persistDatasetState("dataset1", createDatasetState(jobName, "job_1", "dataset1"));
+    store.persistDatasetState("dataset2", createDatasetState(jobName, "job_1", "dataset2"));
+    store.flushDatasetStates(jobName);
+    store.persistDatasetState("dataset1", createDatasetState(jobName, "job_2", "dataset1"));
+    store.flushDatasetStates(jobName);
+    Assert.assertEquals(fs.listStatus(storePath, segmentFilter).length, 2);
+    Map<String, JobState.DatasetState> datasetStatesByUrns = store.getLatestDatasetStatesByUrns(jobName);
+    Assert.assertEquals(datasetStatesByUrns.get("dataset1").getJobId(), "job_2");
+    Assert.assertEquals(datasetStatesByUrns.get("dataset2").getJobId(), "job_1");
+
+    // A flush without persisted dataset states does not add a segment
+    store.flushDatasetStates(jobName);
+    Assert.assertEquals(fs.listStatus(storePath, segmentFilter).length, 2);
+
+    // A segment of a run that never flushed it is not listed in the manifest
+    fs.create(new Path(storePath, FsDatasetStateStore.LATEST_DATASET_STATES_INDEX_NAME + ".unflushed")).close();
+    Assert.assertEquals(fs.listStatus(storePath, segmentFilter).length, 3);
+    Assert.assertEquals(store.getLatestDatasetStatesByUrns(jobName).size(), 2);
+
+    // A third listed segment is over the limit, so all segments are compacted into one and the unlisted one is deleted
+    store.persistDatasetState("dataset3", createDatasetState(jobName, "job_3", "dataset3"));
+    store.flushDatasetStates(jobName);
+    Assert.assertEquals(fs.listStatus(storePath, segmentFilter).length, 1);
+    datasetStatesByUrns = store.getLatestDatasetStatesByUrns(jobName);
+    Assert.assertEquals(datasetStatesByUrns.size(), 3);
+    Assert.assertEquals(datasetStatesByUrns.get("dataset1").getJobId(), "job_2");
+    Assert.assertEquals(datasetStatesByUrns.get("dataset2").getJobId(), "job_1");
+    Assert.assertEquals(datasetStatesByUrns.get("dataset3").getJobId(), "job_3");
+  }
+
+  private static JobState.DatasetState createDatasetState(String jobName, String jobId, String datasetUrn) {
+    JobState.DatasetState datasetState = new JobState.DatasetState(jobName, jobId);
+    datasetState.setDatasetUrn(datasetUrn);
+    datasetState.setId(datasetUrn);
+    datasetState.setState(JobState.RunningState.COMMITTED);
+    return datasetState;
+  }
+
   /**
    * Loading previous statestore without apache package name.
    *
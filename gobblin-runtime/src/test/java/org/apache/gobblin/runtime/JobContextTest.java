@@ -18,6 +18,8 @@
 package org.apache.gobblin.runtime;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Queue;
@@ -41,6 +43,7 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
@@ -48,6 +51,8 @@ import com.google.common.io.Files;
 
 import org.apache.gobblin.commit.DeliverySemantics;
 import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.source.workunit.WorkUnit;
 import org.apache.gobblin.util.Either;
 import org.apache.gobblin.util.Id;
 
@@ -344,6 +349,82 @@ public class JobContextTest {
     Assert.assertEquals(jobContext.getDatasetStateFailures(), 0);
   }
 
+  @Test
+  public void testEarlyDatasetCommit() throws Exception {
+    Properties jobProps = new Properties();
+
+    jobProps.setProperty(ConfigurationKeys.JOB_NAME_KEY, "test");
+    jobProps.setProperty(ConfigurationKeys.JOB_ID_KEY, "job_id_12345");
+    jobProps.setProperty(ConfigurationKeys.METRICS_ENABLED_KEY, "false");
+    jobProps.setProperty(ConfigurationKeys.EARLY_DATASET_COMMIT_ENABLED, "true");
+
+    // Only the task states reported so far are known, as with the task state collector
+    Map<String, JobState.DatasetState> datasetStateMap = Maps.newHashMap();
+    TaskState finished0 = createTaskState("0", "task_0", WorkUnitState.WorkingState.SUCCESSFUL);
+    TaskState finished1 = createTaskState("0", "task_1", WorkUnitState.WorkingState.SUCCESSFUL);
+    TaskState finished2 = createTaskState("1", "task_2", WorkUnitState.WorkingState.SUCCESSFUL);
+    TaskState failed3 = createTaskState("1", "task_3", WorkUnitState.WorkingState.FAILED);
+
+    final List<String> committedDatasets = Collections.synchronizedList(Lists.<String>newArrayList());
+    JobContext jobContext = new DummyJobContext(jobProps, log, datasetStateMap) {
+      @Override
+      protected Callable<Void> createSafeDatasetCommit(boolean shouldCommitDataInJob, boolean isJobCancelled,
+          DeliverySemantics deliverySemantics, String datasetUrn, JobState.DatasetState datasetState,
+          boolean isMultithreaded, JobContext jobContext) {
+        // Recorded when the commit is scheduled, so that an early commit shows up right away
+        committedDatasets.add(datasetUrn);
+        return () -> null;
+      }
+    };
+    // Each dataset has two work units
+    for (String datasetUrn : new String[] {"0", "0", "1", "1"}) {
+      WorkUnit workUnit = WorkUnit.createEmpty();
+      workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, datasetUrn);
+      jobContext.addTaskOfDataset(workUnit);
+    }
+    jobContext.getJobState().setProp(AbstractJobLauncher.NUM_WORKUNITS, 4);
+
+    // One of the two tasks of each dataset has succeeded, so neither dataset is committed yet
+    datasetStateMap.put("0", createDatasetState(finished0));
+    datasetStateMap.put("1", createDatasetState(finished2));
+    jobContext.handleNewTaskCompletionEvent(new NewTaskCompletionEvent(ImmutableList.of(finished0, finished2)));
+    Assert.assertTrue(committedDatasets.isEmpty());
+
+    // Both tasks of "0" have succeeded, so it is committed while the job runs
+    datasetStateMap.put("0", createDatasetState(finished0, finished1));
+    jobContext.handleNewTaskCompletionEvent(new NewTaskCompletionEvent(ImmutableList.of(finished1)));
+    Assert.assertEquals(committedDatasets, Lists.newArrayList("0"));
+
+    // A task of "1" has failed, so it is left to the commit at the end of the job
+    datasetStateMap.put("1", createDatasetState(finished2, failed3));
+    jobContext.handleNewTaskCompletionEvent(new NewTaskCompletionEvent(ImmutableList.of(failed3)));
+    Assert.assertEquals(committedDatasets, Lists.newArrayList("0"));
+    jobContext.commit();
+
+    // "0" is committed once while the job runs, "1" only at the end of the job
+    Assert.assertEquals(committedDatasets, Lists.newArrayList("0", "1"));
+    Assert.assertEquals(jobContext.getDatasetStatesByUrns().keySet(), datasetStateMap.keySet());
+    Assert.assertEquals(jobContext.getJobState().getState(), JobState.RunningState.COMMITTED);
+    jobContext.close();
+  }
+
+  private static TaskState createTaskState(String datasetUrn, String taskId, WorkUnitState.WorkingState state) {
+    TaskState taskState = new TaskState();
+    taskState.setTaskId(taskId);
+    taskState.setProp(ConfigurationKeys.DATASET_URN_KEY, datasetUrn);
+    taskState.setWorkingState(state);
+    return taskState;
+  }
+
+  private static JobState.DatasetState createDatasetState(TaskState... taskStates) {
+    JobState.DatasetState datasetState = new JobState.DatasetState("test", "job_id_12345");
+    for (TaskState taskState : taskStates) {
+      datasetState.incrementTaskCount();
+      datasetState.addTaskState(taskState);
+    }
+    return datasetState;
+  }
+
   /**
    * A {@link Callable} that blocks until a different thread calls {@link #unblock()}.
    */
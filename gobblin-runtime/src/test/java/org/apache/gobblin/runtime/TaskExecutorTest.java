@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.source.workunit.WorkUnit;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Unit tests for running {@link Task}s through the task queue of a {@link TaskExecutor}.
+ */
+public class TaskExecutorTest {
+
+  @Test
+  public void testQueuedTasksCappedAtThreadPoolSize() throws Exception {
+    TaskExecutor taskExecutor = new TaskExecutor(queueProperties(2));
+    taskExecutor.startAsync().awaitRunning();
+    try {
+      final CountDownLatch started = new CountDownLatch(2);
+      final CountDownLatch release = new CountDownLatch(1);
+      final AtomicInteger running = new AtomicInteger();
+      final AtomicInteger maxRunning = new AtomicInteger();
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < 5; i++) {
+        Task task = mockTask("task" + i, "jobA");
+        doAnswer(invocation -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          started.countDown();
+          release.await();
+          running.decrementAndGet();
+          return null;
+        }).when(task).run();
+        futures.add(taskExecutor.submit(task));
+      }
+
+      Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+      // Give the queue a chance to wrongly hand out more tasks
+      Thread.sleep(200);
+      Assert.assertEquals(running.get(), 2);
+      Assert.assertTrue(getJobQueuedTaskTimes(taskExecutor).getHistograms().containsKey("jobA.time"));
+
+      release.countDown();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(future.isDone());
+      }
+      Assert.assertEquals(maxRunning.get(), 2);
+      Assert.assertEquals(taskExecutor.getSuccessfulTaskCount().getCount(), 5);
+      // The job has no queued or running tasks left, so its histogram is gone
+      Assert.assertTrue(getJobQueuedTaskTimes(taskExecutor).getHistograms().isEmpty());
+    } finally {
+      taskExecutor.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testRetriedTaskReentersQueue() throws Exception {
+    final TaskExecutor taskExecutor = new TaskExecutor(queueProperties(1));
+    taskExecutor.startAsync().awaitRunning();
+    try {
+      final Task task = mockTask("task0", "jobA");
+      final AtomicInteger attempts = new AtomicInteger();
+      final CountDownLatch retried = new CountDownLatch(1);
+      doAnswer(invocation -> {
+        if (attempts.incrementAndGet() == 1) {
+          // The task state tracker retries a failed task before the task returns
+          taskExecutor.retry(task);
+        } else {
+          retried.countDown();
+        }
+        return null;
+      }).when(task).run();
+
+      taskExecutor.execute(task);
+
+      Assert.assertTrue(retried.await(10, TimeUnit.SECONDS));
+      Assert.assertEquals(attempts.get(), 2);
+    } finally {
+      taskExecutor.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testQueuedTaskRejectedAfterShutdown() throws Exception {
+    TaskExecutor taskExecutor = new TaskExecutor(queueProperties(1));
+    taskExecutor.startAsync().awaitRunning();
+    final CountDownLatch release = new CountDownLatch(1);
+    Task running = mockTask("task0", "jobA");
+    doAnswer(invocation -> {
+      release.await();
+      return null;
+    }).when(running).run();
+    Future<?> runningFuture = taskExecutor.submit(running);
+    Future<?> queuedFuture = taskExecutor.submit(mockTask("task1", "jobA"));
+
+    // The queued task is dispatched only after the thread pool has been shut down
+    taskExecutor.stopAsync();
+    Thread.sleep(200);
+    release.countDown();
+    runningFuture.get(10, TimeUnit.SECONDS);
+    taskExecutor.awaitTerminated(10, TimeUnit.SECONDS);
+
+    // The rejected task is not left waiting, and its job is not tracked anymore
+    Assert.assertTrue(queuedFuture.isCancelled());
+    Assert.assertTrue(getJobQueuedTaskTimes(taskExecutor).getHistograms().isEmpty());
+  }
+
+  private static Properties queueProperties(int threadPoolSize) {
+    Properties properties = new Properties();
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY, Integer.toString(threadPoolSize));
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_QUEUE_CLASS_KEY, "fairShare");
+    return properties;
+  }
+
+  private static Task mockTask(String taskId, String jobName) {
+    TaskState taskState = new TaskState(new WorkUnitState(WorkUnit.createEmpty()));
+    taskState.setProp(ConfigurationKeys.JOB_NAME_KEY, jobName);
+    taskState.setProp(ConfigurationKeys.JOB_ID_KEY, "job_" + jobName + "_1");
+    taskState.setProp(ConfigurationKeys.TASK_ID_KEY, taskId);
+    TaskContext taskContext = mock(TaskContext.class);
+    when(taskContext.getTaskState()).thenReturn(taskState);
+    Task task = mock(Task.class);
+    when(task.getTaskId()).thenReturn(taskId);
+    when(task.getTaskState()).thenReturn(taskState);
+    when(task.getTaskContext()).thenReturn(taskContext);
+    return task;
+  }
+
+  private static MetricRegistry getJobQueuedTaskTimes(TaskExecutor taskExecutor) {
+    return (MetricRegistry) taskExecutor.getTaskExecutorQueueMetricSet().getMetrics().get("queued.job");
+  }
+}
@@ -22,6 +22,8 @@ import com.sforce.async.AsyncApiException;
 import com.sforce.async.AsyncExceptionCode;
 import com.sforce.async.BulkConnection;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -48,6 +50,8 @@ public class BulkResultIterator implements Iterator<JsonElement> {
   private long retryInterval;
   private long retryExceedQuotaInterval;
   private List<String> preLoadedLine = null;
+  private BulkResultPrefetcher prefetcher = null;
+  private int fileIndex;
 
   public BulkResultIterator(BulkConnection conn, FileIdVO fileIdVO, int retryLimit, long retryInterval, long retryExceedQuotaInterval) {
     log.info("create BulkResultIterator: " + fileIdVO);
@@ -58,6 +62,17 @@ public class BulkResultIterator implements Iterator<JsonElement> {
     this.retryLimit = retryLimit;
   }
 
+  /**
+   * Read the result file from the local copy downloaded by {@link BulkResultPrefetcher}, if there is one.
+   * Retries after a failure always go back to Salesforce.
+   */
+  public BulkResultIterator(BulkConnection conn, FileIdVO fileIdVO, int retryLimit, long retryInterval,
+      long retryExceedQuotaInterval, BulkResultPrefetcher prefetcher, int fileIndex) {
+    this(conn, fileIdVO, retryLimit, retryInterval, retryExceedQuotaInterval);
+    this.prefetcher = prefetcher;
+    this.fileIndex = fileIndex;
+  }
+
   /**
    * read first data record from cvsReader and initiate header
    * not supposed to do it in constructor function, for delay creating file stream
@@ -134,6 +149,10 @@ public class BulkResultIterator implements Iterator<JsonElement> {
     this.preLoadedLine = this.nextLineWithRetry();
     if (this.preLoadedLine == null) {
       log.info("----Record count: [{}] for {}", getRowCount(), fileIdVO);
+      if (this.prefetcher != null) {
+        closeCsvReader();
+        this.prefetcher.release(this.fileIndex);
+      }
     }
     return jsonObject;
   }
@@ -148,7 +167,7 @@ public class BulkResultIterator implements Iterator<JsonElement> {
     log.info("Fetching [jobId={}, batchId={}, resultId={}]", jobId, batchId, resultId);
     closeCsvReader();
     try {
-      InputStream is = conn.getQueryResultStream(jobId, batchId, resultId);
+      InputStream is = openResultStream(rootCause == null);
       BufferedReader br = new BufferedReader(new InputStreamReader(is, ConfigurationKeys.DEFAULT_CHARSET_ENCODING));
       csvReader = new InputStreamCSVReader(br);
       List<String> lastSkippedLine = null;
@@ -169,6 +188,16 @@ public class BulkResultIterator implements Iterator<JsonElement> {
     }
   }
 
+  private InputStream openResultStream(boolean isFirstAttempt) throws AsyncApiException, IOException {
+    if (this.prefetcher != null && isFirstAttempt) {
+      File prefetchedFile = this.prefetcher.getPrefetchedFile(this.fileIndex);
+      if (prefetchedFile != null) {
+        return new FileInputStream(prefetchedFile);
+      }
+    }
+    return conn.getQueryResultStream(fileIdVO.getJobId(), fileIdVO.getBatchId(), fileIdVO.getResultId());
+  }
+
   private int getRowCount() {
     // first line is header, last line is `null`,
     // because cvsReader doesn't have hasNext to check end of the stream, we will get null as last line
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.salesforce;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.base.Optional;
+import com.sforce.async.BulkConnection;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.util.ExecutorsUtils;
+
+
+/**
+ * Downloads Bulk API result files ahead of the {@link BulkResultIterator} that is currently parsing.
+ *
+ * At most {@code prefetchCount} result files beyond the one being read are downloaded concurrently into spill files
+ * under {@code spillDir}. Files are handed out strictly by their index in the result list, so record order is the
+ * same as the sequential path. A download is attempted only once; if it fails, {@link #getPrefetchedFile(int)}
+ * returns null and the iterator falls back to streaming the result directly, with its usual retry and
+ * {@code openAndSeekCsvReader} recovery.
+ */
+@Slf4j
+public class BulkResultPrefetcher implements Closeable {
+  private final BulkConnection conn;
+  private final List<FileIdVO> fileIdList;
+  private final int prefetchCount;
+  private final File spillDir;
+  private final ExecutorService executor;
+  private final List<Future<File>> downloads;
+
+  @Getter
+  private final AtomicLong downloadedBatches = new AtomicLong();
+  @Getter
+  private final AtomicLong failedBatches = new AtomicLong();
+  @Getter
+  private final AtomicLong downloadedBytes = new AtomicLong();
+  @Getter
+  private final AtomicLong downloadMillis = new AtomicLong();
+
+  public BulkResultPrefetcher(BulkConnection conn, List<FileIdVO> fileIdList, int prefetchCount, File spillDir) {
+    this.conn = conn;
+    this.fileIdList = fileIdList;
+    this.prefetchCount = prefetchCount;
+    this.spillDir = spillDir;
+    this.downloads = new ArrayList<>(fileIdList.size());
+    this.executor = Executors.newFixedThreadPool(Math.max(1, prefetchCount),
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("SalesforceBulkResultPrefetcher-%d")));
+  }
+
+  /**
+   * Get the local copy of the result file at the given index, blocking until its download finishes, and schedule
+   * downloads for the following {@code prefetchCount} files.
+   * @return the spill file, or null if the file could not be downloaded and must be streamed from Salesforce.
+   */
+  public File getPrefetchedFile(int index) {
+    scheduleUpTo(Math.min(this.fileIdList.size() - 1, index + this.prefetchCount));
+    try {
+      return this.downloads.get(index).get();
+    } catch (ExecutionException e) {
+      log.warn("Prefetch failed for {}, falling back to streaming: {}", this.fileIdList.get(index),
+          e.getCause().getMessage());
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for prefetched file " + this.fileIdList.get(index), e);
+    }
+  }
+
+  /**
+   * Delete the spill file of a result file that has been fully consumed.
+   */
+  public void release(int index) {
+    if (index >= this.downloads.size()) {
+      return;
+    }
+    Future<File> download = this.downloads.get(index);
+    if (download.isDone() && !download.isCancelled()) {
+      try {
+        deleteQuietly(download.get());
+      } catch (ExecutionException | InterruptedException e) {
+        // nothing was spilled for this file
+      }
+    }
+  }
+
+  private synchronized void scheduleUpTo(int lastIndex) {
+    while (this.downloads.size() <= lastIndex) {
+      final int index = this.downloads.size();
+      this.downloads.add(this.executor.submit(() -> download(index)));
+    }
+  }
+
+  private File download(int index) throws Exception {
+    FileIdVO fileIdVO = this.fileIdList.get(index);
+    File spillFile = File.createTempFile("sf-bulk-" + fileIdVO.getBatchId() + "-", ".csv", this.spillDir);
+    spillFile.deleteOnExit();
+    long startTime = System.currentTimeMillis();
+    try (InputStream is = this.conn.getQueryResultStream(fileIdVO.getJobId(), fileIdVO.getBatchId(),
+        fileIdVO.getResultId()); OutputStream os = new FileOutputStream(spillFile)) {
+      long bytes = IOUtils.copyLarge(is, os);
+      long millis = System.currentTimeMillis() - startTime;
+      this.downloadedBatches.incrementAndGet();
+      this.downloadedBytes.addAndGet(bytes);
+      this.downloadMillis.addAndGet(millis);
+      log.info("Prefetched {}: {} bytes in {} ms", fileIdVO, bytes, millis);
+      return spillFile;
+    } catch (Exception e) {
+      this.failedBatches.incrementAndGet();
+      deleteQuietly(spillFile);
+      throw e;
+    }
+  }
+
+  private static void deleteQuietly(File file) {
+    if (file != null && file.exists() && !file.delete()) {
+      log.warn("Failed to delete spill file {}", file);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(log));
+    for (int i = 0; i < this.downloads.size(); i++) {
+      release(i);
+    }
+    log.info("Bulk result prefetch: {} batches, {} bytes, {} ms downloading, {} failed", this.downloadedBatches.get(),
+        this.downloadedBytes.get(), this.downloadMillis.get(), this.failedBatches.get());
+  }
+}
@@ -19,6 +19,7 @@ package org.apache.gobblin.salesforce;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import com.google.common.collect.Iterators;
 import com.google.gson.JsonElement;
@@ -45,6 +46,17 @@ public class ResultChainingIterator implements Iterator<JsonElement> {
     iter = Iterators.<JsonElement>concat(iterOfFiles);
   }
 
+  /**
+   * Chain result iterators that read the files downloaded ahead of time by the given {@link BulkResultPrefetcher}.
+   */
+  public ResultChainingIterator(BulkConnection conn, List<FileIdVO> fileIdList, int retryLimit,
+      long retryInterval, long retryExceedQuotaInterval, BulkResultPrefetcher prefetcher) {
+    Iterator<BulkResultIterator> iterOfFiles = IntStream.range(0, fileIdList.size()).mapToObj(i ->
+        new BulkResultIterator(conn, fileIdList.get(i), retryLimit, retryInterval, retryExceedQuotaInterval,
+            prefetcher, i)).iterator();
+    iter = Iterators.<JsonElement>concat(iterOfFiles);
+  }
+
   public Iterator<JsonElement> get() {
     return iter;
   }
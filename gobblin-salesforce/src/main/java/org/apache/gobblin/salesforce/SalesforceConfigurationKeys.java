@@ -38,5 +38,10 @@ public final class SalesforceConfigurationKeys {
   public static final String BULK_TEST_BATCH_ID_LIST = "salesforce.bulk.testBatchIds";
   public static final String SALESFORCE_PARTITION_TYPE = "salesforce.partitionType";
   public static final String PK_CHUNKING_JOB_ID = "__salesforce.job.id"; // don't use in ini config
+  // bulk result prefetch stats reported in the work unit state
+  public static final String BULK_PREFETCH_BATCHES = "salesforce.bulk.prefetch.batches";
+  public static final String BULK_PREFETCH_FAILED_BATCHES = "salesforce.bulk.prefetch.failedBatches";
+  public static final String BULK_PREFETCH_BYTES = "salesforce.bulk.prefetch.bytes";
+  public static final String BULK_PREFETCH_MILLIS = "salesforce.bulk.prefetch.millis";
   public static final String PK_CHUNKING_BATCH_RESULT_ID_PAIRS = "__salesforce.batch.result.id.pairs"; // don't use in ini config
 }
@@ -19,6 +19,7 @@ package org.apache.gobblin.salesforce;
 
 import com.google.common.collect.Iterators;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.net.URI;
 import java.text.ParseException;
@@ -119,6 +120,7 @@ public class SalesforceExtractor extends RestApiExtractor {
 
   private final boolean bulkApiUseQueryAll;
   private SfConfig conf;
+  private BulkResultPrefetcher bulkResultPrefetcher = null;
 
 
   public SalesforceExtractor(WorkUnitState state) {
@@ -558,7 +560,22 @@ public class SalesforceExtractor extends RestApiExtractor {
     String jobId = workUnit.getProp(PK_CHUNKING_JOB_ID);
     String batchIdResultIdPairString = workUnit.getProp(PK_CHUNKING_BATCH_RESULT_ID_PAIRS);
     List<FileIdVO> fileIdList = this.parseBatchIdResultIdString(jobId, batchIdResultIdPairString);
-    return new ResultChainingIterator(bulkConnection, fileIdList, retryLimit, retryInterval, retryExceedQuotaInterval);
+    return createResultChainingIterator(fileIdList);
+  }
+
+  /**
+   * Chain the result files, downloading up to {@link SfConfig#bulkPrefetchCount} files ahead when prefetching is on.
+   */
+  private ResultChainingIterator createResultChainingIterator(List<FileIdVO> fileIdList) {
+    if (conf.bulkPrefetchCount <= 0) {
+      return new ResultChainingIterator(bulkConnection, fileIdList, retryLimit, retryInterval, retryExceedQuotaInterval);
+    }
+    File spillDir = new File(Strings.isNullOrEmpty(conf.bulkPrefetchDir)
+        ? System.getProperty("java.io.tmpdir") : conf.bulkPrefetchDir);
+    log.info("Prefetching {} bulk result files ahead into {}", conf.bulkPrefetchCount, spillDir);
+    this.bulkResultPrefetcher = new BulkResultPrefetcher(bulkConnection, fileIdList, conf.bulkPrefetchCount, spillDir);
+    return new ResultChainingIterator(bulkConnection, fileIdList, retryLimit, retryInterval, retryExceedQuotaInterval,
+        this.bulkResultPrefetcher);
   }
 
   private List<FileIdVO> parseBatchIdResultIdString(String jobId, String batchIdResultIdString) {
@@ -588,8 +605,7 @@ public class SalesforceExtractor extends RestApiExtractor {
       List<FileIdVO> fileIdVoList = this.bulkResultIdList.stream()
           .map(x -> new FileIdVO(this.bulkJob.getId(), x.batchId, x.resultId))
           .collect(Collectors.toList());
-      ResultChainingIterator chainingIter = new ResultChainingIterator(
-          bulkConnection, fileIdVoList, retryLimit, retryInterval, retryExceedQuotaInterval);
+      ResultChainingIterator chainingIter = createResultChainingIterator(fileIdVoList);
       chainingIter.add(getSoftDeletedRecords(schema, entity, workUnit, predicateList));
       return chainingIter;
     } catch (Exception e) {
@@ -889,6 +905,14 @@ public class SalesforceExtractor extends RestApiExtractor {
 
   @Override
   public void closeConnection() throws Exception {
+    if (this.bulkResultPrefetcher != null) {
+      this.bulkResultPrefetcher.close();
+      this.workUnitState.setProp(BULK_PREFETCH_BATCHES, this.bulkResultPrefetcher.getDownloadedBatches().get());
+      this.workUnitState.setProp(BULK_PREFETCH_FAILED_BATCHES, this.bulkResultPrefetcher.getFailedBatches().get());
+      this.workUnitState.setProp(BULK_PREFETCH_BYTES, this.bulkResultPrefetcher.getDownloadedBytes().get());
+      this.workUnitState.setProp(BULK_PREFETCH_MILLIS, this.bulkResultPrefetcher.getDownloadMillis().get());
+      this.bulkResultPrefetcher = null;
+    }
     if (this.bulkConnection != null
         && !this.bulkConnection.getJobStatus(this.getBulkJobId()).getState().toString().equals("Closed")) {
       log.info("Closing salesforce bulk job connection");
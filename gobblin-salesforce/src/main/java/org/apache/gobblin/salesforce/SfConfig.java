@@ -43,6 +43,14 @@ public class SfConfig extends QueryBasedSourceConfig {
   @Key("salesforce.retry.exceedQuotaInterval")@Default("300000")
   public int retryExceedQuotaInterval;
 
+  // number of bulk result files downloaded ahead of the one being parsed, 0 disables prefetching
+  @Key("salesforce.bulk.prefetchCount")@Default("0")@IntRange({0, 64})
+  public int bulkPrefetchCount;
+
+  // local directory for prefetched bulk result files, java.io.tmpdir if not set
+  @Key("salesforce.bulk.prefetchDir")
+  public String bulkPrefetchDir;
+
   @Key("sf.rest.api.retryLimit")@Default("3")
   public int restApiRetryLimit;
 
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gobblin.salesforce;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.gson.JsonElement;
+import com.sforce.async.AsyncApiException;
+import com.sforce.async.AsyncExceptionCode;
+import com.sforce.async.BulkConnection;
+
+
+public class BulkResultPrefetcherTest {
+
+  @Test
+  public void testPrefetchKeepsResultOrder() throws Exception {
+    BulkConnection conn = Mockito.mock(BulkConnection.class);
+    List<FileIdVO> fileIds = ImmutableList.of(new FileIdVO("job", "b1", "r1"), new FileIdVO("job", "b2", "r2"),
+        new FileIdVO("job", "b3", "r3"));
+    for (int i = 1; i <= 3; i++) {
+      String csv = "\"Id\",\"Name\"\n\"" + i + "a\",\"x\"\n\"" + i + "b\",\"y\"\n";
+      Mockito.when(conn.getQueryResultStream("job", "b" + i, "r" + i))
+          .thenReturn(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    File spillDir = Files.createTempDir();
+    try (BulkResultPrefetcher prefetcher = new BulkResultPrefetcher(conn, fileIds, 2, spillDir)) {
+      ResultChainingIterator iter = new ResultChainingIterator(conn, fileIds, 1, 0, 0, prefetcher);
+      List<String> ids = new ArrayList<>();
+      while (iter.hasNext()) {
+        JsonElement element = iter.next();
+        ids.add(element.getAsJsonObject().get("Id").getAsString());
+      }
+      Assert.assertEquals(ids, ImmutableList.of("1a", "1b", "2a", "2b", "3a", "3b"));
+      Assert.assertEquals(prefetcher.getDownloadedBatches().get(), 3);
+      Assert.assertEquals(prefetcher.getFailedBatches().get(), 0);
+    }
+    Assert.assertEquals(spillDir.listFiles().length, 0);
+    spillDir.delete();
+  }
+
+  @Test
+  public void testFallbackToStreamingOnPrefetchFailure() throws Exception {
+    BulkConnection conn = Mockito.mock(BulkConnection.class);
+    List<FileIdVO> fileIds = ImmutableList.of(new FileIdVO("job", "b1", "r1"));
+    String csv = "\"Id\"\n\"1\"\n";
+    Mockito.when(conn.getQueryResultStream("job", "b1", "r1"))
+        .thenThrow(new AsyncApiException("failed", AsyncExceptionCode.ClientInputError))
+        .thenReturn(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+    File spillDir = Files.createTempDir();
+    try (BulkResultPrefetcher prefetcher = new BulkResultPrefetcher(conn, fileIds, 1, spillDir)) {
+      Assert.assertNull(prefetcher.getPrefetchedFile(0));
+      Assert.assertEquals(prefetcher.getFailedBatches().get(), 1);
+
+      BulkResultIterator iter = new BulkResultIterator(conn, fileIds.get(0), 1, 0, 0, prefetcher, 0);
+      Assert.assertTrue(iter.hasNext());
+      Assert.assertEquals(iter.next().getAsJsonObject().get("Id").getAsString(), "1");
+      Assert.assertFalse(iter.hasNext());
+    }
+    spillDir.delete();
+  }
+}
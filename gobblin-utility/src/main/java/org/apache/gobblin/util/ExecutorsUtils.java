@@ -53,6 +53,8 @@ public class ExecutorsUtils {
 
   private static final ThreadFactory DEFAULT_THREAD_FACTORY = newThreadFactory(Optional.<Logger>absent());
 
+  private static final Optional<ThreadFactory> VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
   public static final long EXECUTOR_SERVICE_SHUTDOWN_TIMEOUT = 60;
   public static final TimeUnit EXECUTOR_SERVICE_SHUTDOWN_TIMEOUT_TIMEUNIT = TimeUnit.SECONDS;
 
@@ -103,6 +105,44 @@ public class ExecutorsUtils {
     return newThreadFactory(new ThreadFactoryBuilder().setDaemon(true), logger, nameFormat);
   }
 
+  /**
+   * @return whether the JVM supports virtual threads, which requires Java 21 or later
+   */
+  public static boolean isVirtualThreadSupported() {
+    return VIRTUAL_THREAD_FACTORY.isPresent();
+  }
+
+  /**
+   * Get a new {@link ThreadFactory} that creates virtual threads, uses a {@link LoggingUncaughtExceptionHandler}
+   * to handle uncaught exceptions, and uses the given thread name format.
+   *
+   * @param logger an {@link Optional} wrapping the {@link Logger} that the
+   *               {@link LoggingUncaughtExceptionHandler} uses to log uncaught exceptions thrown in threads
+   * @param nameFormat an {@link Optional} wrapping a thread naming format
+   * @return a new {@link ThreadFactory}
+   * @throws UnsupportedOperationException if the JVM does not support virtual threads
+   */
+  public static ThreadFactory newVirtualThreadFactory(Optional<Logger> logger, Optional<String> nameFormat) {
+    if (!VIRTUAL_THREAD_FACTORY.isPresent()) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+    return newThreadFactory(new ThreadFactoryBuilder().setThreadFactory(VIRTUAL_THREAD_FACTORY.get()), logger,
+        nameFormat);
+  }
+
+  /**
+   * Look up {@code Thread.ofVirtual().factory()} reflectively, since this code is compiled for Java 8.
+   */
+  private static Optional<ThreadFactory> createVirtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Object factory = Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+      return Optional.of((ThreadFactory) factory);
+    } catch (ReflectiveOperationException e) {
+      return Optional.absent();
+    }
+  }
+
   private static ThreadFactory newThreadFactory(ThreadFactoryBuilder builder, Optional<Logger> logger,
       Optional<String> nameFormat) {
     if (nameFormat.isPresent()) {
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.filesystem;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.util.ExecutorsUtils;
+
+
+/**
+ * A {@link PathAlterationObserver} that learns about changes from a {@link PathChangeFeed} instead of listing the
+ * whole directory tree on every check.
+ *
+ * <p>
+ *   The observer keeps the modification time, length and type of every file under the root directory, which it
+ *   compares like {@link FileStatusEntry#refresh(Path)} does, so a file rewritten within the modification time
+ *   granularity of the file system is still reported as changed if its length differs. Every path reported by the feed
+ *   is listed and diffed against that snapshot, and the listeners are notified of the files that were created,
+ *   changed or deleted under it. {@link #checkAndNotify()}, which {@link PathAlterationObserverScheduler} calls on its
+ *   interval, does the same for the root directory, so a full rescan only runs as a safety net and the scheduler
+ *   interval can be long. A full rescan also runs whenever the feed reports that it lost events.
+ * </p>
+ *
+ * <p>
+ *   Unlike {@link PathAlterationObserver}, only file events are fired; directories are not reported to listeners.
+ * </p>
+ */
+@Slf4j
+public class EventDrivenPathAlterationObserver extends PathAlterationObserver {
+
+  private final FileSystem fs;
+  private final Path rootPath;
+  private final String rootPrefix;
+  private final PathFilter pathFilter;
+  private final PathChangeFeed changeFeed;
+  private final long feedPollIntervalMillis;
+  /** Status of every file under the root directory, keyed by qualified path. */
+  private final ConcurrentSkipListMap<String, FileSnapshot> fileSnapshots = new ConcurrentSkipListMap<>();
+  private ExecutorService feedExecutor;
+  private volatile boolean running = false;
+
+  public EventDrivenPathAlterationObserver(Path rootPath, PathFilter pathFilter, PathChangeFeed changeFeed,
+      long feedPollIntervalMillis) throws IOException {
+    super(rootPath, pathFilter);
+    this.fs = rootPath.getFileSystem(new Configuration());
+    this.rootPath = this.fs.makeQualified(rootPath);
+    String root = this.rootPath.toString();
+    this.rootPrefix = root.endsWith(Path.SEPARATOR) ? root : root + Path.SEPARATOR;
+    this.pathFilter = pathFilter;
+    this.changeFeed = changeFeed;
+    this.feedPollIntervalMillis = feedPollIntervalMillis;
+  }
+
+  /**
+   * Take the initial snapshot of the root directory and start following the change feed.
+   */
+  @Override
+  public void initialize() throws IOException {
+    this.changeFeed.start();
+    syncSubtree(this.rootPath, false);
+    this.running = true;
+    this.feedExecutor = Executors.newSingleThreadExecutor(ExecutorsUtils.newDaemonThreadFactory(Optional.of(log),
+        Optional.of("PathChangeFeed-" + this.rootPath.getName())));
+    this.feedExecutor.submit(new Runnable() {
+      @Override
+      public void run() {
+        followChangeFeed();
+      }
+    });
+  }
+
+  /**
+   * Rescan the whole root directory.
+   */
+  @Override
+  public void checkAndNotify() throws IOException {
+    notifyChanges(Collections.singleton(this.rootPath));
+  }
+
+  @Override
+  public void destroy() {
+    this.running = false;
+    if (this.feedExecutor != null) {
+      ExecutorsUtils.shutdownExecutorService(this.feedExecutor, Optional.of(log), 5, TimeUnit.SECONDS);
+    }
+    try {
+      this.changeFeed.close();
+    } catch (IOException e) {
+      log.warn("Failed to close change feed of " + this.rootPath, e);
+    }
+  }
+
+  private void followChangeFeed() {
+    boolean rescanNeeded = false;
+    while (this.running) {
+      try {
+        if (rescanNeeded) {
+          checkAndNotify();
+          rescanNeeded = false;
+        }
+        Optional<Collection<Path>> changes = this.changeFeed.poll(this.feedPollIntervalMillis, TimeUnit.MILLISECONDS);
+        if (!changes.isPresent()) {
+          log.warn("Change feed of {} lost events, rescanning", this.rootPath);
+          rescanNeeded = true;
+        } else if (!changes.get().isEmpty()) {
+          notifyChanges(changes.get());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (IOException | RuntimeException e) {
+        if (!this.running) {
+          return;
+        }
+        log.error("Failed to process changes under " + this.rootPath + ", rescanning", e);
+        rescanNeeded = true;
+        try {
+          TimeUnit.MILLISECONDS.sleep(this.feedPollIntervalMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  @VisibleForTesting
+  synchronized void notifyChanges(Collection<Path> changedPaths) throws IOException {
+    for (PathAlterationListener listener : getDecoratedListeners()) {
+      listener.onStart(this);
+    }
+    try {
+      for (Path changedPath : changedPaths) {
+        syncSubtree(this.fs.makeQualified(changedPath), true);
+      }
+    } finally {
+      for (PathAlterationListener listener : getDecoratedListeners()) {
+        listener.onStop(this);
+      }
+    }
+  }
+
+  /**
+   * List the given path and bring the snapshot of it, and of everything under it, up to date.
+   */
+  private synchronized void syncSubtree(Path path, boolean notify) throws IOException {
+    String key = path.toString();
+    if (!key.equals(this.rootPath.toString()) && !key.startsWith(this.rootPrefix)) {
+      log.debug("Ignoring change to {} outside of {}", path, this.rootPath);
+      return;
+    }
+    Map<String, FileSnapshot> current = listFiles(path);
+
+    List<String> deleted = new ArrayList<>();
+    for (String previous : getSnapshot(key).keySet()) {
+      if (!current.containsKey(previous)) {
+        deleted.add(previous);
+      }
+    }
+    for (String file : deleted) {
+      this.fileSnapshots.remove(file);
+      if (notify) {
+        for (PathAlterationListener listener : getDecoratedListeners()) {
+          listener.onFileDelete(new Path(file));
+        }
+      }
+    }
+
+    for (Map.Entry<String, FileSnapshot> entry : current.entrySet()) {
+      FileSnapshot previous = this.fileSnapshots.put(entry.getKey(), entry.getValue());
+      if (!notify || entry.getValue().equals(previous)) {
+        continue;
+      }
+      for (PathAlterationListener listener : getDecoratedListeners()) {
+        if (previous == null) {
+          listener.onFileCreate(new Path(entry.getKey()));
+        } else {
+          listener.onFileChange(new Path(entry.getKey()));
+        }
+      }
+    }
+  }
+
+  /**
+   * The snapshot entries for the given path and everything under it.
+   */
+  private NavigableMap<String, FileSnapshot> getSnapshot(String key) {
+    String prefix = key.endsWith(Path.SEPARATOR) ? key : key + Path.SEPARATOR;
+    // '0' is the character right after the separator, so this covers exactly the keys starting with the prefix
+    NavigableMap<String, FileSnapshot> snapshot =
+        new TreeMap<>(this.fileSnapshots.subMap(prefix, prefix.substring(0, prefix.length() - 1) + '0'));
+    FileSnapshot fileSnapshot = this.fileSnapshots.get(key);
+    if (fileSnapshot != null) {
+      snapshot.put(key, fileSnapshot);
+    }
+    return snapshot;
+  }
+
+  private Map<String, FileSnapshot> listFiles(Path path) throws IOException {
+    Map<String, FileSnapshot> files = new TreeMap<>();
+    FileStatus status;
+    try {
+      status = this.fs.getFileStatus(path);
+    } catch (FileNotFoundException e) {
+      return files;
+    }
+    if (!status.isDirectory()) {
+      if (accept(path)) {
+        files.put(this.fs.makeQualified(status.getPath()).toString(), new FileSnapshot(status));
+      }
+      return files;
+    }
+    RemoteIterator<LocatedFileStatus> iterator = this.fs.listFiles(path, true);
+    while (iterator.hasNext()) {
+      LocatedFileStatus file = iterator.next();
+      if (accept(file.getPath())) {
+        files.put(this.fs.makeQualified(file.getPath()).toString(), new FileSnapshot(file));
+      }
+    }
+    return files;
+  }
+
+  private boolean accept(Path path) {
+    return this.pathFilter == null || this.pathFilter.accept(path);
+  }
+
+  /**
+   * The parts of a {@link FileStatus} that {@link FileStatusEntry#refresh(Path)} compares to detect a change.
+   */
+  @EqualsAndHashCode
+  private static class FileSnapshot {
+    private final long modificationTime;
+    private final long length;
+    private final boolean directory;
+
+    FileSnapshot(FileStatus status) {
+      this.modificationTime = status.getModificationTime();
+      this.length = status.getLen();
+      this.directory = status.isDirectory();
+    }
+  }
+}
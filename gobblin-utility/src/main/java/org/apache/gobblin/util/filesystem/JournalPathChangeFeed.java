@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.filesystem;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * A {@link PathChangeFeed} that reads a change journal written by the tooling that deploys files into the monitored
+ * directory. This works on any {@link FileSystem}, and costs one listing of the journal directory per poll instead
+ * of a listing of every directory of the monitored tree.
+ *
+ * <p>
+ *   The journal is a directory of text files that are only ever appended to. Each line is the path of a file or
+ *   directory that was created, changed or deleted, either absolute or relative to the monitored directory; empty
+ *   lines and lines starting with {@code #} are ignored. Only complete lines are consumed, so a line that is still
+ *   being written is read on a later poll. Journal files may be removed once they are older than the full rescan
+ *   interval of the observer.
+ * </p>
+ */
+@Slf4j
+public class JournalPathChangeFeed implements PathChangeFeed {
+
+  private final Path rootDir;
+  private final Path journalDir;
+  private final FileSystem journalFs;
+  /** Number of bytes already consumed from each journal file. */
+  private final Map<String, Long> offsets = new HashMap<>();
+
+  public JournalPathChangeFeed(Path rootDir, Path journalDir) throws IOException {
+    this.rootDir = rootDir;
+    this.journalDir = journalDir;
+    this.journalFs = journalDir.getFileSystem(new Configuration());
+  }
+
+  @Override
+  public void start() throws IOException {
+    // Whatever is in the journal already is covered by the initial scan of the observer
+    for (FileStatus journalFile : listJournalFiles()) {
+      this.offsets.put(journalFile.getPath().getName(), journalFile.getLen());
+    }
+  }
+
+  @Override
+  public Optional<Collection<Path>> poll(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+    Set<Path> changes = readNewEntries();
+    if (changes.isEmpty()) {
+      unit.sleep(timeout);
+      changes = readNewEntries();
+    }
+    return Optional.<Collection<Path>>of(changes);
+  }
+
+  private Set<Path> readNewEntries() throws IOException {
+    Set<Path> changes = new LinkedHashSet<>();
+    Map<String, Long> currentOffsets = new HashMap<>();
+    for (FileStatus journalFile : listJournalFiles()) {
+      String name = journalFile.getPath().getName();
+      long offset = this.offsets.containsKey(name) ? this.offsets.get(name) : 0L;
+      if (journalFile.getLen() > offset) {
+        offset += readEntries(journalFile.getPath(), offset, journalFile.getLen(), changes);
+      }
+      currentOffsets.put(name, offset);
+    }
+    // Forget journal files that have been cleaned up
+    this.offsets.clear();
+    this.offsets.putAll(currentOffsets);
+    return changes;
+  }
+
+  /**
+   * Read the complete lines between the given offsets of a journal file.
+   * @return the number of bytes consumed.
+   */
+  private long readEntries(Path journalFile, long start, long end, Set<Path> changes) throws IOException {
+    byte[] bytes = new byte[(int) (end - start)];
+    try (FSDataInputStream in = this.journalFs.open(journalFile)) {
+      in.readFully(start, bytes);
+    } catch (FileNotFoundException e) {
+      return 0L;
+    }
+    int consumed = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == '\n') {
+        addEntry(new String(Arrays.copyOfRange(bytes, consumed, i), Charsets.UTF_8).trim(), changes);
+        consumed = i + 1;
+      }
+    }
+    return consumed;
+  }
+
+  private void addEntry(String entry, Set<Path> changes) {
+    if (entry.isEmpty() || entry.startsWith("#")) {
+      return;
+    }
+    Path path = new Path(entry);
+    changes.add(path.isAbsolute() || path.toUri().getScheme() != null ? path : new Path(this.rootDir, path));
+  }
+
+  private List<FileStatus> listJournalFiles() throws IOException {
+    List<FileStatus> journalFiles = new ArrayList<>();
+    try {
+      for (FileStatus status : this.journalFs.listStatus(this.journalDir)) {
+        if (status.isFile()) {
+          journalFiles.add(status);
+        }
+      }
+    } catch (FileNotFoundException e) {
+      log.debug("Journal directory {} does not exist yet", this.journalDir);
+    }
+    return journalFiles;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.offsets.clear();
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.filesystem;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * A {@link PathChangeFeed} for a directory on the local file system, backed by a {@link WatchService} (inotify on
+ * Linux). Every directory of the tree is registered, including directories created after {@link #start()}.
+ *
+ * <p>
+ *   Files created in a new directory before it is registered are still picked up, since the new directory itself is
+ *   reported and the observer syncs its whole subtree. An overflow of the OS event queue makes {@link #poll} return
+ *   {@link Optional#absent()} so that the observer rescans.
+ * </p>
+ */
+@Slf4j
+public class LocalPathChangeFeed implements PathChangeFeed {
+
+  private final java.nio.file.Path rootDir;
+  private final Map<WatchKey, java.nio.file.Path> watchedDirs = new ConcurrentHashMap<>();
+  private WatchService watchService;
+
+  public LocalPathChangeFeed(Path rootDir) {
+    this.rootDir = Paths.get(Path.getPathWithoutSchemeAndAuthority(rootDir).toString());
+  }
+
+  @Override
+  public void start() throws IOException {
+    this.watchService = FileSystems.getDefault().newWatchService();
+    if (Files.isDirectory(this.rootDir)) {
+      register(this.rootDir);
+    } else {
+      log.warn("{} is not a directory, no changes will be reported", this.rootDir);
+    }
+  }
+
+  @Override
+  public Optional<Collection<Path>> poll(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+    Set<Path> changes = new LinkedHashSet<>();
+    boolean overflow = false;
+    try {
+      WatchKey key = this.watchService.poll(timeout, unit);
+      while (key != null) {
+        java.nio.file.Path dir = this.watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            overflow = true;
+          } else if (dir != null) {
+            java.nio.file.Path child = dir.resolve((java.nio.file.Path) event.context());
+            changes.add(new Path(child.toUri()));
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+              register(child);
+            }
+          }
+        }
+        if (!key.reset()) {
+          this.watchedDirs.remove(key);
+        }
+        key = this.watchService.poll();
+      }
+    } catch (ClosedWatchServiceException e) {
+      throw new IOException("Watch service for " + this.rootDir + " is closed", e);
+    }
+    return overflow ? Optional.<Collection<Path>>absent() : Optional.<Collection<Path>>of(changes);
+  }
+
+  private void register(java.nio.file.Path dir) throws IOException {
+    Files.walkFileTree(dir, new SimpleFileVisitor<java.nio.file.Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(java.nio.file.Path subDir, BasicFileAttributes attrs)
+          throws IOException {
+        WatchKey key = subDir.register(LocalPathChangeFeed.this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        LocalPathChangeFeed.this.watchedDirs.put(key, subDir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.watchService != null) {
+      this.watchService.close();
+    }
+    this.watchedDirs.clear();
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.gobblin.util.filesystem;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Map;
 
@@ -150,6 +151,13 @@ public class PathAlterationObserver {
     return listeners.keySet();
   }
 
+  /**
+   * Returns the registered listeners, each wrapped so that its exceptions are caught and logged.
+   */
+  Collection<PathAlterationListener> getDecoratedListeners() {
+    return listeners.values();
+  }
+
   /**
    * Initialize the observer.
    * @throws IOException if an error occurs
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.filesystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Optional;
+
+
+/**
+ * A source of notifications about paths that changed under a monitored directory, used by
+ * {@link EventDrivenPathAlterationObserver} to avoid listing the whole directory tree on every check.
+ *
+ * <p>
+ *   A feed only needs to report which paths changed, not how: the observer lists each reported path and diffs it
+ *   against what it has seen before. A reported directory stands for its whole subtree.
+ * </p>
+ */
+public interface PathChangeFeed extends Closeable {
+
+  /**
+   * Start collecting changes. Changes made before this call are not reported.
+   */
+  void start() throws IOException;
+
+  /**
+   * Wait at most the given amount of time for changes.
+   *
+   * @return the paths that changed since the last call, possibly empty, or {@link Optional#absent()} if the feed lost
+   *         track of some changes and the whole monitored directory must be rescanned.
+   */
+  Optional<Collection<Path>> poll(long timeout, TimeUnit unit) throws IOException, InterruptedException;
+}
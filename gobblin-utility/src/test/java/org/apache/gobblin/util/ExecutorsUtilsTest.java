@@ -60,6 +60,24 @@ public class ExecutorsUtilsTest {
     thread.run();
   }
 
+  @Test
+  public void testNewVirtualThreadFactory() throws Exception {
+    if (!ExecutorsUtils.isVirtualThreadSupported()) {
+      try {
+        ExecutorsUtils.newVirtualThreadFactory(Optional.<Logger>absent(), Optional.of("foo-%d"));
+        Assert.fail("Virtual threads should not be supported before Java 21");
+      } catch (UnsupportedOperationException e) {
+        return;
+      }
+    }
+
+    ThreadFactory threadFactory =
+        ExecutorsUtils.newVirtualThreadFactory(Optional.<Logger>absent(), Optional.of("foo-%d"));
+    Thread thread = threadFactory.newThread(() -> { });
+    Assert.assertEquals(thread.getName(), "foo-0");
+    Assert.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+  }
+
   /**
    * Test to verify that {@link ExecutorsUtils#parallelize(List, Function, int, int, Optional)} returns the result in
    * the same order as the input
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.filesystem;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+
+public class EventDrivenPathAlterationObserverTest {
+
+  private File tmpDir;
+  private File rootDir;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    this.tmpDir = Files.createTempDir();
+    this.rootDir = new File(this.tmpDir, "jobs");
+    Assert.assertTrue(this.rootDir.mkdir());
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(this.tmpDir);
+  }
+
+  @Test
+  public void testNotifyChanges() throws Exception {
+    File existing = createFile(new File(this.rootDir, "a/existing.pull"));
+    File unchanged = createFile(new File(this.rootDir, "a/unchanged.pull"));
+    createFile(new File(this.rootDir, "b/deleted.pull"));
+
+    EventDrivenPathAlterationObserver observer =
+        new EventDrivenPathAlterationObserver(new Path(this.rootDir.toURI()), null, new SilentChangeFeed(), 100);
+    RecordingListener listener = new RecordingListener();
+    observer.addListener(listener);
+    observer.initialize();
+    try {
+      Assert.assertTrue(listener.events.isEmpty());
+
+      Assert.assertTrue(existing.setLastModified(existing.lastModified() + 10000));
+      File created = createFile(new File(this.rootDir, "a/created.pull"));
+      FileUtils.deleteDirectory(new File(this.rootDir, "b"));
+
+      // Only the reported subtree is synced
+      observer.notifyChanges(Collections.singleton(new Path(new File(this.rootDir, "a").toURI())));
+      Assert.assertEquals(listener.events, Lists.newArrayList("start", "create " + created.getName(),
+          "change " + existing.getName(), "stop"));
+
+      listener.events.clear();
+      observer.notifyChanges(Collections.singleton(new Path(this.tmpDir.toURI())));
+      Assert.assertEquals(listener.events, Lists.newArrayList("start", "stop"));
+
+      // The full rescan picks up what was not reported
+      listener.events.clear();
+      observer.checkAndNotify();
+      Assert.assertEquals(listener.events, Lists.newArrayList("start", "delete deleted.pull", "stop"));
+
+      listener.events.clear();
+      Assert.assertTrue(unchanged.delete());
+      observer.notifyChanges(Collections.singleton(new Path(unchanged.toURI())));
+      Assert.assertEquals(listener.events, Lists.newArrayList("start", "delete " + unchanged.getName(), "stop"));
+    } finally {
+      observer.destroy();
+    }
+  }
+
+  @Test
+  public void testNotifyChangeWithinSameModificationTime() throws Exception {
+    File rewritten = createFile(new File(this.rootDir, "rewritten.pull"));
+
+    EventDrivenPathAlterationObserver observer =
+        new EventDrivenPathAlterationObserver(new Path(this.rootDir.toURI()), null, new SilentChangeFeed(), 100);
+    RecordingListener listener = new RecordingListener();
+    observer.addListener(listener);
+    observer.initialize();
+    try {
+      // A rewrite within the modification time granularity of the file system only changes the length
+      long modificationTime = rewritten.lastModified();
+      Files.write("key=other value", rewritten, Charsets.UTF_8);
+      Assert.assertTrue(rewritten.setLastModified(modificationTime));
+
+      observer.checkAndNotify();
+      Assert.assertEquals(listener.events, Lists.newArrayList("start", "change " + rewritten.getName(), "stop"));
+    } finally {
+      observer.destroy();
+    }
+  }
+
+  @Test
+  public void testFollowJournal() throws Exception {
+    File journalDir = new File(this.tmpDir, "journal");
+    Assert.assertTrue(journalDir.mkdir());
+    File journal = new File(journalDir, "0001.journal");
+    Files.append("old.pull\n", journal, Charsets.UTF_8);
+
+    Path root = new Path(this.rootDir.toURI());
+    JournalPathChangeFeed feed = new JournalPathChangeFeed(root, new Path(journalDir.toURI()));
+    feed.start();
+    Assert.assertTrue(feed.poll(0, TimeUnit.MILLISECONDS).get().isEmpty());
+
+    File absolute = new File(this.tmpDir, "other.pull");
+    Files.append("# comment\nnew.pull\n\n" + absolute.toURI() + "\npartial", journal, Charsets.UTF_8);
+    Assert.assertEquals(Lists.newArrayList(feed.poll(0, TimeUnit.MILLISECONDS).get()),
+        Lists.newArrayList(new Path(root, "new.pull"), new Path(absolute.toURI())));
+
+    Files.append(".pull\n", journal, Charsets.UTF_8);
+    Files.append("second.pull\n", new File(journalDir, "0002.journal"), Charsets.UTF_8);
+    Assert.assertEquals(Lists.newArrayList(feed.poll(0, TimeUnit.MILLISECONDS).get()),
+        Lists.newArrayList(new Path(root, "partial.pull"), new Path(root, "second.pull")));
+    feed.close();
+  }
+
+  @Test
+  public void testEventDrivenNotification() throws Exception {
+    File journalDir = new File(this.tmpDir, "journal");
+    Assert.assertTrue(journalDir.mkdir());
+    EventDrivenPathAlterationObserver observer = new EventDrivenPathAlterationObserver(new Path(this.rootDir.toURI()),
+        null, new JournalPathChangeFeed(new Path(this.rootDir.toURI()), new Path(journalDir.toURI())), 10);
+    RecordingListener listener = new RecordingListener();
+    observer.addListener(listener);
+    observer.initialize();
+    try {
+      createFile(new File(this.rootDir, "job.pull"));
+      Files.append("job.pull\n", new File(journalDir, "0001.journal"), Charsets.UTF_8);
+
+      long deadline = System.currentTimeMillis() + 10000;
+      while (!listener.getEvents().contains("create job.pull") && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertTrue(listener.getEvents().contains("create job.pull"));
+    } finally {
+      observer.destroy();
+    }
+  }
+
+  private static File createFile(File file) throws Exception {
+    Files.createParentDirs(file);
+    Files.write("key=value", file, Charsets.UTF_8);
+    return file;
+  }
+
+  /**
+   * A feed that never reports anything, so that changes are only seen when the test asks for them.
+   */
+  private static class SilentChangeFeed implements PathChangeFeed {
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public Optional<Collection<Path>> poll(long timeout, TimeUnit unit) throws InterruptedException {
+      unit.sleep(timeout);
+      return Optional.<Collection<Path>>of(Collections.<Path>emptyList());
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class RecordingListener extends PathAlterationListenerAdaptor {
+    private final List<String> events = new ArrayList<>();
+
+    synchronized List<String> getEvents() {
+      return new ArrayList<>(this.events);
+    }
+
+    @Override
+    public synchronized void onStart(PathAlterationObserver observer) {
+      this.events.add("start");
+    }
+
+    @Override
+    public synchronized void onFileCreate(Path path) {
+      this.events.add("create " + path.getName());
+    }
+
+    @Override
+    public synchronized void onFileChange(Path path) {
+      this.events.add("change " + path.getName());
+    }
+
+    @Override
+    public synchronized void onFileDelete(Path path) {
+      this.events.add("delete " + path.getName());
+    }
+
+    @Override
+    public synchronized void onStop(PathAlterationObserver observer) {
+      this.events.add("stop");
+    }
+  }
+}
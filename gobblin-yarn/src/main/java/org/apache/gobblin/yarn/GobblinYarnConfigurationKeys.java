@@ -78,6 +78,18 @@ public class GobblinYarnConfigurationKeys {
   // The ratio of the amount of Xmx to carve out of the container memory before adjusting for jvm memory overhead
   public static final String CONTAINER_JVM_MEMORY_XMX_RATIO_KEY = GOBBLIN_YARN_PREFIX + "container.jvmMemoryXmxRatio";
   public static final double DEFAULT_CONTAINER_JVM_MEMORY_XMX_RATIO = 1.0;
+  // Additional container resource profiles. Each profile name is also the Helix instance tag of its containers, so
+  // a job that sets gobblin.cluster.helixJobTag to a profile name only runs on containers of that profile.
+  public static final String CONTAINER_PROFILES_KEY = GOBBLIN_YARN_PREFIX + "container.profiles";
+  public static final String CONTAINER_PROFILE_PREFIX = GOBBLIN_YARN_PREFIX + "container.profile.";
+  public static final String CONTAINER_PROFILE_MEMORY_MBS = "memory.mbs";
+  public static final String CONTAINER_PROFILE_CORES = "cores";
+  public static final String CONTAINER_PROFILE_MIN_CONTAINERS = "minContainers";
+  public static final int DEFAULT_CONTAINER_PROFILE_MIN_CONTAINERS = 0;
+  public static final String CONTAINER_PROFILE_MAX_CONTAINERS = "maxContainers";
+  public static final int DEFAULT_CONTAINER_PROFILE_MAX_CONTAINERS = Integer.MAX_VALUE;
+  public static final String CONTAINER_PROFILE_MAX_IDLE_TIME_MINUTES = "maxIdleTimeMinutes";
+  public static final int DEFAULT_CONTAINER_PROFILE_MAX_IDLE_TIME_MINUTES = 10;
   public static final String MAX_CONTAINER_LAUNCH_THREADS_KEY = GOBBLIN_YARN_PREFIX + "maxContainerLaunchThreads";
   public static final Integer DEFAULT_MAX_CONTAINER_LAUNCH_THREADS = 1024;
 
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.yarn;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import com.typesafe.config.Config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.annotation.Alias;
+import org.apache.gobblin.cluster.ScheduledJobForecast;
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * A {@link YarnAutoScalingPolicy} that sizes the cluster for the work that is still outstanding plus the work that is
+ * about to be scheduled.
+ *
+ * <ul>
+ *   <li>Only queued and running partitions are counted, so containers are released as soon as the tasks of a long
+ *   running job finish instead of when the whole job finishes.</li>
+ *   <li>Jobs scheduled to fire within {@link #PREWARM_LEAD_TIME_SECS} and not already running are counted with the
+ *   number of tasks of their last committed run, so containers are ready when the trigger fires. Jobs whose average
+ *   duration is below {@link #MIN_PREWARM_JOB_DURATION_SECS} are not pre-warmed since they would likely finish before
+ *   new containers start.</li>
+ *   <li>Instead of a window of polls, the max target is held for {@link #SCALE_DOWN_DELAY_SECS} to avoid flapping
+ *   between back to back jobs.</li>
+ * </ul>
+ */
+@Slf4j
+@Alias(PredictiveAutoScalingPolicy.ALIAS)
+public class PredictiveAutoScalingPolicy implements YarnAutoScalingPolicy {
+  public static final String ALIAS = "predictive";
+  public static final String PREDICTIVE_PREFIX = GobblinYarnConfigurationKeys.GOBBLIN_YARN_PREFIX
+      + "autoScaling.predictive.";
+  public static final String PREWARM_LEAD_TIME_SECS = PREDICTIVE_PREFIX + "prewarmLeadTimeSeconds";
+  public static final int DEFAULT_PREWARM_LEAD_TIME_SECS = 300;
+  public static final String MIN_PREWARM_JOB_DURATION_SECS = PREDICTIVE_PREFIX + "minPrewarmJobDurationSeconds";
+  public static final int DEFAULT_MIN_PREWARM_JOB_DURATION_SECS = 120;
+  public static final String SCALE_DOWN_DELAY_SECS = PREDICTIVE_PREFIX + "scaleDownDelaySeconds";
+  public static final int DEFAULT_SCALE_DOWN_DELAY_SECS = 120;
+
+  private final int partitionsPerContainer;
+  private final double overProvisionFactor;
+  private final long prewarmLeadTimeMillis;
+  private final long minPrewarmJobDurationMillis;
+  private final long scaleDownDelayMillis;
+
+  // The targets of recent polls as pairs of timestamp and target, oldest first
+  private final Deque<long[]> recentTargets = new ArrayDeque<>();
+
+  public PredictiveAutoScalingPolicy(Config config, int partitionsPerContainer, double overProvisionFactor,
+      int maxContainers) {
+    this(partitionsPerContainer, overProvisionFactor,
+        TimeUnit.SECONDS.toMillis(ConfigUtils.getInt(config, PREWARM_LEAD_TIME_SECS, DEFAULT_PREWARM_LEAD_TIME_SECS)),
+        TimeUnit.SECONDS.toMillis(ConfigUtils.getInt(config, MIN_PREWARM_JOB_DURATION_SECS,
+            DEFAULT_MIN_PREWARM_JOB_DURATION_SECS)),
+        TimeUnit.SECONDS.toMillis(ConfigUtils.getInt(config, SCALE_DOWN_DELAY_SECS, DEFAULT_SCALE_DOWN_DELAY_SECS)));
+  }
+
+  public PredictiveAutoScalingPolicy(int partitionsPerContainer, double overProvisionFactor,
+      long prewarmLeadTimeMillis, long minPrewarmJobDurationMillis, long scaleDownDelayMillis) {
+    this.partitionsPerContainer = partitionsPerContainer;
+    this.overProvisionFactor = overProvisionFactor;
+    this.prewarmLeadTimeMillis = prewarmLeadTimeMillis;
+    this.minPrewarmJobDurationMillis = minPrewarmJobDurationMillis;
+    this.scaleDownDelayMillis = scaleDownDelayMillis;
+  }
+
+  @Override
+  public int getTargetNumberOfContainers(YarnWorkloadSnapshot snapshot, int minContainers, int maxContainers) {
+    int numPartitions = snapshot.getNumPendingPartitions();
+
+    for (ScheduledJobForecast job : snapshot.getScheduledJobs(this.prewarmLeadTimeMillis)) {
+      if (snapshot.getActiveJobNames().contains(job.getJobName()) || job.getExpectedNumTasks() <= 0) {
+        continue;
+      }
+      if (job.getExpectedDurationMillis() != ScheduledJobForecast.UNKNOWN
+          && job.getExpectedDurationMillis() < this.minPrewarmJobDurationMillis) {
+        continue;
+      }
+      log.debug("Pre-warming {} partitions for job {} firing at {}", job.getExpectedNumTasks(), job.getJobName(),
+          job.getNextFireTimeMillis());
+      numPartitions += job.getExpectedNumTasks();
+    }
+
+    int numTargetContainers = ReactiveAutoScalingPolicy.getNumContainersForPartitions(numPartitions,
+        this.partitionsPerContainer, this.overProvisionFactor, minContainers, maxContainers);
+
+    // Hold the max target of the polls within the scale down delay, always keeping the current poll
+    long now = snapshot.getTimestampMillis();
+    while (!this.recentTargets.isEmpty() && now - this.recentTargets.peekFirst()[0] > this.scaleDownDelayMillis) {
+      this.recentTargets.pollFirst();
+    }
+    this.recentTargets.addLast(new long[] {now, numTargetContainers});
+
+    int heldTarget = numTargetContainers;
+    for (long[] target : this.recentTargets) {
+      heldTarget = Math.max(heldTarget, (int) target[1]);
+    }
+    return Math.min(maxContainers, heldTarget);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.yarn;
+
+import com.typesafe.config.Config;
+
+import org.apache.gobblin.annotation.Alias;
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * The default {@link YarnAutoScalingPolicy}. It requests one container for every {@code partitionsPerContainer}
+ * partitions of the in progress jobs, scaled by the overprovision factor, and holds the max target over the last
+ * {@link #WINDOW_SIZE} polls so that temporary dips in the number of partitions do not release containers.
+ */
+@Alias(ReactiveAutoScalingPolicy.ALIAS)
+public class ReactiveAutoScalingPolicy implements YarnAutoScalingPolicy {
+  public static final String ALIAS = "reactive";
+  public static final String WINDOW_SIZE = GobblinYarnConfigurationKeys.GOBBLIN_YARN_PREFIX + "autoScaling.windowSize";
+
+  private final int partitionsPerContainer;
+  private final double overProvisionFactor;
+  private final YarnAutoScalingManager.SlidingWindowReservoir slidingWindowReservoir;
+
+  public ReactiveAutoScalingPolicy(Config config, int partitionsPerContainer, double overProvisionFactor,
+      int maxContainers) {
+    this(partitionsPerContainer, overProvisionFactor, config.hasPath(WINDOW_SIZE)
+        ? new YarnAutoScalingManager.SlidingWindowReservoir(ConfigUtils.getInt(config, WINDOW_SIZE, 0), maxContainers)
+        : new YarnAutoScalingManager.SlidingWindowReservoir(maxContainers));
+  }
+
+  public ReactiveAutoScalingPolicy(int partitionsPerContainer, double overProvisionFactor,
+      YarnAutoScalingManager.SlidingWindowReservoir slidingWindowReservoir) {
+    this.partitionsPerContainer = partitionsPerContainer;
+    this.overProvisionFactor = overProvisionFactor;
+    this.slidingWindowReservoir = slidingWindowReservoir;
+  }
+
+  @Override
+  public int getTargetNumberOfContainers(YarnWorkloadSnapshot snapshot, int minContainers, int maxContainers) {
+    this.slidingWindowReservoir.add(getNumContainersForPartitions(snapshot.getNumPartitions(),
+        this.partitionsPerContainer, this.overProvisionFactor, minContainers, maxContainers));
+    return this.slidingWindowReservoir.getMax();
+  }
+
+  /**
+   * Compute the target containers as a ceiling of number of partitions divided by the number of partitions
+   * per container, scaled by a constant overprovision factor and bounded by the given min and max container values.
+   */
+  static int getNumContainersForPartitions(int numPartitions, int partitionsPerContainer, double overProvisionFactor,
+      int minContainers, int maxContainers) {
+    int numTargetContainers = (int) Math.ceil(((double) numPartitions / partitionsPerContainer) * overProvisionFactor);
+    return Math.max(minContainers, Math.min(maxContainers, numTargetContainers));
+  }
+}
@@ -18,23 +18,31 @@
 package org.apache.gobblin.yarn;
 
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixManager;
 import org.apache.helix.PropertyKey;
+import org.apache.helix.task.JobConfig;
 import org.apache.helix.task.JobContext;
 import org.apache.helix.task.JobDag;
 import org.apache.helix.task.TaskDriver;
+import org.apache.helix.task.TaskPartitionState;
 import org.apache.helix.task.TaskState;
 import org.apache.helix.task.WorkflowConfig;
 import org.apache.helix.task.WorkflowContext;
@@ -45,11 +53,15 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.typesafe.config.Config;
 
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.gobblin.cluster.GobblinHelixJobScheduler;
+import org.apache.gobblin.cluster.ScheduledJobForecast;
+import org.apache.gobblin.util.ClassAliasResolver;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.ExecutorsUtils;
+import org.apache.gobblin.util.Id;
+import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
 
 import static org.apache.gobblin.yarn.GobblinYarnTaskRunner.HELIX_YARN_INSTANCE_NAME_PREFIX;
 
@@ -57,6 +69,12 @@ import static org.apache.gobblin.yarn.GobblinYarnTaskRunner.HELIX_YARN_INSTANCE_
 /**
  * The autoscaling manager is responsible for figuring out how many containers are required for the workload and
  * requesting the {@link YarnService} to request that many containers.
+ *
+ * If additional {@link YarnContainerProfile}s are configured, the demand of each profile is computed from the jobs
+ * whose Helix instance group tag is the profile name, and bounded by the profile's own min and max containers. All
+ * other jobs count toward the default profile.
+ *
+ * The number of containers is decided by a {@link YarnAutoScalingPolicy}, {@link ReactiveAutoScalingPolicy} by default.
  */
 @Slf4j
 public class YarnAutoScalingManager extends AbstractIdleService {
@@ -78,7 +96,9 @@ public class YarnAutoScalingManager extends AbstractIdleService {
   private final String AUTO_SCALING_INITIAL_DELAY = AUTO_SCALING_PREFIX + "initialDelay";
   private final int DEFAULT_AUTO_SCALING_INITIAL_DELAY_SECS = 60;
 
-  private final String AUTO_SCALING_WINDOW_SIZE = AUTO_SCALING_PREFIX + "windowSize";
+  // The class name or alias of the YarnAutoScalingPolicy
+  private final String AUTO_SCALING_POLICY = AUTO_SCALING_PREFIX + "policy";
+  private final String DEFAULT_AUTO_SCALING_POLICY = ReactiveAutoScalingPolicy.ALIAS;
 
   private final static int DEFAULT_MAX_IDLE_TIME_BEFORE_SCALING_DOWN_MINUTES = 10;
 
@@ -90,7 +110,9 @@ public class YarnAutoScalingManager extends AbstractIdleService {
   private final int minContainers;
   private final int maxContainers;
   private final double overProvisionFactor;
-  private final SlidingWindowReservoir slidingFixedSizeWindow;
+  private final YarnAutoScalingPolicy autoScalingPolicy;
+  private final Map<YarnContainerProfile, YarnAutoScalingPolicy> additionalProfiles = new LinkedHashMap<>();
+  private final Function<Long, List<ScheduledJobForecast>> scheduledJobForecasts;
   private static int maxIdleTimeInMinutesBeforeScalingDown = DEFAULT_MAX_IDLE_TIME_BEFORE_SCALING_DOWN_MINUTES;
 
   public YarnAutoScalingManager(GobblinApplicationMaster appMaster) {
@@ -122,14 +144,32 @@ public class YarnAutoScalingManager extends AbstractIdleService {
         DEFAULT_AUTO_SCALING_MAX_CONTAINERS + " needs to be greater than or equal to "
             + DEFAULT_AUTO_SCALING_MIN_CONTAINERS);
 
-    this.slidingFixedSizeWindow = config.hasPath(AUTO_SCALING_WINDOW_SIZE)
-        ? new SlidingWindowReservoir(maxContainers, config.getInt(AUTO_SCALING_WINDOW_SIZE))
-        : new SlidingWindowReservoir(maxContainers);
+    this.autoScalingPolicy = buildAutoScalingPolicy(this.maxContainers);
+
+    for (YarnContainerProfile profile : YarnContainerProfile.parseAdditionalProfiles(this.config)) {
+      this.additionalProfiles.put(profile, buildAutoScalingPolicy(profile.getMaxContainers()));
+    }
+
+    GobblinHelixJobScheduler jobScheduler = appMaster.getJobScheduler();
+    this.scheduledJobForecasts = jobScheduler == null ? horizonMillis -> Collections.emptyList()
+        : jobScheduler::getScheduledJobForecasts;
 
     this.autoScalingExecutor = Executors.newSingleThreadScheduledExecutor(
         ExecutorsUtils.newThreadFactory(Optional.of(log), Optional.of("AutoScalingExecutor")));
   }
 
+  private YarnAutoScalingPolicy buildAutoScalingPolicy(int maxContainers) {
+    ClassAliasResolver<YarnAutoScalingPolicy> aliasResolver = new ClassAliasResolver<>(YarnAutoScalingPolicy.class);
+    String policyClassName = aliasResolver.resolve(
+        ConfigUtils.getString(this.config, AUTO_SCALING_POLICY, DEFAULT_AUTO_SCALING_POLICY));
+    try {
+      return (YarnAutoScalingPolicy) GobblinConstructorUtils.invokeLongestConstructor(Class.forName(policyClassName),
+          this.config, this.partitionsPerContainer, this.overProvisionFactor, maxContainers);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Failed to create auto scaling policy " + policyClassName, e);
+    }
+  }
+
   @Override
   protected void startUp() {
     int scheduleInterval = ConfigUtils.getInt(this.config, AUTO_SCALING_POLLING_INTERVAL_SECS,
@@ -140,9 +180,9 @@ public class YarnAutoScalingManager extends AbstractIdleService {
     log.info("Scheduling the auto scaling task with an interval of {} seconds", scheduleInterval);
 
     this.autoScalingExecutor.scheduleAtFixedRate(new YarnAutoScalingRunnable(new TaskDriver(this.helixManager),
-            this.yarnService, this.partitionsPerContainer, this.minContainers, this.maxContainers, this.overProvisionFactor,
-            this.slidingFixedSizeWindow, this.helixManager.getHelixDataAccessor()), initialDelay, scheduleInterval,
-        TimeUnit.SECONDS);
+            this.yarnService, this.minContainers, this.maxContainers, this.helixManager.getHelixDataAccessor(),
+            this.autoScalingPolicy, this.additionalProfiles, this.scheduledJobForecasts), initialDelay,
+        scheduleInterval, TimeUnit.SECONDS);
   }
 
   @Override
@@ -157,22 +197,48 @@ public class YarnAutoScalingManager extends AbstractIdleService {
    * and requests those containers.
    */
   @VisibleForTesting
-  @AllArgsConstructor
   static class YarnAutoScalingRunnable implements Runnable {
     private final TaskDriver taskDriver;
     private final YarnService yarnService;
-    private final int partitionsPerContainer;
     private final int minContainers;
     private final int maxContainers;
-    private final double overProvisionFactor;
-    private final SlidingWindowReservoir slidingWindowReservoir;
     private final HelixDataAccessor helixDataAccessor;
+    private final YarnAutoScalingPolicy autoScalingPolicy;
+    // Additional container profiles with their own policies, and the same profiles keyed by name
+    private final Map<YarnContainerProfile, YarnAutoScalingPolicy> additionalProfiles;
+    private final Map<String, YarnContainerProfile> additionalProfilesByName = new HashMap<>();
+    // Scheduled jobs firing within a horizon in millis
+    private final Function<Long, List<ScheduledJobForecast>> scheduledJobForecasts;
     /**
      * A static map that keep track of an idle instance and its latest beginning idle time.
      * If an instance is no longer idle when inspected, it will be dropped from this map.
      */
     private static final Map<String, Long> instanceIdleSince = new HashMap<>();
 
+    public YarnAutoScalingRunnable(TaskDriver taskDriver, YarnService yarnService, int partitionsPerContainer,
+        int minContainers, int maxContainers, double overProvisionFactor,
+        SlidingWindowReservoir slidingWindowReservoir, HelixDataAccessor helixDataAccessor) {
+      this(taskDriver, yarnService, minContainers, maxContainers, helixDataAccessor,
+          new ReactiveAutoScalingPolicy(partitionsPerContainer, overProvisionFactor, slidingWindowReservoir),
+          Collections.emptyMap(), horizonMillis -> Collections.emptyList());
+    }
+
+    public YarnAutoScalingRunnable(TaskDriver taskDriver, YarnService yarnService, int minContainers,
+        int maxContainers, HelixDataAccessor helixDataAccessor, YarnAutoScalingPolicy autoScalingPolicy,
+        Map<YarnContainerProfile, YarnAutoScalingPolicy> additionalProfiles,
+        Function<Long, List<ScheduledJobForecast>> scheduledJobForecasts) {
+      this.taskDriver = taskDriver;
+      this.yarnService = yarnService;
+      this.minContainers = minContainers;
+      this.maxContainers = maxContainers;
+      this.helixDataAccessor = helixDataAccessor;
+      this.autoScalingPolicy = autoScalingPolicy;
+      this.additionalProfiles = additionalProfiles;
+      for (YarnContainerProfile profile : additionalProfiles.keySet()) {
+        this.additionalProfilesByName.put(profile.getName(), profile);
+      }
+      this.scheduledJobForecasts = scheduledJobForecasts;
+    }
 
     @Override
     public void run() {
@@ -202,8 +268,16 @@ public class YarnAutoScalingManager extends AbstractIdleService {
     @VisibleForTesting
     void runInternal() {
       Set<String> inUseInstances = new HashSet<>();
+      Set<String> activeJobNames = new HashSet<>();
+
+      // Partition counts keyed by profile, null being the default profile. Index 0 is the number of all partitions
+      // and index 1 the number of queued or running partitions.
+      Map<YarnContainerProfile, int[]> numPartitionsByProfile = new HashMap<>();
+      numPartitionsByProfile.put(null, new int[2]);
+      for (YarnContainerProfile profile : this.additionalProfiles.keySet()) {
+        numPartitionsByProfile.put(profile, new int[2]);
+      }
 
-      int numPartitions = 0;
       for (Map.Entry<String, WorkflowConfig> workFlowEntry : taskDriver.getWorkflows().entrySet()) {
         WorkflowContext workflowContext = taskDriver.getWorkflowContext(workFlowEntry.getKey());
 
@@ -215,6 +289,8 @@ public class YarnAutoScalingManager extends AbstractIdleService {
         log.debug("Workflow name {} config {} context {}", workFlowEntry.getKey(), workFlowEntry.getValue(),
             workflowContext);
 
+        activeJobNames.add(getGobblinJobName(workFlowEntry.getKey()));
+
         WorkflowConfig workflowConfig = workFlowEntry.getValue();
         JobDag jobDag = workflowConfig.getJobDag();
 
@@ -230,7 +306,10 @@ public class YarnAutoScalingManager extends AbstractIdleService {
             inUseInstances.addAll(jobContext.getPartitionSet().stream().map(jobContext::getAssignedParticipant)
                 .filter(e -> e != null).collect(Collectors.toSet()));
 
-            numPartitions += jobContext.getPartitionSet().size();
+            int[] numPartitions = numPartitionsByProfile.get(getProfile(jobName));
+            numPartitions[0] += jobContext.getPartitionSet().size();
+            numPartitions[1] += (int) jobContext.getPartitionSet().stream()
+                .filter(partition -> !isFinished(jobContext.getPartitionState(partition))).count();
           }
         }
       }
@@ -254,18 +333,64 @@ public class YarnAutoScalingManager extends AbstractIdleService {
         }
       }
 
-      // compute the target containers as a ceiling of number of partitions divided by the number of containers
-      // per partition. Scale the result by a constant overprovision factor.
-      int numTargetContainers = (int) Math.ceil(((double)numPartitions / this.partitionsPerContainer) * this.overProvisionFactor);
+      long now = System.currentTimeMillis();
+      int numTargetContainers = this.autoScalingPolicy.getTargetNumberOfContainers(
+          buildSnapshot(now, null, numPartitionsByProfile.get(null), activeJobNames), this.minContainers,
+          this.maxContainers);
+
+      log.info("There are {} containers being requested", numTargetContainers);
 
-      // adjust the number of target containers based on the configured min and max container values.
-      numTargetContainers = Math.max(this.minContainers, Math.min(this.maxContainers, numTargetContainers));
+      this.yarnService.requestTargetNumberOfContainers(numTargetContainers, inUseInstances);
 
-      slidingWindowReservoir.add(numTargetContainers);
+      // Containers of each additional profile are sized and released independently of the default profile
+      for (Map.Entry<YarnContainerProfile, YarnAutoScalingPolicy> entry : this.additionalProfiles.entrySet()) {
+        YarnContainerProfile profile = entry.getKey();
+        int numProfileTargetContainers = entry.getValue().getTargetNumberOfContainers(
+            buildSnapshot(now, profile, numPartitionsByProfile.get(profile), activeJobNames),
+            profile.getMinContainers(), profile.getMaxContainers());
 
-      log.info("There are {} containers being requested", numTargetContainers);
+        log.info("There are {} containers of profile {} being requested", numProfileTargetContainers,
+            profile.getName());
 
-      this.yarnService.requestTargetNumberOfContainers(slidingWindowReservoir.getMax(), inUseInstances);
+        this.yarnService.requestTargetNumberOfContainers(profile, numProfileTargetContainers, inUseInstances);
+      }
+    }
+
+    private YarnWorkloadSnapshot buildSnapshot(long now, YarnContainerProfile profile, int[] numPartitions,
+        Set<String> activeJobNames) {
+      return new YarnWorkloadSnapshot(now, numPartitions[0], numPartitions[1], activeJobNames,
+          horizonMillis -> this.scheduledJobForecasts.apply(horizonMillis).stream()
+              .filter(job -> Objects.equals(profile, this.additionalProfilesByName.get(job.getHelixJobTag())))
+              .collect(Collectors.toList()));
+    }
+
+    private static boolean isFinished(TaskPartitionState state) {
+      return state == TaskPartitionState.COMPLETED || state == TaskPartitionState.DROPPED
+          || state == TaskPartitionState.ERROR || state == TaskPartitionState.TASK_ABORTED;
+    }
+
+    /**
+     * Get the Gobblin job name from the name of a Helix workflow, which is the Gobblin job ID.
+     */
+    private static String getGobblinJobName(String workflowName) {
+      try {
+        return Id.parse(workflowName).get(EnumSet.of(Id.Parts.NAME));
+      } catch (RuntimeException e) {
+        return workflowName;
+      }
+    }
+
+    /**
+     * Get the additional container profile of a Helix job from the instance group tag in its {@link JobConfig}.
+     * @return the profile, or null if the job runs on containers of the default profile
+     */
+    private YarnContainerProfile getProfile(String jobName) {
+      if (this.additionalProfiles.isEmpty()) {
+        return null;
+      }
+      JobConfig jobConfig = this.taskDriver.getJobConfig(jobName);
+      return jobConfig == null || jobConfig.getInstanceGroupTag() == null ? null
+          : this.additionalProfilesByName.get(jobConfig.getInstanceGroupTag());
     }
 
     @VisibleForTesting
@@ -273,11 +398,16 @@ public class YarnAutoScalingManager extends AbstractIdleService {
      * Return true is the condition for tagging an instance as "unused" holds.
      * The condition, by default is that if an instance went back to
      * active (having partition running on it) within {@link #maxIdleTimeInMinutesBeforeScalingDown} minutes, we will
-     * not tag that instance as "unused" and have that as the candidate for scaling down.
+     * not tag that instance as "unused" and have that as the candidate for scaling down. Instances running in
+     * containers of an additional profile use the max idle time of that profile instead.
      */
     boolean isInstanceUnused(String participant){
+      YarnContainerProfile profile = this.additionalProfiles.isEmpty() ? null
+          : this.additionalProfilesByName.get(this.yarnService.getContainerProfileName(participant));
+      int maxIdleTimeInMinutes = profile == null ? maxIdleTimeInMinutesBeforeScalingDown
+          : profile.getMaxIdleTimeMinutes();
       return System.currentTimeMillis() - instanceIdleSince.get(participant) >
-          TimeUnit.MINUTES.toMillis(maxIdleTimeInMinutesBeforeScalingDown);
+          TimeUnit.MINUTES.toMillis(maxIdleTimeInMinutes);
     }
   }
 
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.yarn;
+
+/**
+ * A policy that decides how many containers of a {@link YarnContainerProfile} the {@link YarnAutoScalingManager}
+ * asks the {@link YarnService} for on each poll.
+ *
+ * <p>
+ *   The policy is picked by class name or alias with {@code gobblin.yarn.autoScaling.policy}. One instance is created
+ *   for the default profile and one for each additional profile through a
+ *   {@code (Config, int partitionsPerContainer, double overProvisionFactor, int maxContainers)} constructor, so
+ *   implementations may keep per-profile state between polls.
+ * </p>
+ */
+public interface YarnAutoScalingPolicy {
+
+  /**
+   * Compute the target number of containers for the current poll.
+   *
+   * @param snapshot the workload of the profile at the time of the poll
+   * @param minContainers the lower bound of the profile
+   * @param maxContainers the upper bound of the profile
+   * @return the number of containers to request from the {@link YarnService}
+   */
+  int getTargetNumberOfContainers(YarnWorkloadSnapshot snapshot, int minContainers, int maxContainers);
+}
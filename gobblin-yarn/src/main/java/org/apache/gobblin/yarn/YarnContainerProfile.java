@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.yarn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.typesafe.config.Config;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * The resource shape and scaling bounds of a group of Yarn containers.
+ *
+ * <p>
+ *   Besides the default profile built from {@link GobblinYarnConfigurationKeys#CONTAINER_MEMORY_MBS_KEY} and
+ *   {@link GobblinYarnConfigurationKeys#CONTAINER_CORES_KEY}, additional profiles can be listed in
+ *   {@link GobblinYarnConfigurationKeys#CONTAINER_PROFILES_KEY}, e.g.
+ *   <pre>
+ *     gobblin.yarn.container.profiles=highMem
+ *     gobblin.yarn.container.profile.highMem.memory.mbs=16384
+ *     gobblin.yarn.container.profile.highMem.cores=2
+ *     gobblin.yarn.container.profile.highMem.maxContainers=20
+ *   </pre>
+ *   The name of a profile is used as the Helix instance tag of its containers. A job is mapped to a profile by setting
+ *   {@link org.apache.gobblin.cluster.GobblinClusterConfigurationKeys#HELIX_JOB_TAG_KEY} to the profile name, which
+ *   Helix uses to only assign the job's tasks to containers of that profile.
+ * </p>
+ *
+ * <p>
+ *   Each profile is requested with its own Yarn {@link org.apache.hadoop.yarn.api.records.Priority} so that allocated
+ *   containers can be mapped back to the profile they were requested for.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class YarnContainerProfile {
+  public static final String DEFAULT_PROFILE_NAME = "default";
+  public static final int DEFAULT_PROFILE_PRIORITY = 0;
+
+  private final String name;
+  private final int memoryMbs;
+  private final int cores;
+  private final int priority;
+  private final int minContainers;
+  private final int maxContainers;
+  private final int maxIdleTimeMinutes;
+
+  /**
+   * @return whether this is the profile built from the top level container memory and cores settings
+   */
+  public boolean isDefault() {
+    return DEFAULT_PROFILE_NAME.equals(this.name);
+  }
+
+  /**
+   * Parse the additional profiles listed in {@link GobblinYarnConfigurationKeys#CONTAINER_PROFILES_KEY}. Profiles are
+   * assigned Yarn priorities starting from 1 in the order they are listed, since priority 0 belongs to the default
+   * profile.
+   */
+  public static List<YarnContainerProfile> parseAdditionalProfiles(Config config) {
+    List<YarnContainerProfile> profiles = new ArrayList<>();
+    int priority = DEFAULT_PROFILE_PRIORITY;
+
+    for (String name : ConfigUtils.getStringList(config, GobblinYarnConfigurationKeys.CONTAINER_PROFILES_KEY)) {
+      Preconditions.checkArgument(!DEFAULT_PROFILE_NAME.equals(name),
+          "Container profile name " + DEFAULT_PROFILE_NAME + " is reserved");
+      String prefix = GobblinYarnConfigurationKeys.CONTAINER_PROFILE_PREFIX + name + ".";
+      Preconditions.checkArgument(config.hasPath(prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_MEMORY_MBS)
+              && config.hasPath(prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_CORES),
+          "Container profile " + name + " needs both memory and cores to be set");
+
+      int minContainers = ConfigUtils.getInt(config,
+          prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_MIN_CONTAINERS,
+          GobblinYarnConfigurationKeys.DEFAULT_CONTAINER_PROFILE_MIN_CONTAINERS);
+      int maxContainers = ConfigUtils.getInt(config,
+          prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_MAX_CONTAINERS,
+          GobblinYarnConfigurationKeys.DEFAULT_CONTAINER_PROFILE_MAX_CONTAINERS);
+      Preconditions.checkArgument(minContainers >= 0 && maxContainers >= minContainers,
+          "Container profile " + name + " needs 0 <= minContainers <= maxContainers");
+
+      profiles.add(new YarnContainerProfile(name,
+          config.getInt(prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_MEMORY_MBS),
+          config.getInt(prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_CORES),
+          ++priority, minContainers, maxContainers,
+          ConfigUtils.getInt(config, prefix + GobblinYarnConfigurationKeys.CONTAINER_PROFILE_MAX_IDLE_TIME_MINUTES,
+              GobblinYarnConfigurationKeys.DEFAULT_CONTAINER_PROFILE_MAX_IDLE_TIME_MINUTES)));
+    }
+
+    return profiles;
+  }
+}
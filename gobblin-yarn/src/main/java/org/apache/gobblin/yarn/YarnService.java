@@ -190,6 +190,18 @@ public class YarnService extends AbstractIdleService {
   // instance names get picked up when replacement containers get allocated.
   private final Set<String> unusedHelixInstanceNames = ConcurrentHashMap.newKeySet();
 
+  // The profile built from the top level container memory and cores settings, plus any additional profiles keyed by
+  // the Yarn priority they are requested with
+  private final YarnContainerProfile defaultProfile;
+  private final Map<Integer, YarnContainerProfile> profilesByPriority = new HashMap<>();
+
+  // A map from container IDs to the profiles the containers were requested for
+  private final ConcurrentMap<ContainerId, YarnContainerProfile> containerProfiles = Maps.newConcurrentMap();
+
+  // A map from Helix instance names to the name of the profile of the last container that ran the instance. Helix
+  // instance tags are only ever added to an instance, so an unused instance name is only reused by the same profile.
+  private final ConcurrentMap<String, String> helixInstanceProfileNames = Maps.newConcurrentMap();
+
   private volatile boolean shutdownInProgress = false;
 
   // The number of containers requested based on the desired target number of containers. This is used to determine
@@ -197,9 +209,8 @@ public class YarnService extends AbstractIdleService {
   // are waiting for containers to be allocated.
   // The currently allocated amount may also be higher than this amount if YARN returned more than the requested number
   // of containers.
-  @VisibleForTesting
-  @Getter(AccessLevel.PROTECTED)
-  private int numRequestedContainers = 0;
+  // This is tracked per container profile name.
+  private final Map<String, Integer> numRequestedContainers = new HashMap<>();
 
   public YarnService(Config config, String applicationName, String applicationId, YarnConfiguration yarnConfiguration,
       FileSystem fs, EventBus eventBus, HelixManager helixManager) throws Exception {
@@ -233,6 +244,13 @@ public class YarnService extends AbstractIdleService {
     this.initialContainers = config.getInt(GobblinYarnConfigurationKeys.INITIAL_CONTAINERS_KEY);
     this.requestedContainerMemoryMbs = config.getInt(GobblinYarnConfigurationKeys.CONTAINER_MEMORY_MBS_KEY);
     this.requestedContainerCores = config.getInt(GobblinYarnConfigurationKeys.CONTAINER_CORES_KEY);
+    this.defaultProfile = new YarnContainerProfile(YarnContainerProfile.DEFAULT_PROFILE_NAME,
+        this.requestedContainerMemoryMbs, this.requestedContainerCores, YarnContainerProfile.DEFAULT_PROFILE_PRIORITY,
+        0, Integer.MAX_VALUE, GobblinYarnConfigurationKeys.DEFAULT_CONTAINER_PROFILE_MAX_IDLE_TIME_MINUTES);
+    this.profilesByPriority.put(this.defaultProfile.getPriority(), this.defaultProfile);
+    for (YarnContainerProfile profile : YarnContainerProfile.parseAdditionalProfiles(config)) {
+      this.profilesByPriority.put(profile.getPriority(), profile);
+    }
     this.containerHostAffinityEnabled = config.getBoolean(GobblinYarnConfigurationKeys.CONTAINER_HOST_AFFINITY_ENABLED);
 
     this.helixInstanceMaxRetries = config.getInt(GobblinYarnConfigurationKeys.HELIX_INSTANCE_MAX_RETRIES);
@@ -293,7 +311,7 @@ public class YarnService extends AbstractIdleService {
       public String apply(Container container) {
         return container.getNodeId().getHost();
       }
-    }));
+    }), getProfile(newContainerRequest.getProfileName().orNull()));
   }
 
   protected NMClientCallbackHandler getNMClientCallbackHandler() {
@@ -421,8 +439,17 @@ public class YarnService extends AbstractIdleService {
   }
 
   /**
-   * Request an allocation of containers. If numTargetContainers is larger than the max of current and expected number
-   * of containers then additional containers are requested.
+   * Request an allocation of containers of the default profile.
+   *
+   * @see #requestTargetNumberOfContainers(YarnContainerProfile, int, Set)
+   */
+  public synchronized void requestTargetNumberOfContainers(int numTargetContainers, Set<String> inUseInstances) {
+    requestTargetNumberOfContainers(this.defaultProfile, numTargetContainers, inUseInstances);
+  }
+
+  /**
+   * Request an allocation of containers of the given profile. If numTargetContainers is larger than the max of current
+   * and expected number of containers of the profile then additional containers are requested.
    *
    * If numTargetContainers is less than the current number of allocated containers then release free containers.
    * Shrinking is relative to the number of currently allocated containers since it takes time for containers
@@ -431,27 +458,37 @@ public class YarnService extends AbstractIdleService {
    * number of containers. The intended usage is for the caller of this method to make periodic calls to attempt to
    * adjust the cluster towards the desired number of containers.
    *
-   * @param numTargetContainers the desired number of containers
+   * Containers of other profiles are neither counted nor released.
+   *
+   * @param profile the profile of the containers
+   * @param numTargetContainers the desired number of containers of the profile
    * @param inUseInstances  a set of in use instances
    */
-  public synchronized void requestTargetNumberOfContainers(int numTargetContainers, Set<String> inUseInstances) {
-    LOGGER.debug("Requesting numTargetContainers {} current numRequestedContainers {} in use instances {} map size {}",
-        numTargetContainers, this.numRequestedContainers, inUseInstances, this.containerMap.size());
+  public synchronized void requestTargetNumberOfContainers(YarnContainerProfile profile, int numTargetContainers,
+      Set<String> inUseInstances) {
+    // Callers may pass an equal profile parsed from the same config, so resolve it to the one tracked here
+    profile = getProfile(profile.getName());
+    int numRequested = this.numRequestedContainers.getOrDefault(profile.getName(), 0);
+    List<Map.Entry<Container, String>> allocatedContainers = getAllocatedContainers(profile);
+
+    LOGGER.debug("Requesting numTargetContainers {} of profile {} current numRequestedContainers {} "
+        + "in use instances {} allocated {}", numTargetContainers, profile.getName(), numRequested, inUseInstances,
+        allocatedContainers.size());
 
     // YARN can allocate more than the requested number of containers, compute additional allocations and deallocations
     // based on the max of the requested and actual allocated counts
-    int numAllocatedContainers = this.containerMap.size();
+    int numAllocatedContainers = allocatedContainers.size();
 
     // The number of allocated containers may be higher than the previously requested amount
     // and there may be outstanding allocation requests, so the max of both counts is computed here
     // and used to decide whether to allocate containers.
-    int numContainers = Math.max(numRequestedContainers, numAllocatedContainers);
+    int numContainers = Math.max(numRequested, numAllocatedContainers);
 
     // Request additional containers if the desired count is higher than the max of the current allocation or previously
     // requested amount. Note that there may be in-flight or additional allocations after numContainers has been computed
     // so overshooting can occur, but periodic calls to this method will make adjustments towards the target.
     for (int i = numContainers; i < numTargetContainers; i++) {
-      requestContainer(Optional.<String>absent());
+      requestContainer(Optional.<String>absent(), profile);
     }
 
     // If the total desired is lower than the currently allocated amount then release free containers.
@@ -459,15 +496,16 @@ public class YarnService extends AbstractIdleService {
     // and assigned work. Resizing based on numRequestedContainers at this point may release a container right before
     // or soon after it is assigned work.
     if (numTargetContainers < numAllocatedContainers) {
-      LOGGER.debug("Shrinking number of containers by {}", (numAllocatedContainers - numTargetContainers));
+      LOGGER.debug("Shrinking number of containers of profile {} by {}", profile.getName(),
+          (numAllocatedContainers - numTargetContainers));
 
       List<Container> containersToRelease = new ArrayList<>();
       int numToShutdown = numContainers - numTargetContainers;
 
       // Look for eligible containers to release. If a container is in use then it is not released.
-      for (Map.Entry<ContainerId, Map.Entry<Container, String>> entry : this.containerMap.entrySet()) {
-        if (!inUseInstances.contains(entry.getValue().getValue())) {
-          containersToRelease.add(entry.getValue().getKey());
+      for (Map.Entry<Container, String> entry : allocatedContainers) {
+        if (!inUseInstances.contains(entry.getValue())) {
+          containersToRelease.add(entry.getKey());
         }
 
         if (containersToRelease.size() == numToShutdown) {
@@ -480,24 +518,70 @@ public class YarnService extends AbstractIdleService {
       this.eventBus.post(new ContainerReleaseRequest(containersToRelease));
     }
 
-    this.numRequestedContainers = numTargetContainers;
+    this.numRequestedContainers.put(profile.getName(), numTargetContainers);
+  }
+
+  /**
+   * @return the number of requested containers of the default profile
+   */
+  @VisibleForTesting
+  protected synchronized int getNumRequestedContainers() {
+    return getNumRequestedContainers(this.defaultProfile);
+  }
+
+  @VisibleForTesting
+  protected synchronized int getNumRequestedContainers(YarnContainerProfile profile) {
+    return this.numRequestedContainers.getOrDefault(profile.getName(), 0);
+  }
+
+  /**
+   * Get the name of the profile of the container running the given Helix instance.
+   * @return the profile name, or null if the instance has not been run by any container of this application
+   */
+  public String getContainerProfileName(String helixInstanceName) {
+    return this.helixInstanceProfileNames.get(helixInstanceName);
+  }
+
+  private List<Map.Entry<Container, String>> getAllocatedContainers(YarnContainerProfile profile) {
+    List<Map.Entry<Container, String>> allocatedContainers = new ArrayList<>();
+    for (Map.Entry<ContainerId, Map.Entry<Container, String>> entry : this.containerMap.entrySet()) {
+      if (this.containerProfiles.getOrDefault(entry.getKey(), this.defaultProfile).equals(profile)) {
+        allocatedContainers.add(entry.getValue());
+      }
+    }
+    return allocatedContainers;
+  }
+
+  private YarnContainerProfile getProfile(String profileName) {
+    if (profileName != null) {
+      for (YarnContainerProfile profile : this.profilesByPriority.values()) {
+        if (profile.getName().equals(profileName)) {
+          return profile;
+        }
+      }
+      LOGGER.warn("Unknown container profile {}, using the default profile", profileName);
+    }
+    return this.defaultProfile;
+  }
+
+  private YarnContainerProfile getProfile(Priority priority) {
+    YarnContainerProfile profile = priority == null ? null : this.profilesByPriority.get(priority.getPriority());
+    return profile == null ? this.defaultProfile : profile;
   }
 
   private void requestInitialContainers(int containersRequested) {
     requestTargetNumberOfContainers(containersRequested, Collections.EMPTY_SET);
   }
 
-  private void requestContainer(Optional<String> preferredNode) {
+  private void requestContainer(Optional<String> preferredNode, YarnContainerProfile profile) {
     Priority priority = Records.newRecord(Priority.class);
-    priority.setPriority(0);
+    priority.setPriority(profile.getPriority());
 
     Resource capability = Records.newRecord(Resource.class);
     int maxMemoryCapacity = this.maxResourceCapacity.get().getMemory();
-    capability.setMemory(this.requestedContainerMemoryMbs <= maxMemoryCapacity ?
-        this.requestedContainerMemoryMbs : maxMemoryCapacity);
+    capability.setMemory(profile.getMemoryMbs() <= maxMemoryCapacity ? profile.getMemoryMbs() : maxMemoryCapacity);
     int maxCoreCapacity = this.maxResourceCapacity.get().getVirtualCores();
-    capability.setVirtualCores(this.requestedContainerCores <= maxCoreCapacity ?
-        this.requestedContainerCores : maxCoreCapacity);
+    capability.setVirtualCores(profile.getCores() <= maxCoreCapacity ? profile.getCores() : maxCoreCapacity);
 
     String[] preferredNodes = preferredNode.isPresent() ? new String[] {preferredNode.get()} : null;
     this.amrmClientAsync.addContainerRequest(
@@ -598,9 +682,12 @@ public class YarnService extends AbstractIdleService {
         .append(" --").append(GobblinClusterConfigurationKeys.HELIX_INSTANCE_NAME_OPTION_NAME)
         .append(" ").append(helixInstanceName);
 
-    if (!Strings.isNullOrEmpty(this.helixInstanceTags)) {
+    // Containers of an additional profile are tagged with the profile name so only jobs of that profile run on them
+    YarnContainerProfile profile = this.containerProfiles.getOrDefault(container.getId(), this.defaultProfile);
+    String instanceTags = profile.isDefault() ? this.helixInstanceTags : profile.getName();
+    if (!Strings.isNullOrEmpty(instanceTags)) {
       containerCommand.append(" --").append(GobblinClusterConfigurationKeys.HELIX_INSTANCE_TAGS_OPTION_NAME)
-          .append(" ").append(helixInstanceTags);
+          .append(" ").append(instanceTags);
     }
     return containerCommand.append(" 1>").append(ApplicationConstants.LOG_DIR_EXPANSION_VAR).append(File.separator).append(
           containerProcessName).append(".").append(ApplicationConstants.STDOUT)
@@ -641,6 +728,8 @@ public class YarnService extends AbstractIdleService {
    */
   protected void handleContainerCompletion(ContainerStatus containerStatus) {
     Map.Entry<Container, String> completedContainerEntry = this.containerMap.remove(containerStatus.getContainerId());
+    YarnContainerProfile completedProfile =
+        Optional.fromNullable(this.containerProfiles.remove(containerStatus.getContainerId())).or(this.defaultProfile);
     //Get the Helix instance name for the completed container. Because callbacks are processed asynchronously, we might
     //encounter situations where handleContainerCompletion() is called before onContainersAllocated(), resulting in the
     //containerId missing from the containersMap.
@@ -718,7 +807,8 @@ public class YarnService extends AbstractIdleService {
     LOGGER.info(String.format("Requesting a new container to replace %s to run Helix instance %s", containerStatus.getContainerId(), completedInstanceName));
     this.eventBus.post(new NewContainerRequest(
         shouldStickToTheSameNode(containerStatus.getExitStatus()) && completedContainerEntry != null ?
-            Optional.of(completedContainerEntry.getKey()) : Optional.<Container>absent()));
+            Optional.of(completedContainerEntry.getKey()) : Optional.<Container>absent(),
+        Optional.of(completedProfile.getName())));
   }
 
   private ImmutableMap.Builder<String, String> buildContainerStatusEventMetadata(ContainerStatus containerStatus) {
@@ -760,7 +850,9 @@ public class YarnService extends AbstractIdleService {
               GobblinYarnMetricTagNames.CONTAINER_ID, container.getId().toString());
         }
 
-        LOGGER.info(String.format("Container %s has been allocated", container.getId()));
+        final YarnContainerProfile profile = getProfile(container.getPriority());
+        LOGGER.info(String.format("Container %s of profile %s has been allocated", container.getId(),
+            profile.getName()));
 
         //Iterate over the (thread-safe) set of unused instances to find the first instance that is not currently live.
         //Once we find a candidate instance, it is removed from the set.
@@ -772,7 +864,10 @@ public class YarnService extends AbstractIdleService {
           Iterator<String> iterator = unusedHelixInstanceNames.iterator();
           while (iterator.hasNext()) {
             instanceName = iterator.next();
-            if (!HelixUtils.isInstanceLive(helixManager, instanceName)) {
+            if (!profile.getName().equals(helixInstanceProfileNames.get(instanceName))) {
+              // The instance carries the Helix tags of another profile
+              instanceName = null;
+            } else if (!HelixUtils.isInstanceLive(helixManager, instanceName)) {
               iterator.remove();
               LOGGER.info("Found an unused instance {}", instanceName);
               break;
@@ -790,6 +885,8 @@ public class YarnService extends AbstractIdleService {
         }
 
         final String finalInstanceName = instanceName;
+        helixInstanceProfileNames.put(finalInstanceName, profile.getName());
+        containerProfiles.put(container.getId(), profile);
         containerMap.put(container.getId(), new AbstractMap.SimpleImmutableEntry<>(container, finalInstanceName));
 
         // Find matching requests and remove the request to reduce the chance that a subsequent request
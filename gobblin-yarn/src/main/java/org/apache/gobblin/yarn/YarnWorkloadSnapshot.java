@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.yarn;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.apache.gobblin.cluster.ScheduledJobForecast;
+
+
+/**
+ * The workload of one {@link YarnContainerProfile} observed by the {@link YarnAutoScalingManager} in a single poll,
+ * as input to a {@link YarnAutoScalingPolicy}.
+ */
+@Getter
+@AllArgsConstructor
+public class YarnWorkloadSnapshot {
+  private final long timestampMillis;
+  // All Helix partitions of the in progress jobs, including the ones that have already finished
+  private final int numPartitions;
+  // Helix partitions of the in progress jobs that are queued or running
+  private final int numPendingPartitions;
+  // Gobblin job names of the in progress Helix workflows
+  private final Set<String> activeJobNames;
+  @Getter(AccessLevel.NONE)
+  private final Function<Long, List<ScheduledJobForecast>> scheduledJobs;
+
+  /**
+   * Get the scheduled jobs of this profile that fire within the given horizon.
+   */
+  public List<ScheduledJobForecast> getScheduledJobs(long horizonMillis) {
+    return this.scheduledJobs.apply(horizonMillis);
+  }
+}
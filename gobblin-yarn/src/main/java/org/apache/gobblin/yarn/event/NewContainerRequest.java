@@ -30,9 +30,15 @@ import com.google.common.base.Optional;
 public class NewContainerRequest {
 
   private final Optional<Container> replacedContainer;
+  private final Optional<String> profileName;
 
   public NewContainerRequest(Optional<Container> replacedContainer) {
+    this(replacedContainer, Optional.<String>absent());
+  }
+
+  public NewContainerRequest(Optional<Container> replacedContainer, Optional<String> profileName) {
     this.replacedContainer = replacedContainer;
+    this.profileName = profileName;
   }
 
   /**
@@ -43,4 +49,14 @@ public class NewContainerRequest {
   public Optional<Container> getReplacedContainer() {
     return this.replacedContainer;
   }
+
+  /**
+   * Get (optionally) the name of the {@link org.apache.gobblin.yarn.YarnContainerProfile} of the new container.
+   * The default profile is used if absent.
+   *
+   * @return an {@link Optional} of the profile name
+   */
+  public Optional<String> getProfileName() {
+    return this.profileName;
+  }
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.yarn;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.task.JobContext;
+import org.apache.helix.task.JobDag;
+import org.apache.helix.task.TaskDriver;
+import org.apache.helix.task.TaskPartitionState;
+import org.apache.helix.task.TaskState;
+import org.apache.helix.task.WorkflowConfig;
+import org.apache.helix.task.WorkflowContext;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.gobblin.cluster.ScheduledJobForecast;
+
+import static org.mockito.Mockito.mock;
+
+
+/**
+ * Unit tests for {@link PredictiveAutoScalingPolicy}
+ */
+@Test(groups = { "gobblin.yarn" })
+public class PredictiveAutoScalingPolicyTest {
+  private static final long MINUTE = 60 * 1000L;
+
+  private static YarnWorkloadSnapshot snapshot(long timestampMillis, int numPendingPartitions,
+      List<ScheduledJobForecast> scheduledJobs, String... activeJobNames) {
+    return new YarnWorkloadSnapshot(timestampMillis, numPendingPartitions, numPendingPartitions,
+        ImmutableSet.copyOf(activeJobNames),
+        horizonMillis -> scheduledJobs.stream()
+            .filter(job -> job.getNextFireTimeMillis() - timestampMillis <= horizonMillis)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testPrewarmUpcomingJobs() {
+    PredictiveAutoScalingPolicy policy = new PredictiveAutoScalingPolicy(1, 1.0, 5 * MINUTE, 2 * MINUTE, 0);
+    long now = 100 * MINUTE;
+    List<ScheduledJobForecast> scheduledJobs = ImmutableList.of(
+        // fires within the lead time
+        new ScheduledJobForecast("hourly", now + 3 * MINUTE, null, 8, 30 * MINUTE),
+        // too far ahead
+        new ScheduledJobForecast("daily", now + 60 * MINUTE, null, 20, 60 * MINUTE),
+        // too short to benefit from pre-warming
+        new ScheduledJobForecast("short", now + MINUTE, null, 5, 30 * 1000L),
+        // never committed, so the number of tasks is unknown
+        new ScheduledJobForecast("new", now + MINUTE, null, ScheduledJobForecast.UNKNOWN,
+            ScheduledJobForecast.UNKNOWN));
+
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(now, 2, scheduledJobs), 1, 100), 10);
+
+    // A job that is already running is counted by its partitions only
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(now, 2, scheduledJobs, "hourly"), 1, 100), 2);
+
+    // Bounded by the max containers
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(now, 2, scheduledJobs), 1, 4), 4);
+  }
+
+  @Test
+  public void testScaleDownDelay() {
+    PredictiveAutoScalingPolicy policy = new PredictiveAutoScalingPolicy(2, 1.0, 0, 0, 2 * MINUTE);
+    List<ScheduledJobForecast> noJobs = Collections.emptyList();
+
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(0, 20, noJobs), 1, 100), 10);
+    // The target is held within the delay
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(MINUTE, 4, noJobs), 1, 100), 10);
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(2 * MINUTE, 0, noJobs), 1, 100), 10);
+    // and released as soon as the delay has passed, without waiting for a window of polls
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(2 * MINUTE + 1, 0, noJobs), 1, 100), 2);
+    Assert.assertEquals(policy.getTargetNumberOfContainers(snapshot(3 * MINUTE + 2, 0, noJobs), 1, 100), 1);
+  }
+
+  /**
+   * Drive the {@link YarnAutoScalingManager.YarnAutoScalingRunnable} against a simulated {@link YarnService} to check
+   * that finished partitions are not counted and upcoming jobs are pre-warmed.
+   */
+  @Test
+  public void testWithSimulatedYarnService() {
+    YarnService mockYarnService = mock(YarnService.class);
+    TaskDriver mockTaskDriver = mock(TaskDriver.class);
+    WorkflowConfig mockWorkflowConfig = mock(WorkflowConfig.class);
+    JobDag mockJobDag = mock(JobDag.class);
+
+    Mockito.when(mockJobDag.getAllNodes()).thenReturn(ImmutableSet.of("job_hourly_1000_job1"));
+    Mockito.when(mockWorkflowConfig.getJobDag()).thenReturn(mockJobDag);
+    Mockito.when(mockTaskDriver.getWorkflows()).thenReturn(ImmutableMap.of("job_hourly_1000", mockWorkflowConfig));
+
+    WorkflowContext mockWorkflowContext = mock(WorkflowContext.class);
+    Mockito.when(mockWorkflowContext.getWorkflowState()).thenReturn(TaskState.IN_PROGRESS);
+    Mockito.when(mockTaskDriver.getWorkflowContext("job_hourly_1000")).thenReturn(mockWorkflowContext);
+
+    // 2 of 5 partitions have completed
+    JobContext mockJobContext = mock(JobContext.class);
+    Mockito.when(mockJobContext.getPartitionSet()).thenReturn(ImmutableSet.of(1, 2, 3, 4, 5));
+    Mockito.when(mockJobContext.getPartitionState(1)).thenReturn(TaskPartitionState.COMPLETED);
+    Mockito.when(mockJobContext.getPartitionState(2)).thenReturn(TaskPartitionState.COMPLETED);
+    Mockito.when(mockJobContext.getPartitionState(3)).thenReturn(TaskPartitionState.RUNNING);
+    Mockito.when(mockJobContext.getAssignedParticipant(3)).thenReturn("GobblinYarnTaskRunner-1");
+    Mockito.when(mockTaskDriver.getJobContext("job_hourly_1000_job1")).thenReturn(mockJobContext);
+
+    HelixDataAccessor helixDataAccessor = mock(HelixDataAccessor.class);
+    Mockito.when(helixDataAccessor.keyBuilder()).thenReturn(new PropertyKey.Builder("cluster"));
+    Mockito.when(helixDataAccessor.getChildValuesMap(Mockito.any())).thenReturn(ImmutableMap.of());
+
+    long now = System.currentTimeMillis();
+    List<ScheduledJobForecast> scheduledJobs = ImmutableList.of(
+        // the running job fires again soon but is already counted
+        new ScheduledJobForecast("hourly", now + MINUTE, null, 5, 30 * MINUTE),
+        new ScheduledJobForecast("compaction", now + 2 * MINUTE, null, 4, 30 * MINUTE));
+
+    YarnAutoScalingManager.YarnAutoScalingRunnable runnable =
+        new YarnAutoScalingManager.YarnAutoScalingRunnable(mockTaskDriver, mockYarnService, 1, 10, helixDataAccessor,
+            new PredictiveAutoScalingPolicy(1, 1.0, 5 * MINUTE, MINUTE, 0), Collections.emptyMap(),
+            horizonMillis -> scheduledJobs);
+
+    runnable.run();
+
+    // 3 pending partitions of the running job and 4 partitions of the upcoming compaction job
+    Mockito.verify(mockYarnService).requestTargetNumberOfContainers(7, ImmutableSet.of("GobblinYarnTaskRunner-1"));
+  }
+}
@@ -18,10 +18,13 @@
 package org.apache.gobblin.yarn;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixProperty;
 import org.apache.helix.PropertyKey;
+import org.apache.helix.task.JobConfig;
 import org.apache.helix.task.JobContext;
 import org.apache.helix.task.JobDag;
 import org.apache.helix.task.TaskDriver;
@@ -34,6 +37,8 @@ import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -141,6 +146,78 @@ public class YarnAutoScalingManagerTest {
         .requestTargetNumberOfContainers(3, ImmutableSet.of("GobblinYarnTaskRunner-1", "GobblinYarnTaskRunner-2"));
   }
 
+  /**
+   * Test for one workflow with two jobs of different container profiles
+   */
+  @Test
+  public void testContainerProfiles() throws IOException {
+    Config config = ConfigFactory.parseMap(ImmutableMap.<String, Object>builder()
+        .put(GobblinYarnConfigurationKeys.CONTAINER_PROFILES_KEY, "highMem")
+        .put(GobblinYarnConfigurationKeys.CONTAINER_PROFILE_PREFIX + "highMem.memory.mbs", 16384)
+        .put(GobblinYarnConfigurationKeys.CONTAINER_PROFILE_PREFIX + "highMem.cores", 2)
+        .put(GobblinYarnConfigurationKeys.CONTAINER_PROFILE_PREFIX + "highMem.maxContainers", 5)
+        .build());
+    List<YarnContainerProfile> profiles = YarnContainerProfile.parseAdditionalProfiles(config);
+    Assert.assertEquals(profiles.size(), 1);
+    YarnContainerProfile highMem = profiles.get(0);
+    Assert.assertEquals(highMem.getMemoryMbs(), 16384);
+    Assert.assertEquals(highMem.getPriority(), 1);
+    Assert.assertEquals(highMem.getMinContainers(), 0);
+
+    YarnService mockYarnService = mock(YarnService.class);
+    TaskDriver mockTaskDriver = mock(TaskDriver.class);
+    WorkflowConfig mockWorkflowConfig = mock(WorkflowConfig.class);
+    JobDag mockJobDag = mock(JobDag.class);
+
+    Mockito.when(mockJobDag.getAllNodes()).thenReturn(ImmutableSet.of("job1", "job2"));
+    Mockito.when(mockWorkflowConfig.getJobDag()).thenReturn(mockJobDag);
+
+    Mockito.when(mockTaskDriver.getWorkflows())
+        .thenReturn(ImmutableMap.of("workflow1", mockWorkflowConfig));
+
+    WorkflowContext mockWorkflowContext = mock(WorkflowContext.class);
+    Mockito.when(mockWorkflowContext.getWorkflowState()).thenReturn(TaskState.IN_PROGRESS);
+
+    Mockito.when(mockTaskDriver.getWorkflowContext("workflow1")).thenReturn(mockWorkflowContext);
+
+    JobContext mockJobContext1 = mock(JobContext.class);
+    Mockito.when(mockJobContext1.getPartitionSet())
+        .thenReturn(ImmutableSet.of(Integer.valueOf(1), Integer.valueOf(2)));
+    Mockito.when(mockJobContext1.getAssignedParticipant(2)).thenReturn("GobblinYarnTaskRunner-1");
+    Mockito.when(mockTaskDriver.getJobContext("job1")).thenReturn(mockJobContext1);
+
+    JobContext mockJobContext2 = mock(JobContext.class);
+    Mockito.when(mockJobContext2.getPartitionSet())
+        .thenReturn(ImmutableSet.of(Integer.valueOf(3), Integer.valueOf(4), Integer.valueOf(5)));
+    Mockito.when(mockJobContext2.getAssignedParticipant(3)).thenReturn("GobblinYarnTaskRunner-2");
+    Mockito.when(mockTaskDriver.getJobContext("job2")).thenReturn(mockJobContext2);
+
+    JobConfig mockJobConfig2 = mock(JobConfig.class);
+    Mockito.when(mockJobConfig2.getInstanceGroupTag()).thenReturn("highMem");
+    Mockito.when(mockTaskDriver.getJobConfig("job2")).thenReturn(mockJobConfig2);
+
+    HelixDataAccessor helixDataAccessor = mock(HelixDataAccessor.class);
+    Mockito.when(helixDataAccessor.keyBuilder()).thenReturn(new PropertyKey.Builder("cluster"));
+    Mockito.when(helixDataAccessor.getChildValuesMap(Mockito.any()))
+        .thenReturn(ImmutableMap.of("GobblinYarnTaskRunner-1", new HelixProperty(""),
+            "GobblinYarnTaskRunner-2", new HelixProperty("")));
+
+    YarnAutoScalingManager.YarnAutoScalingRunnable runnable =
+        new YarnAutoScalingManager.YarnAutoScalingRunnable(mockTaskDriver, mockYarnService, 1, 10,
+            helixDataAccessor, new ReactiveAutoScalingPolicy(1, 1.0, noopQueue),
+            ImmutableMap.of(highMem, new ReactiveAutoScalingPolicy(1, 1.0,
+                new YarnAutoScalingManager.SlidingWindowReservoir(1, Integer.MAX_VALUE))),
+            horizonMillis -> Collections.emptyList());
+
+    runnable.run();
+
+    // 2 default containers and 3 highMem containers requested, each profile only counting the partitions of its jobs
+    Mockito.verify(mockYarnService, times(1))
+        .requestTargetNumberOfContainers(2, ImmutableSet.of("GobblinYarnTaskRunner-1", "GobblinYarnTaskRunner-2"));
+    Mockito.verify(mockYarnService, times(1)).requestTargetNumberOfContainers(highMem, 3,
+        ImmutableSet.of("GobblinYarnTaskRunner-1", "GobblinYarnTaskRunner-2"));
+  }
+
   /**
    * Test for two workflows
    */